@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.jmh;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.impl.StandardFileSystemManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Opening zip and tar archives, which builds the index of their entries, and reading one entry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArchiveBenchmark {
+    @Param({ "zip", "tar", "tgz" })
+    private String format;
+
+    @Param({ "10000" })
+    private int entries;
+
+    private StandardFileSystemManager manager;
+
+    private File archive;
+
+    private String uri;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        manager = new StandardFileSystemManager();
+        manager.init();
+
+        archive = File.createTempFile("vfs-jmh", "." + format);
+        switch (format) {
+        case "zip":
+            writeZip(archive);
+            break;
+        case "tar":
+            writeTar(Files.newOutputStream(archive.toPath()));
+            break;
+        default:
+            writeTar(new GZIPOutputStream(new FileOutputStream(archive)));
+            break;
+        }
+        uri = format + ":" + archive.toURI() + "!/";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        manager.close();
+        archive.delete();
+    }
+
+    /**
+     * Opens the archive and lists its root, then closes it so that the next invocation builds the index again.
+     */
+    @Benchmark
+    public int openArchive() throws FileSystemException {
+        final FileObject root = manager.resolveFile(uri);
+        try {
+            return root.getChildren().length;
+        } finally {
+            manager.closeFileSystem(root.getFileSystem());
+        }
+    }
+
+    /**
+     * Opens the archive and reads its last entry.
+     */
+    @Benchmark
+    public long openArchiveAndReadLastEntry() throws FileSystemException {
+        final FileObject root = manager.resolveFile(uri);
+        try {
+            return root.resolveFile(entryName(entries - 1)).getContent().getSize();
+        } finally {
+            manager.closeFileSystem(root.getFileSystem());
+        }
+    }
+
+    private void writeZip(final File file) throws IOException {
+        try (final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+            for (int i = 0; i < entries; i++) {
+                final byte[] content = content(i);
+                out.putNextEntry(new ZipEntry(entryName(i)));
+                out.write(content);
+                out.closeEntry();
+            }
+        }
+    }
+
+    private void writeTar(final OutputStream stream) throws IOException {
+        try (final TarArchiveOutputStream out = new TarArchiveOutputStream(stream)) {
+            for (int i = 0; i < entries; i++) {
+                final byte[] content = content(i);
+                final TarArchiveEntry entry = new TarArchiveEntry(entryName(i));
+                entry.setSize(content.length);
+                out.putArchiveEntry(entry);
+                out.write(content);
+                out.closeArchiveEntry();
+            }
+        }
+    }
+
+    private static String entryName(final int i) {
+        return "folder" + i % 100 + "/file" + i + ".txt";
+    }
+
+    private static byte[] content(final int i) {
+        return ("content of file " + i).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.Selectors;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Read and write throughput of the RAM and local providers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ContentBenchmark {
+    @Param({ "ram", "file" })
+    private String scheme;
+
+    @Param({ "4096", "1048576" })
+    private int size;
+
+    private DefaultFileSystemManager manager;
+
+    private File tempDir;
+
+    private FileObject readFile;
+
+    private FileObject writeFile;
+
+    private byte[] data;
+
+    private final byte[] buffer = new byte[8192];
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.init();
+
+        final FileObject base;
+        if ("file".equals(scheme)) {
+            tempDir = Files.createTempDirectory("vfs-jmh").toFile();
+            base = manager.toFileObject(tempDir);
+        } else {
+            base = manager.resolveFile("ram:///content");
+        }
+
+        data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) i;
+        }
+        readFile = base.resolveFile("read.bin");
+        write(readFile);
+        writeFile = base.resolveFile("write.bin");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (tempDir != null) {
+            manager.toFileObject(tempDir).delete(Selectors.SELECT_ALL);
+        }
+        manager.close();
+    }
+
+    @Benchmark
+    public long read() throws IOException {
+        long count = 0;
+        try (final InputStream in = readFile.getContent().getInputStream()) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                count += n;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        write(writeFile);
+    }
+
+    private void write(final FileObject file) throws IOException {
+        try (final OutputStream out = file.getContent().getOutputStream()) {
+            out.write(data);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.jmh;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link DefaultFileSystemManager#resolveFile(String)} with each files cache, from several threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class FileSystemManagerBenchmark {
+    @Param({ "DefaultFilesCache", "SoftRefFilesCache", "WeakRefFilesCache", "LRUFilesCache", "TinyLfuFilesCache",
+            "NullFilesCache" })
+    private String filesCache;
+
+    @Param({ "1000" })
+    private int fileCount;
+
+    private DefaultFileSystemManager manager;
+
+    private String[] uris;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.setFilesCache(FilesCacheBenchmark.createFilesCache(filesCache));
+        manager.init();
+
+        uris = new String[fileCount];
+        for (int i = 0; i < fileCount; i++) {
+            final FileObject file = manager.resolveFile("ram:///bench/folder" + i % 10 + "/file" + i + ".txt");
+            file.createFile();
+            uris[i] = file.getName().getURI();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Benchmark
+    public FileObject resolveFile() throws FileSystemException {
+        return manager.resolveFile(uris[ThreadLocalRandom.current().nextInt(uris.length)]);
+    }
+
+    @Benchmark
+    public FileType resolveFileAndGetType() throws FileSystemException {
+        return manager.resolveFile(uris[ThreadLocalRandom.current().nextInt(uris.length)]).getType();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.jmh;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.FilesCache;
+import org.apache.commons.vfs2.cache.DefaultFilesCache;
+import org.apache.commons.vfs2.cache.LRUFilesCache;
+import org.apache.commons.vfs2.cache.NullFilesCache;
+import org.apache.commons.vfs2.cache.SoftRefFilesCache;
+import org.apache.commons.vfs2.cache.TinyLfuFilesCache;
+import org.apache.commons.vfs2.cache.WeakRefFilesCache;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Each {@link FilesCache} implementation, used directly under contention.
+ * <p>
+ * The files are looked up with a skewed distribution (a few hot files, many cold ones), and a fraction of the
+ * operations puts files, as a file system manager resolving new files would.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class FilesCacheBenchmark {
+    @Param({ "DefaultFilesCache", "SoftRefFilesCache", "WeakRefFilesCache", "LRUFilesCache", "TinyLfuFilesCache" })
+    private String filesCache;
+
+    @Param({ "10000" })
+    private int fileCount;
+
+    private DefaultFileSystemManager manager;
+
+    private FilesCache cache;
+
+    private FileSystem fileSystem;
+
+    private FileObject[] files;
+
+    /**
+     * Creates a files cache from its simple class name.
+     *
+     * @param name The simple class name of the cache.
+     * @return The cache.
+     */
+    static FilesCache createFilesCache(final String name) {
+        switch (name) {
+        case "DefaultFilesCache":
+            return new DefaultFilesCache();
+        case "SoftRefFilesCache":
+            return new SoftRefFilesCache();
+        case "WeakRefFilesCache":
+            return new WeakRefFilesCache();
+        case "LRUFilesCache":
+            return new LRUFilesCache();
+        case "TinyLfuFilesCache":
+            return new TinyLfuFilesCache();
+        case "NullFilesCache":
+            return new NullFilesCache();
+        default:
+            throw new IllegalArgumentException("Unknown files cache " + name);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        // the files are created through a manager that does not cache them
+        manager.setFilesCache(new NullFilesCache());
+        manager.init();
+
+        cache = createFilesCache(filesCache);
+        final FileObject root = manager.resolveFile("ram:///cache");
+        fileSystem = root.getFileSystem();
+        files = new FileObject[fileCount];
+        for (int i = 0; i < fileCount; i++) {
+            files[i] = root.resolveFile("file" + i);
+            cache.putFile(files[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cache.close();
+        manager.close();
+    }
+
+    /**
+     * Mostly looks up files, one operation in 16 puts one.
+     */
+    @Benchmark
+    public Object getOrPut() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        // a hot 1% of the files gets half of the lookups
+        final int index = random.nextBoolean() ? random.nextInt(Math.max(fileCount / 100, 1))
+                : random.nextInt(fileCount);
+        final FileObject file = files[index];
+        if ((random.nextInt() & 15) == 0) {
+            cache.putFile(file);
+            return file;
+        }
+        return cache.getFile(fileSystem, file.getName());
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.jmh;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileVisitor;
+import org.apache.commons.vfs2.Selectors;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.AbstractFileObject;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Traversals of a large RAM tree: {@code findFiles}, the lazy iterator and the parallel visitor.
+ * <p>
+ * The tree is refreshed before each traversal, so every folder is listed again.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FindFilesBenchmark {
+    /** The number of folders at each of the two levels of the tree. */
+    @Param({ "30" })
+    private int folders;
+
+    /** The number of files in each folder of the second level. */
+    @Param({ "100" })
+    private int files;
+
+    private DefaultFileSystemManager manager;
+
+    private AbstractFileObject<?> root;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.init();
+
+        root = (AbstractFileObject<?>) manager.resolveFile("ram:///tree");
+        for (int i = 0; i < folders; i++) {
+            for (int j = 0; j < folders; j++) {
+                final FileObject folder = root.resolveFile("folder" + i + "/folder" + j);
+                for (int k = 0; k < files; k++) {
+                    folder.resolveFile("file" + k + ".txt").createFile();
+                }
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void refresh() throws FileSystemException {
+        for (final FileObject file : root.findFiles(Selectors.SELECT_ALL)) {
+            file.refresh();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Benchmark
+    public int findFiles() throws FileSystemException {
+        return root.findFiles(Selectors.SELECT_ALL).length;
+    }
+
+    @Benchmark
+    public int iterateFiles() throws FileSystemException {
+        int count = 0;
+        final Iterator<FileObject> iterator = root.iterateFiles(Selectors.SELECT_ALL);
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int visitFilesParallel() throws FileSystemException {
+        final AtomicInteger count = new AtomicInteger();
+        root.visitFiles(Selectors.SELECT_ALL, new FileVisitor() {
+            @Override
+            public void visitFile(final FileObject file) {
+                count.incrementAndGet();
+            }
+        }, 4);
+        return count.get();
+    }
+}
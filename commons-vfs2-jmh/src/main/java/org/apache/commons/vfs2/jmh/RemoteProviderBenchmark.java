@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.impl.StandardFileSystemManager;
+import org.apache.commons.vfs2.provider.ftp.FtpFileSystemConfigBuilder;
+import org.apache.commons.vfs2.provider.sftp.SftpFileSystemConfigBuilder;
+import org.apache.ftpserver.FtpServer;
+import org.apache.ftpserver.FtpServerFactory;
+import org.apache.ftpserver.ftplet.Authority;
+import org.apache.ftpserver.ftplet.UserManager;
+import org.apache.ftpserver.listener.ListenerFactory;
+import org.apache.ftpserver.usermanager.PropertiesUserManagerFactory;
+import org.apache.ftpserver.usermanager.impl.BaseUser;
+import org.apache.ftpserver.usermanager.impl.WritePermission;
+import org.apache.sshd.SshServer;
+import org.apache.sshd.common.NamedFactory;
+import org.apache.sshd.server.Command;
+import org.apache.sshd.server.PasswordAuthenticator;
+import org.apache.sshd.server.filesystem.NativeFileSystemFactory;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.server.session.ServerSession;
+import org.apache.sshd.server.sftp.SftpSubsystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The FTP and SFTP providers against embedded servers on localhost (Apache FtpServer and Apache SSHd).
+ * <p>
+ * The round trips to localhost are much cheaper than to a real server, so these numbers mostly show the overhead of
+ * the provider and the number of round trips per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RemoteProviderBenchmark {
+    private static final String USER = "bench";
+
+    @Param({ "ftp", "sftp" })
+    private String scheme;
+
+    @Param({ "100" })
+    private int fileCount;
+
+    private File homeDir;
+
+    private FtpServer ftpServer;
+
+    private SshServer sshServer;
+
+    private StandardFileSystemManager manager;
+
+    private FileObject folder;
+
+    private FileObject file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        homeDir = Files.createTempDirectory("vfs-jmh").toFile();
+        final File folderDir = new File(homeDir, "folder");
+        folderDir.mkdir();
+        for (int i = 0; i < fileCount; i++) {
+            Files.write(new File(folderDir, "file" + i + ".txt").toPath(),
+                    ("content of file " + i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        final int port = findFreePort();
+        final FileSystemOptions opts = new FileSystemOptions();
+        final String uri;
+        if ("ftp".equals(scheme)) {
+            startFtpServer(port);
+            FtpFileSystemConfigBuilder.getInstance().setPassiveMode(opts, true);
+            uri = String.format("ftp://%s:%s@localhost:%d/folder", USER, USER, port);
+        } else {
+            startSshServer(port);
+            SftpFileSystemConfigBuilder.getInstance().setStrictHostKeyChecking(opts, "no");
+            SftpFileSystemConfigBuilder.getInstance().setUserDirIsRoot(opts, false);
+            uri = String.format("sftp://%s:%s@localhost:%d%s", USER, USER, port, folderDir.toURI().getRawPath());
+        }
+
+        manager = new StandardFileSystemManager();
+        manager.init();
+        folder = manager.resolveFile(uri, opts);
+        file = folder.resolveFile("file0.txt");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        manager.close();
+        if (ftpServer != null) {
+            ftpServer.stop();
+        }
+        if (sshServer != null) {
+            sshServer.stop(true);
+        }
+        for (final File child : new File(homeDir, "folder").listFiles()) {
+            child.delete();
+        }
+        new File(homeDir, "folder").delete();
+        homeDir.delete();
+    }
+
+    /**
+     * Lists the folder again.
+     */
+    @Benchmark
+    public int listFolder() throws IOException {
+        folder.refresh();
+        return folder.getChildren().length;
+    }
+
+    /**
+     * Lists the folder again and queries the type of each child, which should not cost a round trip per child.
+     */
+    @Benchmark
+    public int listFolderAndGetTypes() throws IOException {
+        folder.refresh();
+        int files = 0;
+        for (final FileObject child : folder.getChildren()) {
+            if (child.getType() == FileType.FILE) {
+                files++;
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Reads a small file.
+     */
+    @Benchmark
+    public int readFile() throws IOException {
+        file.refresh();
+        int count = 0;
+        try (final InputStream in = file.getContent().getInputStream()) {
+            while (in.read() != -1) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes a small file.
+     */
+    @Benchmark
+    public void writeFile() throws IOException {
+        try (final OutputStream out = folder.resolveFile("written.txt").getContent().getOutputStream()) {
+            out.write("written".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void startFtpServer(final int port) throws Exception {
+        final FtpServerFactory serverFactory = new FtpServerFactory();
+        final UserManager userManager = new PropertiesUserManagerFactory().createUserManager();
+        final BaseUser user = new BaseUser();
+        user.setName(USER);
+        user.setPassword(USER);
+        user.setHomeDirectory(homeDir.getAbsolutePath());
+        user.setAuthorities(Collections.<Authority>singletonList(new WritePermission()));
+        userManager.save(user);
+        serverFactory.setUserManager(userManager);
+
+        final ListenerFactory listenerFactory = new ListenerFactory();
+        listenerFactory.setPort(port);
+        serverFactory.addListener("default", listenerFactory.createListener());
+        ftpServer = serverFactory.createServer();
+        ftpServer.start();
+    }
+
+    private void startSshServer(final int port) throws IOException {
+        sshServer = SshServer.setUpDefaultServer();
+        sshServer.setPort(port);
+        sshServer.setKeyPairProvider(new SimpleGeneratorHostKeyProvider(new File(homeDir, "key.ser").getPath()));
+        sshServer.setSubsystemFactories(Collections.<NamedFactory<Command>>singletonList(new SftpSubsystem.Factory()));
+        sshServer.setFileSystemFactory(new NativeFileSystemFactory());
+        sshServer.setPasswordAuthenticator(new PasswordAuthenticator() {
+            @Override
+            public boolean authenticate(final String username, final String password, final ServerSession session) {
+                return USER.equals(username) && USER.equals(password);
+            }
+        });
+        sshServer.start();
+    }
+
+    private static int findFreePort() throws IOException {
+        try (final ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
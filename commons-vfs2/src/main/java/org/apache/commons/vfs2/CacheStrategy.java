@@ -34,7 +34,16 @@ public enum CacheStrategy {
      * Refresh the data every time you call a method on the fileObject. You'll use this only if you really need the
      * latest info as this setting is a major performance loss.
      */
-    ON_CALL("oncall");
+    ON_CALL("oncall"),
+
+    /**
+     * Refresh the data when it is older than the time to live set with
+     * {@link FileSystemConfigBuilder#setCacheTimeToLive(FileSystemOptions, long)}. Repeated calls within the time to
+     * live are served from the cache, which trades a bounded staleness for far fewer round trips than {@link #ON_CALL}.
+     *
+     * @since 2.3
+     */
+    ON_EXPIRY("onexpiry");
 
     /**
      * Cache strategy name
@@ -26,6 +26,12 @@ public abstract class FileSystemConfigBuilder {
     /** The root uri of the file system */
     private static final String ROOTURI = "rootURI";
 
+    /** The time to live of cached file data, see {@link CacheStrategy#ON_EXPIRY} */
+    private static final String CACHE_TIME_TO_LIVE = "cacheTimeToLive";
+
+    /** The default time to live of cached file data in milliseconds */
+    private static final long DEFAULT_CACHE_TIME_TO_LIVE = 1000;
+
     /** The prefix to use when resolving system properties */
     private final String prefix;
 
@@ -73,6 +79,34 @@ public abstract class FileSystemConfigBuilder {
         return getString(opts, ROOTURI);
     }
 
+    /**
+     * Sets how long the type, size, last modified time, attributes and children of a file are cached when the
+     * file system uses {@link CacheStrategy#ON_EXPIRY}.
+     * <p>
+     * The options are kept per builder, so each scheme can use its own time to live.
+     *
+     * @param opts the file system options to modify
+     * @param timeToLive The time to live in milliseconds.
+     *
+     * @since 2.3
+     */
+    public void setCacheTimeToLive(final FileSystemOptions opts, final long timeToLive) {
+        setParam(opts, CACHE_TIME_TO_LIVE, Long.valueOf(timeToLive));
+    }
+
+    /**
+     * Return the time to live of cached file data.
+     *
+     * @param opts file system options to work with
+     * @return The time to live in milliseconds, 1000 by default.
+     * @see #setCacheTimeToLive(FileSystemOptions, long)
+     *
+     * @since 2.3
+     */
+    public long getCacheTimeToLive(final FileSystemOptions opts) {
+        return getLong(opts, CACHE_TIME_TO_LIVE, DEFAULT_CACHE_TIME_TO_LIVE);
+    }
+
     /**
      * Set named parameter.
      *
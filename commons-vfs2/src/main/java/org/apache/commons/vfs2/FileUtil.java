@@ -20,6 +20,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
+import org.apache.commons.vfs2.util.ParallelFileCopier;
+
 /**
  * Utility methods for dealing with FileObjects.
  */
@@ -78,4 +80,21 @@ public final class FileUtil {
         srcFile.getContent().write(destFile);
     }
 
+    /**
+     * Copies the files selected below a source file to a destination file, using several threads.
+     *
+     * @param srcFile The source FileObject.
+     * @param selector Selects the files to copy.
+     * @param destFile The target FileObject.
+     * @param threads The number of threads copying file content.
+     * @throws FileSystemException If a file cannot be copied, the exception of each failed file is suppressed by the
+     *             exception thrown.
+     * @see ParallelFileCopier
+     * @since 2.3
+     */
+    public static void copyFiles(final FileObject srcFile, final FileSelector selector, final FileObject destFile,
+            final int threads) throws FileSystemException {
+        new ParallelFileCopier(threads).copy(srcFile, selector, destFile);
+    }
+
 }
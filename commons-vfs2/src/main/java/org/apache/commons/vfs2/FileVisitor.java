@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2;
+
+/**
+ * Receives the files selected while a file hierarchy is traversed.
+ *
+ * @see org.apache.commons.vfs2.provider.AbstractFileObject#visitFiles(FileSelector, FileVisitor, int)
+ * @since 2.3
+ */
+public interface FileVisitor {
+    /**
+     * Called for each selected file or folder, in depthwise order (that is, it is called for the selected children of a
+     * folder before it is called for the folder itself). When the hierarchy is traversed with several threads, this
+     * method is called concurrently for the files of different folders.
+     *
+     * @param file the selected file or folder.
+     * @throws Exception if an error occurs, this stops the traversal.
+     */
+    void visitFile(FileObject file) throws Exception;
+}
@@ -0,0 +1,546 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.VfsLog;
+import org.apache.commons.vfs2.util.Messages;
+
+/**
+ * A bounded cache using the W-TinyLFU eviction policy.
+ * <p>
+ * New files enter a small LRU window. Files falling out of the window are only admitted to the main area if they have
+ * been used more often recently (as estimated by a {@link FrequencySketch}) than the file that would be evicted for
+ * them. The main area is a segmented LRU which protects files that have been used more than once. This keeps the hit
+ * ratio high for large working sets, and one-off scans do not flush the cache like they do with {@link LRUFilesCache}.
+ * <p>
+ * Lookups never block: they read a {@link ConcurrentHashMap} and record the access in a buffer which is replayed
+ * against the eviction policy by whichever thread gets the policy lock next. Only additions and removals take that
+ * lock.
+ * <p>
+ * The budget is either shared by all file systems (the default) or applied to each file system separately. Every file
+ * weighs 1 unless {@link #weigh(FileObject)} is overridden. As with {@link LRUFilesCache}, files which are attached or
+ * have their content open are never evicted.
+ *
+ * @since 2.3
+ */
+public class TinyLfuFilesCache extends AbstractFilesCache {
+    /** The default maximum weight */
+    private static final long DEFAULT_MAXIMUM_WEIGHT = 10000;
+
+    /** Pending reads after which a reader tries to replay them. */
+    private static final int READ_BUFFER_DRAIN_THRESHOLD = 64;
+
+    /** Pending reads after which further reads are not recorded. */
+    private static final int READ_BUFFER_MAXIMUM = 1024;
+
+    /** Percentage of the maximum weight used for the admission window. */
+    private static final int WINDOW_PERCENT = 1;
+
+    /** Percentage of the main area used for the protected segment. */
+    private static final int PROTECTED_PERCENT = 80;
+
+    private static final int NONE = 0;
+    private static final int WINDOW = 1;
+    private static final int PROBATION = 2;
+    private static final int PROTECTED = 3;
+
+    /** The logger to use. */
+    private static final Log log = LogFactory.getLog(TinyLfuFilesCache.class);
+
+    /** The FileSystem cache */
+    private final ConcurrentMap<FileSystem, Segment> filesystemCache = new ConcurrentHashMap<>(10);
+
+    private final long maximumWeight;
+
+    /** The policy shared by all file systems, or {@code null} if each file system has its own. */
+    private final Policy sharedPolicy;
+
+    /**
+     * Default constructor. Uses a maximum weight of 10000 shared by all file systems.
+     */
+    public TinyLfuFilesCache() {
+        this(DEFAULT_MAXIMUM_WEIGHT);
+    }
+
+    /**
+     * Creates a cache with the given maximum weight shared by all file systems.
+     *
+     * @param maximumWeight the maximum total weight of the cached files.
+     */
+    public TinyLfuFilesCache(final long maximumWeight) {
+        this(maximumWeight, false);
+    }
+
+    /**
+     * Creates a cache with the given maximum weight.
+     *
+     * @param maximumWeight the maximum total weight of the cached files.
+     * @param perFileSystem if true the maximum applies to each file system separately, otherwise to all of them.
+     */
+    public TinyLfuFilesCache(final long maximumWeight, final boolean perFileSystem) {
+        if (maximumWeight < 1) {
+            throw new IllegalArgumentException("maximumWeight must be positive: " + maximumWeight);
+        }
+        this.maximumWeight = maximumWeight;
+        this.sharedPolicy = perFileSystem ? null : new Policy(maximumWeight);
+    }
+
+    /**
+     * Returns the weight of a file, 1 by default. Subclasses can override this to bound the cache by something other
+     * than the number of files.
+     *
+     * @param file the file to weigh.
+     * @return the non-negative weight of the file.
+     */
+    protected int weigh(final FileObject file) {
+        return 1;
+    }
+
+    @Override
+    public void putFile(final FileObject file) {
+        final Segment segment = getOrCreateSegment(file.getFileSystem());
+        final Node node = new Node(segment, file, weigh(file));
+        final Node old = segment.files.put(file.getName(), node);
+        afterWrite(segment.policy, node, old);
+    }
+
+    @Override
+    public boolean putFileIfAbsent(final FileObject file) {
+        final Segment segment = getOrCreateSegment(file.getFileSystem());
+        final Node node = new Node(segment, file, weigh(file));
+        final Node existing = segment.files.putIfAbsent(file.getName(), node);
+        if (existing != null) {
+            segment.policy.recordRead(existing);
+            return false;
+        }
+        afterWrite(segment.policy, node, null);
+        return true;
+    }
+
+    @Override
+    public FileObject getFile(final FileSystem filesystem, final FileName name) {
+        // avoid creating filesystem entry for empty filesystem cache:
+        final Segment segment = filesystemCache.get(filesystem);
+        if (segment == null) {
+            return null;
+        }
+
+        final Node node = segment.files.get(name);
+        if (node == null) {
+            return null;
+        }
+        segment.policy.recordRead(node);
+        return node.file;
+    }
+
+    @Override
+    public void touchFile(final FileObject file) {
+        getFile(file.getFileSystem(), file.getName());
+    }
+
+    @Override
+    public void clear(final FileSystem filesystem) {
+        final Segment segment = filesystemCache.remove(filesystem);
+        if (segment != null) {
+            segment.policy.removeAll(segment);
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+
+        for (final FileSystem filesystem : filesystemCache.keySet()) {
+            clear(filesystem);
+        }
+    }
+
+    @Override
+    public void removeFile(final FileSystem filesystem, final FileName name) {
+        final Segment segment = filesystemCache.get(filesystem);
+        if (segment == null) {
+            return;
+        }
+
+        final Node node = segment.files.remove(name);
+        if (node != null) {
+            segment.policy.remove(node);
+        }
+    }
+
+    private Segment getOrCreateSegment(final FileSystem filesystem) {
+        Segment segment = filesystemCache.get(filesystem);
+        if (segment == null) {
+            final Policy policy = sharedPolicy != null ? sharedPolicy : new Policy(maximumWeight);
+            final Segment newSegment = new Segment(policy);
+            segment = filesystemCache.putIfAbsent(filesystem, newSegment);
+            if (segment == null) {
+                segment = newSegment;
+            }
+        }
+        return segment;
+    }
+
+    private void afterWrite(final Policy policy, final Node node, final Node old) {
+        final List<Node> evicted;
+        policy.lock.lock();
+        try {
+            policy.drainReadBuffer();
+            if (old != null) {
+                policy.unlink(old);
+            }
+            evicted = policy.add(node);
+        } finally {
+            policy.lock.unlock();
+        }
+
+        for (final Node victim : evicted) {
+            try {
+                // force detach
+                victim.file.close();
+            } catch (final FileSystemException e) {
+                VfsLog.warn(getLogger(), log, Messages.getString("vfs.impl/TinyLfuFilesCache-remove-ex.warn"), e);
+            }
+        }
+    }
+
+    /**
+     * Do not allow open or attached files to be removed.
+     */
+    private static boolean isEvictable(final FileObject file) {
+        return !file.isAttached() && !file.isContentOpen();
+    }
+
+    /**
+     * The cached files of one file system.
+     */
+    private static final class Segment {
+        private final ConcurrentMap<FileName, Node> files = new ConcurrentHashMap<>(200, 0.75f, 8);
+        private final Policy policy;
+
+        Segment(final Policy policy) {
+            this.policy = policy;
+        }
+    }
+
+    /**
+     * A cache entry. The queue and links are guarded by the lock of the policy.
+     */
+    private static final class Node {
+        private final Segment segment;
+        private final FileObject file;
+        private final int hash;
+        private final int weight;
+
+        private int queue = NONE;
+        private boolean retired;
+        private Node prev;
+        private Node next;
+
+        Node(final Segment segment, final FileObject file, final int weight) {
+            this.segment = segment;
+            this.file = file;
+            this.hash = 31 * System.identityHashCode(file.getFileSystem()) + file.getName().hashCode();
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * A doubly linked list of nodes in access order, least recently used first.
+     */
+    private static final class AccessOrderQueue {
+        private Node head;
+        private Node tail;
+
+        Node peekFirst() {
+            return head;
+        }
+
+        Node peekLast() {
+            return tail;
+        }
+
+        void addLast(final Node node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        void remove(final Node node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+        void moveToBack(final Node node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+
+    /**
+     * The eviction policy for a budget, either shared by all file systems or owned by one.
+     */
+    private static final class Policy {
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Queue<Node> readBuffer = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger readBufferSize = new AtomicInteger();
+
+        // guarded by lock
+        private final FrequencySketch sketch;
+        private final AccessOrderQueue window = new AccessOrderQueue();
+        private final AccessOrderQueue probation = new AccessOrderQueue();
+        private final AccessOrderQueue protectedQueue = new AccessOrderQueue();
+
+        private final long maximum;
+        private final long windowMaximum;
+        private final long protectedMaximum;
+
+        private long totalWeight;
+        private long windowWeight;
+        private long protectedWeight;
+        private int count;
+
+        Policy(final long maximum) {
+            this.maximum = maximum;
+            this.windowMaximum = Math.max(1, maximum * WINDOW_PERCENT / 100);
+            this.protectedMaximum = (maximum - windowMaximum) * PROTECTED_PERCENT / 100;
+            this.sketch = new FrequencySketch(maximum);
+        }
+
+        /**
+         * Records a read without blocking. Reads are dropped if the buffer is full, they are only a hint.
+         */
+        void recordRead(final Node node) {
+            if (readBufferSize.get() >= READ_BUFFER_MAXIMUM) {
+                return;
+            }
+            readBuffer.offer(node);
+            if (readBufferSize.incrementAndGet() >= READ_BUFFER_DRAIN_THRESHOLD && lock.tryLock()) {
+                try {
+                    drainReadBuffer();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        void drainReadBuffer() {
+            Node node;
+            while ((node = readBuffer.poll()) != null) {
+                readBufferSize.decrementAndGet();
+                onAccess(node);
+            }
+        }
+
+        private void onAccess(final Node node) {
+            if (node.queue == NONE) {
+                // already removed
+                return;
+            }
+            sketch.increment(node.hash);
+            switch (node.queue) {
+            case WINDOW:
+                window.moveToBack(node);
+                break;
+            case PROBATION:
+                promote(node);
+                break;
+            default:
+                protectedQueue.moveToBack(node);
+                break;
+            }
+        }
+
+        /**
+         * Moves a node from probation to the protected segment, demoting the least recently used protected nodes if
+         * the segment is full.
+         */
+        private void promote(final Node node) {
+            probation.remove(node);
+            node.queue = PROTECTED;
+            protectedQueue.addLast(node);
+            protectedWeight += node.weight;
+
+            while (protectedWeight > protectedMaximum) {
+                final Node demoted = protectedQueue.peekFirst();
+                if (demoted == node) {
+                    break;
+                }
+                protectedQueue.remove(demoted);
+                protectedWeight -= demoted.weight;
+                demoted.queue = PROBATION;
+                probation.addLast(demoted);
+            }
+        }
+
+        /**
+         * Adds a new node to the window and evicts nodes if the budget is exceeded.
+         *
+         * @return the evicted nodes, already removed from their segment.
+         */
+        List<Node> add(final Node node) {
+            if (node.retired) {
+                // removed from the cache before we got here
+                return Collections.emptyList();
+            }
+            sketch.increment(node.hash);
+            node.queue = WINDOW;
+            window.addLast(node);
+            windowWeight += node.weight;
+            totalWeight += node.weight;
+            count++;
+            return evict();
+        }
+
+        private List<Node> evict() {
+            // The window overflows into probation, the newest probation node is the candidate for admission
+            while (windowWeight > windowMaximum) {
+                final Node overflow = window.peekFirst();
+                window.remove(overflow);
+                windowWeight -= overflow.weight;
+                overflow.queue = PROBATION;
+                probation.addLast(overflow);
+            }
+
+            List<Node> evicted = null;
+            int attempts = 0;
+            while (totalWeight > maximum && attempts++ < count) {
+                Node victim = probation.peekFirst();
+                Node candidate = probation.peekLast();
+                if (victim == null) {
+                    victim = protectedQueue.peekFirst() != null ? protectedQueue.peekFirst() : window.peekFirst();
+                    candidate = null;
+                }
+
+                Node loser = victim;
+                if (candidate != null && candidate != victim
+                        && sketch.frequency(candidate.hash) <= sketch.frequency(victim.hash)) {
+                    // the candidate is not used more often than the victim, do not admit it
+                    loser = candidate;
+                }
+
+                if (!isEvictable(loser.file)) {
+                    // in use, so treat it as recently used
+                    rescue(loser);
+                    continue;
+                }
+
+                unlink(loser);
+                loser.segment.files.remove(loser.file.getName(), loser);
+                if (evicted == null) {
+                    evicted = new ArrayList<>();
+                }
+                evicted.add(loser);
+            }
+            return evicted == null ? Collections.<Node>emptyList() : evicted;
+        }
+
+        private void rescue(final Node node) {
+            switch (node.queue) {
+            case WINDOW:
+                window.moveToBack(node);
+                break;
+            case PROBATION:
+                promote(node);
+                break;
+            default:
+                protectedQueue.moveToBack(node);
+                break;
+            }
+        }
+
+        /**
+         * Removes a node from the policy. Must be called while holding the lock.
+         */
+        void unlink(final Node node) {
+            node.retired = true;
+            switch (node.queue) {
+            case NONE:
+                return;
+            case WINDOW:
+                window.remove(node);
+                windowWeight -= node.weight;
+                break;
+            case PROBATION:
+                probation.remove(node);
+                break;
+            default:
+                protectedQueue.remove(node);
+                protectedWeight -= node.weight;
+                break;
+            }
+            node.queue = NONE;
+            totalWeight -= node.weight;
+            count--;
+        }
+
+        void remove(final Node node) {
+            lock.lock();
+            try {
+                unlink(node);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void removeAll(final Segment segment) {
+            lock.lock();
+            try {
+                for (final Node node : segment.files.values()) {
+                    unlink(node);
+                }
+                segment.files.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -16,9 +16,21 @@
  */
 package org.apache.commons.vfs2.impl;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -27,7 +39,10 @@ import org.apache.commons.vfs2.FileMonitor;
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.provider.AbstractFileObject;
 import org.apache.commons.vfs2.provider.AbstractFileSystem;
+import org.apache.commons.vfs2.util.DaemonThreadFactory;
+import org.apache.commons.vfs2.util.FileObjectUtils;
 
 /**
  * A polling {@link FileMonitor} implementation.
@@ -53,6 +68,14 @@ import org.apache.commons.vfs2.provider.AbstractFileSystem;
  * For performance reasons, added a delay that increases as the number of files monitored increases. The default is a
  * delay of 1 second for every 1000 files processed.
  *
+ * <h2>Scheduled polling:</h2>
+ *
+ * With a {@link #setScheduler(ScheduledExecutorService) scheduler} or a {@link #setParallelism(int) parallelism} above
+ * 1, the files are checked in passes run by a scheduled executor, the delay being the time between two passes. The
+ * files are checked folder by folder: the folder is listed once, which lets providers like SFTP, FTP or WebDAV fill in
+ * the state of its children, instead of querying each file. Up to {@code parallelism} folders are checked at the same
+ * time, the folders with the most recently changed files first.
+ *
  * <h2>Example usage:</h2>
  *
  * <pre>
@@ -114,6 +137,26 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
      */
     private int checksPerRun = DEFAULT_MAX_FILES;
 
+    /**
+     * The number of folders checked at the same time by the scheduled polling.
+     */
+    private int parallelism = 1;
+
+    /**
+     * The executor running the scheduled polling, guarded by this.
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * True if the scheduler was created by this monitor, and is shut down when it stops.
+     */
+    private boolean ownScheduler;
+
+    /**
+     * Incremented each time the scheduled polling starts, so that the passes of a stopped run end.
+     */
+    private final AtomicInteger generation = new AtomicInteger();
+
     /**
      * A listener object that if set, is notified on file creation and deletion.
      */
@@ -281,6 +324,40 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
         this.checksPerRun = checksPerRun;
     }
 
+    /**
+     * Get the number of folders checked at the same time by the scheduled polling.
+     *
+     * @return The parallelism.
+     * @since 2.3
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set the number of folders checked at the same time. A value above 1 checks the files with the scheduled polling,
+     * on an executor of that many threads unless a scheduler is set.
+     *
+     * @param parallelism The parallelism, a value less than 1 is the same as 1.
+     * @since 2.3
+     */
+    public void setParallelism(final int parallelism) {
+        this.parallelism = Math.max(parallelism, 1);
+    }
+
+    /**
+     * Set the executor checking the files, which can be shared with other monitors. The executor is not shut down when
+     * the monitor stops.
+     *
+     * @param scheduler The executor, or null to use the monitor thread (or an executor of its own if the parallelism is
+     *            above 1).
+     * @since 2.3
+     */
+    public synchronized void setScheduler(final ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+        this.ownScheduler = false;
+    }
+
     /**
      * Queues a file for addition to be monitored.
      *
@@ -294,6 +371,11 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
      * Starts monitoring the files that have been added.
      */
     public void start() {
+        if (this.parallelism > 1 || getScheduler() != null) {
+            startScheduled();
+            return;
+        }
+
         if (this.monitorThread == null) {
             this.monitorThread = new Thread(this);
             this.monitorThread.setDaemon(true);
@@ -307,6 +389,156 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
      */
     public void stop() {
         this.shouldRun = false;
+
+        synchronized (this) {
+            if (this.ownScheduler) {
+                this.scheduler.shutdown();
+                this.scheduler = null;
+                this.ownScheduler = false;
+            }
+        }
+    }
+
+    private synchronized ScheduledExecutorService getScheduler() {
+        return this.scheduler;
+    }
+
+    /**
+     * Starts the scheduled polling.
+     */
+    private void startScheduled() {
+        synchronized (this) {
+            if (this.scheduler == null) {
+                this.scheduler = Executors.newScheduledThreadPool(this.parallelism,
+                        new DaemonThreadFactory("VFS-Monitor", Thread.MIN_PRIORITY));
+                this.ownScheduler = true;
+            }
+        }
+        this.shouldRun = true;
+        final int run = this.generation.incrementAndGet();
+        schedule(run, 0);
+    }
+
+    /**
+     * Schedules the next pass of the scheduled polling.
+     */
+    private void schedule(final int run, final long passDelay) {
+        final ScheduledExecutorService executor = getScheduler();
+        if (executor == null || !isRunning(run)) {
+            return;
+        }
+        try {
+            executor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    checkFolders(run);
+                }
+            }, passDelay, TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException e) {
+            // Stopped.
+        }
+    }
+
+    private boolean isRunning(final int run) {
+        return this.shouldRun && this.generation.get() == run;
+    }
+
+    /**
+     * Runs a pass of the scheduled polling: the folders are checked by up to {@code parallelism} tasks, the last task
+     * to finish schedules the next pass.
+     */
+    private void checkFolders(final int run) {
+        final ScheduledExecutorService executor = getScheduler();
+        if (executor == null || !isRunning(run)) {
+            return;
+        }
+
+        final Queue<CheckGroup> groups = new ConcurrentLinkedQueue<>(groupAgents());
+        final int tasks = Math.max(Math.min(this.parallelism, groups.size()), 1);
+        final AtomicInteger running = new AtomicInteger(tasks);
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    CheckGroup group;
+                    while (isRunning(run) && (group = groups.poll()) != null) {
+                        group.check();
+                    }
+                } finally {
+                    if (running.decrementAndGet() == 0) {
+                        endPass(run);
+                    }
+                }
+            }
+        };
+
+        for (int i = 1; i < tasks; i++) {
+            try {
+                executor.execute(task);
+            } catch (final RejectedExecutionException e) {
+                // Stopped, or the executor is saturated: this thread checks the remaining folders.
+                running.decrementAndGet();
+            }
+        }
+        task.run();
+    }
+
+    private void endPass(final int run) {
+        while (!this.addStack.empty()) {
+            this.addFile(this.addStack.pop());
+        }
+
+        while (!this.deleteStack.empty()) {
+            this.removeFile(this.deleteStack.pop());
+        }
+
+        schedule(run, getDelay());
+    }
+
+    /**
+     * Groups the monitored files by folder, the folders with the most recently changed files first.
+     */
+    private List<CheckGroup> groupAgents() {
+        final List<FileMonitorAgent> agents;
+        synchronized (this.monitorMap) {
+            agents = new ArrayList<>(this.monitorMap.values());
+        }
+
+        final Map<FileName, CheckGroup> groups = new LinkedHashMap<>();
+        for (final FileMonitorAgent agent : agents) {
+            FileObject parent;
+            try {
+                parent = agent.file.getParent();
+            } catch (final FileSystemException fse) {
+                parent = null;
+            }
+            // a root is checked with its own folder
+            final CheckGroup group = getGroup(groups, parent != null ? parent : agent.file);
+            group.agents.add(agent);
+            group.lastChange = Math.max(group.lastChange, agent.lastChange);
+
+            if (agent.isFolder()) {
+                getGroup(groups, agent.file).folderAgent = agent;
+            }
+        }
+
+        final List<CheckGroup> sorted = new ArrayList<>(groups.values());
+        Collections.sort(sorted, new Comparator<CheckGroup>() {
+            @Override
+            public int compare(final CheckGroup group1, final CheckGroup group2) {
+                return Long.compare(group2.lastChange, group1.lastChange);
+            }
+        });
+        return sorted;
+    }
+
+    private static CheckGroup getGroup(final Map<FileName, CheckGroup> groups, final FileObject folder) {
+        CheckGroup group = groups.get(folder.getName());
+        if (group == null) {
+            group = new CheckGroup(folder);
+            groups.put(folder.getName(), group);
+        }
+        return group;
     }
 
     /**
@@ -372,6 +604,11 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
         private long timestamp;
         private Map<FileName, Object> children;
 
+        /**
+         * When this agent last fired an event, used to check the recently changed files first.
+         */
+        private volatile long lastChange;
+
         private FileMonitorAgent(final DefaultFileMonitor fm, final FileObject file) {
             this.fm = fm;
             this.file = file;
@@ -420,6 +657,17 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
             }
         }
 
+        /**
+         * Clear the cache without requesting the file object again, the listing of its folder fills it in.
+         */
+        private void detachState() {
+            try {
+                DefaultFileMonitor.detachState(this.file);
+            } catch (final FileSystemException fse) {
+                LOG.error(fse.getLocalizedMessage(), fse);
+            }
+        }
+
         /**
          * Recursively fires create events for all children if recursive descent is enabled. Otherwise the create event
          * is only fired for the initial FileObject.
@@ -453,10 +701,18 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
             }
         }
 
+        private boolean isFolder() {
+            try {
+                return this.file.getType().hasChildren();
+            } catch (final FileSystemException fse) {
+                return false;
+            }
+        }
+
         /**
          * Only checks for new children. If children are removed, they'll eventually be checked.
          */
-        private void checkForNewChildren() {
+        private synchronized void checkForNewChildren() {
             try {
                 if (this.file.getType().hasChildren()) {
                     final FileObject[] newChildren = this.file.getChildren();
@@ -478,6 +734,7 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
                         // If there were missing children
                         if (!missingChildren.empty()) {
 
+                            this.lastChange = System.currentTimeMillis();
                             while (!missingChildren.empty()) {
                                 final FileObject child = missingChildren.pop();
                                 this.fireAllCreate(child);
@@ -488,6 +745,7 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
                         // First set of children - Break out the cigars
                         if (newChildren.length > 0) {
                             this.children = new HashMap<>();
+                            this.lastChange = System.currentTimeMillis();
                         }
                         for (final FileObject element : newChildren) {
                             this.children.put(element.getName(), new Object()); // null?
@@ -502,7 +760,14 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
 
         private void check() {
             this.refresh();
+            this.checkFile();
+            this.checkForNewChildren();
+        }
 
+        /**
+         * Checks if the file was deleted, changed or created, without refreshing it.
+         */
+        private synchronized void checkFile() {
             try {
                 // If the file existed and now doesn't
                 if (this.exists && !this.file.exists()) {
@@ -511,6 +776,7 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
 
                     // Fire delete event
 
+                    this.lastChange = System.currentTimeMillis();
                     ((AbstractFileSystem) this.file.getFileSystem()).fireFileDeleted(this.file);
 
                     // Remove listener in case file is re-created. Don't want to fire twice.
@@ -525,6 +791,7 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
                     // Check the timestamp to see if it has been modified
                     if (this.timestamp != this.file.getContent().getLastModifiedTime()) {
                         this.timestamp = this.file.getContent().getLastModifiedTime();
+                        this.lastChange = System.currentTimeMillis();
                         // Fire change event
 
                         // Don't fire if it's a folder because new file children
@@ -537,6 +804,7 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
                 } else if (!this.exists && this.file.exists()) {
                     this.exists = this.file.exists();
                     this.timestamp = this.file.getContent().getLastModifiedTime();
+                    this.lastChange = System.currentTimeMillis();
                     // Don't fire if it's a folder because new file children
                     // and deleted files in a folder have their own event triggered.
                     if (!this.file.getType().hasChildren()) {
@@ -544,12 +812,68 @@ public class DefaultFileMonitor implements Runnable, FileMonitor {
                     }
                 }
 
-                this.checkForNewChildren();
-
             } catch (final FileSystemException fse) {
                 LOG.error(fse.getLocalizedMessage(), fse);
             }
         }
 
     }
+
+    /**
+     * Drops the cached state of a file without fetching it again, or refreshes it if it is not an AbstractFileObject.
+     */
+    private static void detachState(final FileObject file) throws FileSystemException {
+        if (FileObjectUtils.isInstanceOf(file, AbstractFileObject.class)) {
+            FileObjectUtils.getAbstractFileObject(file).detachState();
+        } else {
+            file.refresh();
+        }
+    }
+
+    /**
+     * The monitored files of a folder, checked together by the scheduled polling.
+     */
+    private static final class CheckGroup {
+        private final FileObject folder;
+
+        /**
+         * The monitored children of the folder.
+         */
+        private final List<FileMonitorAgent> agents = new ArrayList<>();
+
+        /**
+         * The agent of the folder itself, if it is monitored.
+         */
+        private FileMonitorAgent folderAgent;
+
+        private long lastChange;
+
+        private CheckGroup(final FileObject folder) {
+            this.folder = folder;
+        }
+
+        private void check() {
+            // Refreshing the children would fetch each of them again with some providers
+            for (final FileMonitorAgent agent : this.agents) {
+                agent.detachState();
+            }
+
+            // One listing of the folder, which fills in the state of the children if the provider can
+            try {
+                detachState(this.folder);
+                if (this.folder.getType().hasChildren()) {
+                    this.folder.getChildren();
+                }
+            } catch (final FileSystemException fse) {
+                LOG.debug(fse.getLocalizedMessage(), fse);
+            }
+
+            for (final FileMonitorAgent agent : this.agents) {
+                agent.checkFile();
+            }
+            if (this.folderAgent != null) {
+                this.folderAgent.checkForNewChildren();
+            }
+        }
+    }
 }
@@ -21,6 +21,7 @@ import org.apache.commons.vfs2.FileSystemConfigBuilder;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.UserAuthenticator;
+import org.apache.commons.vfs2.util.ParallelFileCopier;
 
 /**
  * Default options usable for all file systems.
@@ -29,6 +30,10 @@ public class DefaultFileSystemConfigBuilder extends FileSystemConfigBuilder {
     /** The default FileSystemConfigBuilder */
     private static final DefaultFileSystemConfigBuilder BUILDER = new DefaultFileSystemConfigBuilder();
 
+    private static final String COPY_THREADS = "copyThreads";
+
+    private static final String COPY_MAX_BYTES_IN_FLIGHT = "copyMaxBytesInFlight";
+
     /**
      * Gets the singleton builder.
      *
@@ -59,6 +64,51 @@ public class DefaultFileSystemConfigBuilder extends FileSystemConfigBuilder {
         return (UserAuthenticator) getParam(opts, "userAuthenticator");
     }
 
+    /**
+     * Sets the number of threads used by {@link org.apache.commons.vfs2.FileObject#copyFrom} to copy into a file of
+     * this file system, defaults to 1.
+     *
+     * @param opts The FileSystemOptions.
+     * @param threads The number of threads.
+     * @see ParallelFileCopier
+     * @since 2.3
+     */
+    public void setCopyThreads(final FileSystemOptions opts, final int threads) {
+        setParam(opts, COPY_THREADS, Integer.valueOf(threads));
+    }
+
+    /**
+     * @see #setCopyThreads
+     * @param opts The FileSystemOptions.
+     * @return The number of threads.
+     * @since 2.3
+     */
+    public int getCopyThreads(final FileSystemOptions opts) {
+        return getInteger(opts, COPY_THREADS, 1);
+    }
+
+    /**
+     * Sets how many bytes {@link org.apache.commons.vfs2.FileObject#copyFrom} copies at the same time when it uses
+     * several threads, defaults to 64 MB.
+     *
+     * @param opts The FileSystemOptions.
+     * @param maxBytesInFlight The maximum number of bytes in flight.
+     * @since 2.3
+     */
+    public void setCopyMaxBytesInFlight(final FileSystemOptions opts, final long maxBytesInFlight) {
+        setParam(opts, COPY_MAX_BYTES_IN_FLIGHT, Long.valueOf(maxBytesInFlight));
+    }
+
+    /**
+     * @see #setCopyMaxBytesInFlight
+     * @param opts The FileSystemOptions.
+     * @return The maximum number of bytes in flight.
+     * @since 2.3
+     */
+    public long getCopyMaxBytesInFlight(final FileSystemOptions opts) {
+        return getLong(opts, COPY_MAX_BYTES_IN_FLIGHT, ParallelFileCopier.DEFAULT_MAX_BYTES_IN_FLIGHT);
+    }
+
     /**
      * Dummy class that implements FileSystem.
      */
@@ -0,0 +1,583 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.impl;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.commons.vfs2.FileListener;
+import org.apache.commons.vfs2.FileMonitor;
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.NameScope;
+import org.apache.commons.vfs2.provider.AbstractFileSystem;
+import org.apache.commons.vfs2.provider.UriParser;
+import org.apache.commons.vfs2.provider.local.LocalFileName;
+
+/**
+ * A {@link FileMonitor} for local files, driven by the events of a {@link WatchService}.
+ * <p>
+ * Instead of polling each file like the {@link DefaultFileMonitor}, the folders holding the monitored files are
+ * registered with the watch service of the default file system, and only the files named by its events are checked.
+ * The same events are fired:
+ * <ul>
+ * <li>A change event when a monitored file is modified. Folders do not fire change events, their new and deleted
+ * children have their own events.</li>
+ * <li>A delete event when a monitored file is deleted, after which it is no longer monitored.</li>
+ * <li>A create event for each new child of a monitored folder, and for all its descendants if recursive descent is
+ * enabled. The new children are monitored from then on.</li>
+ * </ul>
+ * When the watch service reports that events were lost, all the monitored files are checked again.
+ *
+ * <h2>Example usage:</h2>
+ *
+ * <pre>
+ * FileSystemManager fsManager = VFS.getManager();
+ * FileObject listendir = fsManager.resolveFile("/home/username/monitored/");
+ *
+ * WatchServiceFileMonitor fm = new WatchServiceFileMonitor(new CustomFileListener());
+ * fm.setRecursive(true);
+ * fm.addFile(listendir);
+ * fm.start();
+ * </pre>
+ *
+ * <i>(where CustomFileListener is a class that implements the FileListener interface.)</i>
+ *
+ * @since 2.3
+ */
+public class WatchServiceFileMonitor implements Runnable, FileMonitor {
+    private static final Log LOG = LogFactory.getLog(WatchServiceFileMonitor.class);
+
+    /**
+     * How long the monitor thread waits for events before checking if it should stop.
+     */
+    private static final long POLL_TIMEOUT = 500;
+
+    /**
+     * Map from the local path to the agent of the file being monitored.
+     */
+    private final Map<Path, FileMonitorAgent> monitorMap = new HashMap<>();
+
+    /**
+     * Map from the registered folders to their watch keys, guarded by monitorMap.
+     */
+    private final Map<Path, WatchKey> watchKeys = new HashMap<>();
+
+    /**
+     * The watch service, guarded by monitorMap.
+     */
+    private WatchService watchService;
+
+    /**
+     * The thread waiting for the events of the watch service.
+     */
+    private Thread monitorThread;
+
+    /**
+     * A flag used to determine if the monitor thread should be running.
+     */
+    private volatile boolean shouldRun = true; // used for inter-thread communication
+
+    /**
+     * A flag used to determine if adding files to be monitored should be recursive.
+     */
+    private boolean recursive;
+
+    /**
+     * A listener object that if set, is notified on file creation and deletion.
+     */
+    private final FileListener listener;
+
+    public WatchServiceFileMonitor(final FileListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Access method to get the recursive setting when adding files for monitoring.
+     *
+     * @return true if monitoring is enabled for children.
+     */
+    public boolean isRecursive() {
+        return this.recursive;
+    }
+
+    /**
+     * Access method to set the recursive setting when adding files for monitoring.
+     *
+     * @param newRecursive true if monitoring should be enabled for children.
+     */
+    public void setRecursive(final boolean newRecursive) {
+        this.recursive = newRecursive;
+    }
+
+    /**
+     * Access method to get the current FileListener object notified when there are changes with the files added.
+     *
+     * @return The FileListener.
+     */
+    FileListener getFileListener() {
+        return this.listener;
+    }
+
+    /**
+     * Adds a file to be monitored.
+     *
+     * @param file The FileObject to monitor, must be a local file.
+     * @throws IllegalArgumentException if the file is not a local file.
+     */
+    @Override
+    public void addFile(final FileObject file) {
+        doAddFile(file);
+        try {
+            // add all direct children too
+            if (file.getType().hasChildren()) {
+                // Traverse the children
+                final FileObject[] children = file.getChildren();
+                for (final FileObject element : children) {
+                    doAddFile(element);
+                }
+            }
+        } catch (final FileSystemException fse) {
+            LOG.error(fse.getLocalizedMessage(), fse);
+        }
+    }
+
+    /**
+     * Adds a file to be monitored.
+     *
+     * @param file The FileObject to add.
+     */
+    private void doAddFile(final FileObject file) {
+        final Path path = toPath(file);
+        synchronized (this.monitorMap) {
+            if (this.monitorMap.get(path) == null) {
+                final FileMonitorAgent agent = new FileMonitorAgent(this, file, path);
+                this.monitorMap.put(path, agent);
+                watch(agent);
+
+                try {
+                    if (this.listener != null) {
+                        file.getFileSystem().addListener(file, this.listener);
+                    }
+
+                    if (file.getType().hasChildren() && this.recursive) {
+                        // Traverse the children
+                        final FileObject[] children = file.getChildren();
+                        for (final FileObject element : children) {
+                            this.addFile(element); // Add depth first
+                        }
+                    }
+
+                } catch (final FileSystemException fse) {
+                    LOG.error(fse.getLocalizedMessage(), fse);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes a file from being monitored.
+     *
+     * @param file The FileObject to remove from monitoring.
+     */
+    @Override
+    public void removeFile(final FileObject file) {
+        synchronized (this.monitorMap) {
+            this.monitorMap.remove(toPath(file));
+        }
+    }
+
+    /**
+     * Starts monitoring the files that have been added.
+     */
+    public void start() {
+        synchronized (this.monitorMap) {
+            if (this.watchService == null) {
+                try {
+                    this.watchService = FileSystems.getDefault().newWatchService();
+                } catch (final IOException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                    return;
+                }
+                // register the folders of the files added so far
+                for (final FileMonitorAgent agent : this.monitorMap.values()) {
+                    watch(agent);
+                }
+            }
+        }
+
+        if (this.monitorThread == null) {
+            this.monitorThread = new Thread(this);
+            this.monitorThread.setDaemon(true);
+        }
+        this.monitorThread.start();
+    }
+
+    /**
+     * Stops monitoring the files that have been added.
+     */
+    public void stop() {
+        this.shouldRun = false;
+    }
+
+    /**
+     * Waits for the events of the watch service and checks the files they name.
+     */
+    @Override
+    public void run() {
+        final WatchService service;
+        synchronized (this.monitorMap) {
+            service = this.watchService;
+        }
+
+        try {
+            while (!monitorThread.isInterrupted() && this.shouldRun && service != null) {
+                final WatchKey key;
+                try {
+                    key = service.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                } catch (final InterruptedException e) {
+                    continue;
+                }
+                if (key == null) {
+                    continue;
+                }
+
+                final Path folder = (Path) key.watchable();
+                boolean overflow = false;
+                for (final WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflow = true;
+                    } else {
+                        checkPath(folder, folder.resolve((Path) event.context()));
+                    }
+                }
+
+                if (!key.reset()) {
+                    // the folder is gone, or no longer accessible
+                    synchronized (this.monitorMap) {
+                        this.watchKeys.remove(folder);
+                    }
+                    checkTree(folder);
+                }
+
+                if (overflow) {
+                    rescan();
+                }
+            }
+        } catch (final ClosedWatchServiceException e) {
+            // Stopped.
+        } finally {
+            closeWatchService();
+        }
+
+        this.shouldRun = true;
+    }
+
+    /**
+     * Registers the folder of a file, and the file itself if it is a folder, with the watch service.
+     */
+    private void watch(final FileMonitorAgent agent) {
+        watch(agent.path.getParent());
+        try {
+            if (agent.file.getType().hasChildren()) {
+                watch(agent.path);
+            }
+        } catch (final FileSystemException fse) {
+            LOG.error(fse.getLocalizedMessage(), fse);
+        }
+    }
+
+    private void watch(final Path folder) {
+        synchronized (this.monitorMap) {
+            if (folder == null || this.watchService == null) {
+                return;
+            }
+            final WatchKey key = this.watchKeys.get(folder);
+            if (key != null && key.isValid()) {
+                return;
+            }
+            try {
+                this.watchKeys.put(folder, folder.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY));
+            } catch (final IOException e) {
+                // the folder does not exist (yet), its parent will report it when created
+                LOG.debug(e.getLocalizedMessage(), e);
+            }
+        }
+    }
+
+    private void closeWatchService() {
+        synchronized (this.monitorMap) {
+            if (this.watchService != null) {
+                try {
+                    this.watchService.close();
+                } catch (final IOException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+                this.watchService = null;
+                this.watchKeys.clear();
+            }
+        }
+    }
+
+    /**
+     * Checks a path named by an event of a registered folder.
+     */
+    private void checkPath(final Path folder, final Path path) {
+        final FileMonitorAgent agent;
+        final FileMonitorAgent folderAgent;
+        synchronized (this.monitorMap) {
+            agent = this.monitorMap.get(path);
+            folderAgent = this.monitorMap.get(folder);
+        }
+
+        if (agent != null) {
+            agent.check();
+        } else if (folderAgent != null) {
+            folderAgent.checkNewChild(path.getFileName().toString());
+        }
+    }
+
+    /**
+     * Checks a folder that can no longer be watched and all its monitored descendants.
+     */
+    private void checkTree(final Path folder) {
+        for (final FileMonitorAgent agent : getAgents()) {
+            if (agent.path.startsWith(folder)) {
+                agent.check();
+            }
+        }
+    }
+
+    /**
+     * Checks all the monitored files, after the watch service lost events.
+     */
+    private void rescan() {
+        for (final FileMonitorAgent agent : getAgents()) {
+            agent.check();
+            agent.checkForNewChildren();
+        }
+    }
+
+    private List<FileMonitorAgent> getAgents() {
+        synchronized (this.monitorMap) {
+            return new ArrayList<>(this.monitorMap.values());
+        }
+    }
+
+    private boolean isMonitored(final Path path) {
+        synchronized (this.monitorMap) {
+            return this.monitorMap.containsKey(path);
+        }
+    }
+
+    /**
+     * Returns the local path of a file.
+     */
+    private static Path toPath(final FileObject file) {
+        final FileName name = file.getName();
+        if (!(name instanceof LocalFileName)) {
+            throw new IllegalArgumentException("Not a local file: " + name);
+        }
+        try {
+            return Paths.get(((LocalFileName) name).getRootFile() + name.getPathDecoded()).toAbsolutePath();
+        } catch (final FileSystemException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * File monitor agent.
+     */
+    private static final class FileMonitorAgent {
+        private final FileObject file;
+        private final Path path;
+        private final WatchServiceFileMonitor fm;
+
+        private boolean exists;
+        private long timestamp;
+
+        private FileMonitorAgent(final WatchServiceFileMonitor fm, final FileObject file, final Path path) {
+            this.fm = fm;
+            this.file = file;
+            this.path = path;
+
+            this.refresh();
+
+            try {
+                this.exists = this.file.exists();
+            } catch (final FileSystemException fse) {
+                this.exists = false;
+                this.timestamp = -1;
+            }
+
+            if (this.exists) {
+                try {
+                    this.timestamp = this.file.getContent().getLastModifiedTime();
+                } catch (final FileSystemException fse) {
+                    this.timestamp = -1;
+                }
+            }
+        }
+
+        /**
+         * Clear the cache and re-request the file object
+         */
+        private void refresh() {
+            try {
+                this.file.refresh();
+            } catch (final FileSystemException fse) {
+                LOG.error(fse.getLocalizedMessage(), fse);
+            }
+        }
+
+        /**
+         * Recursively fires create events for all children if recursive descent is enabled. Otherwise the create event
+         * is only fired for the initial FileObject.
+         *
+         * @param child The child to add.
+         */
+        private void fireAllCreate(final FileObject child) {
+            // Add listener so that it can be triggered
+            if (this.fm.getFileListener() != null) {
+                child.getFileSystem().addListener(child, this.fm.getFileListener());
+            }
+
+            ((AbstractFileSystem) child.getFileSystem()).fireFileCreated(child);
+
+            // Remove it because a listener is added in the addFile
+            if (this.fm.getFileListener() != null) {
+                child.getFileSystem().removeListener(child, this.fm.getFileListener());
+            }
+
+            // Monitored before listing its children, so none created meanwhile is missed
+            this.fm.addFile(child);
+
+            try {
+                if (this.fm.isRecursive() && child.getType().hasChildren()) {
+                    final FileObject[] newChildren = child.getChildren();
+                    for (final FileObject element : newChildren) {
+                        fireAllCreate(element);
+                    }
+                }
+            } catch (final FileSystemException fse) {
+                LOG.error(fse.getLocalizedMessage(), fse);
+            }
+        }
+
+        /**
+         * Checks a child of this folder that is not monitored yet.
+         */
+        private void checkNewChild(final String name) {
+            try {
+                final FileObject child = this.file.resolveFile(UriParser.encode(name), NameScope.CHILD);
+                child.refresh();
+                if (child.exists() && !this.fm.isMonitored(toPath(child))) {
+                    this.refresh();
+                    this.fireAllCreate(child);
+                }
+            } catch (final FileSystemException fse) {
+                LOG.error(fse.getLocalizedMessage(), fse);
+            }
+        }
+
+        /**
+         * Fires create events for the children of this folder that are not monitored yet.
+         */
+        private void checkForNewChildren() {
+            try {
+                if (this.exists && this.file.getType().hasChildren()) {
+                    for (final FileObject child : this.file.getChildren()) {
+                        if (!this.fm.isMonitored(toPath(child))) {
+                            this.fireAllCreate(child);
+                        }
+                    }
+                }
+            } catch (final FileSystemException fse) {
+                LOG.error(fse.getLocalizedMessage(), fse);
+            }
+        }
+
+        private void check() {
+            this.refresh();
+
+            try {
+                // If the file existed and now doesn't
+                if (this.exists && !this.file.exists()) {
+                    this.exists = false;
+                    this.timestamp = -1;
+
+                    // Fire delete event
+
+                    ((AbstractFileSystem) this.file.getFileSystem()).fireFileDeleted(this.file);
+
+                    // Remove listener in case file is re-created. Don't want to fire twice.
+                    if (this.fm.getFileListener() != null) {
+                        this.file.getFileSystem().removeListener(this.file, this.fm.getFileListener());
+                    }
+
+                    // Remove from map
+                    this.fm.removeFile(this.file);
+                } else if (this.exists && this.file.exists()) {
+
+                    // Check the timestamp to see if it has been modified
+                    final long lastModified = this.file.getContent().getLastModifiedTime();
+                    if (this.timestamp != lastModified) {
+                        this.timestamp = lastModified;
+                        // Fire change event
+
+                        // Don't fire if it's a folder because new file children
+                        // and deleted files in a folder have their own event triggered.
+                        if (!this.file.getType().hasChildren()) {
+                            ((AbstractFileSystem) this.file.getFileSystem()).fireFileChanged(this.file);
+                        }
+                    }
+
+                } else if (!this.exists && this.file.exists()) {
+                    this.exists = true;
+                    this.timestamp = this.file.getContent().getLastModifiedTime();
+                    // Don't fire if it's a folder because new file children
+                    // and deleted files in a folder have their own event triggered.
+                    if (!this.file.getType().hasChildren()) {
+                        ((AbstractFileSystem) this.file.getFileSystem()).fireFileCreated(this.file);
+                    } else {
+                        // a new folder is watched from now on
+                        this.fm.watch(this);
+                        this.checkForNewChildren();
+                    }
+                }
+            } catch (final FileSystemException fse) {
+                LOG.error(fse.getLocalizedMessage(), fse);
+            }
+        }
+    }
+}
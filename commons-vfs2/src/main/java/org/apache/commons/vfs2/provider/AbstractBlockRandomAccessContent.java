@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+
+/**
+ * Random access to remote content through a cache of fixed size blocks.
+ * <p>
+ * Subclasses only fetch a bounded range of the content. Seeking is free, a read fetches the missing block containing
+ * the file pointer, and keeps the last blocks in a least recently used cache. When reads move forward block after
+ * block, the next block is fetched along with the missing one, in the same request.
+ *
+ * @since 2.3
+ */
+public abstract class AbstractBlockRandomAccessContent extends AbstractRandomAccessStreamContent {
+    /** The default size of a block: 64 KB. */
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    /** The default number of cached blocks. */
+    public static final int DEFAULT_MAX_BLOCKS = 16;
+
+    private final int blockSize;
+
+    private final boolean readAhead;
+
+    private final Map<Long, byte[]> blocks;
+
+    private final DataInputStream dis;
+
+    private long filePointer;
+
+    private long length = -1;
+
+    /** The index of the last fetched block, to detect sequential reads. */
+    private long lastFetched = -2;
+
+    /**
+     * Creates the random access content.
+     *
+     * @param mode The access mode.
+     * @param blockSize The size of a block.
+     * @param maxBlocks The maximum number of cached blocks.
+     * @param readAhead true to fetch the next block along with a missing one when reading sequentially.
+     */
+    protected AbstractBlockRandomAccessContent(final RandomAccessMode mode, final int blockSize, final int maxBlocks,
+            final boolean readAhead) {
+        super(mode);
+        this.blockSize = Math.max(blockSize, 1);
+        this.readAhead = readAhead;
+        final int capacity = Math.max(maxBlocks, readAhead ? 2 : 1);
+        this.blocks = new LinkedHashMap<Long, byte[]>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, byte[]> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.dis = new DataInputStream(new BlockInputStream());
+    }
+
+    /**
+     * Reads a range of the content.
+     *
+     * @param offset The offset of the range.
+     * @param b The buffer to fill, its length is the length of the range.
+     * @throws IOException if the range cannot be read.
+     */
+    protected abstract void readRange(long offset, byte[] b) throws IOException;
+
+    /**
+     * Returns the length of the content, called once.
+     *
+     * @return The length of the content.
+     * @throws IOException if the length cannot be determined.
+     */
+    protected abstract long getContentLength() throws IOException;
+
+    @Override
+    protected DataInputStream getDataInputStream() throws IOException {
+        return dis;
+    }
+
+    @Override
+    public long getFilePointer() throws IOException {
+        return filePointer;
+    }
+
+    @Override
+    public void seek(final long pos) throws IOException {
+        if (pos < 0) {
+            throw new FileSystemException("vfs.provider/random-access-invalid-position.error", Long.valueOf(pos));
+        }
+        filePointer = pos;
+    }
+
+    @Override
+    public long length() throws IOException {
+        if (length < 0) {
+            length = getContentLength();
+        }
+        return length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        blocks.clear();
+    }
+
+    /**
+     * Fills a buffer from a stream.
+     *
+     * @param in The stream.
+     * @param b The buffer.
+     * @throws IOException if the stream ends before the buffer is full.
+     */
+    protected static void readFully(final InputStream in, final byte[] b) throws IOException {
+        int done = 0;
+        while (done < b.length) {
+            final int n = in.read(b, done, b.length - done);
+            if (n == -1) {
+                throw new EOFException();
+            }
+            done += n;
+        }
+    }
+
+    /**
+     * Skips bytes of a stream, for servers which ignore range requests.
+     *
+     * @param in The stream.
+     * @param n The number of bytes to skip.
+     * @return true if the bytes were skipped, false if the stream ended before.
+     * @throws IOException if the stream fails.
+     */
+    protected static boolean skipFully(final InputStream in, final long n) throws IOException {
+        long remaining = n;
+        while (remaining > 0) {
+            final long skipped = in.skip(remaining);
+            if (skipped > 0) {
+                remaining -= skipped;
+            } else if (in.read() == -1) {
+                return false;
+            } else {
+                remaining--;
+            }
+        }
+        return true;
+    }
+
+    private byte[] getBlock(final long index) throws IOException {
+        final byte[] block = blocks.get(Long.valueOf(index));
+        if (block != null) {
+            return block;
+        }
+
+        final long start = index * blockSize;
+        final int count = readAhead && index == lastFetched + 1 ? 2 : 1;
+        final byte[] range = new byte[(int) Math.min((long) count * blockSize, length() - start)];
+        readRange(start, range);
+        lastFetched = index + count - 1;
+
+        byte[] first = null;
+        for (int i = 0; i * blockSize < range.length; i++) {
+            final int from = i * blockSize;
+            final byte[] b = new byte[Math.min(blockSize, range.length - from)];
+            System.arraycopy(range, from, b, 0, b.length);
+            if (i == 0) {
+                first = b;
+            }
+            blocks.put(Long.valueOf(index + i), b);
+        }
+        // the block which is read now is the most recently used one
+        blocks.get(Long.valueOf(index));
+        return first;
+    }
+
+    /**
+     * Reads from the blocks at the file pointer.
+     */
+    private final class BlockInputStream extends InputStream {
+        private final byte[] single = new byte[1];
+
+        @Override
+        public int read() throws IOException {
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (filePointer >= length()) {
+                return -1;
+            }
+            final byte[] block = getBlock(filePointer / blockSize);
+            final int offset = (int) (filePointer % blockSize);
+            if (offset >= block.length) {
+                throw new EOFException();
+            }
+            final int n = Math.min(len, block.length - offset);
+            System.arraycopy(block, offset, b, off, n);
+            filePointer += n;
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = Math.max(Math.min(n, length() - filePointer), 0);
+            filePointer += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.max(Math.min(length() - filePointer, Integer.MAX_VALUE), 0);
+        }
+    }
+}
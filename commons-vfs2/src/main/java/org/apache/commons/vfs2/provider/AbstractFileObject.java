@@ -17,7 +17,6 @@
 package org.apache.commons.vfs2.provider;
 
 import java.io.FileNotFoundException;
-import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.MalformedURLException;
@@ -42,14 +41,17 @@ import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSelector;
 import org.apache.commons.vfs2.FileSystem;
 import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.FileType;
-import org.apache.commons.vfs2.FileUtil;
+import org.apache.commons.vfs2.FileVisitor;
 import org.apache.commons.vfs2.NameScope;
 import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.Selectors;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
 import org.apache.commons.vfs2.operations.DefaultFileOperations;
 import org.apache.commons.vfs2.operations.FileOperations;
 import org.apache.commons.vfs2.util.FileObjectUtils;
+import org.apache.commons.vfs2.util.ParallelFileCopier;
 import org.apache.commons.vfs2.util.RandomAccessMode;
 
 /**
@@ -73,16 +75,24 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
     private final AbstractFileName fileName;
     private final AFS fs;
 
-    private FileContent content;
-    // Cached info
-    private boolean attached;
-    private FileType type;
+    // Cached info. Volatile so that readers can use it without holding the file system lock, it is only ever
+    // changed while holding that lock.
+    private volatile FileContent content;
+    private volatile boolean attached;
+    private volatile FileType type;
 
-    private FileObject parent;
+    private volatile FileObject parent;
     // Changed to hold only the name of the children and let the object
     // go into the global files cache
     // private FileObject[] children;
-    private FileName[] children;
+    private volatile FileName[] children;
+
+    // Counts the changes of the children, so that a listing made without the lock is only cached if the children did
+    // not change meanwhile. Guarded by the file system lock.
+    private int childrenGeneration;
+
+    // When the cached info was read, used to expire it with CacheStrategy.ON_EXPIRY
+    private volatile long attachTime;
 
     private List<Object> objects;
 
@@ -111,6 +121,10 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
         // Check the file itself
         final FileObject file = fileInfo.getFile();
         final int index = selected.size();
+        if (!depthwise) {
+            // Reserve the slot of this file before its descendants, it is filled once the file is selected
+            selected.add(null);
+        }
 
         // If the file is a folder, traverse it
         if (file.getType().hasChildren() && selector.traverseDescendents(fileInfo)) {
@@ -135,7 +149,7 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
                 selected.add(file);
             } else {
                 // Add this file before its descendants
-                selected.add(index, file);
+                selected.set(index, file);
             }
         }
     }
@@ -154,6 +168,7 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
             try {
                 // Attach and determine the file type
                 doAttach();
+                attachTime = System.currentTimeMillis();
                 attached = true;
                 // now the type could already be injected by doAttach (e.g from parent to child)
 
@@ -190,16 +205,18 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
     protected void childrenChanged(final FileName childName, final FileType newType) throws Exception {
         // TODO - this may be called when not attached
 
-        if (children != null && childName != null && newType != null) {
-            // TODO - figure out if children[] can be replaced by list
-            final ArrayList<FileName> list = new ArrayList<>(Arrays.asList(children));
-            if (newType.equals(FileType.IMAGINARY)) {
-                list.remove(childName);
-            } else {
-                list.add(childName);
+        synchronized (fs) {
+            childrenGeneration++;
+            if (children != null && childName != null && newType != null) {
+                // TODO - figure out if children[] can be replaced by list
+                final ArrayList<FileName> list = new ArrayList<>(Arrays.asList(children));
+                if (newType.equals(FileType.IMAGINARY)) {
+                    list.remove(childName);
+                } else {
+                    list.add(childName);
+                }
+                children = list.toArray(new FileName[list.size()]);
             }
-            children = new FileName[list.size()];
-            list.toArray(children);
         }
 
         // removeChildrenCache();
@@ -254,6 +271,9 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
 
     /**
      * Copies another file to this file.
+     * <p>
+     * The content is copied with the number of threads set on the options of this file system with
+     * {@link DefaultFileSystemConfigBuilder#setCopyThreads(FileSystemOptions, int)}.
      *
      * @param file The FileObject to copy.
      * @param selector The FileSelector.
@@ -261,39 +281,11 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      */
     @Override
     public void copyFrom(final FileObject file, final FileSelector selector) throws FileSystemException {
-        if (!file.exists()) {
-            throw new FileSystemException("vfs.provider/copy-missing-file.error", file);
-        }
-
-        // Locate the files to copy across
-        final ArrayList<FileObject> files = new ArrayList<>();
-        file.findFiles(selector, false, files);
-
-        // Copy everything across
-        for (final FileObject srcFile : files) {
-            // Determine the destination file
-            final String relPath = file.getName().getRelativeName(srcFile.getName());
-            final FileObject destFile = resolveFile(relPath, NameScope.DESCENDENT_OR_SELF);
-
-            // Clean up the destination file, if necessary
-            if (destFile.exists() && destFile.getType() != srcFile.getType()) {
-                // The destination file exists, and is not of the same type,
-                // so delete it
-                // TODO - add a pluggable policy for deleting and overwriting existing files
-                destFile.deleteAll();
-            }
-
-            // Copy across
-            try {
-                if (srcFile.getType().hasContent()) {
-                    FileUtil.copyContent(srcFile, destFile);
-                } else if (srcFile.getType().hasChildren()) {
-                    destFile.createFolder();
-                }
-            } catch (final IOException e) {
-                throw new FileSystemException("vfs.provider/copy-file.error", e, srcFile, destFile);
-            }
-        }
+        final FileSystemOptions opts = fs.getFileSystemOptions();
+        final DefaultFileSystemConfigBuilder builder = DefaultFileSystemConfigBuilder.getInstance();
+        final ParallelFileCopier copier = new ParallelFileCopier(builder.getCopyThreads(opts));
+        copier.setMaxBytesInFlight(builder.getCopyMaxBytesInFlight(opts));
+        copier.copy(file, selector, this);
     }
 
     /**
@@ -940,7 +932,17 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
                 info.setBaseFolder(this);
                 info.setDepth(0);
                 info.setFile(this);
-                traverse(info, selector, depthwise, selected);
+                if (depthwise) {
+                    traverse(info, selector, true, selected);
+                } else {
+                    final List<FileObject> reserved = new ArrayList<>();
+                    traverse(info, selector, false, reserved);
+                    for (final FileObject file : reserved) {
+                        if (file != null) {
+                            selected.add(file);
+                        }
+                    }
+                }
             }
         } catch (final Exception e) {
             throw new FileSystemException("vfs.provider/find-files.error", fileName, e);
@@ -985,12 +987,20 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      */
     @Override
     public FileObject[] getChildren() throws FileSystemException {
-        synchronized (fs) {
-            // VFS-210
-            if (!fs.hasCapability(Capability.LIST_CHILDREN)) {
-                throw new FileNotFolderException(fileName);
-            }
+        // VFS-210
+        if (!fs.hasCapability(Capability.LIST_CHILDREN)) {
+            throw new FileNotFolderException(fileName);
+        }
 
+        refreshIfExpired();
+
+        // Use cached info without locking, if present
+        final FileName[] cachedChildren = children;
+        if (attached && cachedChildren != null) {
+            return resolveFiles(cachedChildren);
+        }
+
+        synchronized (fs) {
             /*
              * VFS-210 if (!getType().hasChildren()) { throw new
              * FileSystemException("vfs.provider/list-children-not-folder.error", name); }
@@ -1002,55 +1012,78 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
                 return resolveFiles(children);
             }
 
-            // allow the filesystem to return resolved children. e.g. prefill type for webdav
-            FileObject[] childrenObjects;
-            try {
-                childrenObjects = doListChildrenResolved();
-                children = extractNames(childrenObjects);
-            } catch (final FileSystemException exc) {
-                // VFS-210
-                throw exc;
-            } catch (final Exception exc) {
-                throw new FileSystemException("vfs.provider/list-children.error", exc, fileName);
+            if (!isListChildrenThreadSafe()) {
+                return listChildren();
             }
+        }
+
+        // List without the lock, so the folders of this file system can be listed concurrently
+        return listChildren();
+    }
 
+    /**
+     * Lists the children of this file, and caches their names. May be called without holding the file system lock, the
+     * names are then cached only if the children did not change and the file was not detached during the listing.
+     */
+    private FileObject[] listChildren() throws FileSystemException {
+        final int generation;
+        synchronized (fs) {
+            generation = childrenGeneration;
+        }
+
+        // allow the filesystem to return resolved children. e.g. prefill type for webdav
+        FileObject[] childrenObjects;
+        try {
+            childrenObjects = doListChildrenResolved();
             if (childrenObjects != null) {
-                return childrenObjects;
+                cacheChildren(extractNames(childrenObjects), generation);
             }
+        } catch (final FileSystemException exc) {
+            // VFS-210
+            throw exc;
+        } catch (final Exception exc) {
+            throw new FileSystemException("vfs.provider/list-children.error", exc, fileName);
+        }
 
-            // List the children
-            final String[] files;
-            try {
-                files = doListChildren();
-            } catch (final FileSystemException exc) {
-                // VFS-210
-                throw exc;
-            } catch (final Exception exc) {
-                throw new FileSystemException("vfs.provider/list-children.error", exc, fileName);
-            }
+        if (childrenObjects != null) {
+            return childrenObjects;
+        }
 
-            if (files == null) {
-                // VFS-210
-                // honor the new doListChildren contract
-                // return null;
-                throw new FileNotFolderException(fileName);
-            } else if (files.length == 0) {
-                // No children
-                children = EMPTY_FILE_ARRAY;
-            } else {
-                // Create file objects for the children
-                final FileName[] cache = new FileName[files.length];
-                for (int i = 0; i < files.length; i++) {
-                    final String file = files[i];
-                    cache[i] = fs.getFileSystemManager().resolveName(fileName, file, NameScope.CHILD);
-                }
-                // VFS-285: only assign the children filenames after all of them have been
-                // resolved successfully to prevent an inconsistent internal state
-                children = cache;
-            }
+        // List the children
+        final String[] files;
+        try {
+            files = doListChildren();
+        } catch (final FileSystemException exc) {
+            // VFS-210
+            throw exc;
+        } catch (final Exception exc) {
+            throw new FileSystemException("vfs.provider/list-children.error", exc, fileName);
+        }
+
+        if (files == null) {
+            // VFS-210
+            // honor the new doListChildren contract
+            // return null;
+            throw new FileNotFolderException(fileName);
+        }
 
-            return resolveFiles(children);
+        final FileName[] cache;
+        if (files.length == 0) {
+            // No children
+            cache = EMPTY_FILE_ARRAY;
+        } else {
+            // Create file objects for the children
+            cache = new FileName[files.length];
+            for (int i = 0; i < files.length; i++) {
+                final String file = files[i];
+                cache[i] = fs.getFileSystemManager().resolveName(fileName, file, NameScope.CHILD);
+            }
         }
+        // VFS-285: only assign the children filenames after all of them have been
+        // resolved successfully to prevent an inconsistent internal state
+        cacheChildren(cache, generation);
+
+        return resolveFiles(cache);
     }
 
     /**
@@ -1061,6 +1094,12 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      */
     @Override
     public FileContent getContent() throws FileSystemException {
+        refreshIfExpired();
+        final FileContent cachedContent = content;
+        if (attached && cachedContent != null) {
+            return cachedContent;
+        }
+
         synchronized (fs) {
             attach();
             if (content == null) {
@@ -1216,6 +1255,11 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
             return fs.getParentLayer().getParent();
         }
 
+        final FileObject cachedParent = parent;
+        if (cachedParent != null) {
+            return cachedParent;
+        }
+
         synchronized (fs) {
             // Locate the parent of this file
             if (parent == null) {
@@ -1276,6 +1320,12 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
      */
     @Override
     public FileType getType() throws FileSystemException {
+        refreshIfExpired();
+        final FileType cachedType = type;
+        if (attached && cachedType != null) {
+            return cachedType;
+        }
+
         synchronized (fs) {
             attach();
 
@@ -1480,6 +1530,19 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
         }
     }
 
+    /**
+     * Determines if {@link #doListChildren()} and {@link #doListChildrenResolved()} can be called without holding the
+     * file system lock, so several folders of the file system can be listed at the same time.
+     * <p>
+     * This implementation returns false.
+     *
+     * @return true if the children of several files can be listed concurrently.
+     * @since 2.3
+     */
+    protected boolean isListChildrenThreadSafe() {
+        return false;
+    }
+
     /**
      * Determines if this file can be read.
      *
@@ -1538,12 +1601,30 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
     @Override
     public Iterator<FileObject> iterator() {
         try {
-            return listFiles(Selectors.SELECT_ALL).iterator();
+            return iterateFiles(Selectors.SELECT_ALL);
         } catch (final FileSystemException e) {
             throw new IllegalStateException(e);
         }
     }
 
+    /**
+     * Returns an iterator over the matching descendants of this file, in depthwise order.
+     * <p>
+     * Unlike {@link #listFiles(FileSelector)}, the folders are listed as the iteration reaches them, so a large tree is
+     * never held in memory. A failure to list a folder is thrown by the iterator as an {@link IllegalStateException}.
+     *
+     * @param selector The FileSelector.
+     * @return an Iterator, empty if the base file (this object) does not exist.
+     * @throws FileSystemException if an error occurs.
+     * @since 2.3
+     */
+    public Iterator<FileObject> iterateFiles(final FileSelector selector) throws FileSystemException {
+        if (!exists()) {
+            return Collections.<FileObject>emptyList().iterator();
+        }
+        return new FileTreeIterator(this, selector);
+    }
+
     /**
      * Lists the set of matching descendants of this file, in depthwise order.
      *
@@ -1561,6 +1642,45 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
         return list;
     }
 
+    /**
+     * Passes the matching descendants of this file to a visitor, in depthwise order.
+     * <p>
+     * With a parallelism above 1, the tree is traversed by a fork-join pool of that many threads: the children of a
+     * folder are traversed concurrently, and a folder is visited once all its selected descendants are. The selector and
+     * the visitor must then be thread-safe. Folders of different file systems, or of providers that support it, are also
+     * listed concurrently. The traversal stops at the first failure.
+     *
+     * @param selector The FileSelector.
+     * @param visitor The FileVisitor.
+     * @param parallelism The number of threads, 1 to traverse the tree on the calling thread.
+     * @throws FileSystemException if an error occurs.
+     * @see #isListChildrenThreadSafe()
+     * @since 2.3
+     */
+    public void visitFiles(final FileSelector selector, final FileVisitor visitor, final int parallelism)
+            throws FileSystemException {
+        if (!exists()) {
+            return;
+        }
+
+        if (parallelism > 1) {
+            FileTreeTask.walk(this, selector, visitor, parallelism);
+            return;
+        }
+
+        final FileTreeIterator iterator = new FileTreeIterator(this, selector);
+        FileObject file;
+        while ((file = iterator.nextFile()) != null) {
+            try {
+                visitor.visitFile(file);
+            } catch (final FileSystemException e) {
+                throw e;
+            } catch (final Exception e) {
+                throw new FileSystemException("vfs.provider/find-files.error", fileName, e);
+            }
+        }
+    }
+
     /**
      * Moves (rename) the file to another one.
      *
@@ -1686,8 +1806,65 @@ public abstract class AbstractFileObject<AFS extends AbstractFileSystem> impleme
         }
     }
 
+    /**
+     * Drops the information cached about this file, as {@link #refresh()} does, but without fetching any of it again.
+     * Some providers fetch the type of a file again in {@code refresh()}; after this method the information is filled
+     * in by the next listing of the parent folder, or fetched when it is next needed.
+     *
+     * @throws FileSystemException if an error occurs.
+     * @since 2.3
+     */
+    public void detachState() throws FileSystemException {
+        try {
+            detach();
+        } catch (final Exception e) {
+            throw new FileSystemException("vfs.provider/resync.error", fileName, e);
+        }
+    }
+
+    /**
+     * Drops the cached info once it is older than the time to live of
+     * {@link org.apache.commons.vfs2.CacheStrategy#ON_EXPIRY}. Files with open streams keep their info until the streams
+     * are closed.
+     *
+     * @throws FileSystemException if an error occurs.
+     */
+    private void refreshIfExpired() throws FileSystemException {
+        final long timeToLive = fs.getCacheTimeToLive();
+        if (timeToLive > 0 && attached && System.currentTimeMillis() - attachTime >= timeToLive) {
+            synchronized (fs) {
+                if (attached && !isContentOpen() && System.currentTimeMillis() - attachTime >= timeToLive) {
+                    // detach directly, providers may suppress refresh() while they list children
+                    try {
+                        detach();
+                    } catch (final Exception e) {
+                        throw new FileSystemException("vfs.provider/resync.error", fileName, e);
+                    }
+                    final FileContent cachedContent = content;
+                    if (cachedContent instanceof DefaultFileContent) {
+                        ((DefaultFileContent) cachedContent).resetAttributes();
+                    }
+                }
+            }
+        }
+    }
+
     private void removeChildrenCache() {
-        children = null;
+        synchronized (fs) {
+            childrenGeneration++;
+            children = null;
+        }
+    }
+
+    /**
+     * Caches the names of the children listed at the given generation, unless they changed since.
+     */
+    private void cacheChildren(final FileName[] names, final int generation) {
+        synchronized (fs) {
+            if (attached && generation == childrenGeneration) {
+                children = names;
+            }
+        }
     }
 
     private FileObject resolveFile(final FileName child) throws FileSystemException {
@@ -23,6 +23,8 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -92,6 +94,17 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
      */
     private final AtomicInteger openStreams = new AtomicInteger(0);
 
+    /**
+     * Locks held while a FileObject is created, keyed by name. Only threads resolving the same uncached name wait for
+     * each other; cache hits never touch this map.
+     */
+    private final ConcurrentMap<FileName, Object> creationLocks = new ConcurrentHashMap<>();
+
+    /**
+     * The time to live of cached file data in ms, 0 if it never expires and -1 until looked up.
+     */
+    private volatile long cacheTimeToLive = -1;
+
     protected AbstractFileSystem(final FileName rootName, final FileObject parentLayer,
             final FileSystemOptions fileSystemOptions) {
         this.parentLayer = parentLayer;
@@ -300,8 +313,7 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
         return resolveFile(name, true);
     }
 
-    private synchronized FileObject resolveFile(final FileName name, final boolean useCache)
-            throws FileSystemException {
+    private FileObject resolveFile(final FileName name, final boolean useCache) throws FileSystemException {
         if (!rootName.getRootURI().equals(name.getRootURI())) {
             throw new FileSystemException("vfs.provider/mismatched-fs-for-name.error", name, rootName,
                     name.getRootURI());
@@ -311,23 +323,11 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
         FileObject file;
         if (useCache) {
             file = getFileFromCache(name);
-        } else {
-            file = null;
-        }
-
-        if (file == null) {
-            try {
-                file = createFile((AbstractFileName) name);
-            } catch (final Exception e) {
-                throw new FileSystemException("vfs.provider/resolve-file.error", name, e);
-            }
-
-            file = decorateFileObject(file);
-
-            // imario@apache.org ==> use putFileToCache
-            if (useCache) {
-                putFileToCache(file);
+            if (file == null) {
+                file = createAndCacheFile(name);
             }
+        } else {
+            file = createFileObject(name);
         }
 
         /**
@@ -339,6 +339,45 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
         return file;
     }
 
+    /**
+     * Creates a file object for a name that missed the cache and adds it to the cache.
+     * <p>
+     * Concurrent callers for the same name are serialized so that only one of them creates the file object, the others
+     * pick it up from the cache. Callers for different names do not block each other.
+     */
+    private FileObject createAndCacheFile(final FileName name) throws FileSystemException {
+        final Object newLock = new Object();
+        Object lock = creationLocks.putIfAbsent(name, newLock);
+        if (lock == null) {
+            lock = newLock;
+        }
+        try {
+            synchronized (lock) {
+                // another thread might have created it while we were waiting
+                FileObject file = getFileFromCache(name);
+                if (file == null) {
+                    file = createFileObject(name);
+                    // imario@apache.org ==> use putFileToCache
+                    putFileToCache(file);
+                }
+                return file;
+            }
+        } finally {
+            creationLocks.remove(name, lock);
+        }
+    }
+
+    private FileObject createFileObject(final FileName name) throws FileSystemException {
+        final FileObject file;
+        try {
+            file = createFile((AbstractFileName) name);
+        } catch (final Exception e) {
+            throw new FileSystemException("vfs.provider/resolve-file.error", name, e);
+        }
+
+        return decorateFileObject(file);
+    }
+
     protected FileObject decorateFileObject(FileObject file) throws FileSystemException {
         if (getFileSystemManager().getCacheStrategy().equals(CacheStrategy.ON_CALL)) {
             file = new OnCallRefreshFileObject(file);
@@ -404,6 +443,35 @@ public abstract class AbstractFileSystem extends AbstractVfsComponent implements
         return getContext().getFileSystemManager();
     }
 
+    /**
+     * Returns how long the data cached on the files of this file system is valid.
+     * <p>
+     * Only used with {@link CacheStrategy#ON_EXPIRY}, the value is taken from the config builder of this scheme, see
+     * {@link FileSystemConfigBuilder#setCacheTimeToLive(FileSystemOptions, long)}.
+     *
+     * @return the time to live in ms, 0 if cached data does not expire.
+     */
+    long getCacheTimeToLive() {
+        long timeToLive = cacheTimeToLive;
+        if (timeToLive < 0) {
+            timeToLive = 0;
+            if (getFileSystemManager().getCacheStrategy().equals(CacheStrategy.ON_EXPIRY)) {
+                FileSystemConfigBuilder builder = null;
+                try {
+                    builder = getFileSystemManager().getFileSystemConfigBuilder(rootName.getScheme());
+                } catch (final FileSystemException e) {
+                    // no provider specific options, use the defaults
+                }
+                if (builder == null) {
+                    builder = DefaultFileSystemConfigBuilder.getInstance();
+                }
+                timeToLive = Math.max(builder.getCacheTimeToLive(fileSystemOptions), 0);
+            }
+            cacheTimeToLive = timeToLive;
+        }
+        return timeToLive;
+    }
+
     /**
      * Returns the accuracy of the last modification time.
      *
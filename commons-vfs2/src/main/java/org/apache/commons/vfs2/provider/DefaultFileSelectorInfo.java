@@ -21,8 +21,11 @@ import org.apache.commons.vfs2.FileSelectInfo;
 
 /**
  * A default {@link FileSelectInfo} implementation.
+ * <p>
+ * Public since 2.3, for the walks outside of this package that hand a {@link FileSelectInfo} to a selector.
+ * </p>
  */
-final class DefaultFileSelectorInfo implements FileSelectInfo {
+public final class DefaultFileSelectorInfo implements FileSelectInfo {
 
     private FileObject baseFolder;
     private FileObject file;
@@ -33,6 +36,12 @@ final class DefaultFileSelectorInfo implements FileSelectInfo {
         return baseFolder;
     }
 
+    /**
+     * Sets the base folder of the walk.
+     *
+     * @param baseFolder The base folder.
+     * @since 2.3
+     */
     public void setBaseFolder(final FileObject baseFolder) {
         this.baseFolder = baseFolder;
     }
@@ -42,6 +51,12 @@ final class DefaultFileSelectorInfo implements FileSelectInfo {
         return file;
     }
 
+    /**
+     * Sets the file being selected.
+     *
+     * @param file The file.
+     * @since 2.3
+     */
     public void setFile(final FileObject file) {
         this.file = file;
     }
@@ -51,6 +66,12 @@ final class DefaultFileSelectorInfo implements FileSelectInfo {
         return depth;
     }
 
+    /**
+     * Sets the depth of the file relative to the base folder.
+     *
+     * @param depth The depth.
+     * @since 2.3
+     */
     public void setDepth(final int depth) {
         this.depth = depth;
     }
@@ -32,6 +32,7 @@ import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileType;
 import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.util.FileObjectUtils;
 import org.apache.commons.vfs2.util.RandomAccessMode;
 import org.apache.commons.vfs2.util.WeakRefFileListener;
 
@@ -368,6 +369,24 @@ public class DelegateFileObject<AFS extends AbstractFileSystem> extends Abstract
         }
     }
 
+    /**
+     * Drops the information cached about this file and the file it delegates to, without fetching it again.
+     *
+     * @throws FileSystemException if an error occurs.
+     * @since 2.3
+     */
+    @Override
+    public void detachState() throws FileSystemException {
+        super.detachState();
+        if (file != null) {
+            if (FileObjectUtils.isInstanceOf(file, AbstractFileObject.class)) {
+                FileObjectUtils.getAbstractFileObject(file).detachState();
+            } else {
+                file.refresh();
+            }
+        }
+    }
+
     /**
      * Return file content info.
      *
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSelector;
+import org.apache.commons.vfs2.FileSystemException;
+
+/**
+ * Iterates over the selected descendants of a file in depthwise order.
+ * <p>
+ * Folders are listed as the iteration reaches them, so only the children of the folders on the path to the current file
+ * are held, not the whole tree.
+ */
+final class FileTreeIterator implements Iterator<FileObject> {
+    /**
+     * A folder being iterated.
+     */
+    private static final class Frame {
+        private final FileObject folder;
+        private final int depth;
+        private final FileObject[] children;
+        private int index;
+
+        private Frame(final FileObject folder, final int depth, final FileObject[] children) {
+            this.folder = folder;
+            this.depth = depth;
+            this.children = children;
+        }
+    }
+
+    private final FileObject baseFolder;
+
+    private final FileSelector selector;
+
+    private final DefaultFileSelectorInfo info = new DefaultFileSelectorInfo();
+
+    private final Deque<Frame> stack = new ArrayDeque<>();
+
+    private boolean started;
+
+    private FileObject next;
+
+    FileTreeIterator(final FileObject baseFolder, final FileSelector selector) {
+        this.baseFolder = baseFolder;
+        this.selector = selector;
+        info.setBaseFolder(baseFolder);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = nextFile();
+            } catch (final FileSystemException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public FileObject next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final FileObject file = next;
+        next = null;
+        return file;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns the next selected file.
+     *
+     * @return The next file, or null at the end of the iteration.
+     * @throws FileSystemException if a folder cannot be listed or the selector fails.
+     */
+    FileObject nextFile() throws FileSystemException {
+        try {
+            if (!started) {
+                started = true;
+                if (enter(baseFolder, 0)) {
+                    return baseFolder;
+                }
+            }
+
+            while (!stack.isEmpty()) {
+                final Frame frame = stack.peek();
+                if (frame.index < frame.children.length) {
+                    final FileObject child = frame.children[frame.index++];
+                    if (enter(child, frame.depth + 1)) {
+                        return child;
+                    }
+                } else {
+                    // all descendants are done, the folder comes after them
+                    stack.pop();
+                    if (include(frame.folder, frame.depth)) {
+                        return frame.folder;
+                    }
+                }
+            }
+            return null;
+        } catch (final FileSystemException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new FileSystemException("vfs.provider/find-files.error", baseFolder.getName(), e);
+        }
+    }
+
+    /**
+     * Starts a file, pushes it if its descendants are traversed.
+     *
+     * @return true if the file is a leaf of the traversal and is selected.
+     */
+    private boolean enter(final FileObject file, final int depth) throws Exception {
+        info.setFile(file);
+        info.setDepth(depth);
+        if (file.getType().hasChildren() && selector.traverseDescendents(info)) {
+            stack.push(new Frame(file, depth, file.getChildren()));
+            return false;
+        }
+        return selector.includeFile(info);
+    }
+
+    private boolean include(final FileObject file, final int depth) throws Exception {
+        info.setFile(file);
+        info.setDepth(depth);
+        return selector.includeFile(info);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSelector;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileVisitor;
+
+/**
+ * Traverses a file and its descendants, listing sibling folders concurrently.
+ * <p>
+ * The task of a folder forks one task per child and visits the folder once they are done, so the files are visited in
+ * depthwise order along each path.
+ */
+final class FileTreeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The state shared by the tasks of one traversal.
+     */
+    private static final class Walk {
+        private final FileObject baseFolder;
+        private final FileSelector selector;
+        private final FileVisitor visitor;
+        private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+        private Walk(final FileObject baseFolder, final FileSelector selector, final FileVisitor visitor) {
+            this.baseFolder = baseFolder;
+            this.selector = selector;
+            this.visitor = visitor;
+        }
+    }
+
+    /**
+     * Stops the tasks of a failed traversal, the failure itself is kept by the {@link Walk}.
+     */
+    private static final class WalkFailedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    private final transient Walk walk;
+
+    private final transient FileObject file;
+
+    private final int depth;
+
+    private FileTreeTask(final Walk walk, final FileObject file, final int depth) {
+        this.walk = walk;
+        this.file = file;
+        this.depth = depth;
+    }
+
+    /**
+     * Traverses a file and its descendants in a pool of the given parallelism.
+     *
+     * @param baseFolder The file to start from.
+     * @param selector Selects the files, must be thread-safe.
+     * @param visitor Visits the selected files, must be thread-safe.
+     * @param parallelism The number of threads.
+     * @throws FileSystemException if a folder cannot be listed, or the selector or visitor fails.
+     */
+    static void walk(final FileObject baseFolder, final FileSelector selector, final FileVisitor visitor,
+            final int parallelism) throws FileSystemException {
+        final Walk walk = new Walk(baseFolder, selector, visitor);
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new FileTreeTask(walk, baseFolder, 0));
+        } catch (final RuntimeException e) {
+            if (walk.failure.get() == null) {
+                throw e;
+            }
+            // otherwise reported below
+        } finally {
+            pool.shutdown();
+        }
+
+        final Exception failure = walk.failure.get();
+        if (failure instanceof FileSystemException) {
+            throw (FileSystemException) failure;
+        } else if (failure != null) {
+            throw new FileSystemException("vfs.provider/find-files.error", baseFolder.getName(), failure);
+        }
+    }
+
+    @Override
+    protected void compute() {
+        if (walk.failure.get() != null) {
+            return;
+        }
+
+        try {
+            final DefaultFileSelectorInfo info = new DefaultFileSelectorInfo();
+            info.setBaseFolder(walk.baseFolder);
+            info.setFile(file);
+            info.setDepth(depth);
+
+            if (file.getType().hasChildren() && walk.selector.traverseDescendents(info)) {
+                final FileObject[] children = file.getChildren();
+                final List<FileTreeTask> tasks = new ArrayList<>(children.length);
+                for (final FileObject child : children) {
+                    tasks.add(new FileTreeTask(walk, child, depth + 1));
+                }
+                invokeAll(tasks);
+            }
+
+            if (walk.failure.get() == null && walk.selector.includeFile(info)) {
+                walk.visitor.visitFile(file);
+            }
+        } catch (final WalkFailedException e) {
+            throw e;
+        } catch (final Exception e) {
+            walk.failure.compareAndSet(null, e);
+            throw new WalkFailedException();
+        }
+    }
+}
@@ -267,4 +267,15 @@ public class FTPClientWrapper implements FtpClient {
     public String getReplyString() throws IOException {
         return getFtpClient().getReplyString();
     }
+
+    /**
+     * Sends a NOOP command, used to check that an idle connection is still usable.
+     *
+     * @return true if the server accepted the command.
+     * @throws IOException if the connection is broken.
+     * @since 2.3
+     */
+    public boolean sendNoop() throws IOException {
+        return getFtpClient().sendNoOp();
+    }
 }
@@ -17,8 +17,11 @@
 package org.apache.commons.vfs2.provider.ftp;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Deque;
+import java.util.List;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -42,8 +45,24 @@ public class FtpFileSystem extends AbstractFileSystem {
     // private final String username;
     // private final String password;
 
-    // An idle client
-    private final AtomicReference<FtpClient> idleClient = new AtomicReference<>();
+    // Idle clients, the most recently returned first. Guarded by poolLock, which is never held while talking to the
+    // server.
+    private final Deque<IdleClient> idleClients = new ArrayDeque<>();
+
+    private final Object poolLock = new Object();
+
+    // Clients handed out or being created
+    private int activeClients;
+
+    private final int maxTotal;
+
+    private final int maxIdle;
+
+    private final long idleTimeoutMillis;
+
+    private final long maxWaitMillis;
+
+    private final boolean validateOnBorrow;
 
     /**
      * @param rootName The root of the file system.
@@ -57,15 +76,29 @@ public class FtpFileSystem extends AbstractFileSystem {
         // hostname = rootName.getHostName();
         // port = rootName.getPort();
 
-        idleClient.set(ftpClient);
+        // FTPS shares the options of FTP
+        final FtpFileSystemConfigBuilder builder = FtpFileSystemConfigBuilder.getInstance();
+        maxTotal = Math.max(builder.getClientPoolMaxTotal(fileSystemOptions).intValue(), 0);
+        maxIdle = Math.max(builder.getClientPoolMaxIdle(fileSystemOptions).intValue(), 0);
+        idleTimeoutMillis = Math.max(builder.getClientPoolIdleTimeout(fileSystemOptions).intValue(), 0);
+        maxWaitMillis = Math.max(builder.getClientPoolMaxWait(fileSystemOptions).intValue(), 0);
+        validateOnBorrow = builder.getClientPoolValidateOnBorrow(fileSystemOptions).booleanValue();
+
+        if (ftpClient != null) {
+            idleClients.add(new IdleClient(ftpClient, System.currentTimeMillis()));
+        }
     }
 
     @Override
     protected void doCloseCommunicationLink() {
-        final FtpClient idle = idleClient.getAndSet(null);
-        // Clean up the connection
-        if (idle != null) {
-            closeConnection(idle);
+        final List<IdleClient> idle;
+        synchronized (poolLock) {
+            idle = new ArrayList<>(idleClients);
+            idleClients.clear();
+        }
+        // Clean up the connections
+        for (final IdleClient idleClient : idle) {
+            closeConnection(idleClient.client);
         }
     }
 
@@ -96,18 +129,87 @@ public class FtpFileSystem extends AbstractFileSystem {
 
     /**
      * Creates an FTP client to use.
+     * <p>
+     * Idle clients are reused, the most recently returned first. When
+     * {@link FtpFileSystemConfigBuilder#setClientPoolMaxTotal(FileSystemOptions, Integer)} clients are in use, waits
+     * for a client to be returned.
      *
      * @return An FTPCleint.
      * @throws FileSystemException if an error occurs.
      */
     public FtpClient getClient() throws FileSystemException {
-        FtpClient client = idleClient.getAndSet(null);
+        final long deadline = System.currentTimeMillis() + maxWaitMillis;
+        final List<IdleClient> expired = new ArrayList<>();
+        IdleClient idle;
+        synchronized (poolLock) {
+            while (true) {
+                // drop the clients idle for too long, the oldest are at the end
+                final long now = System.currentTimeMillis();
+                while (idleTimeoutMillis > 0 && !idleClients.isEmpty()
+                        && now - idleClients.peekLast().since >= idleTimeoutMillis) {
+                    expired.add(idleClients.pollLast());
+                }
+
+                idle = idleClients.pollFirst();
+                if (idle != null || maxTotal <= 0 || activeClients < maxTotal) {
+                    activeClients++;
+                    break;
+                }
+
+                final long wait = deadline - now;
+                if (wait <= 0) {
+                    throw new FileSystemException("vfs.provider.ftp/client-pool-exhausted.error", getRootName());
+                }
+                try {
+                    poolLock.wait(wait);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new FileSystemException("vfs.provider.ftp/client-pool-exhausted.error", getRootName(), e);
+                }
+            }
+        }
+        for (final IdleClient idleClient : expired) {
+            closeConnection(idleClient.client);
+        }
+
+        try {
+            if (idle != null) {
+                if (isValid(idle.client)) {
+                    return idle.client;
+                }
+                closeConnection(idle.client);
+            }
+            return createWrapper();
+        } catch (final FileSystemException | RuntimeException e) {
+            releaseClient();
+            throw e;
+        }
+    }
 
-        if (client == null || !client.isConnected()) {
-            client = createWrapper();
+    /**
+     * Checks that a pooled client is still connected, and if enabled that it answers a NOOP. Other implementations
+     * than {@link FTPClientWrapper} are only checked for their connection.
+     */
+    private boolean isValid(final FtpClient client) {
+        try {
+            if (!client.isConnected()) {
+                return false;
+            }
+            return !validateOnBorrow || !(client instanceof FTPClientWrapper)
+                    || ((FTPClientWrapper) client).sendNoop();
+        } catch (final IOException e) {
+            return false;
         }
+    }
 
-        return client;
+    /**
+     * Frees the slot of a client which is not returned to the pool.
+     */
+    private void releaseClient() {
+        synchronized (poolLock) {
+            activeClients--;
+            poolLock.notifyAll();
+        }
     }
 
     /**
@@ -123,13 +225,29 @@ public class FtpFileSystem extends AbstractFileSystem {
 
     /**
      * Returns an FTP client after use.
+     * <p>
+     * The client is kept for reuse if it is still connected and there are less than
+     * {@link FtpFileSystemConfigBuilder#setClientPoolMaxIdle(FileSystemOptions, Integer)} idle clients, otherwise its
+     * connection is closed.
      *
      * @param client The FTPClient.
      */
     public void putClient(final FtpClient client) {
-        // Save client for reuse if none is idle.
-        if (!idleClient.compareAndSet(null, client)) {
-            // An idle client is already present so close the connection.
+        boolean keep = false;
+        synchronized (poolLock) {
+            activeClients--;
+            // Save client for reuse if the pool is not full.
+            try {
+                if (idleClients.size() < maxIdle && client.isConnected()) {
+                    idleClients.addFirst(new IdleClient(client, System.currentTimeMillis()));
+                    keep = true;
+                }
+            } catch (final FileSystemException e) {
+                // not reusable
+            }
+            poolLock.notifyAll();
+        }
+        if (!keep) {
             closeConnection(client);
         }
     }
@@ -141,4 +259,18 @@ public class FtpFileSystem extends AbstractFileSystem {
     protected FileObject createFile(final AbstractFileName name) throws FileSystemException {
         return new FtpFileObject(name, this, getRootName());
     }
+
+    /**
+     * A client in the pool and since when it is idle.
+     */
+    private static final class IdleClient {
+        private final FtpClient client;
+
+        private final long since;
+
+        private IdleClient(final FtpClient client, final long since) {
+            this.client = client;
+            this.since = since;
+        }
+    }
 }
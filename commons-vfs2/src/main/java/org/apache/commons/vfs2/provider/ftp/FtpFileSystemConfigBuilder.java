@@ -31,6 +31,16 @@ public class FtpFileSystemConfigBuilder extends FileSystemConfigBuilder {
 
     private static final FtpFileSystemConfigBuilder BUILDER = new FtpFileSystemConfigBuilder();
 
+    private static final Integer DEFAULT_CLIENT_POOL_IDLE_TIMEOUT = Integer.valueOf(60000);
+    private static final Integer DEFAULT_CLIENT_POOL_MAX_IDLE = Integer.valueOf(4);
+    private static final Integer DEFAULT_CLIENT_POOL_MAX_TOTAL = Integer.valueOf(0);
+    private static final Integer DEFAULT_CLIENT_POOL_MAX_WAIT = Integer.valueOf(30000);
+
+    private static final String CLIENT_POOL_IDLE_TIMEOUT = _PREFIX + ".CLIENT_POOL_IDLE_TIMEOUT";
+    private static final String CLIENT_POOL_MAX_IDLE = _PREFIX + ".CLIENT_POOL_MAX_IDLE";
+    private static final String CLIENT_POOL_MAX_TOTAL = _PREFIX + ".CLIENT_POOL_MAX_TOTAL";
+    private static final String CLIENT_POOL_MAX_WAIT = _PREFIX + ".CLIENT_POOL_MAX_WAIT";
+    private static final String CLIENT_POOL_VALIDATE_ON_BORROW = _PREFIX + ".CLIENT_POOL_VALIDATE_ON_BORROW";
     private static final String CONNECT_TIMEOUT = _PREFIX + ".CONNECT_TIMEOUT";
     private static final String DATA_TIMEOUT = _PREFIX + ".DATA_TIMEOUT";
     private static final String DEFAULT_DATE_FORMAT = _PREFIX + ".DEFAULT_DATE_FORMAT";
@@ -75,6 +85,66 @@ public class FtpFileSystemConfigBuilder extends FileSystemConfigBuilder {
         return FtpFileSystem.class;
     }
 
+    /**
+     * Gets the time after which an idle connection is closed.
+     *
+     * @param opts The FileSystemOptions.
+     * @return The idle timeout in milliseconds.
+     * @see #setClientPoolIdleTimeout
+     * @since 2.3
+     */
+    public Integer getClientPoolIdleTimeout(final FileSystemOptions opts) {
+        return getInteger(opts, CLIENT_POOL_IDLE_TIMEOUT, DEFAULT_CLIENT_POOL_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Gets the maximum number of idle connections kept for reuse.
+     *
+     * @param opts The FileSystemOptions.
+     * @return The maximum number of idle connections.
+     * @see #setClientPoolMaxIdle
+     * @since 2.3
+     */
+    public Integer getClientPoolMaxIdle(final FileSystemOptions opts) {
+        return getInteger(opts, CLIENT_POOL_MAX_IDLE, DEFAULT_CLIENT_POOL_MAX_IDLE);
+    }
+
+    /**
+     * Gets the maximum number of connections in use at the same time.
+     *
+     * @param opts The FileSystemOptions.
+     * @return The maximum number of connections in use, 0 for no limit.
+     * @see #setClientPoolMaxTotal
+     * @since 2.3
+     */
+    public Integer getClientPoolMaxTotal(final FileSystemOptions opts) {
+        return getInteger(opts, CLIENT_POOL_MAX_TOTAL, DEFAULT_CLIENT_POOL_MAX_TOTAL);
+    }
+
+    /**
+     * Gets how long to wait for a connection when all connections are in use.
+     *
+     * @param opts The FileSystemOptions.
+     * @return The maximum wait in milliseconds.
+     * @see #setClientPoolMaxWait
+     * @since 2.3
+     */
+    public Integer getClientPoolMaxWait(final FileSystemOptions opts) {
+        return getInteger(opts, CLIENT_POOL_MAX_WAIT, DEFAULT_CLIENT_POOL_MAX_WAIT);
+    }
+
+    /**
+     * Gets whether idle connections are checked with a NOOP before they are reused.
+     *
+     * @param opts The FileSystemOptions.
+     * @return true if idle connections are checked before they are reused.
+     * @see #setClientPoolValidateOnBorrow
+     * @since 2.3
+     */
+    public Boolean getClientPoolValidateOnBorrow(final FileSystemOptions opts) {
+        return getBoolean(opts, CLIENT_POOL_VALIDATE_ON_BORROW, Boolean.FALSE);
+    }
+
     /**
      * Gets the timeout in milliseconds to use for the socket connection.
      *
@@ -238,6 +308,71 @@ public class FtpFileSystemConfigBuilder extends FileSystemConfigBuilder {
         return getBoolean(opts, USER_DIR_IS_ROOT, Boolean.TRUE);
     }
 
+    /**
+     * Sets the time after which an idle connection is closed, defaults to 60000. Use 0 to keep idle connections open
+     * until the file system is closed.
+     *
+     * @param opts The FileSystemOptions.
+     * @param idleTimeout The idle timeout in milliseconds.
+     * @since 2.3
+     */
+    public void setClientPoolIdleTimeout(final FileSystemOptions opts, final Integer idleTimeout) {
+        setParam(opts, CLIENT_POOL_IDLE_TIMEOUT, idleTimeout);
+    }
+
+    /**
+     * Sets the maximum number of idle connections kept for reuse, defaults to 4.
+     * <p>
+     * Each new connection costs a login with several round trips, so concurrent transfers are faster when enough
+     * connections are kept for them.
+     *
+     * @param opts The FileSystemOptions.
+     * @param maxIdle The maximum number of idle connections.
+     * @since 2.3
+     */
+    public void setClientPoolMaxIdle(final FileSystemOptions opts, final Integer maxIdle) {
+        setParam(opts, CLIENT_POOL_MAX_IDLE, maxIdle);
+    }
+
+    /**
+     * Sets the maximum number of connections in use at the same time, defaults to 0 which means no limit.
+     * <p>
+     * Use this to stay below the connection limit of the server. Note that each open content stream holds a
+     * connection until it is closed.
+     *
+     * @param opts The FileSystemOptions.
+     * @param maxTotal The maximum number of connections in use, 0 for no limit.
+     * @since 2.3
+     */
+    public void setClientPoolMaxTotal(final FileSystemOptions opts, final Integer maxTotal) {
+        setParam(opts, CLIENT_POOL_MAX_TOTAL, maxTotal);
+    }
+
+    /**
+     * Sets how long to wait for a connection when {@link #setClientPoolMaxTotal(FileSystemOptions, Integer)}
+     * connections are in use, defaults to 30000. Use 0 to fail at once.
+     *
+     * @param opts The FileSystemOptions.
+     * @param maxWait The maximum wait in milliseconds.
+     * @since 2.3
+     */
+    public void setClientPoolMaxWait(final FileSystemOptions opts, final Integer maxWait) {
+        setParam(opts, CLIENT_POOL_MAX_WAIT, maxWait);
+    }
+
+    /**
+     * Sets whether idle connections are checked with a NOOP before they are reused, defaults to false.
+     * <p>
+     * Broken connections are replaced by a new connection.
+     *
+     * @param opts The FileSystemOptions.
+     * @param validateOnBorrow true to check connections before they are reused.
+     * @since 2.3
+     */
+    public void setClientPoolValidateOnBorrow(final FileSystemOptions opts, final boolean validateOnBorrow) {
+        setParam(opts, CLIENT_POOL_VALIDATE_ON_BORROW, validateOnBorrow ? Boolean.TRUE : Boolean.FALSE);
+    }
+
     /**
      * Sets the timeout for the initial control connection.
      * <p>
@@ -55,5 +55,12 @@ public enum HdfsFileAttributes {
     /**
      * Modification time.
      */
-    MODIFICATION_TIME;
+    MODIFICATION_TIME,
+
+    /**
+     * Replication factor.
+     *
+     * @since 2.3
+     */
+    REPLICATION;
 }
@@ -28,6 +28,7 @@ import org.apache.commons.vfs2.FileType;
 import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileObject;
+import org.apache.commons.vfs2.util.FileObjectUtils;
 import org.apache.commons.vfs2.util.RandomAccessMode;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
@@ -44,6 +45,9 @@ public class HdfsFileObject extends AbstractFileObject<HdfsFileSystem> {
     private final Path path;
     private FileStatus stat;
 
+    /** The stat was filled in from the listing of the parent, and is used by the next attach. */
+    private boolean statListed;
+
     /**
      * Constructs a new HDFS FileObject
      *
@@ -73,6 +77,10 @@ public class HdfsFileObject extends AbstractFileObject<HdfsFileSystem> {
      */
     @Override
     protected void doAttach() throws Exception {
+        if (this.statListed) {
+            this.statListed = false;
+            return;
+        }
         try {
             this.stat = this.hdfs.getFileStatus(this.path);
         } catch (final FileNotFoundException e) {
@@ -81,6 +89,31 @@ public class HdfsFileObject extends AbstractFileObject<HdfsFileSystem> {
         }
     }
 
+    /**
+     * Drops the status, also a listed one, so that attaching this file again fetches it from the NameNode.
+     *
+     * @see org.apache.commons.vfs2.provider.AbstractFileObject#doDetach()
+     */
+    @Override
+    protected void doDetach() throws Exception {
+        this.stat = null;
+        this.statListed = false;
+    }
+
+    /**
+     * Also drops a status listed while this file was not attached, which detaching alone keeps.
+     *
+     * @see org.apache.commons.vfs2.provider.AbstractFileObject#refresh()
+     */
+    @Override
+    public void refresh() throws FileSystemException {
+        super.refresh();
+        synchronized (getFileSystem()) {
+            this.stat = null;
+            this.statListed = false;
+        }
+    }
+
     /**
      * @see org.apache.commons.vfs2.provider.AbstractFileObject#doGetAttributes()
      */
@@ -97,6 +130,7 @@ public class HdfsFileObject extends AbstractFileObject<HdfsFileSystem> {
         attrs.put(HdfsFileAttributes.PERMISSIONS.toString(), this.stat.getPermission().toString());
         attrs.put(HdfsFileAttributes.LENGTH.toString(), this.stat.getLen());
         attrs.put(HdfsFileAttributes.MODIFICATION_TIME.toString(), this.stat.getModificationTime());
+        attrs.put(HdfsFileAttributes.REPLICATION.toString(), this.stat.getReplication());
         return attrs;
     }
 
@@ -146,18 +180,34 @@ public class HdfsFileObject extends AbstractFileObject<HdfsFileSystem> {
     protected FileType doGetType() throws Exception {
         try {
             doAttach();
-            if (null == stat) {
-                return FileType.IMAGINARY;
-            }
-            if (stat.isDirectory()) {
-                return FileType.FOLDER;
-            }
-            return FileType.FILE;
+            return getType(this.stat);
         } catch (final FileNotFoundException fnfe) {
             return FileType.IMAGINARY;
         }
     }
 
+    private static FileType getType(final FileStatus status) {
+        if (null == status) {
+            return FileType.IMAGINARY;
+        }
+        if (status.isDirectory()) {
+            return FileType.FOLDER;
+        }
+        return FileType.FILE;
+    }
+
+    /**
+     * Fills in the status of this file from the listing of its parent, so that attaching it does not ask the NameNode
+     * again.
+     *
+     * @param status The listed status.
+     */
+    void setStat(final FileStatus status) {
+        this.stat = status;
+        this.statListed = true;
+        injectType(getType(status));
+    }
+
     /**
      * @see org.apache.commons.vfs2.provider.AbstractFileObject#doIsHidden()
      */
@@ -208,11 +258,16 @@ public class HdfsFileObject extends AbstractFileObject<HdfsFileSystem> {
         if (this.doGetType() != FileType.FOLDER) {
             return null;
         }
-        final String[] children = doListChildren();
-        final FileObject[] fo = new FileObject[children.length];
-        for (int i = 0; i < children.length; i++) {
-            final Path p = new Path(this.path, children[i]);
+        final FileStatus[] files = this.hdfs.listStatus(this.path);
+        final FileObject[] fo = new FileObject[files.length];
+        for (int i = 0; i < files.length; i++) {
+            final Path p = new Path(this.path, files[i].getPath().getName());
             fo[i] = this.fs.resolveFile(p.toUri().toString());
+            // the listing already holds what the child would fetch when attached
+            final Object child = FileObjectUtils.getAbstractFileObject(fo[i]);
+            if (child instanceof HdfsFileObject) {
+                ((HdfsFileObject) child).setStat(files[i]);
+            }
         }
         return fo;
     }
@@ -248,7 +303,9 @@ public class HdfsFileObject extends AbstractFileObject<HdfsFileSystem> {
     @Override
     public boolean exists() throws FileSystemException {
         try {
-            doAttach();
+            if (!this.statListed) {
+                doAttach();
+            }
             return this.stat != null;
         } catch (final FileNotFoundException fne) {
             return false;
@@ -18,9 +18,13 @@ package org.apache.commons.vfs2.provider.hdfs;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
 
 import org.apache.commons.vfs2.provider.AbstractRandomAccessContent;
 import org.apache.commons.vfs2.util.RandomAccessMode;
+import org.apache.hadoop.fs.ByteBufferReadable;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -28,10 +32,30 @@ import org.apache.hadoop.fs.Path;
 /**
  * Provides random access to content in an HdfsFileObject. Currently this only supports read operations. All write
  * operations throw an {@link UnsupportedOperationException}.
+ * <p>
+ * Besides the stream semantics of {@link java.io.DataInput}, the content can be read at a given position with the
+ * positioned reads of HDFS. These do not move the file pointer, and may be called by several threads at once.
+ * {@link org.apache.commons.vfs2.FileContent#getRandomAccessContent} returns this class wrapped in a
+ * {@link org.apache.commons.vfs2.util.MonitorRandomAccessContent}, which closes it with the file; get it with
+ * {@link org.apache.commons.vfs2.util.MonitorRandomAccessContent#getMonitoredContent()} and close the wrapper.
  *
  * @since 2.1
  */
 public class HdfsRandomAccessContent extends AbstractRandomAccessContent {
+    /**
+     * Ranges of a vectored read that are at most this many bytes apart are read together: 64 KB.
+     *
+     * @since 2.3
+     */
+    public static final int MAX_MERGE_GAP = 64 * 1024;
+
+    /**
+     * The largest read a vectored read merges ranges into: 8 MB.
+     *
+     * @since 2.3
+     */
+    public static final int MAX_MERGED_LENGTH = 8 * 1024 * 1024;
+
     private final FSDataInputStream fis;
     private final FileSystem fs;
     private final Path path;
@@ -127,7 +151,7 @@ public class HdfsRandomAccessContent extends AbstractRandomAccessContent {
      */
     @Override
     public void readFully(final byte[] b) throws IOException {
-        throw new UnsupportedOperationException();
+        this.fis.readFully(b);
     }
 
     /**
@@ -135,7 +159,164 @@ public class HdfsRandomAccessContent extends AbstractRandomAccessContent {
      */
     @Override
     public void readFully(final byte[] b, final int off, final int len) throws IOException {
-        throw new UnsupportedOperationException();
+        this.fis.readFully(b, off, len);
+    }
+
+    /**
+     * Reads bytes at the file pointer into a buffer, without copying them through a temporary array when the HDFS
+     * stream can read into buffers.
+     *
+     * @param buf The buffer to fill, from its position up to its limit.
+     * @return The number of bytes read, or -1 at the end of the file.
+     * @throws IOException if the bytes cannot be read.
+     * @since 2.3
+     */
+    public int read(final ByteBuffer buf) throws IOException {
+        if (this.fis.getWrappedStream() instanceof ByteBufferReadable) {
+            return this.fis.read(buf);
+        }
+        if (buf.hasArray()) {
+            final int n = this.fis.read(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+            if (n > 0) {
+                buf.position(buf.position() + n);
+            }
+            return n;
+        }
+        final byte[] b = new byte[buf.remaining()];
+        final int n = this.fis.read(b, 0, b.length);
+        if (n > 0) {
+            buf.put(b, 0, n);
+        }
+        return n;
+    }
+
+    /**
+     * Reads bytes at a position, leaving the file pointer where it is.
+     *
+     * @param position The position in the file.
+     * @param b The buffer to fill.
+     * @param off The offset in the buffer.
+     * @param len The maximum number of bytes to read.
+     * @return The number of bytes read, or -1 at the end of the file.
+     * @throws IOException if the bytes cannot be read.
+     * @since 2.3
+     */
+    public int read(final long position, final byte[] b, final int off, final int len) throws IOException {
+        return this.fis.read(position, b, off, len);
+    }
+
+    /**
+     * Reads bytes at a position into a buffer, leaving the file pointer where it is.
+     *
+     * @param position The position in the file.
+     * @param buf The buffer to fill, from its position up to its limit.
+     * @return The number of bytes read, or -1 at the end of the file.
+     * @throws IOException if the bytes cannot be read.
+     * @since 2.3
+     */
+    public int read(final long position, final ByteBuffer buf) throws IOException {
+        if (buf.hasArray()) {
+            final int n = this.fis.read(position, buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+            if (n > 0) {
+                buf.position(buf.position() + n);
+            }
+            return n;
+        }
+        final byte[] b = new byte[buf.remaining()];
+        final int n = this.fis.read(position, b, 0, b.length);
+        if (n > 0) {
+            buf.put(b, 0, n);
+        }
+        return n;
+    }
+
+    /**
+     * Reads exactly {@code len} bytes at a position, leaving the file pointer where it is.
+     *
+     * @param position The position in the file.
+     * @param b The buffer to fill.
+     * @param off The offset in the buffer.
+     * @param len The number of bytes to read.
+     * @throws IOException if the bytes cannot be read, or the file ends first.
+     * @since 2.3
+     */
+    public void readFully(final long position, final byte[] b, final int off, final int len) throws IOException {
+        this.fis.readFully(position, b, off, len);
+    }
+
+    /**
+     * Fills a buffer with the bytes at a position, leaving the file pointer where it is.
+     *
+     * @param position The position in the file.
+     * @param buf The buffer to fill, from its position up to its limit.
+     * @throws IOException if the bytes cannot be read, or the file ends first.
+     * @since 2.3
+     */
+    public void readFully(final long position, final ByteBuffer buf) throws IOException {
+        if (buf.hasArray()) {
+            this.fis.readFully(position, buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+            buf.position(buf.limit());
+            return;
+        }
+        final byte[] b = new byte[buf.remaining()];
+        this.fis.readFully(position, b, 0, b.length);
+        buf.put(b);
+    }
+
+    /**
+     * Fills several buffers with the bytes at their positions, leaving the file pointer where it is.
+     * <p>
+     * The ranges are read in the order of their positions, and ranges at most {@link #MAX_MERGE_GAP} bytes apart are
+     * read with a single positioned read, so many small scattered ranges cost a few round trips to the DataNodes.
+     *
+     * @param positions The position in the file of each buffer.
+     * @param buffers The buffers to fill, each from its position up to its limit.
+     * @throws IOException if the bytes cannot be read, or the file ends before a range.
+     * @since 2.3
+     */
+    public void readVectored(final long[] positions, final ByteBuffer[] buffers) throws IOException {
+        if (positions.length != buffers.length) {
+            throw new IllegalArgumentException("Expected as many positions as buffers");
+        }
+
+        final Integer[] order = new Integer[positions.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = Integer.valueOf(i);
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(final Integer o1, final Integer o2) {
+                return Long.compare(positions[o1.intValue()], positions[o2.intValue()]);
+            }
+        });
+
+        int first = 0;
+        while (first < order.length) {
+            final long start = positions[order[first].intValue()];
+            long end = start + buffers[order[first].intValue()].remaining();
+            int last = first + 1;
+            while (last < order.length) {
+                final int next = order[last].intValue();
+                final long nextEnd = Math.max(end, positions[next] + buffers[next].remaining());
+                if (positions[next] - end > MAX_MERGE_GAP || nextEnd - start > MAX_MERGED_LENGTH) {
+                    break;
+                }
+                end = nextEnd;
+                last++;
+            }
+
+            if (last == first + 1) {
+                readFully(start, buffers[order[first].intValue()]);
+            } else {
+                final byte[] merged = new byte[(int) (end - start)];
+                this.fis.readFully(start, merged, 0, merged.length);
+                for (int i = first; i < last; i++) {
+                    final ByteBuffer buf = buffers[order[i].intValue()];
+                    buf.put(merged, (int) (positions[order[i].intValue()] - start), buf.remaining());
+                }
+            }
+            first = last;
+        }
     }
 
     /**
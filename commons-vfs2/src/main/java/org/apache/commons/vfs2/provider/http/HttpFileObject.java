@@ -75,6 +75,11 @@ public class HttpFileObject<FS extends HttpFileSystem> extends AbstractFileObjec
     private final String urlCharset;
     private final String userAgent;
     private final boolean followRedirect;
+    private final int randomAccessBlockSize;
+    private final int randomAccessMaxBlocks;
+    private final boolean randomAccessReadAhead;
+    private final int downloadConnections;
+    private final int downloadPartSize;
 
     private HttpResponse headResponse;
 
@@ -89,6 +94,11 @@ public class HttpFileObject<FS extends HttpFileSystem> extends AbstractFileObjec
         urlCharset = builder.getUrlCharset(fileSystemOptions);
         userAgent = builder.getUserAgent(fileSystemOptions);
         followRedirect = builder.getFollowRedirect(fileSystemOptions);
+        randomAccessBlockSize = builder.getRandomAccessBlockSize(fileSystemOptions);
+        randomAccessMaxBlocks = builder.getRandomAccessMaxBlocks(fileSystemOptions);
+        randomAccessReadAhead = builder.getRandomAccessReadAhead(fileSystemOptions);
+        downloadConnections = builder.getDownloadConnections(fileSystemOptions);
+        downloadPartSize = Math.max(builder.getDownloadPartSize(fileSystemOptions), 1);
         headResponse = null;
     }
 
@@ -130,11 +140,38 @@ public class HttpFileObject<FS extends HttpFileSystem> extends AbstractFileObjec
      */
     @Override
     protected InputStream doGetInputStream() throws Exception {
+        if (downloadConnections > 1) {
+            final long size = doGetContentSize();
+            if (size > downloadPartSize && acceptsRanges()) {
+                return new HttpParallelInputStream(this, size, downloadConnections, downloadPartSize,
+                        getRangeValidator());
+            }
+        }
+
+        final HttpResponseCache cache = getAbstractFileSystem().getResponseCache();
+        final String uri = getName().getURI();
+        if (cache != null) {
+            final InputStream content = cache.getFreshContent(uri);
+            if (content != null) {
+                return content;
+            }
+        }
+
         final HttpGet getMethod = new HttpGet();
         setupMethod(getMethod);
+        if (cache != null) {
+            cache.prepareGet(uri, getMethod);
+        }
         
         HttpResponse getResponse = getAbstractFileSystem().getClient().execute(getMethod);
         
+        if (cache != null) {
+            final InputStream content = cache.getResponse(uri, getResponse);
+            if (content != null) {
+                return content;
+            }
+        }
+
         final int status = getResponse.getStatusLine().getStatusCode();
                 
         if (status == HttpURLConnection.HTTP_NOT_FOUND) {
@@ -165,9 +202,46 @@ public class HttpFileObject<FS extends HttpFileSystem> extends AbstractFileObjec
         return DateUtils.parseDate(headers[0].getValue()).getTime();
     }
 
+    /**
+     * Returns the validator of the version of this file described by its HEAD response, to send with
+     * {@code If-Range}: its strong ETag, or else its Last-Modified date.
+     *
+     * @return The validator, or null if the server sent none.
+     */
+    String getRangeValidator() throws IOException {
+        final HttpResponse response = getHeadResponse();
+        final Header etag = response.getFirstHeader("ETag");
+        if (etag != null && !etag.getValue().startsWith("W/")) {
+            return etag.getValue();
+        }
+        final Header lastModified = response.getFirstHeader("Last-Modified");
+        return lastModified == null ? null : lastModified.getValue();
+    }
+
+    /**
+     * Returns whether a response is for the version of a file described by a validator.
+     */
+    static boolean hasValidator(final HttpResponse response, final String validator) {
+        final Header etag = response.getFirstHeader("ETag");
+        if (etag != null && validator.equals(etag.getValue())) {
+            return true;
+        }
+        final Header lastModified = response.getFirstHeader("Last-Modified");
+        return lastModified != null && validator.equals(lastModified.getValue());
+    }
+
+    /**
+     * Returns whether the server announced that it accepts byte ranges for this file.
+     */
+    private boolean acceptsRanges() throws IOException {
+        final Header header = getHeadResponse().getFirstHeader("Accept-Ranges");
+        return header != null && "bytes".equalsIgnoreCase(header.getValue().trim());
+    }
+
     @Override
     protected RandomAccessContent doGetRandomAccessContent(final RandomAccessMode mode) throws Exception {
-        return new HttpRandomAccessContent<>(this, mode);
+        return new HttpRandomAccessContent<>(this, mode, randomAccessBlockSize, randomAccessMaxBlocks,
+                randomAccessReadAhead, getRangeValidator());
     }
 
     /**
@@ -222,13 +296,28 @@ public class HttpFileObject<FS extends HttpFileSystem> extends AbstractFileObjec
             return headResponse;
         }
 
+        final HttpResponseCache cache = getAbstractFileSystem().getResponseCache();
+        final String uri = getName().getURI();
+        if (cache != null) {
+            headResponse = cache.getFreshResponse(uri);
+            if (headResponse != null) {
+                return headResponse;
+            }
+        }
+
         // Use the HEAD method to probe the file.
         HttpHead method = new HttpHead();
         setupMethod(method);
+        if (cache != null) {
+            cache.prepareHead(uri, method);
+        }
         final HttpConnectionClient client = getAbstractFileSystem().getClient();
         
         // final int status = client.execute(method);
         headResponse = client.execute(method);
+        if (cache != null) {
+            headResponse = cache.headResponse(uri, headResponse);
+        }
         return headResponse;
     }
 
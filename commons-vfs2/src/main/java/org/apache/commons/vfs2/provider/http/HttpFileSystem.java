@@ -20,10 +20,12 @@ import java.util.Collection;
 
 import org.apache.commons.vfs2.Capability;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileSystem;
 import org.apache.commons.vfs2.provider.GenericFileName;
+import org.apache.commons.vfs2.provider.TemporaryFileStore;
 
 /**
  * An HTTP file system.
@@ -31,6 +33,7 @@ import org.apache.commons.vfs2.provider.GenericFileName;
 public class HttpFileSystem extends AbstractFileSystem {
     private final HttpConnectionClientManager clientManager;
     private final HttpConnectionClient client;  // single client for all communications
+    private HttpResponseCache responseCache;
     
     protected HttpFileSystem(final GenericFileName rootName, final HttpConnectionClientManager clientManager,
             final FileSystemOptions fileSystemOptions) {
@@ -55,6 +58,29 @@ public class HttpFileSystem extends AbstractFileSystem {
         return client;
     }
 
+    /**
+     * Returns the cache of the server responses, created on first use.
+     *
+     * @return The cache, or null if responses are not cached.
+     */
+    synchronized HttpResponseCache getResponseCache() {
+        if (responseCache == null) {
+            final FileSystemOptions opts = getFileSystemOptions();
+            final HttpFileSystemConfigBuilder builder = HttpFileSystemConfigBuilder.getInstance();
+            if (builder.getResponseCache(opts)) {
+                TemporaryFileStore temporaryFileStore = null;
+                try {
+                    temporaryFileStore = getContext().getTemporaryFileStore();
+                } catch (final FileSystemException e) {
+                    // cache no content
+                }
+                responseCache = new HttpResponseCache(builder.getResponseCacheMaxAge(opts),
+                        builder.getResponseCacheMaxContentSize(opts), temporaryFileStore);
+            }
+        }
+        return responseCache;
+    }
+
     /** @since 2.0 */
     @Override
     public void closeCommunicationLink() {
@@ -62,6 +88,11 @@ public class HttpFileSystem extends AbstractFileSystem {
         if ( manager != null ) {
             manager.shutdown();
         }
+        synchronized (this) {
+            if (responseCache != null) {
+                responseCache.clear();
+            }
+        }
     }
 
     /**
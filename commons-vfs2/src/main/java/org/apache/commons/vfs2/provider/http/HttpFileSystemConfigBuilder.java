@@ -28,6 +28,7 @@ import org.apache.commons.vfs2.FileSystem;
 import org.apache.commons.vfs2.FileSystemConfigBuilder;
 import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.UserAuthenticator;
+import org.apache.commons.vfs2.provider.AbstractBlockRandomAccessContent;
 import org.apache.http.cookie.Cookie;
 import org.apache.http.ssl.SSLContextBuilder;
 import org.apache.http.ssl.TrustStrategy;
@@ -60,6 +61,24 @@ public class HttpFileSystemConfigBuilder extends FileSystemConfigBuilder {
 
     private static final String KEY_PREEMPTIVE_AUTHENTICATION = "preemptiveAuth";
 
+    private static final String KEY_RANDOM_ACCESS_BLOCK_SIZE = "randomAccessBlockSize";
+
+    private static final String KEY_RANDOM_ACCESS_MAX_BLOCKS = "randomAccessMaxBlocks";
+
+    private static final String KEY_RANDOM_ACCESS_READ_AHEAD = "randomAccessReadAhead";
+
+    private static final String KEY_DOWNLOAD_CONNECTIONS = "downloadConnections";
+
+    private static final String KEY_DOWNLOAD_PART_SIZE = "downloadPartSize";
+
+    private static final int DEFAULT_DOWNLOAD_PART_SIZE = 8 * 1024 * 1024;
+
+    private static final String KEY_RESPONSE_CACHE = "responseCache";
+
+    private static final String KEY_RESPONSE_CACHE_MAX_AGE = "responseCacheMaxAge";
+
+    private static final String KEY_RESPONSE_CACHE_MAX_CONTENT_SIZE = "responseCacheMaxContentSize";
+
     /**
      * Creates new config builder.
      *
@@ -577,6 +596,202 @@ public class HttpFileSystemConfigBuilder extends FileSystemConfigBuilder {
         return (String[])getParam(opts, "sslCipherSuites");        
     }
 
+    /**
+     * Sets the size of the blocks fetched by random access content. Each block is fetched with a bounded range
+     * request.
+     *
+     * @param opts The FileSystem options.
+     * @param blockSize The size of a block in bytes.
+     * @since 2.3
+     */
+    public void setRandomAccessBlockSize(final FileSystemOptions opts, final int blockSize) {
+        setParam(opts, KEY_RANDOM_ACCESS_BLOCK_SIZE, Integer.valueOf(blockSize));
+    }
+
+    /**
+     * Gets the size of the blocks fetched by random access content. Defaults to 64 KB.
+     *
+     * @param opts The FileSystem options.
+     * @return The size of a block in bytes.
+     * @since 2.3
+     */
+    public int getRandomAccessBlockSize(final FileSystemOptions opts) {
+        return getInteger(opts, KEY_RANDOM_ACCESS_BLOCK_SIZE, AbstractBlockRandomAccessContent.DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Sets the number of blocks each random access content keeps in its least recently used cache.
+     *
+     * @param opts The FileSystem options.
+     * @param maxBlocks The maximum number of cached blocks.
+     * @since 2.3
+     */
+    public void setRandomAccessMaxBlocks(final FileSystemOptions opts, final int maxBlocks) {
+        setParam(opts, KEY_RANDOM_ACCESS_MAX_BLOCKS, Integer.valueOf(maxBlocks));
+    }
+
+    /**
+     * Gets the number of blocks each random access content keeps in its cache. Defaults to 16.
+     *
+     * @param opts The FileSystem options.
+     * @return The maximum number of cached blocks.
+     * @since 2.3
+     */
+    public int getRandomAccessMaxBlocks(final FileSystemOptions opts) {
+        return getInteger(opts, KEY_RANDOM_ACCESS_MAX_BLOCKS, AbstractBlockRandomAccessContent.DEFAULT_MAX_BLOCKS);
+    }
+
+    /**
+     * Sets whether random access content fetches the next block along with a missing one, when it is read
+     * sequentially.
+     *
+     * @param opts The FileSystem options.
+     * @param readAhead true to read ahead.
+     * @since 2.3
+     */
+    public void setRandomAccessReadAhead(final FileSystemOptions opts, final boolean readAhead) {
+        setParam(opts, KEY_RANDOM_ACCESS_READ_AHEAD, readAhead ? Boolean.TRUE : Boolean.FALSE);
+    }
+
+    /**
+     * Gets whether random access content reads ahead. Defaults to true.
+     *
+     * @param opts The FileSystem options.
+     * @return true to read ahead.
+     * @since 2.3
+     */
+    public boolean getRandomAccessReadAhead(final FileSystemOptions opts) {
+        return getBoolean(opts, KEY_RANDOM_ACCESS_READ_AHEAD, true);
+    }
+
+    /**
+     * Sets the number of connections downloading a file at the same time.
+     * <p>
+     * With more than one connection, a file larger than the part size (see
+     * {@link #setDownloadPartSize(FileSystemOptions, int)}) is downloaded in parts with concurrent range requests, if
+     * the server accepts byte ranges. The parts are read in order. The connections come from the pool of the file
+     * system, see {@link #setMaxConnectionsPerHost(FileSystemOptions, int)}.
+     *
+     * @param opts The FileSystem options.
+     * @param connections The number of connections, 1 to download with a single request.
+     * @since 2.3
+     */
+    public void setDownloadConnections(final FileSystemOptions opts, final int connections) {
+        setParam(opts, KEY_DOWNLOAD_CONNECTIONS, Integer.valueOf(connections));
+    }
+
+    /**
+     * Gets the number of connections downloading a file at the same time. Defaults to 1.
+     *
+     * @param opts The FileSystem options.
+     * @return The number of connections.
+     * @see #setDownloadConnections(FileSystemOptions, int)
+     * @since 2.3
+     */
+    public int getDownloadConnections(final FileSystemOptions opts) {
+        return getInteger(opts, KEY_DOWNLOAD_CONNECTIONS, 1);
+    }
+
+    /**
+     * Sets the size of the parts of a file downloaded with concurrent range requests. Each connection holds at most
+     * one part in memory.
+     *
+     * @param opts The FileSystem options.
+     * @param partSize The size of a part in bytes.
+     * @since 2.3
+     */
+    public void setDownloadPartSize(final FileSystemOptions opts, final int partSize) {
+        setParam(opts, KEY_DOWNLOAD_PART_SIZE, Integer.valueOf(partSize));
+    }
+
+    /**
+     * Gets the size of the parts of a file downloaded with concurrent range requests. Defaults to 8 MB.
+     *
+     * @param opts The FileSystem options.
+     * @return The size of a part in bytes.
+     * @since 2.3
+     */
+    public int getDownloadPartSize(final FileSystemOptions opts) {
+        return getInteger(opts, KEY_DOWNLOAD_PART_SIZE, DEFAULT_DOWNLOAD_PART_SIZE);
+    }
+
+    /**
+     * Sets whether the file system caches the responses of the server.
+     * <p>
+     * The cache keeps the headers of the HEAD responses, so the type, size and last modified time of a file are not
+     * requested again after a refresh while the response is fresh. A response is fresh for the time given by its
+     * {@code Cache-Control: max-age} or {@code Expires} headers, or else for the default maximum age (see
+     * {@link #setResponseCacheMaxAge(FileSystemOptions, long)}). A stale response is revalidated with a conditional
+     * request using its {@code ETag} and {@code Last-Modified} headers, which the server answers without content when
+     * the file did not change. Responses with {@code Cache-Control: no-store} are not cached.
+     *
+     * @param opts The FileSystem options.
+     * @param cache true to cache the responses.
+     * @since 2.3
+     */
+    public void setResponseCache(final FileSystemOptions opts, final boolean cache) {
+        setParam(opts, KEY_RESPONSE_CACHE, cache ? Boolean.TRUE : Boolean.FALSE);
+    }
+
+    /**
+     * Gets whether the file system caches the responses of the server. Defaults to false.
+     *
+     * @param opts The FileSystem options.
+     * @return true to cache the responses.
+     * @see #setResponseCache(FileSystemOptions, boolean)
+     * @since 2.3
+     */
+    public boolean getResponseCache(final FileSystemOptions opts) {
+        return getBoolean(opts, KEY_RESPONSE_CACHE, false);
+    }
+
+    /**
+     * Sets how long a cached response without {@code Cache-Control} or {@code Expires} headers is used without
+     * revalidation.
+     *
+     * @param opts The FileSystem options.
+     * @param maxAge The maximum age in milliseconds, 0 to revalidate each time.
+     * @since 2.3
+     */
+    public void setResponseCacheMaxAge(final FileSystemOptions opts, final long maxAge) {
+        setParam(opts, KEY_RESPONSE_CACHE_MAX_AGE, Long.valueOf(maxAge));
+    }
+
+    /**
+     * Gets how long a cached response without freshness headers is used without revalidation. Defaults to 0.
+     *
+     * @param opts The FileSystem options.
+     * @return The maximum age in milliseconds.
+     * @since 2.3
+     */
+    public long getResponseCacheMaxAge(final FileSystemOptions opts) {
+        return getLong(opts, KEY_RESPONSE_CACHE_MAX_AGE, 0);
+    }
+
+    /**
+     * Sets the size of the largest file content kept by the response cache. The content is kept in the temporary file
+     * store of the file system manager, and is read from there while it is fresh or when the server answers a
+     * conditional GET with {@code 304 Not Modified}.
+     *
+     * @param opts The FileSystem options.
+     * @param maxContentSize The maximum size in bytes, 0 to keep no content.
+     * @since 2.3
+     */
+    public void setResponseCacheMaxContentSize(final FileSystemOptions opts, final long maxContentSize) {
+        setParam(opts, KEY_RESPONSE_CACHE_MAX_CONTENT_SIZE, Long.valueOf(maxContentSize));
+    }
+
+    /**
+     * Gets the size of the largest file content kept by the response cache. Defaults to 0.
+     *
+     * @param opts The FileSystem options.
+     * @return The maximum size in bytes.
+     * @since 2.3
+     */
+    public long getResponseCacheMaxContentSize(final FileSystemOptions opts) {
+        return getLong(opts, KEY_RESPONSE_CACHE_MAX_CONTENT_SIZE, 0);
+    }
+
     @Override
     protected Class<? extends FileSystem> getConfigClass() {
         return HttpFileSystem.class;
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.util.DaemonThreadFactory;
+
+/**
+ * Downloads a file in parts with concurrent range requests, and returns the parts in order.
+ * <p>
+ * At most one part per connection is downloaded or waiting to be read, besides the part being read, so the memory
+ * used is bounded by the number of connections plus one, times the size of a part.
+ * <p>
+ * The parts are requested with {@code If-Range} and the validator of the file from its HEAD response, so that a
+ * change of the file during the download fails the read instead of joining parts of two versions.
+ */
+class HttpParallelInputStream extends InputStream {
+    private final HttpFileObject<?> fileObject;
+
+    private final long length;
+
+    private final int partSize;
+
+    private final String validator;
+
+    private final ExecutorService executor;
+
+    /** The parts being downloaded, in order. */
+    private final Deque<Future<byte[]>> parts = new ArrayDeque<>();
+
+    /** The offset of the next part to submit. */
+    private long nextOffset;
+
+    private byte[] current;
+
+    private int currentPos;
+
+    private boolean closed;
+
+    HttpParallelInputStream(final HttpFileObject<?> fileObject, final long length, final int connections,
+            final int partSize, final String validator) {
+        this.fileObject = fileObject;
+        this.length = length;
+        this.partSize = partSize;
+        this.validator = validator;
+        this.executor = Executors.newFixedThreadPool(connections, new DaemonThreadFactory("VFS-HttpDownload"));
+        for (int i = 0; i < connections && nextOffset < length; i++) {
+            submitNext();
+        }
+    }
+
+    private void submitNext() {
+        final long offset = nextOffset;
+        final int size = (int) Math.min(partSize, length - offset);
+        nextOffset += size;
+        parts.addLast(executor.submit(new Callable<byte[]>() {
+            @Override
+            public byte[] call() throws Exception {
+                final byte[] part = new byte[size];
+                HttpRandomAccessContent.readRange(fileObject, offset, part, validator);
+                return part;
+            }
+        }));
+    }
+
+    /**
+     * Returns the part being read, waiting for it if needed, or null at the end of the file.
+     */
+    private byte[] currentPart() throws IOException {
+        if (closed) {
+            throw new FileSystemException("vfs.provider/closed.error");
+        }
+        while (current == null || currentPos == current.length) {
+            final Future<byte[]> next = parts.pollFirst();
+            if (next == null) {
+                return null;
+            }
+            try {
+                current = next.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            } catch (final ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new FileSystemException("vfs.provider/read.error", fileObject.getName(), cause);
+            }
+            currentPos = 0;
+            // keep every connection busy
+            if (nextOffset < length) {
+                submitNext();
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] part = currentPart();
+        return part == null ? -1 : part[currentPos++] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        final byte[] part = currentPart();
+        if (part == null) {
+            return -1;
+        }
+        final int n = Math.min(len, part.length - currentPos);
+        System.arraycopy(part, currentPos, b, off, n);
+        currentPos += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current == null ? 0 : current.length - currentPos;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (final Future<byte[]> part : parts) {
+            part.cancel(true);
+        }
+        parts.clear();
+        current = null;
+        executor.shutdownNow();
+    }
+}
@@ -16,129 +16,105 @@
  */
 package org.apache.commons.vfs2.provider.http;
 
-import java.io.DataInputStream;
-import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 
 import org.apache.commons.vfs2.FileSystemException;
-import org.apache.commons.vfs2.provider.AbstractRandomAccessStreamContent;
-import org.apache.commons.vfs2.util.MonitorInputStream;
+import org.apache.commons.vfs2.provider.AbstractBlockRandomAccessContent;
 import org.apache.commons.vfs2.util.RandomAccessMode;
+import org.apache.http.Header;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpGet;
 
 /**
  * RandomAccess content using HTTP.
+ * <p>
+ * The content is fetched in blocks with bounded range requests. The requests carry the validator of the version of
+ * the file seen when the content was opened, so that a change of the file fails the read instead of mixing versions.
  */
-class HttpRandomAccessContent<FS extends HttpFileSystem> extends AbstractRandomAccessStreamContent {
-    protected long filePointer = 0;
-
+class HttpRandomAccessContent<FS extends HttpFileSystem> extends AbstractBlockRandomAccessContent {
     private final HttpFileObject<FS> fileObject;
-    private final HttpFileSystem fileSystem;
 
-    private DataInputStream dis = null;
-    private MonitorInputStream mis = null;
+    private final String validator;
 
-    HttpRandomAccessContent(final HttpFileObject<FS> fileObject, final RandomAccessMode mode) {
-        super(mode);
+    HttpRandomAccessContent(final HttpFileObject<FS> fileObject, final RandomAccessMode mode, final int blockSize,
+            final int maxBlocks, final boolean readAhead, final String validator) {
+        super(mode, blockSize, maxBlocks, readAhead);
 
         this.fileObject = fileObject;
-        fileSystem = (HttpFileSystem) this.fileObject.getFileSystem();
-    }
-
-    @Override
-    public long getFilePointer() throws IOException {
-        return filePointer;
+        this.validator = validator;
     }
 
     @Override
-    public void seek(final long pos) throws IOException {
-        if (pos == filePointer) {
-            // no change
-            return;
-        }
-
-        if (pos < 0) {
-            throw new FileSystemException("vfs.provider/random-access-invalid-position.error", Long.valueOf(pos));
-        }
-        if (dis != null) {
-            close();
-        }
-
-        filePointer = pos;
+    protected void readRange(final long offset, final byte[] b) throws IOException {
+        readRange(fileObject, offset, b, validator);
     }
 
-    @Override
-    protected DataInputStream getDataInputStream() throws IOException {
-        if (dis != null) {
-            return dis;
-        }
-
+    /**
+     * Reads a range of a file with a bounded range request.
+     * <p>
+     * With a validator the request is conditional on {@code If-Range}, and the read fails if the file is no longer the
+     * version the validator describes.
+     *
+     * @param fileObject The file.
+     * @param offset The offset of the range.
+     * @param b The buffer to fill, its length is the length of the range.
+     * @param validator The ETag or Last-Modified date of the expected version of the file, or null.
+     * @throws IOException if the range cannot be read.
+     */
+    static void readRange(final HttpFileObject<?> fileObject, final long offset, final byte[] b,
+            final String validator) throws IOException {
+        final HttpFileSystem fileSystem = (HttpFileSystem) fileObject.getFileSystem();
         final HttpGet getMethod = new HttpGet();
         fileObject.setupMethod(getMethod);
-        getMethod.setHeader("Range", "bytes=" + filePointer + "-");
-        
-        HttpResponse response = fileSystem.getClient().execute(getMethod);
+        final long last = offset + b.length - 1;
+        getMethod.setHeader("Range", "bytes=" + offset + "-" + last);
+        if (validator != null) {
+            getMethod.setHeader("If-Range", validator);
+        }
+
+        final HttpResponse response = fileSystem.getClient().execute(getMethod);
         final int status = response.getStatusLine().getStatusCode();
-        
+
         if (status != HttpURLConnection.HTTP_PARTIAL && status != HttpURLConnection.HTTP_OK) {
+            getMethod.abort();
             throw new FileSystemException("vfs.provider.http/get-range.error", fileObject.getName(),
-                    Long.valueOf(filePointer), Integer.valueOf(status));
+                    Long.valueOf(offset), Integer.valueOf(status));
         }
-
-        mis = new HttpFileObject.HttpInputStream(response);
-        // If the range request was ignored
-        if (status == HttpURLConnection.HTTP_OK) {
-            final long skipped = mis.skip(filePointer);
-            if (skipped != filePointer) {
-                throw new FileSystemException("vfs.provider.http/get-range.error", fileObject.getName(),
-                        Long.valueOf(filePointer), Integer.valueOf(status));
+        if (status == HttpURLConnection.HTTP_PARTIAL) {
+            final Header contentRange = response.getFirstHeader("Content-Range");
+            final String expected = "bytes " + offset + "-" + last + "/";
+            if (contentRange == null || !contentRange.getValue().trim().startsWith(expected)) {
+                getMethod.abort();
+                throw new FileSystemException("vfs.provider.http/content-range.error", fileObject.getName(),
+                        Long.valueOf(offset), contentRange == null ? null : contentRange.getValue());
             }
+        } else if (validator != null && !HttpFileObject.hasValidator(response, validator)) {
+            // the If-Range condition failed, the whole file is sent in another version
+            getMethod.abort();
+            throw new FileSystemException("vfs.provider.http/range-changed.error", fileObject.getName());
         }
-        dis = new DataInputStream(new FilterInputStream(mis) {
-            @Override
-            public int read() throws IOException {
-                final int ret = super.read();
-                if (ret > -1) {
-                    filePointer++;
-                }
-                return ret;
-            }
 
-            @Override
-            public int read(final byte[] b) throws IOException {
-                final int ret = super.read(b);
-                if (ret > -1) {
-                    filePointer += ret;
-                }
-                return ret;
+        final InputStream in = new HttpFileObject.HttpInputStream(response);
+        try {
+            // If the range request was ignored
+            if (status == HttpURLConnection.HTTP_OK && !skipFully(in, offset)) {
+                throw new FileSystemException("vfs.provider.http/get-range.error", fileObject.getName(),
+                        Long.valueOf(offset), Integer.valueOf(status));
             }
-
-            @Override
-            public int read(final byte[] b, final int off, final int len) throws IOException {
-                final int ret = super.read(b, off, len);
-                if (ret > -1) {
-                    filePointer += ret;
-                }
-                return ret;
+            readFully(in, b);
+        } finally {
+            if (status == HttpURLConnection.HTTP_OK) {
+                // do not download the rest of the file
+                getMethod.abort();
             }
-        });
-
-        return dis;
-    }
-
-    @Override
-    public void close() throws IOException {
-        if (dis != null) {
-            dis.close();
-            dis = null;
-            mis = null;
+            in.close();
         }
     }
 
     @Override
-    public long length() throws IOException {
+    protected long getContentLength() throws IOException {
         return fileObject.getContent().getSize();
     }
 }
@@ -0,0 +1,349 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.http;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.vfs2.provider.TemporaryFileStore;
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.message.BasicHttpResponse;
+
+/**
+ * Caches the metadata, and optionally the small content, of the files of an HTTP file system.
+ * <p>
+ * Entries are fresh for the time given by the {@code Cache-Control: max-age} or {@code Expires} headers of the
+ * response, or for a default time. A fresh entry answers without a request. A stale entry is revalidated with
+ * {@code If-None-Match} and {@code If-Modified-Since}, and a {@code 304 Not Modified} answer makes it fresh again.
+ * Responses with {@code Cache-Control: no-store} are not cached. The content is kept in files of the
+ * {@link TemporaryFileStore}.
+ */
+class HttpResponseCache {
+    /**
+     * The cached response of a file.
+     */
+    private static final class Entry {
+        /** The status line and headers of the response, without entity. */
+        private final HttpResponse response;
+
+        private final String etag;
+
+        private final String lastModified;
+
+        private final long expires;
+
+        /** The content, or null. */
+        private final File content;
+
+        private Entry(final HttpResponse response, final long expires, final File content) {
+            this.response = response;
+            this.etag = headerValue(response, "ETag");
+            this.lastModified = headerValue(response, "Last-Modified");
+            this.expires = expires;
+            this.content = content;
+        }
+
+        private boolean isFresh() {
+            return System.currentTimeMillis() < expires;
+        }
+
+        private boolean hasValidators() {
+            return etag != null || lastModified != null;
+        }
+
+        /**
+         * Returns whether a response describes the same version of the file.
+         */
+        private boolean sameVersion(final HttpResponse other) {
+            final String otherEtag = headerValue(other, "ETag");
+            final String otherLastModified = headerValue(other, "Last-Modified");
+            if (etag != null || otherEtag != null) {
+                return etag != null && etag.equals(otherEtag);
+            }
+            return lastModified != null && lastModified.equals(otherLastModified);
+        }
+    }
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final long defaultMaxAge;
+
+    private final long maxContentSize;
+
+    private final TemporaryFileStore temporaryFileStore;
+
+    /**
+     * @param defaultMaxAge The time in milliseconds a response without freshness headers is fresh.
+     * @param maxContentSize The maximum size of a cached content, 0 to cache no content.
+     * @param temporaryFileStore Stores the content.
+     */
+    HttpResponseCache(final long defaultMaxAge, final long maxContentSize,
+            final TemporaryFileStore temporaryFileStore) {
+        this.defaultMaxAge = defaultMaxAge;
+        this.maxContentSize = temporaryFileStore == null ? 0 : maxContentSize;
+        this.temporaryFileStore = temporaryFileStore;
+    }
+
+    /**
+     * Returns the cached response of a file if it is fresh.
+     *
+     * @param uri The URI of the file.
+     * @return The response, without entity, or null.
+     */
+    HttpResponse getFreshResponse(final String uri) {
+        final Entry entry = entries.get(uri);
+        return entry != null && entry.isFresh() ? entry.response : null;
+    }
+
+    /**
+     * Adds the validators of the cached response of a file to a HEAD request.
+     *
+     * @param uri The URI of the file.
+     * @param request The request.
+     */
+    void prepareHead(final String uri, final HttpRequest request) {
+        addValidators(entries.get(uri), request);
+    }
+
+    /**
+     * Caches the response to a HEAD request.
+     *
+     * @param uri The URI of the file.
+     * @param response The response.
+     * @return The response to use.
+     * @throws IOException if the response cannot be closed.
+     */
+    HttpResponse headResponse(final String uri, final HttpResponse response) throws IOException {
+        final int status = response.getStatusLine().getStatusCode();
+        final Entry entry = entries.get(uri);
+        if (status == HttpURLConnection.HTTP_NOT_MODIFIED && entry != null) {
+            close(response);
+            return revalidated(uri, entry, response).response;
+        }
+        if (status != HttpURLConnection.HTTP_OK) {
+            remove(uri);
+            return response;
+        }
+        final long expires = expires(response);
+        if (expires < 0) {
+            remove(uri);
+            return response;
+        }
+        // keep the content if it did not change
+        final File content = entry != null && entry.sameVersion(response) ? entry.content : null;
+        final Entry newEntry = new Entry(copy(response), expires, content);
+        replace(uri, newEntry);
+        return newEntry.response;
+    }
+
+    /**
+     * Returns the cached content of a file if it is fresh.
+     *
+     * @param uri The URI of the file.
+     * @return The content, or null.
+     * @throws IOException if the content cannot be opened.
+     */
+    InputStream getFreshContent(final String uri) throws IOException {
+        final Entry entry = entries.get(uri);
+        return entry != null && entry.isFresh() ? open(entry) : null;
+    }
+
+    /**
+     * Adds the validators of the cached content of a file to a GET request.
+     *
+     * @param uri The URI of the file.
+     * @param request The request.
+     */
+    void prepareGet(final String uri, final HttpRequest request) {
+        final Entry entry = entries.get(uri);
+        if (entry != null && entry.content != null) {
+            addValidators(entry, request);
+        }
+    }
+
+    /**
+     * Caches the response to a GET request, and returns the content when it is cached.
+     *
+     * @param uri The URI of the file.
+     * @param response The response.
+     * @return The content, or null if the response is not cached and must be read.
+     * @throws IOException if the content cannot be cached.
+     */
+    InputStream getResponse(final String uri, final HttpResponse response) throws IOException {
+        final int status = response.getStatusLine().getStatusCode();
+        final Entry entry = entries.get(uri);
+        if (status == HttpURLConnection.HTTP_NOT_MODIFIED && entry != null && entry.content != null) {
+            close(response);
+            return open(revalidated(uri, entry, response));
+        }
+        if (status != HttpURLConnection.HTTP_OK) {
+            return null;
+        }
+        final long expires = expires(response);
+        final HttpEntity entity = response.getEntity();
+        final long length = entity == null ? -1 : entity.getContentLength();
+        if (expires < 0 || maxContentSize <= 0 || length < 0 || length > maxContentSize) {
+            if (entry != null && !entry.sameVersion(response)) {
+                remove(uri);
+            }
+            return null;
+        }
+
+        final File content = temporaryFileStore.allocateFile("http-cache");
+        try {
+            Files.createDirectories(content.getParentFile().toPath());
+            try (final InputStream in = entity.getContent()) {
+                Files.copy(in, content.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (final IOException e) {
+            content.delete();
+            throw e;
+        } finally {
+            close(response);
+        }
+        final Entry newEntry = new Entry(copy(response), expires, content);
+        replace(uri, newEntry);
+        return open(newEntry);
+    }
+
+    /**
+     * Removes the cached response of a file.
+     *
+     * @param uri The URI of the file.
+     */
+    void remove(final String uri) {
+        final Entry entry = entries.remove(uri);
+        if (entry != null && entry.content != null) {
+            entry.content.delete();
+        }
+    }
+
+    /**
+     * Removes all cached responses.
+     */
+    void clear() {
+        for (final String uri : entries.keySet()) {
+            remove(uri);
+        }
+    }
+
+    private Entry revalidated(final String uri, final Entry entry, final HttpResponse notModified) {
+        final long expires = expires(notModified);
+        final Entry newEntry = new Entry(entry.response, expires < 0 ? 0 : expires, entry.content);
+        entries.put(uri, newEntry);
+        return newEntry;
+    }
+
+    private void replace(final String uri, final Entry newEntry) {
+        final Entry old = entries.put(uri, newEntry);
+        if (old != null && old.content != null && old.content != newEntry.content) {
+            old.content.delete();
+        }
+    }
+
+    /**
+     * Returns when a response expires, or -1 if it must not be stored. Of the Cache-Control directives, no-store wins
+     * over no-cache, which wins over max-age.
+     */
+    private long expires(final HttpResponse response) {
+        final long now = System.currentTimeMillis();
+        boolean noCache = false;
+        Long maxAge = null;
+        for (final Header header : response.getHeaders("Cache-Control")) {
+            for (final HeaderElement element : header.getElements()) {
+                final String name = element.getName().toLowerCase(Locale.ROOT);
+                if ("no-store".equals(name)) {
+                    return -1;
+                }
+                if ("no-cache".equals(name)) {
+                    noCache = true;
+                } else if ("max-age".equals(name) && element.getValue() != null && maxAge == null) {
+                    try {
+                        maxAge = Long.valueOf(Long.parseLong(element.getValue().trim()) * 1000);
+                    } catch (final NumberFormatException e) {
+                        maxAge = Long.valueOf(0);
+                    }
+                }
+            }
+        }
+        if (noCache) {
+            return now;
+        }
+        if (maxAge != null) {
+            return now + maxAge.longValue();
+        }
+        final Date expires = parseDate(response, "Expires");
+        if (expires != null) {
+            final Date date = parseDate(response, "Date");
+            return now + expires.getTime() - (date != null ? date.getTime() : now);
+        }
+        return now + defaultMaxAge;
+    }
+
+    private static void addValidators(final Entry entry, final HttpRequest request) {
+        if (entry == null || !entry.hasValidators()) {
+            return;
+        }
+        if (entry.etag != null) {
+            request.setHeader("If-None-Match", entry.etag);
+        }
+        if (entry.lastModified != null) {
+            request.setHeader("If-Modified-Since", entry.lastModified);
+        }
+    }
+
+    private static InputStream open(final Entry entry) throws IOException {
+        return entry.content == null ? null : new FileInputStream(entry.content);
+    }
+
+    private static HttpResponse copy(final HttpResponse response) {
+        final HttpResponse copy = new BasicHttpResponse(response.getStatusLine());
+        copy.setHeaders(response.getAllHeaders());
+        return copy;
+    }
+
+    private static void close(final HttpResponse response) throws IOException {
+        if (response instanceof CloseableHttpResponse) {
+            ((CloseableHttpResponse) response).close();
+        }
+    }
+
+    private static Date parseDate(final HttpResponse response, final String name) {
+        final String value = headerValue(response, name);
+        return value == null ? null : DateUtils.parseDate(value);
+    }
+
+    private static String headerValue(final HttpResponse response, final String name) {
+        final Header header = response.getFirstHeader(name);
+        return header == null ? null : header.getValue();
+    }
+}
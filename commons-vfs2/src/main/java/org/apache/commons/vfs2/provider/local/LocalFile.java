@@ -110,6 +110,14 @@ public class LocalFile extends AbstractFileObject<LocalFileSystem> {
         return UriParser.encode(file.list());
     }
 
+    /**
+     * Local folders are listed without the file system lock.
+     */
+    @Override
+    protected boolean isListChildrenThreadSafe() {
+        return true;
+    }
+
     /**
      * Deletes this file, and all children.
      */
@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.ram;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The content of a RAM file, in chunks of a fixed size.
+ * <p>
+ * Growing the content never copies it: appending adds chunks, and the chunks of a region which was never written are
+ * not allocated, so setting a larger length is free. The chunks are heap or direct (off-heap) byte buffers.
+ */
+class RamFileBuffer implements Serializable {
+    /** The default size of a chunk: 64 KB. */
+    static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * serialVersionUID format is YYYYMMDD for the date of the last binary change.
+     */
+    private static final long serialVersionUID = 20261017L;
+
+    private final int chunkSize;
+
+    private final boolean direct;
+
+    /** The chunks, null for the regions which were never written. Written by {@link #writeObject}. */
+    private transient List<ByteBuffer> chunks;
+
+    private long length;
+
+    /**
+     * @param chunkSize The size of a chunk.
+     * @param direct true to allocate direct byte buffers.
+     */
+    RamFileBuffer(final int chunkSize, final boolean direct) {
+        this.chunkSize = chunkSize;
+        this.direct = direct;
+        this.chunks = new ArrayList<>();
+    }
+
+    /**
+     * @return The length of the content.
+     */
+    synchronized long size() {
+        return length;
+    }
+
+    /**
+     * Reads the content at a position. The regions which were never written are read as zeros.
+     *
+     * @param pos The position in the content.
+     * @param b The buffer to fill.
+     * @param off The offset in the buffer.
+     * @param len The maximum number of bytes to read.
+     * @return The number of bytes read, or -1 at the end of the content.
+     */
+    synchronized int read(final long pos, final byte[] b, final int off, final int len) {
+        if (pos >= length) {
+            return -1;
+        }
+        final int count = (int) Math.min(len, length - pos);
+        int done = 0;
+        while (done < count) {
+            final long at = pos + done;
+            final int index = (int) (at / chunkSize);
+            final int offset = (int) (at % chunkSize);
+            final int n = Math.min(count - done, chunkSize - offset);
+            final ByteBuffer chunk = index < chunks.size() ? chunks.get(index) : null;
+            if (chunk == null) {
+                Arrays.fill(b, off + done, off + done + n, (byte) 0);
+            } else {
+                chunk.position(offset);
+                chunk.get(b, off + done, n);
+            }
+            done += n;
+        }
+        return count;
+    }
+
+    /**
+     * Writes at a position, the content grows if needed.
+     *
+     * @param pos The position in the content.
+     * @param b The bytes to write.
+     * @param off The offset in the bytes.
+     * @param len The number of bytes to write.
+     */
+    void write(final long pos, final byte[] b, final int off, final int len) {
+        write(pos, ByteBuffer.wrap(b, off, len));
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer at a position, the content grows if needed.
+     *
+     * @param pos The position in the content.
+     * @param src The bytes to write, consumed by the write.
+     */
+    synchronized void write(final long pos, final ByteBuffer src) {
+        final int len = src.remaining();
+        int done = 0;
+        while (done < len) {
+            final long at = pos + done;
+            final int index = (int) (at / chunkSize);
+            final int offset = (int) (at % chunkSize);
+            final int n = Math.min(len - done, chunkSize - offset);
+            final ByteBuffer chunk = getOrAllocateChunk(index);
+            chunk.position(offset);
+            final ByteBuffer part = src.duplicate();
+            part.limit(part.position() + n);
+            chunk.put(part);
+            src.position(src.position() + n);
+            done += n;
+        }
+        length = Math.max(length, pos + len);
+    }
+
+    /**
+     * Sets the length of the content. A larger length allocates nothing, a smaller one frees the chunks past the end.
+     *
+     * @param newLength The new length.
+     */
+    synchronized void setLength(final long newLength) {
+        if (newLength < length) {
+            final int count = (int) ((newLength + chunkSize - 1) / chunkSize);
+            while (chunks.size() > count) {
+                chunks.remove(chunks.size() - 1);
+            }
+            // the bytes past the end are zeros again if the content grows later
+            final int offset = (int) (newLength % chunkSize);
+            if (offset > 0 && count > 0 && chunks.size() == count && chunks.get(count - 1) != null) {
+                final ByteBuffer chunk = chunks.get(count - 1);
+                chunk.position(offset);
+                while (chunk.hasRemaining()) {
+                    chunk.put((byte) 0);
+                }
+            }
+        }
+        length = newLength;
+    }
+
+    /**
+     * @return A stream reading the content from its start.
+     */
+    InputStream getInputStream() {
+        return new InputStream() {
+            private long position;
+
+            private long mark;
+
+            private final byte[] buffer1 = new byte[1];
+
+            @Override
+            public int read() throws IOException {
+                return read(buffer1, 0, 1) == -1 ? -1 : buffer1[0] & 0xff;
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                final int n = RamFileBuffer.this.read(position, b, off, len);
+                if (n > 0) {
+                    position += n;
+                }
+                return n;
+            }
+
+            @Override
+            public long skip(final long n) throws IOException {
+                final long skipped = Math.max(Math.min(n, size() - position), 0);
+                position += skipped;
+                return skipped;
+            }
+
+            @Override
+            public int available() throws IOException {
+                return (int) Math.max(Math.min(size() - position, Integer.MAX_VALUE), 0);
+            }
+
+            @Override
+            public boolean markSupported() {
+                return true;
+            }
+
+            @Override
+            public synchronized void mark(final int readlimit) {
+                mark = position;
+            }
+
+            @Override
+            public synchronized void reset() throws IOException {
+                position = mark;
+            }
+        };
+    }
+
+    /**
+     * Writes the length of the content followed by its bytes, the regions which were never written as zeros.
+     *
+     * @param out The output.
+     * @throws IOException if the output fails.
+     */
+    synchronized void writeTo(final DataOutput out) throws IOException {
+        out.writeLong(length);
+        final byte[] bytes = new byte[chunkSize];
+        long remaining = length;
+        for (int i = 0; remaining > 0; i++) {
+            final int n = (int) Math.min(remaining, chunkSize);
+            final ByteBuffer chunk = i < chunks.size() ? chunks.get(i) : null;
+            if (chunk == null) {
+                Arrays.fill(bytes, 0, n, (byte) 0);
+            } else {
+                chunk.position(0);
+                chunk.get(bytes, 0, n);
+            }
+            out.write(bytes, 0, n);
+            remaining -= n;
+        }
+    }
+
+    private ByteBuffer getOrAllocateChunk(final int index) {
+        while (chunks.size() <= index) {
+            chunks.add(null);
+        }
+        ByteBuffer chunk = chunks.get(index);
+        if (chunk == null) {
+            chunk = direct ? ByteBuffer.allocateDirect(chunkSize) : ByteBuffer.allocate(chunkSize);
+            chunks.set(index, chunk);
+        }
+        return chunk;
+    }
+
+    private synchronized void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(chunks.size());
+        final byte[] bytes = new byte[chunkSize];
+        for (final ByteBuffer chunk : chunks) {
+            out.writeBoolean(chunk != null);
+            if (chunk != null) {
+                chunk.position(0);
+                chunk.get(bytes);
+                out.write(bytes);
+            }
+        }
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final int count = in.readInt();
+        chunks = new ArrayList<>(count);
+        final byte[] bytes = new byte[chunkSize];
+        for (int i = 0; i < count; i++) {
+            if (in.readBoolean()) {
+                in.readFully(bytes);
+                getOrAllocateChunk(i).put(bytes);
+            } else {
+                chunks.add(null);
+            }
+        }
+    }
+}
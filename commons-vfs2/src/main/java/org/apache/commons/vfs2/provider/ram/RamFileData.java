@@ -17,9 +17,9 @@
 package org.apache.commons.vfs2.provider.ram;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileSystemException;
@@ -29,37 +29,45 @@ import org.apache.commons.vfs2.FileType;
  * RAM File Object Data.
  */
 class RamFileData implements Serializable {
-    static final byte[] EMPTY = new byte[0];
-
     /**
      * serialVersionUID format is YYYYMMDD for the date of the last binary change.
      */
-    private static final long serialVersionUID = 20101208L;
+    private static final long serialVersionUID = 20261017L;
 
     /**
      * File Name.
      */
-    private FileName name;
+    private volatile FileName name;
 
     /**
      * File Type.
      */
-    private FileType type;
+    private volatile FileType type;
 
     /**
      * Bytes.
      */
-    private byte[] content;
+    private volatile RamFileBuffer content;
+
+    /**
+     * The size of the chunks of the content.
+     */
+    private final int chunkSize;
+
+    /**
+     * Whether the chunks of the content are direct byte buffers.
+     */
+    private final boolean directBuffers;
 
     /**
      * Last modified time
      */
-    private long lastModified;
+    private volatile long lastModified;
 
     /**
-     * Children
+     * Children by base name, read without locking.
      */
-    private final Collection<RamFileData> children;
+    private final ConcurrentMap<String, RamFileData> children;
 
     /**
      * Constructor.
@@ -67,8 +75,21 @@ class RamFileData implements Serializable {
      * @param name The file name.
      */
     public RamFileData(final FileName name) {
+        this(name, RamFileBuffer.DEFAULT_CHUNK_SIZE, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param name The file name.
+     * @param chunkSize The size of the chunks of the content.
+     * @param directBuffers true to store the content in direct byte buffers.
+     */
+    RamFileData(final FileName name, final int chunkSize, final boolean directBuffers) {
         super();
-        this.children = Collections.synchronizedCollection(new ArrayList<RamFileData>());
+        this.chunkSize = chunkSize;
+        this.directBuffers = directBuffers;
+        this.children = new ConcurrentHashMap<>();
         this.clear();
         if (name == null) {
             throw new IllegalArgumentException("name can not be null");
@@ -79,18 +100,29 @@ class RamFileData implements Serializable {
     /**
      * @return Returns the buffer.
      */
-    byte[] getContent() {
+    RamFileBuffer getContent() {
         return content;
     }
 
     /**
      * @param content The buffer.
      */
-    void setContent(final byte[] content) {
+    void setContent(final RamFileBuffer content) {
         updateLastModified();
         this.content = content;
     }
 
+    /**
+     * Replaces the content with an empty one.
+     *
+     * @return The previous content.
+     */
+    RamFileBuffer clearContent() {
+        final RamFileBuffer previous = content;
+        setContent(new RamFileBuffer(chunkSize, directBuffers));
+        return previous;
+    }
+
     /**
      * @return Returns the lastModified.
      */
@@ -122,7 +154,7 @@ class RamFileData implements Serializable {
     /**
      */
     void clear() {
-        this.content = EMPTY;
+        this.content = new RamFileBuffer(chunkSize, directBuffers);
         updateLastModified();
         this.type = FileType.IMAGINARY;
         this.children.clear();
@@ -165,12 +197,33 @@ class RamFileData implements Serializable {
             throw new FileSystemException("No child can be null");
         }
 
-        if (this.children.contains(data)) {
+        if (this.children.putIfAbsent(data.getName().getBaseName(), data) != null) {
             throw new FileSystemException("Child already exists. " + data);
         }
+        updateLastModified();
+    }
+
+    /**
+     * Add a child unless it was already added.
+     *
+     * @param data The file data.
+     * @return true if the child was added.
+     * @throws FileSystemException if an error occurs.
+     */
+    boolean addChildIfAbsent(final RamFileData data) throws FileSystemException {
+        if (!this.getType().hasChildren()) {
+            throw new FileSystemException("A child can only be added in a folder");
+        }
 
-        this.children.add(data);
+        if (data == null) {
+            throw new FileSystemException("No child can be null");
+        }
+
+        if (this.children.putIfAbsent(data.getName().getBaseName(), data) != null) {
+            return false;
+        }
         updateLastModified();
+        return true;
     }
 
     /**
@@ -183,21 +236,21 @@ class RamFileData implements Serializable {
         if (!this.getType().hasChildren()) {
             throw new FileSystemException("A child can only be removed from a folder");
         }
-        if (!this.children.contains(data)) {
+        if (data == null || data.getName() == null
+                || !this.children.remove(data.getName().getBaseName(), data)) {
             throw new FileSystemException("Child not found. " + data);
         }
-        this.children.remove(data);
         updateLastModified();
     }
 
     /**
-     * @return Returns the children.
+     * @return Returns a live, weakly consistent view of the children.
      */
     Collection<RamFileData> getChildren() {
         if (name == null) {
             throw new IllegalStateException("Data is clear");
         }
-        return children;
+        return children.values();
     }
 
     /*
@@ -228,14 +281,14 @@ class RamFileData implements Serializable {
     }
 
     boolean hasChildren(final RamFileData data) {
-        return this.children.contains(data);
+        return data.getName() != null && data.equals(this.children.get(data.getName().getBaseName()));
     }
 
     /**
      * @return Returns the size of the buffer
      */
-    int size() {
-        return content.length;
+    long size() {
+        return content.size();
     }
 
     /**
@@ -244,16 +297,7 @@ class RamFileData implements Serializable {
      * @param newSize The new buffer size.
      */
     void resize(final long newSize) {
-        // A future implementation may allow longs/multiple buffer/and so on
-        if (newSize > Integer.MAX_VALUE) {
-            throw new IllegalArgumentException(
-                    String.format("newSize(%d) > Integer.MAX_VALUE(%d)", newSize, Integer.MAX_VALUE));
-        }
-        final int resize = (int) newSize;
-        final int size = this.size();
-        final byte[] newBuf = new byte[resize];
-        System.arraycopy(this.content, 0, newBuf, 0, Math.min(resize, size));
-        this.content = newBuf;
+        content.setLength(newSize);
         updateLastModified();
     }
 
@@ -16,14 +16,12 @@
  */
 package org.apache.commons.vfs2.provider.ram;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
-import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.FileType;
 import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.provider.AbstractFileName;
@@ -74,6 +72,16 @@ public class RamFileObject extends AbstractFileObject<RamFileSystem> {
         return this.getAbstractFileSystem().listChildren(this.getName());
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.apache.commons.vfs2.provider.AbstractFileObject#isListChildrenThreadSafe()
+     */
+    @Override
+    protected boolean isListChildrenThreadSafe() {
+        return true;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -96,7 +104,7 @@ public class RamFileObject extends AbstractFileObject<RamFileSystem> {
             throw new FileSystemException("vfs.provider/read-not-file.error", getName());
         }
 
-        return new ByteArrayInputStream(this.data.getContent());
+        return this.data.getContent().getInputStream();
     }
 
     /*
@@ -107,7 +115,8 @@ public class RamFileObject extends AbstractFileObject<RamFileSystem> {
     @Override
     protected OutputStream doGetOutputStream(final boolean bAppend) throws Exception {
         if (!bAppend) {
-            this.data.setContent(RamFileData.EMPTY);
+            final RamFileBuffer previous = this.data.clearContent();
+            getAbstractFileSystem().resize(-previous.size());
         }
         return new RamFileOutputStream(this);
     }
@@ -230,7 +239,7 @@ public class RamFileObject extends AbstractFileObject<RamFileSystem> {
     /**
      * @return Returns the size of the {@link RamFileData}.
      */
-    int size() {
+    long size() {
         return data == null ? 0 : data.size();
     }
 
@@ -239,14 +248,7 @@ public class RamFileObject extends AbstractFileObject<RamFileSystem> {
      * @throws IOException if the new size exceeds the limit
      */
     synchronized void resize(final long newSize) throws IOException {
-        final RamFileSystem afs = getAbstractFileSystem();
-        final FileSystemOptions afsOptions = afs.getFileSystemOptions();
-        if (afsOptions != null) {
-            final long maxSize = RamFileSystemConfigBuilder.getInstance().getLongMaxSize(afsOptions);
-            if (afs.size() + newSize - this.size() > maxSize) {
-                throw new IOException("FileSystem capacity (" + maxSize + ") exceeded.");
-            }
-        }
+        getAbstractFileSystem().resize(newSize - this.size());
         this.data.resize(newSize);
     }
 
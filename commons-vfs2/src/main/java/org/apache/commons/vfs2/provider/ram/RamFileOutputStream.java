@@ -57,8 +57,8 @@ public class RamFileOutputStream extends OutputStream {
     @Override
     public void write(final byte[] b, final int off, final int len) throws IOException {
         final RamFileData data = this.file.getData();
-        final int size = data.size();
-        final int newSize = size + len;
+        final long size = data.size();
+        final long newSize = size + len;
         // Store the Exception in order to notify the client again on close()
         try {
             this.file.resize(newSize);
@@ -66,7 +66,7 @@ public class RamFileOutputStream extends OutputStream {
             this.exception = e;
             throw e;
         }
-        System.arraycopy(b, off, data.getContent(), size, len);
+        data.getContent().write(size, b, off, len);
     }
 
     /*
@@ -33,12 +33,7 @@ public class RamFileRandomAccessContent implements RandomAccessContent {
     /**
      * File Pointer
      */
-    protected int filePointer = 0;
-
-    /**
-     * Buffer
-     */
-    private byte[] buf;
+    protected long filePointer = 0;
 
     /**
      * buffer
@@ -73,7 +68,6 @@ public class RamFileRandomAccessContent implements RandomAccessContent {
      */
     public RamFileRandomAccessContent(final RamFileObject file, final RandomAccessMode mode) {
         super();
-        this.buf = file.getData().getContent();
         this.file = file;
 
         rafis = new InputStream() {
@@ -104,9 +98,9 @@ public class RamFileRandomAccessContent implements RandomAccessContent {
             @Override
             public int read(final byte[] b, final int off, final int len) throws IOException {
                 int retLen = -1;
-                final int left = getLeftBytes();
+                final long left = getLeftBytes();
                 if (left > 0) {
-                    retLen = Math.min(len, left);
+                    retLen = (int) Math.min(len, left);
                     RamFileRandomAccessContent.this.readFully(b, off, retLen);
                 }
                 return retLen;
@@ -114,7 +108,7 @@ public class RamFileRandomAccessContent implements RandomAccessContent {
 
             @Override
             public int available() throws IOException {
-                return getLeftBytes();
+                return (int) Math.min(getLeftBytes(), Integer.MAX_VALUE);
             }
         };
     }
@@ -139,7 +133,7 @@ public class RamFileRandomAccessContent implements RandomAccessContent {
         if (pos < 0) {
             throw new IOException("Attempt to position before the start of the file");
         }
-        this.filePointer = (int) pos;
+        this.filePointer = pos;
     }
 
     /*
@@ -149,7 +143,7 @@ public class RamFileRandomAccessContent implements RandomAccessContent {
      */
     @Override
     public long length() throws IOException {
-        return buf.length;
+        return file.size();
     }
 
     /*
@@ -221,8 +215,9 @@ public class RamFileRandomAccessContent implements RandomAccessContent {
      */
     @Override
     public int readUnsignedByte() throws IOException {
-        if (filePointer < buf.length) {
-            return buf[filePointer++] & 0xFF;
+        if (file.getData().getContent().read(filePointer, buffer1, 0, 1) == 1) {
+            filePointer++;
+            return buffer1[0] & 0xFF;
         }
         throw new EOFException();
     }
@@ -283,7 +278,7 @@ public class RamFileRandomAccessContent implements RandomAccessContent {
 
         final long newPos = filePointer + n;
 
-        if (newPos > buf.length) {
+        if (newPos > length()) {
             throw new IndexOutOfBoundsException("Tyring to skip too much bytes");
         }
 
@@ -318,13 +313,15 @@ public class RamFileRandomAccessContent implements RandomAccessContent {
                     "Read length (" + len + ") is higher than buffer left bytes (" + this.getLeftBytes() + ") ");
         }
 
-        System.arraycopy(buf, filePointer, b, off, len);
+        if (len > 0) {
+            file.getData().getContent().read(filePointer, b, off, len);
+        }
 
         filePointer += len;
     }
 
-    private int getLeftBytes() {
-        return buf.length - filePointer;
+    private long getLeftBytes() {
+        return Math.max(file.size() - filePointer, 0);
     }
 
     /*
@@ -344,12 +341,11 @@ public class RamFileRandomAccessContent implements RandomAccessContent {
      */
     @Override
     public void write(final byte[] b, final int off, final int len) throws IOException {
-        if (this.getLeftBytes() < len) {
-            final int newSize = this.buf.length + len - this.getLeftBytes();
-            this.file.resize(newSize);
-            this.buf = this.file.getData().getContent();
+        final long end = this.filePointer + len;
+        if (end > this.file.size()) {
+            this.file.resize(end);
         }
-        System.arraycopy(b, off, this.buf, filePointer, len);
+        this.file.getData().getContent().write(filePointer, b, off, len);
         this.filePointer += len;
     }
 
@@ -577,6 +573,5 @@ public class RamFileRandomAccessContent implements RandomAccessContent {
     @Override
     public void setLength(final long newLength) throws IOException {
         this.file.resize(newLength);
-        this.buf = this.file.getData().getContent();
     }
 }
@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.ram;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.NameScope;
+
+/**
+ * Reads and writes snapshots of a tree of a {@link RamFileSystem}.
+ * <p>
+ * A snapshot starts with a header: the int {@link #MAGIC}, the byte {@link #VERSION} and a byte of flags. When the
+ * {@link #COMPRESSED} flag is set the rest of the snapshot is gzipped. The tree follows in pre-order, each file as:
+ * <ul>
+ * <li>a byte, {@link #FOLDER} or {@link #FILE}</li>
+ * <li>the base name, in modified UTF-8 (empty for the base folder)</li>
+ * <li>the last modified time, a long</li>
+ * <li>for a file, the length of the content as a long and the content</li>
+ * <li>for a folder, the number of children as an int and the children</li>
+ * </ul>
+ */
+final class RamFileSnapshot {
+    /** "VFSR". */
+    static final int MAGIC = 0x56465352;
+
+    static final byte VERSION = 1;
+
+    static final byte COMPRESSED = 1;
+
+    static final byte FOLDER = 1;
+
+    static final byte FILE = 2;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final RamFileSystem fileSystem;
+
+    /** The names of the imported files. */
+    private final List<FileName> imported = new ArrayList<>();
+
+    RamFileSnapshot(final RamFileSystem fileSystem) {
+        this.fileSystem = fileSystem;
+    }
+
+    /**
+     * Writes a snapshot of a tree.
+     *
+     * @param base The base of the tree.
+     * @param out The output, not closed.
+     * @param compress true to gzip the snapshot.
+     * @throws IOException if the output fails.
+     */
+    void write(final RamFileData base, final OutputStream out, final boolean compress) throws IOException {
+        final DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeByte(VERSION);
+        header.writeByte(compress ? COMPRESSED : 0);
+        header.flush();
+
+        final GZIPOutputStream gzip = compress ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        final DataOutputStream data = new DataOutputStream(
+                new BufferedOutputStream(gzip != null ? gzip : out, BUFFER_SIZE));
+        write(base, "", data);
+        data.flush();
+        if (gzip != null) {
+            gzip.finish();
+        }
+    }
+
+    private void write(final RamFileData file, final String baseName, final DataOutputStream out)
+            throws IOException {
+        final FileType type = file.getType();
+        if (type.hasChildren()) {
+            out.writeByte(FOLDER);
+            out.writeUTF(baseName);
+            out.writeLong(file.getLastModified());
+            // the children may change while they are written, skip the deleted ones
+            final List<RamFileData> children = new ArrayList<>();
+            final List<String> names = new ArrayList<>();
+            for (final RamFileData child : file.getChildren()) {
+                final FileName name = child.getName();
+                if (name != null) {
+                    children.add(child);
+                    names.add(name.getBaseName());
+                }
+            }
+            out.writeInt(children.size());
+            for (int i = 0; i < children.size(); i++) {
+                write(children.get(i), names.get(i), out);
+            }
+        } else if (type.hasContent()) {
+            out.writeByte(FILE);
+            out.writeUTF(baseName);
+            out.writeLong(file.getLastModified());
+            file.getContent().writeTo(out);
+        } else {
+            throw new FileSystemException("File is not a folder nor a file " + file);
+        }
+    }
+
+    /**
+     * Reads a snapshot into a folder.
+     *
+     * @param base The folder.
+     * @param in The snapshot, not closed.
+     * @return The names of the imported files.
+     * @throws IOException if the snapshot cannot be read.
+     */
+    List<FileName> read(final RamFileData base, final InputStream in) throws IOException {
+        final DataInputStream header = new DataInputStream(in);
+        final boolean compressed = readHeader(header);
+        final InputStream source = compressed ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+        read(base, new DataInputStream(new BufferedInputStream(source, BUFFER_SIZE)), null);
+        return imported;
+    }
+
+    /**
+     * Reads a snapshot file into a folder. The file is memory mapped, the content of an uncompressed snapshot is copied
+     * straight from the mapped file.
+     *
+     * @param base The folder.
+     * @param file The snapshot.
+     * @return The names of the imported files.
+     * @throws IOException if the snapshot cannot be read.
+     */
+    List<FileName> read(final RamFileData base, final File file) throws IOException {
+        try (final RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            final FileChannel channel = raf.getChannel();
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                // too large to map at once
+                try (final InputStream in = new FileInputStream(file)) {
+                    return read(base, in);
+                }
+            }
+            final ByteBufferInputStream mapped = new ByteBufferInputStream(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            final boolean compressed = readHeader(new DataInputStream(mapped));
+            if (compressed) {
+                read(base, new DataInputStream(
+                        new BufferedInputStream(new GZIPInputStream(mapped, BUFFER_SIZE), BUFFER_SIZE)), null);
+            } else {
+                read(base, new DataInputStream(mapped), mapped);
+            }
+            return imported;
+        }
+    }
+
+    /**
+     * @return The names of the files imported so far.
+     */
+    List<FileName> getImported() {
+        return imported;
+    }
+
+    private static boolean readHeader(final DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new FileSystemException("vfs.provider.ram/not-a-snapshot.error");
+        }
+        final byte version = in.readByte();
+        if (version != VERSION) {
+            throw new FileSystemException("vfs.provider.ram/snapshot-version.error", Byte.valueOf(version));
+        }
+        return (in.readByte() & COMPRESSED) != 0;
+    }
+
+    /**
+     * Reads the base folder of the snapshot into a folder.
+     */
+    private void read(final RamFileData base, final DataInputStream in, final ByteBufferInputStream mapped)
+            throws IOException {
+        final byte type = in.readByte();
+        in.readUTF();
+        final long lastModified = in.readLong();
+        if (type != FOLDER) {
+            throw new FileSystemException("vfs.provider.ram/corrupt-snapshot.error");
+        }
+        readChildren(base, in, mapped);
+        base.setLastModified(lastModified);
+        imported.add(base.getName());
+    }
+
+    private void readChildren(final RamFileData folder, final DataInputStream in, final ByteBufferInputStream mapped)
+            throws IOException {
+        final int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            final byte type = in.readByte();
+            final FileName name = fileSystem.getFileSystemManager().resolveName(folder.getName(), in.readUTF(),
+                    NameScope.CHILD);
+            final long lastModified = in.readLong();
+            if (type == FOLDER) {
+                final RamFileData child = fileSystem.importData(folder, name, FileType.FOLDER);
+                readChildren(child, in, mapped);
+                child.setLastModified(lastModified);
+            } else if (type == FILE) {
+                final RamFileData child = fileSystem.importData(folder, name, FileType.FILE);
+                readContent(child, in, mapped);
+                child.setLastModified(lastModified);
+            } else {
+                throw new FileSystemException("vfs.provider.ram/corrupt-snapshot.error");
+            }
+            imported.add(name);
+        }
+    }
+
+    private void readContent(final RamFileData file, final DataInputStream in, final ByteBufferInputStream mapped)
+            throws IOException {
+        final long length = in.readLong();
+        fileSystem.resize(length);
+        final RamFileBuffer content = file.getContent();
+        try {
+            if (mapped != null) {
+                content.write(0, mapped.slice(length));
+                return;
+            }
+            final byte[] bytes = new byte[(int) Math.min(length, BUFFER_SIZE)];
+            long pos = 0;
+            while (pos < length) {
+                final int n = (int) Math.min(length - pos, bytes.length);
+                in.readFully(bytes, 0, n);
+                content.write(pos, bytes, 0, n);
+                pos += n;
+            }
+        } catch (final IOException | RuntimeException e) {
+            // a truncated or corrupt snapshot leaves the file empty, and gives back what was reserved for it
+            content.setLength(0);
+            fileSystem.resize(-length);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a mapped file.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        /**
+         * Returns the next bytes without copying them, and skips them.
+         */
+        private ByteBuffer slice(final long length) throws EOFException {
+            if (length > buffer.remaining()) {
+                throw new EOFException();
+            }
+            final ByteBuffer slice = buffer.slice();
+            slice.limit((int) length);
+            buffer.position(buffer.position() + (int) length);
+            return slice;
+        }
+    }
+}
@@ -22,11 +22,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.vfs2.Capability;
 import org.apache.commons.vfs2.FileName;
@@ -53,15 +54,20 @@ public class RamFileSystem extends AbstractFileSystem implements Serializable {
      */
     private final Map<FileName, RamFileData> cache;
 
+    /**
+     * The sum of the sizes of the files.
+     */
+    private final AtomicLong size = new AtomicLong();
+
     /**
      * @param rootName The root file name.
      * @param fileSystemOptions The FileSystem options.
      */
     protected RamFileSystem(final FileName rootName, final FileSystemOptions fileSystemOptions) {
         super(rootName, null, fileSystemOptions);
-        this.cache = Collections.synchronizedMap(new HashMap<FileName, RamFileData>());
+        this.cache = new ConcurrentHashMap<>();
         // create root
-        final RamFileData rootData = new RamFileData(rootName);
+        final RamFileData rootData = createData(rootName);
         rootData.setType(FileType.FOLDER);
         rootData.setLastModified(System.currentTimeMillis());
         this.cache.put(rootName, rootData);
@@ -96,22 +102,15 @@ public class RamFileSystem extends AbstractFileSystem implements Serializable {
         if (data == null || !data.getType().hasChildren()) {
             return null;
         }
-        final Collection<RamFileData> children = data.getChildren();
-        String[] names;
-
-        synchronized (children) {
-            names = new String[children.size()];
-
-            int pos = 0;
-            final Iterator<RamFileData> iter = children.iterator();
-            while (iter.hasNext()) {
-                final RamFileData childData = iter.next();
-                names[pos] = childData.getName().getBaseName();
-                pos++;
+        // the children may change while they are listed
+        final List<String> names = new ArrayList<>();
+        for (final RamFileData childData : data.getChildren()) {
+            final FileName childName = childData.getName();
+            if (childName != null) {
+                names.add(childName.getBaseName());
             }
         }
-
-        return names;
+        return names.toArray(new String[names.size()]);
     }
 
     /**
@@ -128,6 +127,7 @@ public class RamFileSystem extends AbstractFileSystem implements Serializable {
 
         // Remove reference from cache
         this.cache.remove(file.getName());
+        this.size.addAndGet(-file.getData().size());
         // Notify the parent
         final RamFileObject parent = (RamFileObject) this.resolveFile(file.getParent().getName());
         parent.getData().removeChild(file.getData());
@@ -152,11 +152,9 @@ public class RamFileSystem extends AbstractFileSystem implements Serializable {
 
         // Add to the parent
         if (file.getName().getDepth() > 0) {
-            final RamFileData parentData = this.cache.get(file.getParent().getName());
+            final RamFileObject parent = (RamFileObject) file.getParent();
             // Only if not already added
-            if (!parentData.hasChildren(file.getData())) {
-                final RamFileObject parent = (RamFileObject) file.getParent();
-                parent.getData().addChild(file.getData());
+            if (parent.getData().addChildIfAbsent(file.getData())) {
                 parent.close();
             }
         }
@@ -175,9 +173,10 @@ public class RamFileSystem extends AbstractFileSystem implements Serializable {
         if (!this.cache.containsKey(from.getName())) {
             throw new FileSystemException("File does not exist: " + from.getName());
         }
-        // Copy data
-
-        to.getData().setContent(from.getData().getContent());
+        // Move data, the size of the file system does not change
+        final RamFileBuffer previous = to.getData().getContent();
+        to.getData().setContent(from.getData().clearContent());
+        this.size.addAndGet(-previous.size());
         to.getData().setLastModified(from.getData().getLastModified());
         to.getData().setType(from.getData().getType());
 
@@ -191,7 +190,7 @@ public class RamFileSystem extends AbstractFileSystem implements Serializable {
         }
         RamFileData data = this.cache.get(fo.getName());
         if (data == null) {
-            data = new RamFileData(fo.getName());
+            data = createData(fo.getName());
         }
         fo.setData(data);
     }
@@ -252,19 +251,155 @@ public class RamFileSystem extends AbstractFileSystem implements Serializable {
         }
     }
 
+    /**
+     * Writes a snapshot of a folder and its descendants.
+     * <p>
+     * The snapshot is a compact binary stream, which {@link #importSnapshot(FileObject, InputStream)} or
+     * {@link #importSnapshot(FileObject, File)} restore much faster than copying the files one by one. Files changed
+     * while the snapshot is written may or may not be included.
+     *
+     * @param folder The folder of this file system.
+     * @param out The output, not closed.
+     * @param compress true to gzip the snapshot.
+     * @throws IOException if the folder does not exist or the output fails.
+     * @since 2.3
+     */
+    public void exportSnapshot(final FileObject folder, final OutputStream out, final boolean compress)
+            throws IOException {
+        final RamFileData data = this.cache.get(checkFolder(folder));
+        if (data == null || !data.getType().hasChildren()) {
+            throw new FileSystemException("vfs.provider/list-children-not-folder.error", folder);
+        }
+        new RamFileSnapshot(this).write(data, out, compress);
+    }
+
+    /**
+     * Restores a snapshot written by {@link #exportSnapshot(FileObject, OutputStream, boolean)} into a folder, which is
+     * created if needed. Existing files are replaced, other files of the folder are kept.
+     *
+     * @param folder The folder of this file system.
+     * @param in The snapshot, not closed.
+     * @throws IOException if the snapshot cannot be read, or exceeds the capacity of this file system.
+     * @since 2.3
+     */
+    public void importSnapshot(final FileObject folder, final InputStream in) throws IOException {
+        final RamFileSnapshot snapshot = new RamFileSnapshot(this);
+        try {
+            snapshot.read(prepareImport(folder), in);
+        } finally {
+            importDone(snapshot);
+        }
+    }
+
+    /**
+     * Restores a snapshot file written by {@link #exportSnapshot(FileObject, OutputStream, boolean)} into a folder,
+     * which is created if needed. Existing files are replaced, other files of the folder are kept.
+     * <p>
+     * The snapshot file is memory mapped, the content of an uncompressed snapshot is copied straight from the mapped
+     * file into the files.
+     *
+     * @param folder The folder of this file system.
+     * @param file The snapshot file.
+     * @throws IOException if the snapshot cannot be read, or exceeds the capacity of this file system.
+     * @since 2.3
+     */
+    public void importSnapshot(final FileObject folder, final File file) throws IOException {
+        final RamFileSnapshot snapshot = new RamFileSnapshot(this);
+        try {
+            snapshot.read(prepareImport(folder), file);
+        } finally {
+            importDone(snapshot);
+        }
+    }
+
+    private FileName checkFolder(final FileObject folder) throws FileSystemException {
+        if (folder.getFileSystem() != this) {
+            throw new FileSystemException("vfs.provider.ram/other-file-system.error", folder);
+        }
+        return folder.getName();
+    }
+
+    private RamFileData prepareImport(final FileObject folder) throws FileSystemException {
+        final FileName name = checkFolder(folder);
+        folder.createFolder();
+        return this.cache.get(name);
+    }
+
+    /**
+     * Refreshes the cached file objects of the imported files.
+     */
+    private void importDone(final RamFileSnapshot snapshot) throws FileSystemException {
+        for (final FileName name : snapshot.getImported()) {
+            final FileObject file = getFileFromCache(name);
+            if (file != null) {
+                file.refresh();
+            }
+        }
+    }
+
+    /**
+     * Adds a file of a snapshot, or empties the existing one.
+     *
+     * @param parent The parent folder.
+     * @param name The name of the file.
+     * @param type The type of the file.
+     * @return The file data.
+     * @throws IOException if a file of another type exists.
+     */
+    RamFileData importData(final RamFileData parent, final FileName name, final FileType type) throws IOException {
+        RamFileData data = this.cache.get(name);
+        if (data == null) {
+            data = createData(name);
+            data.setType(type);
+            if (parent.addChildIfAbsent(data)) {
+                this.cache.put(name, data);
+                return data;
+            }
+            // added meanwhile
+            data = this.cache.get(name);
+        }
+        if (data == null || data.getType() != type) {
+            throw new FileSystemException("vfs.provider/create-file.error", name);
+        }
+        if (type.hasContent()) {
+            resize(-data.clearContent().size());
+        }
+        return data;
+    }
+
+    private RamFileData createData(final FileName name) {
+        final FileSystemOptions options = getFileSystemOptions();
+        final RamFileSystemConfigBuilder builder = RamFileSystemConfigBuilder.getInstance();
+        return new RamFileData(name, builder.getChunkSize(options), builder.getDirectBuffers(options));
+    }
+
     /**
      * @return Returns the size of the FileSystem
      */
     long size() {
-        long size = 0;
-        synchronized (cache) {
-            final Iterator<RamFileData> iter = cache.values().iterator();
-            while (iter.hasNext()) {
-                final RamFileData data = iter.next();
-                size += data.size();
+        return size.get();
+    }
+
+    /**
+     * Changes the size of the file system, checking atomically that it stays below its maximum size.
+     *
+     * @param delta The number of bytes added to the file system, negative when bytes are removed.
+     * @throws IOException if the new size exceeds the limit
+     */
+    void resize(final long delta) throws IOException {
+        final FileSystemOptions options = getFileSystemOptions();
+        final long maxSize = options == null ? Long.MAX_VALUE
+                : RamFileSystemConfigBuilder.getInstance().getLongMaxSize(options);
+        while (true) {
+            final long current = size.get();
+            final long next = current + delta;
+            if (delta > 0 && next > maxSize) {
+                throw new IOException("FileSystem capacity (" + maxSize + ") exceeded.");
+            }
+            if (size.compareAndSet(current, next)) {
+                return;
             }
         }
-        return size;
     }
 
     /**
@@ -273,6 +408,7 @@ public class RamFileSystem extends AbstractFileSystem implements Serializable {
     @Override
     public void close() {
         this.cache.clear();
+        this.size.set(0);
         super.close();
     }
 }
@@ -28,6 +28,12 @@ public final class RamFileSystemConfigBuilder extends FileSystemConfigBuilder {
     /** max size key. */
     private static final String MAX_SIZE_KEY = "maxsize";
 
+    /** chunk size key. */
+    private static final String CHUNK_SIZE_KEY = "chunksize";
+
+    /** direct buffers key. */
+    private static final String DIRECT_BUFFERS_KEY = "directbuffers";
+
     /** config builder SINGLETON. */
     private static final RamFileSystemConfigBuilder SINGLETON = new RamFileSystemConfigBuilder();
 
@@ -92,6 +98,9 @@ public final class RamFileSystemConfigBuilder extends FileSystemConfigBuilder {
 
     /**
      * Sets the maximum size of the file system.
+     * <p>
+     * The size of the file system is the sum of the lengths of its files. It is checked atomically when a file grows,
+     * so files written at the same time cannot exceed it together.
      *
      * @param opts The FileSystem options.
      * @param sizeInBytes The maximum file size.
@@ -100,4 +109,57 @@ public final class RamFileSystemConfigBuilder extends FileSystemConfigBuilder {
         setParam(opts, MAX_SIZE_KEY, Long.valueOf(sizeInBytes));
     }
 
+    /**
+     * Defaults to 64 KB.
+     *
+     * @param opts The FileSystem options.
+     * @return The size of the chunks storing the content of the files.
+     * @see #setChunkSize(FileSystemOptions, int)
+     * @since 2.3
+     */
+    public int getChunkSize(final FileSystemOptions opts) {
+        return getInteger(opts, CHUNK_SIZE_KEY, RamFileBuffer.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Sets the size of the chunks storing the content of the files.
+     * <p>
+     * The content of a file is stored in chunks of this size, so growing a file never copies its content. Larger
+     * chunks waste more memory in small files.
+     *
+     * @param opts The FileSystem options.
+     * @param chunkSize The size of a chunk in bytes.
+     * @since 2.3
+     */
+    public void setChunkSize(final FileSystemOptions opts, final int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        setParam(opts, CHUNK_SIZE_KEY, Integer.valueOf(chunkSize));
+    }
+
+    /**
+     * Defaults to false.
+     *
+     * @param opts The FileSystem options.
+     * @return true if the content of the files is stored in direct (off-heap) byte buffers.
+     * @see #setDirectBuffers(FileSystemOptions, boolean)
+     * @since 2.3
+     */
+    public boolean getDirectBuffers(final FileSystemOptions opts) {
+        return getBoolean(opts, DIRECT_BUFFERS_KEY, false);
+    }
+
+    /**
+     * Sets whether the content of the files is stored in direct (off-heap) byte buffers, limited by
+     * {@code -XX:MaxDirectMemorySize} rather than by the heap.
+     *
+     * @param opts The FileSystem options.
+     * @param directBuffers true to store the content in direct byte buffers.
+     * @since 2.3
+     */
+    public void setDirectBuffers(final FileSystemOptions opts, final boolean directBuffers) {
+        setParam(opts, DIRECT_BUFFERS_KEY, directBuffers ? Boolean.TRUE : Boolean.FALSE);
+    }
+
 }
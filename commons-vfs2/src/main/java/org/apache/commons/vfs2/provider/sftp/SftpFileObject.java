@@ -50,7 +50,7 @@ import com.jcraft.jsch.SftpException;
 public class SftpFileObject extends AbstractFileObject<SftpFileSystem> {
     private static final long MOD_TIME_FACTOR = 1000L;
 
-    private SftpATTRS attrs;
+    private volatile SftpATTRS attrs;
     private final String relPath;
 
     private boolean inRefresh;
@@ -406,6 +406,14 @@ public class SftpFileObject extends AbstractFileObject<SftpFileSystem> {
         return null;
     }
 
+    /**
+     * Each listing borrows its own channel, so folders are listed without the file system lock.
+     */
+    @Override
+    protected boolean isListChildrenThreadSafe() {
+        return true;
+    }
+
     /**
      * Returns the size of the file content (in bytes).
      */
@@ -444,43 +452,24 @@ public class SftpFileObject extends AbstractFileObject<SftpFileSystem> {
      */
     @Override
     protected InputStream doGetInputStream() throws Exception {
-        // VFS-113: avoid npe
-        synchronized (getAbstractFileSystem()) {
-            final ChannelSftp channel = getAbstractFileSystem().getChannel();
-            try {
-                // return channel.get(getName().getPath());
-                // hmmm - using the in memory method is soooo much faster ...
-
-                // TODO - Don't read the entire file into memory. Use the
-                // stream-based methods on ChannelSftp once they work properly
-
-                /*
-                 * final ByteArrayOutputStream outstr = new ByteArrayOutputStream(); channel.get(relPath, outstr);
-                 * outstr.close(); return new ByteArrayInputStream(outstr.toByteArray());
-                 */
-
-                InputStream is;
-                try {
-                    // VFS-210: sftp allows to gather an input stream even from a directory and will
-                    // fail on first read. So we need to check the type anyway
-                    if (!getType().hasContent()) {
-                        throw new FileSystemException("vfs.provider/read-not-file.error", getName());
-                    }
-
-                    is = channel.get(relPath);
-                } catch (final SftpException e) {
-                    if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
-                        throw new FileNotFoundException(getName());
-                    }
-
-                    throw new FileSystemException(e);
-                }
-
-                return new SftpInputStream(channel, is);
+        // VFS-210: sftp allows to gather an input stream even from a directory and will
+        // fail on first read. So we need to check the type anyway
+        if (!getType().hasContent()) {
+            throw new FileSystemException("vfs.provider/read-not-file.error", getName());
+        }
 
-            } finally {
-                // getAbstractFileSystem().putChannel(channel);
+        // VFS-113: each stream reads its own channel. It is borrowed without holding the file system lock, borrowing may
+        // wait until another stream returns its channel.
+        final ChannelSftp channel = getAbstractFileSystem().getChannel();
+        try {
+            return new SftpInputStream(channel, channel.get(relPath));
+        } catch (final SftpException e) {
+            getAbstractFileSystem().putChannel(channel);
+            if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                throw new FileNotFoundException(getName());
             }
+
+            throw new FileSystemException(e);
         }
     }
 
@@ -18,7 +18,14 @@ package org.apache.commons.vfs2.provider.sftp;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.vfs2.Capability;
 import org.apache.commons.vfs2.FileObject;
@@ -50,10 +57,40 @@ public class SftpFileSystem extends AbstractFileSystem {
 
     // private final JSch jSch;
 
-    private ChannelSftp idleChannel;
+    /**
+     * The sessions to the host and their channels, the first one is {@link #session}. Guarded by {@link #poolLock},
+     * which is never held while talking to the server.
+     */
+    private final List<PooledSession> sessions = new ArrayList<>();
+
+    private final Object poolLock = new Object();
+
+    /**
+     * Serializes reconnecting the primary session.
+     */
+    private final Object sessionLock = new Object();
+
+    /**
+     * Sessions being opened, they count towards the maximum number of sessions.
+     */
+    private int openingSessions;
 
     private final int connectTimeoutMillis;
 
+    private final int maxIdleChannels;
+
+    private final int minIdleChannels;
+
+    private final int maxChannelsPerSession;
+
+    private final int maxSessions;
+
+    private final long channelIdleTimeoutMillis;
+
+    private final long channelPoolMaxWaitMillis;
+
+    private final boolean channelHealthCheck;
+
     /**
      * Cache for the user ID (-1 when not set)
      */
@@ -70,23 +107,39 @@ public class SftpFileSystem extends AbstractFileSystem {
         this.session = session;
         final SftpFileSystemConfigBuilder builder = SftpFileSystemConfigBuilder.getInstance();
         this.connectTimeoutMillis = builder.getConnectTimeoutMillis(fileSystemOptions);
+        this.maxIdleChannels = Math.max(builder.getMaxIdleChannels(fileSystemOptions), 0);
+        this.minIdleChannels = Math.max(builder.getMinIdleChannels(fileSystemOptions), 0);
+        this.maxChannelsPerSession = Math.max(builder.getMaxChannelsPerSession(fileSystemOptions), 0);
+        this.maxSessions = Math.max(builder.getMaxSessions(fileSystemOptions), 1);
+        this.channelIdleTimeoutMillis = Math.max(builder.getChannelIdleTimeoutMillis(fileSystemOptions), 0);
+        this.channelPoolMaxWaitMillis = Math.max(builder.getChannelPoolMaxWaitMillis(fileSystemOptions), 0);
+        this.channelHealthCheck = builder.getChannelHealthCheck(fileSystemOptions);
+        if (session != null) {
+            sessions.add(new PooledSession(session));
+        }
     }
 
     @Override
     protected void doCloseCommunicationLink() {
-        if (idleChannel != null) {
-            idleChannel.disconnect();
-            idleChannel = null;
+        final List<PooledSession> closed;
+        synchronized (poolLock) {
+            closed = new ArrayList<>(sessions);
+            sessions.clear();
+            session = null;
+            poolLock.notifyAll();
         }
 
-        if (session != null) {
-            session.disconnect();
-            session = null;
+        for (final PooledSession pooled : closed) {
+            pooled.disconnect();
         }
     }
 
     /**
      * Returns an SFTP channel to the server.
+     * <p>
+     * Idle channels are reused, the most recently returned first. New channels are opened on the session with the
+     * fewest channels, or on a new session when all sessions have reached
+     * {@link SftpFileSystemConfigBuilder#setMaxChannelsPerSession(FileSystemOptions, int)}.
      *
      * @return new or reused channel, never null.
      * @throws FileSystemException if a session cannot be created.
@@ -95,26 +148,7 @@ public class SftpFileSystem extends AbstractFileSystem {
     protected ChannelSftp getChannel() throws IOException {
         ensureSession();
         try {
-            // Use the pooled channel, or create a new one
-            final ChannelSftp channel;
-            if (idleChannel != null) {
-                channel = idleChannel;
-                idleChannel = null;
-            } else {
-                channel = (ChannelSftp) session.openChannel("sftp");
-                channel.connect(connectTimeoutMillis);
-                final Boolean userDirIsRoot = SftpFileSystemConfigBuilder.getInstance()
-                        .getUserDirIsRoot(getFileSystemOptions());
-                final String workingDirectory = getRootName().getPath();
-                if (workingDirectory != null && (userDirIsRoot == null || !userDirIsRoot.booleanValue())) {
-                    try {
-                        channel.cd(workingDirectory);
-                    } catch (final SftpException e) {
-                        throw new FileSystemException("vfs.provider.sftp/change-work-directory.error", workingDirectory,
-                                e);
-                    }
-                }
-            }
+            final ChannelSftp channel = borrowChannel();
 
             final String fileNameEncoding = SftpFileSystemConfigBuilder.getInstance()
                     .getFileNameEncoding(getFileSystemOptions());
@@ -132,51 +166,291 @@ public class SftpFileSystem extends AbstractFileSystem {
         }
     }
 
+    private ChannelSftp borrowChannel() throws IOException, JSchException {
+        final long deadline = System.currentTimeMillis() + channelPoolMaxWaitMillis;
+        while (true) {
+            PooledSession target = null;
+            ChannelSftp idle = null;
+            boolean newSession = false;
+            synchronized (poolLock) {
+                evictIdleChannels();
+                for (final PooledSession pooled : sessions) {
+                    idle = pooled.pollIdle();
+                    if (idle != null) {
+                        target = pooled;
+                        break;
+                    }
+                }
+                if (target == null) {
+                    target = leastUsedSession();
+                    if (target != null) {
+                        target.opening++;
+                    } else if (sessions.size() + openingSessions < maxSessions) {
+                        openingSessions++;
+                        newSession = true;
+                    } else {
+                        final long wait = deadline - System.currentTimeMillis();
+                        if (wait <= 0) {
+                            throw new FileSystemException("vfs.provider.sftp/channel-pool-exhausted.error",
+                                    getRootName());
+                        }
+                        try {
+                            poolLock.wait(wait);
+                        } catch (final InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new FileSystemException("vfs.provider.sftp/channel-pool-exhausted.error",
+                                    getRootName(), e);
+                        }
+                        continue;
+                    }
+                }
+            }
+
+            if (idle != null) {
+                if (isHealthy(idle)) {
+                    return idle;
+                }
+                synchronized (poolLock) {
+                    target.borrowed.remove(idle);
+                }
+                idle.disconnect();
+                continue;
+            }
+
+            if (newSession) {
+                target = openSession();
+            }
+            try {
+                final ChannelSftp channel = openChannel(target.session);
+                synchronized (poolLock) {
+                    target.borrowed.add(channel);
+                }
+                return channel;
+            } finally {
+                synchronized (poolLock) {
+                    target.opening--;
+                    poolLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens an additional session, the caller has counted it in {@link #openingSessions}.
+     */
+    private PooledSession openSession() throws FileSystemException {
+        PooledSession pooled = null;
+        try {
+            pooled = new PooledSession(createSession());
+        } finally {
+            synchronized (poolLock) {
+                openingSessions--;
+                if (pooled != null) {
+                    pooled.opening++;
+                    sessions.add(pooled);
+                }
+                poolLock.notifyAll();
+            }
+        }
+        return pooled;
+    }
+
+    /**
+     * Returns the connected session with the fewest channels, if it can take another channel.
+     */
+    private PooledSession leastUsedSession() {
+        PooledSession least = null;
+        for (final PooledSession pooled : sessions) {
+            if (pooled.session.isConnected()
+                    && (least == null || pooled.channelCount() < least.channelCount())) {
+                least = pooled;
+            }
+        }
+        if (least != null && maxChannelsPerSession > 0 && least.channelCount() >= maxChannelsPerSession) {
+            return null;
+        }
+        return least;
+    }
+
+    private ChannelSftp openChannel(final Session session) throws IOException, JSchException {
+        final ChannelSftp channel = (ChannelSftp) session.openChannel("sftp");
+        channel.connect(connectTimeoutMillis);
+        final Boolean userDirIsRoot = SftpFileSystemConfigBuilder.getInstance()
+                .getUserDirIsRoot(getFileSystemOptions());
+        final String workingDirectory = getRootName().getPath();
+        if (workingDirectory != null && (userDirIsRoot == null || !userDirIsRoot.booleanValue())) {
+            try {
+                channel.cd(workingDirectory);
+            } catch (final SftpException e) {
+                channel.disconnect();
+                throw new FileSystemException("vfs.provider.sftp/change-work-directory.error", workingDirectory, e);
+            }
+        }
+        return channel;
+    }
+
+    private boolean isHealthy(final ChannelSftp channel) {
+        if (!channel.isConnected() || channel.isClosed()) {
+            return false;
+        }
+        if (channelHealthCheck) {
+            try {
+                channel.realpath(".");
+            } catch (final SftpException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Closes channels idle for longer than the idle timeout, keeping the minimum number of idle channels, and the
+     * additional sessions left without channels. Must be called holding {@link #poolLock}.
+     */
+    private void evictIdleChannels() {
+        final long now = System.currentTimeMillis();
+        int idleCount = 0;
+        for (final PooledSession pooled : sessions) {
+            idleCount += pooled.idle.size();
+        }
+
+        final Iterator<PooledSession> iterator = sessions.iterator();
+        while (iterator.hasNext()) {
+            final PooledSession pooled = iterator.next();
+            if (!pooled.session.isConnected()) {
+                idleCount -= pooled.idle.size();
+                pooled.disconnect();
+                iterator.remove();
+                continue;
+            }
+            if (channelIdleTimeoutMillis > 0) {
+                // the oldest idle channels are at the end
+                IdleChannel oldest = pooled.idle.peekLast();
+                while (oldest != null && idleCount > minIdleChannels
+                        && now - oldest.since >= channelIdleTimeoutMillis) {
+                    pooled.idle.pollLast().channel.disconnect();
+                    idleCount--;
+                    oldest = pooled.idle.peekLast();
+                }
+            }
+            if (pooled.session != session && pooled.channelCount() == 0) {
+                pooled.session.disconnect();
+                iterator.remove();
+            }
+        }
+    }
+
     /**
      * Ensures that the session link is established.
+     * <p>
+     * When the primary session was dropped, only that session is replaced: a connected additional session takes its
+     * place, or a new one is opened. The channels in flight on the other sessions are left alone, and those sessions
+     * are closed once they have no channels left.
      *
      * @throws FileSystemException if a session cannot be created.
      */
     private void ensureSession() throws FileSystemException {
-        if (this.session == null || !this.session.isConnected()) {
-            doCloseCommunicationLink();
+        synchronized (poolLock) {
+            if (this.session != null && this.session.isConnected()) {
+                return;
+            }
+        }
 
-            // channel closed. e.g. by freeUnusedResources, but now we need it again
-            Session session;
-            UserAuthenticationData authData = null;
-            try {
-                final GenericFileName rootName = (GenericFileName) getRootName();
-
-                authData = UserAuthenticatorUtils.authenticate(getFileSystemOptions(),
-                        SftpFileProvider.AUTHENTICATOR_TYPES);
-
-                session = SftpClientFactory.createConnection(rootName.getHostName(), rootName.getPort(),
-                        UserAuthenticatorUtils.getData(authData, UserAuthenticationData.USERNAME,
-                                UserAuthenticatorUtils.toChar(rootName.getUserName())),
-                        UserAuthenticatorUtils.getData(authData, UserAuthenticationData.PASSWORD,
-                                UserAuthenticatorUtils.toChar(rootName.getPassword())),
-                        getFileSystemOptions());
-            } catch (final Exception e) {
-                throw new FileSystemException("vfs.provider.sftp/connect.error", getRootName(), e);
-            } finally {
-                UserAuthenticatorUtils.cleanup(authData);
+        synchronized (sessionLock) {
+            PooledSession dead = null;
+            final Session promoted;
+            synchronized (poolLock) {
+                if (this.session != null && this.session.isConnected()) {
+                    return;
+                }
+                final Iterator<PooledSession> iterator = sessions.iterator();
+                while (iterator.hasNext()) {
+                    final PooledSession pooled = iterator.next();
+                    if (pooled.session == this.session) {
+                        dead = pooled;
+                        iterator.remove();
+                        break;
+                    }
+                }
+                this.session = null;
+                for (final PooledSession pooled : sessions) {
+                    if (pooled.session.isConnected()) {
+                        // promote a healthy additional session
+                        sessions.remove(pooled);
+                        sessions.add(0, pooled);
+                        this.session = pooled.session;
+                        break;
+                    }
+                }
+                promoted = this.session;
+                poolLock.notifyAll();
             }
-            this.session = session;
+            if (dead != null) {
+                dead.disconnect();
+            }
+
+            if (promoted == null) {
+                // channel closed. e.g. by freeUnusedResources, but now we need it again
+                final Session session = createSession();
+                synchronized (poolLock) {
+                    this.session = session;
+                    sessions.add(0, new PooledSession(session));
+                    poolLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    private Session createSession() throws FileSystemException {
+        UserAuthenticationData authData = null;
+        try {
+            final GenericFileName rootName = (GenericFileName) getRootName();
+
+            authData = UserAuthenticatorUtils.authenticate(getFileSystemOptions(),
+                    SftpFileProvider.AUTHENTICATOR_TYPES);
+
+            return SftpClientFactory.createConnection(rootName.getHostName(), rootName.getPort(),
+                    UserAuthenticatorUtils.getData(authData, UserAuthenticationData.USERNAME,
+                            UserAuthenticatorUtils.toChar(rootName.getUserName())),
+                    UserAuthenticatorUtils.getData(authData, UserAuthenticationData.PASSWORD,
+                            UserAuthenticatorUtils.toChar(rootName.getPassword())),
+                    getFileSystemOptions());
+        } catch (final Exception e) {
+            throw new FileSystemException("vfs.provider.sftp/connect.error", getRootName(), e);
+        } finally {
+            UserAuthenticatorUtils.cleanup(authData);
         }
     }
 
     /**
      * Returns a channel to the pool.
+     * <p>
+     * The channel is kept for reuse if it is still connected and there are less than
+     * {@link SftpFileSystemConfigBuilder#setMaxIdleChannels(FileSystemOptions, int)} idle channels, otherwise it is
+     * disconnected.
      *
      * @param channel the used channel.
      */
     protected void putChannel(final ChannelSftp channel) {
-        if (idleChannel == null) {
-            // put back the channel only if it is still connected
-            if (channel.isConnected() && !channel.isClosed()) {
-                idleChannel = channel;
+        boolean keep = false;
+        synchronized (poolLock) {
+            int idleCount = 0;
+            for (final PooledSession pooled : sessions) {
+                idleCount += pooled.idle.size();
             }
-        } else {
+            for (final PooledSession pooled : sessions) {
+                if (pooled.borrowed.remove(channel)) {
+                    // put back the channel only if it is still connected
+                    if (idleCount < maxIdleChannels && channel.isConnected() && !channel.isClosed()) {
+                        pooled.idle.addFirst(new IdleChannel(channel, System.currentTimeMillis()));
+                        keep = true;
+                    }
+                    break;
+                }
+            }
+            poolLock.notifyAll();
+        }
+        if (!keep) {
             channel.disconnect();
         }
     }
@@ -269,6 +543,13 @@ public class SftpFileSystem extends AbstractFileSystem {
      */
     private int executeCommand(final String command, final StringBuilder output) throws JSchException, IOException {
         ensureSession();
+        final Session session;
+        synchronized (poolLock) {
+            session = this.session;
+        }
+        if (session == null) {
+            throw new FileSystemException("vfs.provider.sftp/connect.error", getRootName());
+        }
         final ChannelExec channel = (ChannelExec) session.openChannel("exec");
 
         channel.setCommand(command);
@@ -296,4 +577,67 @@ public class SftpFileSystem extends AbstractFileSystem {
         channel.disconnect();
         return channel.getExitStatus();
     }
+
+    /**
+     * A channel in the pool and since when it is idle.
+     */
+    private static final class IdleChannel {
+        private final ChannelSftp channel;
+
+        private final long since;
+
+        private IdleChannel(final ChannelSftp channel, final long since) {
+            this.channel = channel;
+            this.since = since;
+        }
+    }
+
+    /**
+     * A session and the channels opened on it.
+     */
+    private static final class PooledSession {
+        private final Session session;
+
+        /** Idle channels, the most recently returned first. */
+        private final Deque<IdleChannel> idle = new ArrayDeque<>();
+
+        private final Set<ChannelSftp> borrowed = new HashSet<>();
+
+        /** Channels being opened. */
+        private int opening;
+
+        private PooledSession(final Session session) {
+            this.session = session;
+        }
+
+        private ChannelSftp pollIdle() {
+            final IdleChannel idleChannel = idle.pollFirst();
+            if (idleChannel == null) {
+                return null;
+            }
+            borrowed.add(idleChannel.channel);
+            return idleChannel.channel;
+        }
+
+        private int channelCount() {
+            // channels may be disconnected by their users without being returned
+            final Iterator<ChannelSftp> iterator = borrowed.iterator();
+            while (iterator.hasNext()) {
+                final ChannelSftp channel = iterator.next();
+                if (!channel.isConnected() || channel.isClosed()) {
+                    iterator.remove();
+                }
+            }
+            return idle.size() + borrowed.size() + opening;
+        }
+
+        private void disconnect() {
+            for (final IdleChannel idleChannel : idle) {
+                idleChannel.channel.disconnect();
+            }
+            idle.clear();
+            borrowed.clear();
+            session.disconnect();
+        }
+    }
 }
@@ -33,6 +33,12 @@ public final class SftpFileSystemConfigBuilder extends FileSystemConfigBuilder {
 
     private static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 0;
     private static final int DEFAULT_SESSION_TIMEOUT_MILLIS = 0;
+    private static final int DEFAULT_CHANNEL_IDLE_TIMEOUT_MILLIS = 60000;
+    private static final int DEFAULT_CHANNEL_POOL_MAX_WAIT_MILLIS = 30000;
+    private static final int DEFAULT_MAX_CHANNELS_PER_SESSION = 0;
+    private static final int DEFAULT_MAX_IDLE_CHANNELS = 8;
+    private static final int DEFAULT_MAX_SESSIONS = 1;
+    private static final int DEFAULT_MIN_IDLE_CHANNELS = 0;
 
     /**
      * Proxy type.
@@ -86,6 +92,9 @@ public final class SftpFileSystemConfigBuilder extends FileSystemConfigBuilder {
 
     private static final SftpFileSystemConfigBuilder BUILDER = new SftpFileSystemConfigBuilder();
 
+    private static final String CHANNEL_HEALTH_CHECK = _PREFIX + ".CHANNEL_HEALTH_CHECK";
+    private static final String CHANNEL_IDLE_TIMEOUT_MILLIS = _PREFIX + ".CHANNEL_IDLE_TIMEOUT_MILLIS";
+    private static final String CHANNEL_POOL_MAX_WAIT_MILLIS = _PREFIX + ".CHANNEL_POOL_MAX_WAIT_MILLIS";
     private static final String COMPRESSION = _PREFIX + "COMPRESSION";
 
     private static final String CONNECT_TIMEOUT_MILLIS = _PREFIX + ".CONNECT_TIMEOUT_MILLIS";
@@ -96,6 +105,10 @@ public final class SftpFileSystemConfigBuilder extends FileSystemConfigBuilder {
     private static final String IDENTITIES = _PREFIX + ".IDENTITIES";
     private static final String IDENTITY_REPOSITORY_FACTORY = _PREFIX + "IDENTITY_REPOSITORY_FACTORY";
     private static final String KNOWN_HOSTS = _PREFIX + ".KNOWN_HOSTS";
+    private static final String MAX_CHANNELS_PER_SESSION = _PREFIX + ".MAX_CHANNELS_PER_SESSION";
+    private static final String MAX_IDLE_CHANNELS = _PREFIX + ".MAX_IDLE_CHANNELS";
+    private static final String MAX_SESSIONS = _PREFIX + ".MAX_SESSIONS";
+    private static final String MIN_IDLE_CHANNELS = _PREFIX + ".MIN_IDLE_CHANNELS";
     private static final String PREFERRED_AUTHENTICATIONS = _PREFIX + ".PREFERRED_AUTHENTICATIONS";
     private static final String PROXY_COMMAND = _PREFIX + ".PROXY_COMMAND";
 
@@ -139,6 +152,36 @@ public final class SftpFileSystemConfigBuilder extends FileSystemConfigBuilder {
         super("sftp.");
     }
 
+    /**
+     * @param opts The FileSystem options.
+     * @return true if pooled channels are checked with a round trip to the server before they are reused.
+     * @see #setChannelHealthCheck
+     * @since 2.3
+     */
+    public boolean getChannelHealthCheck(final FileSystemOptions opts) {
+        return this.getBoolean(opts, CHANNEL_HEALTH_CHECK, false);
+    }
+
+    /**
+     * @param opts The FileSystem options.
+     * @return The time in milliseconds after which an idle channel is closed.
+     * @see #setChannelIdleTimeoutMillis
+     * @since 2.3
+     */
+    public int getChannelIdleTimeoutMillis(final FileSystemOptions opts) {
+        return this.getInteger(opts, CHANNEL_IDLE_TIMEOUT_MILLIS, DEFAULT_CHANNEL_IDLE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param opts The FileSystem options.
+     * @return The time in milliseconds to wait for a channel when the pool is exhausted.
+     * @see #setChannelPoolMaxWaitMillis
+     * @since 2.3
+     */
+    public int getChannelPoolMaxWaitMillis(final FileSystemOptions opts) {
+        return this.getInteger(opts, CHANNEL_POOL_MAX_WAIT_MILLIS, DEFAULT_CHANNEL_POOL_MAX_WAIT_MILLIS);
+    }
+
     /**
      * @param opts The FileSystem options.
      * @return The names of the compression algorithms, comma-separated.
@@ -226,6 +269,46 @@ public final class SftpFileSystemConfigBuilder extends FileSystemConfigBuilder {
         return (File) this.getParam(opts, KNOWN_HOSTS);
     }
 
+    /**
+     * @param opts The FileSystem options.
+     * @return The maximum number of channels opened on one session, 0 for no limit.
+     * @see #setMaxChannelsPerSession
+     * @since 2.3
+     */
+    public int getMaxChannelsPerSession(final FileSystemOptions opts) {
+        return this.getInteger(opts, MAX_CHANNELS_PER_SESSION, DEFAULT_MAX_CHANNELS_PER_SESSION);
+    }
+
+    /**
+     * @param opts The FileSystem options.
+     * @return The maximum number of idle channels kept open for reuse.
+     * @see #setMaxIdleChannels
+     * @since 2.3
+     */
+    public int getMaxIdleChannels(final FileSystemOptions opts) {
+        return this.getInteger(opts, MAX_IDLE_CHANNELS, DEFAULT_MAX_IDLE_CHANNELS);
+    }
+
+    /**
+     * @param opts The FileSystem options.
+     * @return The maximum number of sessions opened to the host.
+     * @see #setMaxSessions
+     * @since 2.3
+     */
+    public int getMaxSessions(final FileSystemOptions opts) {
+        return this.getInteger(opts, MAX_SESSIONS, DEFAULT_MAX_SESSIONS);
+    }
+
+    /**
+     * @param opts The FileSystem options.
+     * @return The number of idle channels which are never closed because of the idle timeout.
+     * @see #setMinIdleChannels
+     * @since 2.3
+     */
+    public int getMinIdleChannels(final FileSystemOptions opts) {
+        return this.getInteger(opts, MIN_IDLE_CHANNELS, DEFAULT_MIN_IDLE_CHANNELS);
+    }
+
     /**
      * Gets authentication order.
      *
@@ -375,6 +458,43 @@ public final class SftpFileSystemConfigBuilder extends FileSystemConfigBuilder {
         return (UserInfo) this.getParam(opts, UserInfo.class.getName());
     }
 
+    /**
+     * Sets whether an idle channel is checked with a round trip to the server before it is reused, defaults to false.
+     * <p>
+     * Channels which are found broken are closed and replaced by a new channel.
+     *
+     * @param opts The FileSystem options.
+     * @param healthCheck true to check channels before they are reused.
+     * @since 2.3
+     */
+    public void setChannelHealthCheck(final FileSystemOptions opts, final boolean healthCheck) {
+        this.setParam(opts, CHANNEL_HEALTH_CHECK, healthCheck ? Boolean.TRUE : Boolean.FALSE);
+    }
+
+    /**
+     * Sets the time after which an idle channel is closed, defaults to 60000. Use 0 to keep idle channels open until
+     * the file system is closed.
+     *
+     * @param opts The FileSystem options.
+     * @param idleTimeout The idle timeout in milliseconds.
+     * @since 2.3
+     */
+    public void setChannelIdleTimeoutMillis(final FileSystemOptions opts, final int idleTimeout) {
+        this.setParam(opts, CHANNEL_IDLE_TIMEOUT_MILLIS, Integer.valueOf(idleTimeout));
+    }
+
+    /**
+     * Sets how long to wait for a channel when {@link #setMaxChannelsPerSession(FileSystemOptions, int)} and
+     * {@link #setMaxSessions(FileSystemOptions, int)} are reached, defaults to 30000. Use 0 to fail at once.
+     *
+     * @param opts The FileSystem options.
+     * @param maxWait The maximum wait in milliseconds.
+     * @since 2.3
+     */
+    public void setChannelPoolMaxWaitMillis(final FileSystemOptions opts, final int maxWait) {
+        this.setParam(opts, CHANNEL_POOL_MAX_WAIT_MILLIS, Integer.valueOf(maxWait));
+    }
+
     /**
      * Configures the compression algorithms to use.
      * <p>
@@ -474,6 +594,61 @@ public final class SftpFileSystemConfigBuilder extends FileSystemConfigBuilder {
         this.setParam(opts, KNOWN_HOSTS, knownHosts);
     }
 
+    /**
+     * Sets the maximum number of channels opened on one session, including idle channels.
+     * <p>
+     * SSH servers limit the channels per connection (OpenSSH allows 10 by default). When the limit is reached another
+     * session is opened, up to {@link #setMaxSessions(FileSystemOptions, int)}, before callers have to wait for a
+     * channel. Defaults to 0, which means no limit.
+     *
+     * @param opts The FileSystem options.
+     * @param maxChannels The maximum number of channels per session, 0 for no limit.
+     * @since 2.3
+     */
+    public void setMaxChannelsPerSession(final FileSystemOptions opts, final int maxChannels) {
+        this.setParam(opts, MAX_CHANNELS_PER_SESSION, Integer.valueOf(maxChannels));
+    }
+
+    /**
+     * Sets the maximum number of idle channels kept open for reuse, defaults to 8.
+     * <p>
+     * Opening a channel takes a round trip to the server, so concurrent transfers are faster when enough channels are
+     * kept for them.
+     *
+     * @param opts The FileSystem options.
+     * @param maxIdle The maximum number of idle channels.
+     * @since 2.3
+     */
+    public void setMaxIdleChannels(final FileSystemOptions opts, final int maxIdle) {
+        this.setParam(opts, MAX_IDLE_CHANNELS, Integer.valueOf(maxIdle));
+    }
+
+    /**
+     * Sets the maximum number of sessions (SSH connections) opened to the host, defaults to 1.
+     * <p>
+     * Additional sessions are only opened when all sessions have reached
+     * {@link #setMaxChannelsPerSession(FileSystemOptions, int)}, and they are closed again once they have no channels.
+     *
+     * @param opts The FileSystem options.
+     * @param maxSessions The maximum number of sessions.
+     * @since 2.3
+     */
+    public void setMaxSessions(final FileSystemOptions opts, final int maxSessions) {
+        this.setParam(opts, MAX_SESSIONS, Integer.valueOf(maxSessions));
+    }
+
+    /**
+     * Sets the number of idle channels which are kept open even when they have been idle longer than
+     * {@link #setChannelIdleTimeoutMillis(FileSystemOptions, int)}, defaults to 0.
+     *
+     * @param opts The FileSystem options.
+     * @param minIdle The minimum number of idle channels.
+     * @since 2.3
+     */
+    public void setMinIdleChannels(final FileSystemOptions opts, final int minIdle) {
+        this.setParam(opts, MIN_IDLE_CHANNELS, Integer.valueOf(minIdle));
+    }
+
     /**
      * Configures authentication order.
      *
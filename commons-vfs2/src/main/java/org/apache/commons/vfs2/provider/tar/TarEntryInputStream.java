@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.tar;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+import org.apache.commons.vfs2.util.PositionedInputStream;
+
+/**
+ * Reads the data of an entry of an uncompressed tar file at its offset.
+ * <p>
+ * Uses positioned reads, so any number of entries of the same file can be read at the same time through one channel.
+ */
+class TarEntryInputStream extends PositionedInputStream {
+    private final TarFileSystem fileSystem;
+
+    TarEntryInputStream(final TarFileSystem fileSystem, final long offset, final long length) {
+        super(offset, length);
+        this.fileSystem = fileSystem;
+    }
+
+    @Override
+    protected FileChannel getChannel() throws IOException {
+        return fileSystem.getChannel();
+    }
+}
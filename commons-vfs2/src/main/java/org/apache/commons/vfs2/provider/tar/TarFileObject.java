@@ -23,8 +23,10 @@ import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileObject;
+import org.apache.commons.vfs2.util.RandomAccessMode;
 
 /**
  * A file in a Tar file system.
@@ -34,6 +36,8 @@ public class TarFileObject extends AbstractFileObject<TarFileSystem> {
     private TarArchiveEntry entry;
     private final HashSet<String> children = new HashSet<>();
     private FileType type;
+    /** The offset of the data in an uncompressed tar file, or -1 to read it from the start of the tar file. */
+    private long dataOffset = -1;
 
     protected TarFileObject(final AbstractFileName name, final TarArchiveEntry entry, final TarFileSystem fs,
             final boolean tarExists) throws FileSystemException {
@@ -63,6 +67,13 @@ public class TarFileObject extends AbstractFileObject<TarFileSystem> {
         this.entry = entry;
     }
 
+    /**
+     * Sets the offset of the data of the entry in the tar file.
+     */
+    void setDataOffset(final long dataOffset) {
+        this.dataOffset = dataOffset;
+    }
+
     /**
      * Attaches a child.
      *
@@ -147,6 +158,23 @@ public class TarFileObject extends AbstractFileObject<TarFileSystem> {
             throw new FileSystemException("vfs.provider/read-not-file.error", getName());
         }
 
+        if (dataOffset >= 0) {
+            return getAbstractFileSystem().getInputStream(entry, dataOffset);
+        }
         return getAbstractFileSystem().getInputStream(entry);
     }
+
+    /**
+     * Creates access to the file for random i/o, only for the entries of uncompressed tar files.
+     */
+    @Override
+    protected RandomAccessContent doGetRandomAccessContent(final RandomAccessMode mode) throws Exception {
+        if (!getType().hasContent()) {
+            throw new FileSystemException("vfs.provider/read-not-file.error", getName());
+        }
+        if (dataOffset < 0) {
+            return super.doGetRandomAccessContent(mode);
+        }
+        return getAbstractFileSystem().getRandomAccessContent(entry, dataOffset, mode);
+    }
 }
@@ -24,6 +24,7 @@ import org.apache.commons.vfs2.Capability;
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.FileSystemConfigBuilder;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.FileType;
@@ -59,6 +60,11 @@ public class TarFileProvider extends AbstractLayeredFileProvider {
         return new TarFileSystem(rootName, file, fileSystemOptions);
     }
 
+    @Override
+    public FileSystemConfigBuilder getConfigBuilder() {
+        return TarFileSystemConfigBuilder.getInstance();
+    }
+
     @Override
     public Collection<Capability> getCapabilities() {
         return capabilities;
@@ -20,6 +20,10 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -33,12 +37,14 @@ import org.apache.commons.vfs2.Capability;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.Selectors;
 import org.apache.commons.vfs2.VfsLog;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileSystem;
 import org.apache.commons.vfs2.provider.UriParser;
 import org.apache.commons.vfs2.provider.bzip2.Bzip2FileObject;
+import org.apache.commons.vfs2.util.RandomAccessMode;
 
 /**
  * A read-only file system for Tar files.
@@ -51,6 +57,12 @@ public class TarFileSystem extends AbstractFileSystem {
     private final File file;
     private TarArchiveInputStream tarFile;
 
+    /** The uncompressed copy of a compressed tar file, if enabled. */
+    private File uncompressedFile;
+
+    /** Reads the entries of an uncompressed tar file at their offset, guarded by this. */
+    private FileChannel channel;
+
     protected TarFileSystem(final AbstractFileName rootName, final FileObject parentLayer,
             final FileSystemOptions fileSystemOptions) throws FileSystemException {
         super(rootName, parentLayer, fileSystemOptions);
@@ -70,11 +82,16 @@ public class TarFileSystem extends AbstractFileSystem {
 
     @Override
     public void init() throws FileSystemException {
+        if (isCompressed() && file.exists()
+                && TarFileSystemConfigBuilder.getInstance().getUncompressTarFile(getFileSystemOptions())) {
+            uncompressedFile = uncompress();
+        }
         super.init();
 
         // Build the index
         try {
             final List<TarFileObject> strongRef = new ArrayList<>(DEFAULT_INDEX_SIZE);
+            final boolean seekable = isSeekable();
             TarArchiveEntry entry;
             while ((entry = getTarFile().getNextTarEntry()) != null) {
                 final AbstractFileName name = (AbstractFileName) getFileSystemManager().resolveName(getRootName(),
@@ -89,6 +106,10 @@ public class TarFileSystem extends AbstractFileSystem {
                 }
 
                 fileObj = createTarFileObject(name, entry);
+                if (seekable && !entry.isSparse()) {
+                    // the header was just read, the stream is at the start of the data
+                    fileObj.setDataOffset(getTarFile().getBytesRead());
+                }
                 putFileToCache(fileObj);
                 strongRef.add(fileObj);
                 fileObj.holdObject(strongRef);
@@ -130,6 +151,71 @@ public class TarFileSystem extends AbstractFileSystem {
         }
     }
 
+    /**
+     * Returns a stream reading the data of an entry at its offset in the tar file.
+     */
+    InputStream getInputStream(final TarArchiveEntry entry, final long offset) {
+        return new TarEntryInputStream(this, offset, entry.getSize());
+    }
+
+    /**
+     * Returns random access to the data of an entry at its offset in the tar file.
+     */
+    RandomAccessContent getRandomAccessContent(final TarArchiveEntry entry, final long offset,
+            final RandomAccessMode mode) {
+        return new TarRandomAccessContent(this, offset, entry.getSize(), mode);
+    }
+
+    /**
+     * Returns the channel reading the entries of an uncompressed tar file, opened on first use.
+     */
+    synchronized FileChannel getChannel() throws FileSystemException {
+        // the channel is closed when a thread reading from it is interrupted
+        if (channel == null || !channel.isOpen()) {
+            try {
+                channel = FileChannel.open(getSeekableFile().toPath(), StandardOpenOption.READ);
+            } catch (final IOException e) {
+                throw new FileSystemException("vfs.provider.tar/open-tar-file.error", file, e);
+            }
+        }
+        return channel;
+    }
+
+    /**
+     * Determines if the entries can be read at their offset, that is if the tar file is not compressed or was
+     * uncompressed.
+     */
+    private boolean isSeekable() {
+        return getSeekableFile() != null;
+    }
+
+    private File getSeekableFile() {
+        if (uncompressedFile != null) {
+            return uncompressedFile;
+        }
+        return isCompressed() ? null : file;
+    }
+
+    private boolean isCompressed() {
+        final String scheme = getRootName().getScheme();
+        return "tgz".equalsIgnoreCase(scheme) || "tbz2".equalsIgnoreCase(scheme);
+    }
+
+    /**
+     * Uncompresses the tar file into a temporary file.
+     */
+    private File uncompress() throws FileSystemException {
+        final File tempFile = getContext().getTemporaryFileStore().allocateFile(file.getName() + ".tar");
+        try (final InputStream in = createUncompressedStream(file)) {
+            Files.createDirectories(tempFile.getParentFile().toPath());
+            Files.copy(in, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException e) {
+            tempFile.delete();
+            throw new FileSystemException("vfs.provider.tar/open-tar-file.error", file, e);
+        }
+        return tempFile;
+    }
+
     protected void resetTarFile() throws FileSystemException {
         // Reading specific entries requires skipping through the tar file from the beginning
         // Not especially elegant, but we don't have the ability to seek to specific positions
@@ -148,7 +234,16 @@ public class TarFileSystem extends AbstractFileSystem {
             }
             tarFile = null;
         }
-        final TarArchiveInputStream tarFile = createTarFile(this.file);
+        final TarArchiveInputStream tarFile;
+        if (uncompressedFile != null) {
+            try {
+                tarFile = new TarArchiveInputStream(new FileInputStream(uncompressedFile));
+            } catch (final IOException ioe) {
+                throw new FileSystemException("vfs.provider.tar/open-tar-file.error", file, ioe);
+            }
+        } else {
+            tarFile = createTarFile(this.file);
+        }
         this.tarFile = tarFile;
     }
 
@@ -167,18 +262,21 @@ public class TarFileSystem extends AbstractFileSystem {
 
     protected TarArchiveInputStream createTarFile(final File file) throws FileSystemException {
         try {
-            if ("tgz".equalsIgnoreCase(getRootName().getScheme())) {
-                return new TarArchiveInputStream(new GZIPInputStream(new FileInputStream(file)));
-            } else if ("tbz2".equalsIgnoreCase(getRootName().getScheme())) {
-                return new TarArchiveInputStream(
-                        Bzip2FileObject.wrapInputStream(file.getAbsolutePath(), new FileInputStream(file)));
-            }
-            return new TarArchiveInputStream(new FileInputStream(file));
+            return new TarArchiveInputStream(createUncompressedStream(file));
         } catch (final IOException ioe) {
             throw new FileSystemException("vfs.provider.tar/open-tar-file.error", file, ioe);
         }
     }
 
+    private InputStream createUncompressedStream(final File file) throws IOException {
+        if ("tgz".equalsIgnoreCase(getRootName().getScheme())) {
+            return new GZIPInputStream(new FileInputStream(file));
+        } else if ("tbz2".equalsIgnoreCase(getRootName().getScheme())) {
+            return Bzip2FileObject.wrapInputStream(file.getAbsolutePath(), new FileInputStream(file));
+        }
+        return new FileInputStream(file);
+    }
+
     @Override
     protected void doCloseCommunicationLink() {
         // Release the tar file
@@ -193,12 +291,33 @@ public class TarFileSystem extends AbstractFileSystem {
         }
     }
 
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (final IOException e) {
+                    VfsLog.warn(getLogger(), LOG, "vfs.provider.tar/close-tar-file.error :" + file, e);
+                }
+                channel = null;
+            }
+        }
+        super.close();
+        if (uncompressedFile != null) {
+            uncompressedFile.delete();
+        }
+    }
+
     /**
      * Returns the capabilities of this file system.
      */
     @Override
     protected void addCapabilities(final Collection<Capability> caps) {
         caps.addAll(TarFileProvider.capabilities);
+        if (isSeekable()) {
+            caps.add(Capability.RANDOM_ACCESS_READ);
+        }
     }
 
     /**
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.tar;
+
+import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.FileSystemConfigBuilder;
+import org.apache.commons.vfs2.FileSystemOptions;
+
+/**
+ * The config builder for the options of tar file systems.
+ *
+ * @since 2.3
+ */
+public final class TarFileSystemConfigBuilder extends FileSystemConfigBuilder {
+    private static final String UNCOMPRESS_TAR_FILE = "uncompressTarFile";
+
+    private static final TarFileSystemConfigBuilder BUILDER = new TarFileSystemConfigBuilder();
+
+    private TarFileSystemConfigBuilder() {
+        super("tar.");
+    }
+
+    /**
+     * Gets the singleton builder.
+     *
+     * @return the singleton builder.
+     */
+    public static TarFileSystemConfigBuilder getInstance() {
+        return BUILDER;
+    }
+
+    /**
+     * Returns whether a compressed tar file is uncompressed into a temporary file. Defaults to false.
+     *
+     * @param opts The FileSystem options.
+     * @return true if a compressed tar file is uncompressed into a temporary file.
+     * @see #setUncompressTarFile(FileSystemOptions, boolean)
+     */
+    public boolean getUncompressTarFile(final FileSystemOptions opts) {
+        return getBoolean(opts, UNCOMPRESS_TAR_FILE, false);
+    }
+
+    /**
+     * Sets whether a compressed (tgz or tbz2) tar file is uncompressed into a temporary file when the file system is
+     * created.
+     * <p>
+     * The entries are then read at their offset in the temporary file, like the entries of an uncompressed tar file,
+     * instead of uncompressing the tar file from its start for each entry. The temporary file is as large as the
+     * uncompressed tar file, and is deleted when the file system is closed.
+     *
+     * @param opts The FileSystem options.
+     * @param uncompressTarFile true to uncompress a compressed tar file into a temporary file.
+     */
+    public void setUncompressTarFile(final FileSystemOptions opts, final boolean uncompressTarFile) {
+        setParam(opts, UNCOMPRESS_TAR_FILE, uncompressTarFile ? Boolean.TRUE : Boolean.FALSE);
+    }
+
+    @Override
+    protected Class<? extends FileSystem> getConfigClass() {
+        return TarFileSystem.class;
+    }
+}
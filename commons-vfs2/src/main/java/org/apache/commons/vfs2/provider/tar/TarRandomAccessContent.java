@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.tar;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.provider.AbstractRandomAccessStreamContent;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+
+/**
+ * Read-only random access to an entry of an uncompressed tar file.
+ */
+class TarRandomAccessContent extends AbstractRandomAccessStreamContent {
+    private final TarEntryInputStream in;
+
+    private final DataInputStream dis;
+
+    TarRandomAccessContent(final TarFileSystem fileSystem, final long offset, final long length,
+            final RandomAccessMode mode) {
+        super(mode);
+        in = new TarEntryInputStream(fileSystem, offset, length);
+        dis = new DataInputStream(in);
+    }
+
+    @Override
+    protected DataInputStream getDataInputStream() throws IOException {
+        return dis;
+    }
+
+    @Override
+    public long getFilePointer() throws IOException {
+        return in.getPosition();
+    }
+
+    @Override
+    public void seek(final long pos) throws IOException {
+        if (pos < 0) {
+            throw new FileSystemException("vfs.provider/random-access-invalid-position.error", Long.valueOf(pos));
+        }
+        in.setPosition(pos);
+    }
+
+    @Override
+    public long length() throws IOException {
+        return in.getLength();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // the channel is shared by the file system
+    }
+}
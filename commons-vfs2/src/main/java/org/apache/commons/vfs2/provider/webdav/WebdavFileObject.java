@@ -18,11 +18,16 @@ package org.apache.commons.vfs2.provider.webdav;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -35,6 +40,10 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.namespace.QName;
 
@@ -43,17 +52,21 @@ import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileNotFolderException;
 import org.apache.commons.vfs2.FileNotFoundException;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSelector;
 import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.FileType;
 import org.apache.commons.vfs2.NameScope;
 import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileObject;
 import org.apache.commons.vfs2.provider.DefaultFileContent;
+import org.apache.commons.vfs2.provider.TemporaryFileStore;
 import org.apache.commons.vfs2.provider.URLFileName;
 import org.apache.commons.vfs2.provider.UriParser;
 import org.apache.commons.vfs2.provider.webdav.sardine.DavResources;
 import org.apache.commons.vfs2.provider.webdav.sardine.SardineExtended;
+import org.apache.commons.vfs2.util.FileObjectUtils;
 import org.apache.commons.vfs2.util.MonitorOutputStream;
 import org.apache.commons.vfs2.util.RandomAccessMode;
 import org.apache.http.HttpHost;
@@ -81,10 +94,25 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
         WebdavFileObject<FS> file;
 
         public WebdavOutputStream( final WebdavFileObject<FS> file) {
-            super( new ByteArrayOutputStream() );
+            this( file, new ByteArrayOutputStream() );
+        }
+
+        WebdavOutputStream( final WebdavFileObject<FS> file, final OutputStream out) {
+            super( out );
             this.file = file;
         }
 
+        /**
+         * Sends the written content to the server.
+         *
+         * @param url The URL of the file.
+         * @throws IOException if the content cannot be sent.
+         */
+        protected void put(final String url) throws IOException {
+            ByteArrayInputStream in = new ByteArrayInputStream( ((ByteArrayOutputStream) out).toByteArray());
+            sardine.put(url, in, getHeaders());
+        }
+
         private boolean createVersion(final String urlString) {
             return sardine.createVersion(urlString);
         }
@@ -161,8 +189,7 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
 
                 // put data
                 try {
-                	ByteArrayInputStream in = new ByteArrayInputStream( ((ByteArrayOutputStream) out).toByteArray());
-                    sardine.put(url, in, getHeaders());
+                    put(url);
                     setUserName(fileName, url);
                 } catch (final IOException ex) {
                     if (!isCheckedIn) {
@@ -205,8 +232,7 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
                 }
 
             } else {
-            	ByteArrayInputStream in = new ByteArrayInputStream( ((ByteArrayOutputStream) out).toByteArray());
-                sardine.put(url, in, getHeaders());
+                put(url);
                 try {
                     setUserName(fileName, url);
                 } catch (final IOException e) {
@@ -220,12 +246,92 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
         }
     }
 
+    /**
+     * Spools the content to a temporary file, sent with a known length on close.
+     */
+    private class SpoolingOutputStream extends WebdavOutputStream {
+        private final File spool;
+
+        SpoolingOutputStream(final WebdavFileObject<FS> file, final File spool) throws IOException {
+            super(file, new FileOutputStream(spool));
+            this.spool = spool;
+        }
+
+        @Override
+        protected void put(final String url) throws IOException {
+            sardine.put(url, spool, getHeaders());
+        }
+
+        @Override
+        protected void onClose() throws IOException {
+            try {
+                super.onClose();
+            } finally {
+                spool.delete();
+            }
+        }
+    }
+
+    /**
+     * Sends the content with a chunked request while it is written. The request reads the content through a pipe on
+     * its own thread, so the writer is blocked while the pipe is full.
+     */
+    private class StreamingOutputStream extends WebdavOutputStream {
+        private final FutureTask<Void> upload;
+
+        StreamingOutputStream(final WebdavFileObject<FS> file, final PipedInputStream in) throws IOException {
+            super(file, new PipedOutputStream(in));
+            final String url = getFullUrl(getName(), true);
+            upload = new FutureTask<>(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    try {
+                        sardine.put(url, in, getHeaders());
+                    } finally {
+                        // fails the writes that are still to come
+                        in.close();
+                    }
+                    return null;
+                }
+            });
+            final Thread thread = new Thread(upload, "VFS-WebdavUpload-" + UPLOAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        protected void put(final String url) throws IOException {
+            // the content is complete, wait for the response
+            try {
+                upload.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                upload.cancel(true);
+                throw new FileSystemException("vfs.provider.webdav/write-file.error", e, e.getMessage());
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new FileSystemException("vfs.provider.webdav/write-file.error", e.getCause(),
+                        e.getCause().getMessage());
+            }
+        }
+    }
+
     private static final String MIME_DIRECTORY = "httpd/unix-directory";
 
+    /** The size of the pipe feeding a chunked upload. */
+    private static final int UPLOAD_PIPE_SIZE = 64 * 1024;
+
+    private static final AtomicInteger UPLOAD_COUNT = new AtomicInteger();
+
     private final WebdavFileSystemConfigBuilder builder;
 
     private final SardineExtended sardine;
 
+    /** The properties of this file, fetched or listed, until the file is detached or changed. */
+    private DavResource resource;
+
     FS fileSystem;
 
     public WebdavFileObject(final AbstractFileName name, final FS fileSystem, final SardineExtended sardine) {
@@ -240,6 +346,16 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
         return (URLFileName) super.getName();
     }
 
+    @Override
+    protected void doDetach() throws Exception {
+        resource = null;
+    }
+
+    @Override
+    protected void onChange() throws Exception {
+        resource = null;
+    }
+
     @Override
     protected void doCreateFolder() throws Exception {
         sardine.createDirectory(getHostRelativeUrl());
@@ -257,16 +373,41 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
      * @throws IOException
      */
     private DavResource getResource() throws IOException {
+        if (resource != null) {
+            return resource;
+        }
         URI uri = getFullURI();
         List<DavResource> resources = sardine.list(uri.toString());
         for (DavResource res : resources) {
             if (pathsEqual(res.getHref(), uri)) {
+                resource = res;
                 return res;
             }
         }
         return null;
     }
 
+    /**
+     * Sets the resource of this file from the listing of its parent, until the file is refreshed or changed.
+     *
+     * @param res the listed resource
+     */
+    private void setResource(DavResource res) {
+        resource = res;
+        injectType(getType(res));
+    }
+
+    /**
+     * Returns the type of a listed resource.
+     */
+    private static FileType getType(DavResource res) {
+        final String contentType = res.getContentType();
+        if (contentType == null) {
+            return FileType.IMAGINARY;
+        }
+        return MIME_DIRECTORY.equals(contentType) ? FileType.FOLDER : FileType.FILE;
+    }
+
     // maybe add to a map (add if not null)
     private boolean maybeAdd(Map<String, Object> map, String label, Object o) {
         boolean added = false;
@@ -340,23 +481,34 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
 
     @Override
     protected OutputStream doGetOutputStream(boolean bAppend) throws Exception {
-        return new WebdavOutputStream(this);
+        final FileSystemOptions opts = fileSystem.getFileSystemOptions();
+        // with versioning the file is checked out before it is sent
+        if (builder.getChunkedUpload(opts) && !builder.isVersioning(opts)) {
+            return new StreamingOutputStream(this, new PipedInputStream(UPLOAD_PIPE_SIZE));
+        }
+
+        final TemporaryFileStore store;
+        try {
+            store = getAbstractFileSystem().getTemporaryFileStore();
+        } catch (final FileSystemException e) {
+            // no temporary file store, buffer in memory
+            return new WebdavOutputStream(this);
+        }
+        final File spool = store.allocateFile("webdav-upload");
+        Files.createDirectories(spool.getParentFile().toPath());
+        return new SpoolingOutputStream(this, spool);
     }
 
     @Override
     protected FileType doGetType() throws Exception {
+        if (resource != null) {
+            return getType(resource);
+        }
 
         if (sardine.exists(getHostRelativeUrl())) {
-            final DavResource resource = getResource();
-            if (resource != null) {
-                final String contentType = resource.getContentType();
-                if (contentType != null) {
-                    if (MIME_DIRECTORY.equals(contentType)) {
-                        return FileType.FOLDER;
-                    } else {
-                        return FileType.FILE;
-                    }
-                }
+            final DavResource res = getResource();
+            if (res != null) {
+                return getType(res);
             }
         }
 
@@ -443,7 +595,10 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
     protected FileObject[] doListChildrenResolved() throws Exception {
         try {
             if (isDirectory()) {
-                List<DavResource> resources = sardine.list(getHostRelativeUrl());
+                List<DavResource> resources = fileSystem.takeListing(WebdavTreeLister.path(getName()));
+                if (resources == null) {
+                    resources = sardine.list(getHostRelativeUrl());
+                }
 
                 final List<FileObject> vfs = new ArrayList<FileObject>();
                 for (DavResource res : resources) {
@@ -455,6 +610,11 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
 
                             // do not cast, as could be OnCall object
                             final FileObject fo = fileSystem.resolveFile(fname);
+                            // the listing already has the properties of the child
+                            final AbstractFileObject<?> child = FileObjectUtils.getAbstractFileObject(fo);
+                            if (child instanceof WebdavFileObject) {
+                                ((WebdavFileObject<?>) child).setResource(res);
+                            }
                             vfs.add(fo);
                         }
                     }
@@ -469,6 +629,26 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
         }
     }
 
+    /**
+     * Lists the tree below this folder ahead of the walk, with a single request or with concurrent requests, when the
+     * options of the file system ask for it.
+     *
+     * @see WebdavFileSystemConfigBuilder#setListingDepthInfinity(FileSystemOptions, boolean)
+     * @see WebdavFileSystemConfigBuilder#setListingThreads(FileSystemOptions, int)
+     */
+    @Override
+    public void findFiles(final FileSelector selector, final boolean depthwise, final List<FileObject> selected)
+            throws FileSystemException {
+        final FileSystemOptions opts = fileSystem.getFileSystemOptions();
+        final WebdavTreeLister lister = new WebdavTreeLister(this, fileSystem, sardine);
+        try {
+            lister.list(selector, builder.getListingDepthInfinity(opts), builder.getListingThreads(opts));
+            super.findFiles(selector, depthwise, selected);
+        } finally {
+            lister.clear();
+        }
+    }
+
     @Override
     protected void doRename(FileObject newFile) throws Exception {
         final String from = getHostRelativeUrl();
@@ -482,6 +662,7 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
         Map<String, String> properties = new HashMap<String, String>(1);
         properties.put(attrName, value.toString());
         sardine.patch(getHostRelativeUrl(), SardineUtil.toQName(properties), Collections.<QName>emptyList());
+        resource = null;
     }
 
     @Override
@@ -524,7 +705,9 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
 
     @Override
     protected RandomAccessContent doGetRandomAccessContent(final RandomAccessMode mode) throws Exception {
-        return new WebdavRandomAccessContent(this, mode);
+        final FileSystemOptions options = fileSystem.getFileSystemOptions();
+        return new WebdavRandomAccessContent(this, mode, builder.getRandomAccessBlockSize(options),
+                builder.getRandomAccessMaxBlocks(options), builder.getRandomAccessReadAhead(options));
     }
 
     @Override
@@ -537,6 +720,7 @@ public class WebdavFileObject<FS extends WebdavFileSystem> extends AbstractFileO
         List<String> properties = new LinkedList<String>();
         properties.add(attrName);
         sardine.patch(getHostRelativeUrl(), Collections.<QName, String>emptyMap(), SardineUtil.toQName(properties));
+        resource = null;
     }
 
     protected String getFullUrl() throws FileSystemException {
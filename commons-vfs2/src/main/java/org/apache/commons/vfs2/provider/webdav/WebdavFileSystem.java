@@ -17,17 +17,24 @@
 package org.apache.commons.vfs2.provider.webdav;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.vfs2.Capability;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileSystem;
 import org.apache.commons.vfs2.provider.GenericFileName;
+import org.apache.commons.vfs2.provider.TemporaryFileStore;
 import org.apache.commons.vfs2.provider.http.HttpConnectionClientManager;
 import org.apache.commons.vfs2.provider.webdav.sardine.WebdavSardine;
 import org.apache.http.HttpHost;
 
+import com.github.sardine.DavResource;
+
 /**
  * A WebDAV file system based on sardine.
  *
@@ -38,6 +45,9 @@ public class WebdavFileSystem extends AbstractFileSystem {
 
     HttpConnectionClientManager manager;
 
+    /** The listings of collections listed ahead of a walk, by path. */
+    private final ConcurrentMap<String, List<DavResource>> listings = new ConcurrentHashMap<>();
+
     protected WebdavFileSystem( final GenericFileName rootName, final HttpConnectionClientManager clientManager,
                                 final FileSystemOptions fileSystemOptions ) {
         super( rootName, null, fileSystemOptions );
@@ -79,8 +89,49 @@ public class WebdavFileSystem extends AbstractFileSystem {
         return new WebdavFileObject<WebdavFileSystem>( name, this, sardine );
     }
 
+    /**
+     * Hands over the listing of a collection, listed ahead of a walk of its tree.
+     *
+     * @param path The decoded path of the collection, without trailing slash.
+     * @param resources The resources in the collection.
+     */
+    void putListing(final String path, final List<DavResource> resources) {
+        listings.put(path, resources);
+    }
+
+    /**
+     * Takes the listing of a collection listed ahead.
+     *
+     * @param path The decoded path of the collection, without trailing slash.
+     * @return The resources in the collection, or null if it was not listed ahead.
+     */
+    List<DavResource> takeListing(final String path) {
+        return listings.isEmpty() ? null : listings.remove(path);
+    }
+
+    /**
+     * Removes a listing handed over by a walk that did not take it, unless another walk has put its own listing of the
+     * collection since.
+     *
+     * @param path The decoded path of the collection, without trailing slash.
+     * @param resources The listing handed over.
+     */
+    void removeListing(final String path, final List<DavResource> resources) {
+        listings.remove(path, resources);
+    }
+
     public WebdavSardine getSardine() {
         return sardine;
     }
 
+    /**
+     * Returns the store of the temporary files, used to spool uploads.
+     *
+     * @return The temporary file store.
+     * @throws FileSystemException if there is no temporary file store.
+     */
+    TemporaryFileStore getTemporaryFileStore() throws FileSystemException {
+        return getContext().getTemporaryFileStore();
+    }
+
 }
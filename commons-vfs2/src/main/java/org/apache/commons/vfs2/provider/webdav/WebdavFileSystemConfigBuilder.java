@@ -96,6 +96,81 @@ public final class WebdavFileSystemConfigBuilder extends HttpFileSystemConfigBui
         return getBoolean(opts, "versioning", false);
     }
 
+    /**
+     * Sets whether files are uploaded with chunked requests while they are written.
+     * <p>
+     * By default, the content written to an output stream is first written to a file of the temporary file store and
+     * then sent with a {@code Content-Length} header, which every server accepts. With chunked uploads, the content is
+     * sent to the server right away, so the file is never held locally; enable them only for servers that accept
+     * chunked requests, others answer {@code 411 Length Required}. Chunked uploads are not used with versioning.
+     *
+     * @param opts The FileSystem options.
+     * @param chunkedUpload true to upload with chunked requests.
+     * @since 2.3
+     */
+    public void setChunkedUpload(final FileSystemOptions opts, final boolean chunkedUpload) {
+        setParam(opts, "chunkedUpload", chunkedUpload ? Boolean.TRUE : Boolean.FALSE);
+    }
+
+    /**
+     * Gets whether files are uploaded with chunked requests while they are written. Defaults to false.
+     *
+     * @param opts The FileSystem options.
+     * @return true to upload with chunked requests.
+     * @see #setChunkedUpload(FileSystemOptions, boolean)
+     * @since 2.3
+     */
+    public boolean getChunkedUpload(final FileSystemOptions opts) {
+        return getBoolean(opts, "chunkedUpload", false);
+    }
+
+    /**
+     * Sets whether {@code findFiles} first lists the whole tree with a single {@code Depth: infinity} PROPFIND. Many
+     * servers refuse such requests, then the tree is listed as set by
+     * {@link #setListingThreads(FileSystemOptions, int)}.
+     *
+     * @param opts The FileSystem options.
+     * @param infinite true to request infinite depth.
+     * @since 2.3
+     */
+    public void setListingDepthInfinity(final FileSystemOptions opts, final boolean infinite) {
+        setParam(opts, "listingDepthInfinity", infinite ? Boolean.TRUE : Boolean.FALSE);
+    }
+
+    /**
+     * Gets whether {@code findFiles} first lists the whole tree with a single request. Defaults to false.
+     *
+     * @param opts The FileSystem options.
+     * @return true to request infinite depth.
+     * @since 2.3
+     */
+    public boolean getListingDepthInfinity(final FileSystemOptions opts) {
+        return getBoolean(opts, "listingDepthInfinity", false);
+    }
+
+    /**
+     * Sets the number of folders {@code findFiles} lists at the same time, ahead of selecting the files. The requests
+     * use the connection pool of the file system, see {@link #setMaxConnectionsPerHost(FileSystemOptions, int)}.
+     *
+     * @param opts The FileSystem options.
+     * @param threads The number of concurrent listings, 1 to list each folder when the walk reaches it.
+     * @since 2.3
+     */
+    public void setListingThreads(final FileSystemOptions opts, final int threads) {
+        setParam(opts, "listingThreads", Integer.valueOf(threads));
+    }
+
+    /**
+     * Gets the number of folders {@code findFiles} lists at the same time. Defaults to 1.
+     *
+     * @param opts The FileSystem options.
+     * @return The number of concurrent listings.
+     * @since 2.3
+     */
+    public int getListingThreads(final FileSystemOptions opts) {
+        return getInteger(opts, "listingThreads", 1);
+    }
+
     /**
      * @return The Webdav FileSystem Class object.
      */
@@ -14,86 +14,47 @@
  */
 package org.apache.commons.vfs2.provider.webdav;
 
-import java.io.DataInputStream;
-import java.io.FilterInputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.commons.vfs2.FileSystemException;
-import org.apache.commons.vfs2.provider.AbstractRandomAccessStreamContent;
+import org.apache.commons.vfs2.provider.AbstractBlockRandomAccessContent;
 import org.apache.commons.vfs2.provider.webdav.sardine.HttpResponseInputStream;
 import org.apache.commons.vfs2.provider.webdav.sardine.WebdavSardine;
-import org.apache.commons.vfs2.util.MonitorInputStream;
 import org.apache.commons.vfs2.util.RandomAccessMode;
 
 /**
  * RandomAccess content using WebDav.
+ * <p>
+ * The content is fetched in blocks with bounded range requests.
  */
 class WebdavRandomAccessContent
-    extends AbstractRandomAccessStreamContent
+    extends AbstractBlockRandomAccessContent
 {
-    protected long filePointer = 0;
-
     private final WebdavFileObject<?> fileObject;
 
     private final WebdavFileSystem fileSystem;
 
-    private DataInputStream dis = null;
-
-    private MonitorInputStream mis = null;
-
-    WebdavRandomAccessContent( final WebdavFileObject<?> fileObject, final RandomAccessMode mode )
+    WebdavRandomAccessContent( final WebdavFileObject<?> fileObject, final RandomAccessMode mode,
+                               final int blockSize, final int maxBlocks, final boolean readAhead )
     {
-        super( mode );
+        super( mode, blockSize, maxBlocks, readAhead );
 
         this.fileObject = fileObject;
         fileSystem = (WebdavFileSystem) this.fileObject.getFileSystem();
     }
 
     @Override
-    public long getFilePointer()
-        throws IOException
-    {
-        return filePointer;
-    }
-
-    @Override
-    public void seek( final long pos )
-        throws IOException
-    {
-        if ( pos == filePointer )
-        {
-            // no change
-            return;
-        }
-
-        if ( pos < 0 )
-        {
-            throw new FileSystemException( "vfs.provider/random-access-invalid-position.error", Long.valueOf( pos ) );
-        }
-        if ( dis != null )
-        {
-            close();
-        }
-
-        filePointer = pos;
-    }
-
-    @Override
-    protected DataInputStream getDataInputStream()
+    protected void readRange( final long offset, final byte[] b )
         throws IOException
     {
-        if ( dis != null )
-        {
-            return dis;
-        }
-
         WebdavSardine sardine = fileSystem.getSardine();
 
         Map<String, String> headers = new HashMap<String, String>();
-        headers.put( "Range", "bytes=" + filePointer + "-" );
+        headers.put( "Range", "bytes=" + offset + "-" + ( offset + b.length - 1 ) );
         String url = fileObject.getFullUrl();
 
         HttpResponseInputStream stream = sardine.get( url, headers );
@@ -103,77 +64,35 @@ class WebdavRandomAccessContent
         {
             stream.close(); // close stream before throwing error
             throw new FileSystemException( "vfs.provider.http/get-range.error", fileObject.getName(),
-                                           Long.valueOf( filePointer ), Integer.valueOf( status ) );
+                                           Long.valueOf( offset ), Integer.valueOf( status ) );
         }
 
-        mis = new MonitorInputStream( stream );
-
-        // If the range request was ignored
-        if ( status == HttpURLConnection.HTTP_OK )
+        try
         {
-            final long skipped = mis.skip( filePointer );
-            if ( skipped != filePointer )
+            // If the range request was ignored
+            if ( status == HttpURLConnection.HTTP_OK && !skipFully( stream, offset ) )
             {
                 throw new FileSystemException( "vfs.provider.http/get-range.error", fileObject.getName(),
-                                               Long.valueOf( filePointer ), Integer.valueOf( status ) );
+                                               Long.valueOf( offset ), Integer.valueOf( status ) );
             }
+            readFully( stream, b );
         }
-        dis = new DataInputStream( new FilterInputStream( mis)
+        finally
         {
-            @Override
-            public int read()
-                throws IOException
-            {
-                final int ret = super.read();
-                if ( ret > -1 )
-                {
-                    filePointer++;
-                }
-                return ret;
-            }
-
-            @Override
-            public int read( final byte[] b )
-                throws IOException
+            if ( status == HttpURLConnection.HTTP_OK && stream.getResponse() instanceof Closeable )
             {
-                final int ret = super.read( b );
-                if ( ret > -1 )
-                {
-                    filePointer += ret;
-                }
-                return ret;
+                // do not download the rest of the file
+                ( (Closeable) stream.getResponse() ).close();
             }
-
-            @Override
-            public int read( final byte[] b, final int off, final int len )
-                throws IOException
+            else
             {
-                final int ret = super.read( b, off, len );
-                if ( ret > -1 )
-                {
-                    filePointer += ret;
-                }
-                return ret;
+                stream.close();
             }
-        } );
-
-        return dis;
-    }
-
-    @Override
-    public void close()
-        throws IOException
-    {
-        if ( dis != null )
-        {
-            dis.close();
-            dis = null;
-            mis = null;
         }
     }
 
     @Override
-    public long length()
+    protected long getContentLength()
         throws IOException
     {
         return fileObject.getContent().getSize();
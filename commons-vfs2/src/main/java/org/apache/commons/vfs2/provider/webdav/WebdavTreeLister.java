@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.webdav;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSelector;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.NameScope;
+import org.apache.commons.vfs2.provider.DefaultFileSelectorInfo;
+import org.apache.commons.vfs2.provider.URLFileName;
+import org.apache.commons.vfs2.provider.UriParser;
+import org.apache.commons.vfs2.provider.webdav.sardine.SardineExtended;
+import org.apache.commons.vfs2.util.DaemonThreadFactory;
+
+import com.github.sardine.DavResource;
+import com.github.sardine.impl.SardineException;
+
+/**
+ * Lists a tree of collections ahead of a walk of the tree.
+ * <p>
+ * The tree is listed with one {@code Depth: infinity} PROPFIND if the server allows it, or else with concurrent depth-1
+ * PROPFINDs on the pooled connections of the file system. The concurrent listing asks the selector which collections to
+ * descend into, so the selector is called once more for those. The listings are handed to the file system, where
+ * {@link WebdavFileObject#doListChildrenResolved()} takes them instead of sending a request.
+ */
+final class WebdavTreeLister {
+    /**
+     * The resources of a collection, as listed.
+     */
+    private static final class Listing {
+        private final FileName name;
+
+        private final int depth;
+
+        private final List<DavResource> resources;
+
+        private Listing(final FileName name, final int depth, final List<DavResource> resources) {
+            this.name = name;
+            this.depth = depth;
+            this.resources = resources;
+        }
+    }
+
+    private static final Log LOG = LogFactory.getLog(WebdavTreeLister.class);
+
+    private final WebdavFileObject<?> base;
+
+    private final WebdavFileSystem fileSystem;
+
+    private final SardineExtended sardine;
+
+    /** The listings handed to the file system, by path. */
+    private final Map<String, List<DavResource>> listed = new HashMap<>();
+
+    WebdavTreeLister(final WebdavFileObject<?> base, final WebdavFileSystem fileSystem,
+            final SardineExtended sardine) {
+        this.base = base;
+        this.fileSystem = fileSystem;
+        this.sardine = sardine;
+    }
+
+    /**
+     * Lists the collections below the base file that the selector traverses.
+     * <p>
+     * A failure only leaves collections unlisted, the walk lists them and reports the error.
+     *
+     * @param selector The selector of the walk.
+     * @param infinite true to try a single {@code Depth: infinity} request first.
+     * @param threads The number of concurrent depth-1 requests, 1 to not list concurrently.
+     */
+    void list(final FileSelector selector, final boolean infinite, final int threads) {
+        if (!infinite && threads <= 1) {
+            return;
+        }
+        try {
+            final DefaultFileSelectorInfo info = selectInfo();
+            if (!base.getType().hasChildren() || !selector.traverseDescendents(info)) {
+                return;
+            }
+            if (infinite && listInfinite()) {
+                return;
+            }
+            if (threads > 1) {
+                listConcurrently(selector, threads);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final Exception e) {
+            LOG.debug("Could not list the tree of " + base.getName(), e);
+        }
+    }
+
+    /**
+     * Removes the listings the walk did not take.
+     */
+    void clear() {
+        for (final Map.Entry<String, List<DavResource>> entry : listed.entrySet()) {
+            fileSystem.removeListing(entry.getKey(), entry.getValue());
+        }
+        listed.clear();
+    }
+
+    /**
+     * Lists the tree with a single request.
+     *
+     * @return false if the server refused the request.
+     */
+    private boolean listInfinite() throws IOException {
+        final List<DavResource> resources;
+        try {
+            resources = sardine.list(base.getHostRelativeUrl(), -1);
+        } catch (final SardineException e) {
+            // typically 403 with a propfind-finite-depth precondition
+            LOG.debug("Infinite depth refused for " + base.getName(), e);
+            return false;
+        }
+
+        final String basePath = path(base.getName());
+        final String prefix = basePath.endsWith("/") ? basePath : basePath + "/";
+        final Map<String, List<DavResource>> listings = new HashMap<>();
+        listings.put(basePath, new ArrayList<DavResource>());
+        for (final DavResource res : resources) {
+            final String path = path(res);
+            if (!path.startsWith(prefix) || path.length() == prefix.length()) {
+                // the base collection itself
+                continue;
+            }
+            if (res.isDirectory() && !listings.containsKey(path)) {
+                // an empty collection needs no request either
+                listings.put(path, new ArrayList<DavResource>());
+            }
+            final int slash = path.lastIndexOf('/');
+            final String parent = slash == 0 ? "/" : path.substring(0, slash);
+            List<DavResource> siblings = listings.get(parent);
+            if (siblings == null) {
+                siblings = new ArrayList<>();
+                listings.put(parent, siblings);
+            }
+            siblings.add(res);
+        }
+        for (final Map.Entry<String, List<DavResource>> entry : listings.entrySet()) {
+            hand(entry.getKey(), entry.getValue());
+        }
+        return true;
+    }
+
+    /**
+     * Lists the tree collection by collection, with up to {@code threads} requests at the same time.
+     */
+    private void listConcurrently(final FileSelector selector, final int threads) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new DaemonThreadFactory("VFS-WebdavList"));
+        final CompletionService<Listing> completion = new ExecutorCompletionService<>(executor);
+        final DefaultFileSelectorInfo info = selectInfo();
+        try {
+            completion.submit(listing(base.getName(), 0));
+            int pending = 1;
+            while (pending > 0) {
+                final Listing listing;
+                try {
+                    listing = completion.take().get();
+                } catch (final ExecutionException e) {
+                    if (e.getCause() instanceof Exception) {
+                        throw (Exception) e.getCause();
+                    }
+                    throw e;
+                }
+                pending--;
+
+                final String path = path(listing.name);
+                final List<DavResource> children = new ArrayList<>(listing.resources.size());
+                for (final DavResource res : listing.resources) {
+                    final String resName = res.getName();
+                    if (path(res).equals(path) || resName == null || resName.length() == 0) {
+                        continue;
+                    }
+                    children.add(res);
+                    if (!res.isDirectory()) {
+                        continue;
+                    }
+
+                    // the selector runs on this thread only
+                    final FileName childName = fileSystem.getFileSystemManager().resolveName(listing.name,
+                            UriParser.encode(resName), NameScope.CHILD);
+                    final FileObject child = fileSystem.resolveFile(childName);
+                    info.setFile(child);
+                    info.setDepth(listing.depth + 1);
+                    if (selector.traverseDescendents(info)) {
+                        completion.submit(listing(childName, listing.depth + 1));
+                        pending++;
+                    }
+                }
+                hand(path, children);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Callable<Listing> listing(final FileName name, final int depth) throws IOException {
+        final String url = base.getHostRelativeUrl((URLFileName) name);
+        return new Callable<Listing>() {
+            @Override
+            public Listing call() throws IOException {
+                return new Listing(name, depth, sardine.list(url));
+            }
+        };
+    }
+
+    private DefaultFileSelectorInfo selectInfo() {
+        final DefaultFileSelectorInfo info = new DefaultFileSelectorInfo();
+        info.setBaseFolder(base);
+        info.setFile(base);
+        info.setDepth(0);
+        return info;
+    }
+
+    private void hand(final String path, final List<DavResource> resources) {
+        fileSystem.putListing(path, resources);
+        listed.put(path, resources);
+    }
+
+    /**
+     * Returns the decoded path of a file, without trailing slash.
+     */
+    static String path(final FileName name) throws FileSystemException {
+        return trim(name.getPathDecoded());
+    }
+
+    /**
+     * Returns the decoded path of a listed resource, without trailing slash.
+     */
+    private static String path(final DavResource res) {
+        return trim(res.getHref().getPath());
+    }
+
+    private static String trim(final String path) {
+        return path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+}
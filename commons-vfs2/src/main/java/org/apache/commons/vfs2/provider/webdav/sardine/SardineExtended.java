@@ -14,6 +14,7 @@
  */
 package org.apache.commons.vfs2.provider.webdav.sardine;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Map;
 import java.util.Set;
@@ -62,6 +63,16 @@ public interface SardineExtended extends Sardine
      * @throws IOException I/O error or HTTP response validation failure
      */
     void checkin( String url ) throws IOException;    
+
+    /**
+     * Uploads a local file using <code>PUT</code> with a <code>Content-Length</code> header, for servers that do
+     * not accept chunked requests
+     * @param url Path to the resource including protocol and hostname
+     * @param localFile local file to send
+     * @param headers set of custom headers on request
+     * @throws IOException I/O error or HTTP response validation failure
+     */
+    void put( String url, File localFile, Map<String, String> headers ) throws IOException;
     
     /**
      * Executes the <code>PROPFIND</code> request to find only particular properties
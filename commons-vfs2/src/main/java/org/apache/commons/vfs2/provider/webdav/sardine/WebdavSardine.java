@@ -368,7 +368,7 @@ public class WebdavSardine implements Sardine, SardineExtended, HttpAwareSardine
      * Gets a directory listing using WebDAV <code>PROPFIND</code>.
      *
      * @param url   Path to the resource including protocol and hostname
-     * @param depth The depth to look at (use 0 for single ressource, 1 for directory listing)
+     * @param depth The depth to look at (use 0 for single ressource, 1 for directory listing, -1 for infinity)
      * @param props Additional properties which should be requested (excluding default props).
      * @param allProp whether to include the &lt;allprop/&gt; element in request body
      * @param handler for the returned <code>PROPFIND</code> response
@@ -452,7 +452,7 @@ public class WebdavSardine implements Sardine, SardineExtended, HttpAwareSardine
         String xml = WebdavXMLBuilder.buildPropfind( allProp, nprops, DEFAULT_LIST_PRETTY );
 
         HttpPropFind entity = new HttpPropFind( url );
-        entity.setDepth( Integer.toString( depth ) );
+        entity.setDepth( depth < 0 ? "infinity" : Integer.toString( depth ) );
         entity.setEntity( new StringEntity( xml, UTF_8 ) );
         return execute( entity, handler );
     }
@@ -1046,6 +1046,21 @@ public class WebdavSardine implements Sardine, SardineExtended, HttpAwareSardine
         put( url, localFile, contentType, expectContinue, getVoidResponseHandler() );
     }
 
+    @Override
+    public void put( String url, File localFile, Map<String, String> headers )
+        throws IOException
+    {
+        List<Header> list = new ArrayList<Header>();
+        if ( headers != null )
+        {
+            for ( Map.Entry<String, String> h : headers.entrySet() )
+            {
+                list.add( new BasicHeader( h.getKey(), h.getValue() ) );
+            }
+        }
+        put( url, new FileEntity( localFile ), list, getVoidResponseHandler() );
+    }
+
     /**
      * Executes a <code>PUT</code> request with a given entity
      * @param url Path to the resource including protocol and hostname
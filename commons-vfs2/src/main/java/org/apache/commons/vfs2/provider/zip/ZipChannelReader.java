@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.zip;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+
+/**
+ * Reads the entries of a zip file through the {@code ZipFile} of Commons Compress, over a {@link FileChannel}.
+ * <p>
+ * The entries are read with positioned reads on the channel, so any number of entries can be read at the same time.
+ * This class is only loaded when this mode is enabled, as Commons Compress is an optional dependency.
+ */
+final class ZipChannelReader implements Closeable {
+    private final FileChannel channel;
+
+    private final ZipFile zipFile;
+
+    ZipChannelReader(final File file) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            zipFile = new ZipFile(channel, file.getAbsolutePath(), StandardCharsets.UTF_8.name(), true);
+        } catch (final IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    InputStream getInputStream(final String name) throws IOException {
+        return zipFile.getInputStream(getEntry(name));
+    }
+
+    RandomAccessContent getRandomAccessContent(final String name, final RandomAccessMode mode) throws IOException {
+        return new ZipRandomAccessContent(this, getEntry(name), mode);
+    }
+
+    InputStream getInputStream(final ZipArchiveEntry entry) throws IOException {
+        return zipFile.getInputStream(entry);
+    }
+
+    FileChannel getChannel() {
+        return channel;
+    }
+
+    private ZipArchiveEntry getEntry(final String name) throws FileNotFoundException {
+        final ZipArchiveEntry entry = zipFile.getEntry(name);
+        if (entry == null) {
+            throw new FileNotFoundException(name);
+        }
+        return entry;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // closes the channel
+        zipFile.close();
+    }
+}
@@ -23,8 +23,10 @@ import java.util.zip.ZipEntry;
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileObject;
+import org.apache.commons.vfs2.util.RandomAccessMode;
 
 /**
  * A file in a ZIP file system.
@@ -100,15 +102,20 @@ public class ZipFileObject extends AbstractFileObject<ZipFileSystem> {
      */
     @Override
     protected String[] doListChildren() {
+        final String[] indexed;
         try {
             if (!getType().hasChildren()) {
                 return null;
             }
+            indexed = getAbstractFileSystem().listChildren(getName());
         } catch (final FileSystemException e) {
-            // should not happen as the type has already been cached.
+            // should not happen as the type has already been cached, and the name was decoded when it was resolved.
             throw new RuntimeException(e);
         }
 
+        if (indexed != null) {
+            return indexed;
+        }
         return children.toArray(new String[children.size()]);
     }
 
@@ -143,7 +150,19 @@ public class ZipFileObject extends AbstractFileObject<ZipFileSystem> {
             throw new FileSystemException("vfs.provider/read-not-file.error", getName());
         }
 
-        return getAbstractFileSystem().getZipFile().getInputStream(entry);
+        return getAbstractFileSystem().getInputStream(entry);
+    }
+
+    /**
+     * Creates access to the file for random i/o, only when the entries are read concurrently.
+     */
+    @Override
+    protected RandomAccessContent doGetRandomAccessContent(final RandomAccessMode mode) throws Exception {
+        if (!getType().hasContent()) {
+            throw new FileSystemException("vfs.provider/read-not-file.error", getName());
+        }
+
+        return getAbstractFileSystem().getRandomAccessContent(entry, mode);
     }
 
     @Override
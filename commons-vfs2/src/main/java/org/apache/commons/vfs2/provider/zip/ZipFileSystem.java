@@ -18,12 +18,13 @@ package org.apache.commons.vfs2.provider.zip;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -34,11 +35,13 @@ import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.Selectors;
 import org.apache.commons.vfs2.VfsLog;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileSystem;
 import org.apache.commons.vfs2.provider.UriParser;
+import org.apache.commons.vfs2.util.RandomAccessMode;
 
 /**
  * A read-only file system for ZIP and JAR files.
@@ -50,9 +53,23 @@ public class ZipFileSystem extends AbstractFileSystem {
     private ZipFile zipFile;
 
     /**
-     * Cache doesn't need to be synchronized since it is read-only.
+     * Cache is filled by {@link #init()}, but names of missing entries are added while resolving, possibly from
+     * several threads at once. Not used with the lazy index, the files are then cached by the manager, which can
+     * evict them.
      */
-    private final Map<FileName, FileObject> cache = new HashMap<>();
+    private final Map<FileName, FileObject> cache = new ConcurrentHashMap<>();
+
+    /** The names of the entries, when the file objects are created on demand. */
+    private ZipIndex index;
+
+    /** The file objects are created on demand from {@link #index}. */
+    private boolean lazyIndex;
+
+    /** Reads the entries when they are read concurrently. */
+    private boolean concurrentReads;
+
+    /** Guarded by this. */
+    private ZipChannelReader channelReader;
 
     public ZipFileSystem(final AbstractFileName rootName, final FileObject parentLayer,
             final FileSystemOptions fileSystemOptions) throws FileSystemException {
@@ -73,9 +90,16 @@ public class ZipFileSystem extends AbstractFileSystem {
 
     @Override
     public void init() throws FileSystemException {
+        concurrentReads = ZipFileSystemConfigBuilder.getInstance().getConcurrentReads(getFileSystemOptions());
+        lazyIndex = ZipFileSystemConfigBuilder.getInstance().getLazyIndex(getFileSystemOptions());
         super.init();
 
         try {
+            if (lazyIndex) {
+                index = ZipIndex.build(getZipFile());
+                return;
+            }
+
             // Build the index
             final List<ZipFileObject> strongRef = new ArrayList<>(getZipFile().size());
             final Enumeration<? extends ZipEntry> entries = getZipFile().entries();
@@ -129,6 +153,35 @@ public class ZipFileSystem extends AbstractFileSystem {
         return zipFile;
     }
 
+    /**
+     * Returns a stream reading the content of an entry.
+     */
+    InputStream getInputStream(final ZipEntry entry) throws IOException {
+        if (concurrentReads) {
+            return getChannelReader().getInputStream(entry.getName());
+        }
+        return getZipFile().getInputStream(entry);
+    }
+
+    /**
+     * Returns random access to the content of an entry, when the entries are read concurrently.
+     */
+    RandomAccessContent getRandomAccessContent(final ZipEntry entry, final RandomAccessMode mode)
+            throws IOException {
+        return getChannelReader().getRandomAccessContent(entry.getName(), mode);
+    }
+
+    private synchronized ZipChannelReader getChannelReader() throws FileSystemException {
+        if (channelReader == null) {
+            try {
+                channelReader = new ZipChannelReader(file);
+            } catch (final IOException ioe) {
+                throw new FileSystemException("vfs.provider.zip/open-zip-file.error", file, ioe);
+            }
+        }
+        return channelReader;
+    }
+
     protected ZipFileObject createZipFileObject(final AbstractFileName name, final ZipEntry entry)
             throws FileSystemException {
         return new ZipFileObject(name, entry, this, true);
@@ -154,6 +207,14 @@ public class ZipFileSystem extends AbstractFileSystem {
             // getLogger().warn("vfs.provider.zip/close-zip-file.error :" + file, e);
             VfsLog.warn(getLogger(), LOG, "vfs.provider.zip/close-zip-file.error :" + file, e);
         }
+        try {
+            if (channelReader != null) {
+                channelReader.close();
+                channelReader = null;
+            }
+        } catch (final IOException e) {
+            VfsLog.warn(getLogger(), LOG, "vfs.provider.zip/close-zip-file.error :" + file, e);
+        }
     }
 
     /**
@@ -162,6 +223,9 @@ public class ZipFileSystem extends AbstractFileSystem {
     @Override
     protected void addCapabilities(final Collection<Capability> caps) {
         caps.addAll(ZipFileProvider.capabilities);
+        if (concurrentReads) {
+            caps.add(Capability.RANDOM_ACCESS_READ);
+        }
     }
 
     /**
@@ -169,15 +233,47 @@ public class ZipFileSystem extends AbstractFileSystem {
      */
     @Override
     protected FileObject createFile(final AbstractFileName name) throws FileSystemException {
+        if (index != null) {
+            final String path = ZipIndex.toPath(name.getPathDecoded());
+            if (index.containsEntry(path)) {
+                // also finds the entry of a folder, named with a trailing slash
+                return createZipFileObject(name, getZipFile().getEntry(path));
+            }
+            if (index.isFolder(path)) {
+                return createZipFileObject(name, null);
+            }
+        }
+
         // This is only called for files which do not exist in the Zip file
         return new ZipFileObject(name, null, this, false);
     }
 
+    /**
+     * Lists the children of a folder from the lazy index.
+     *
+     * @return The encoded base names of the children, or null if the file objects are created when the file system is
+     *         initialized.
+     */
+    String[] listChildren(final FileName name) throws FileSystemException {
+        if (index == null) {
+            return null;
+        }
+        final String[] children = index.listChildren(ZipIndex.toPath(name.getPathDecoded()));
+        for (int i = 0; i < children.length; i++) {
+            children[i] = UriParser.encode(children[i]);
+        }
+        return children;
+    }
+
     /**
      * Adds a file object to the cache.
      */
     @Override
     protected void putFileToCache(final FileObject file) {
+        if (lazyIndex) {
+            super.putFileToCache(file);
+            return;
+        }
         cache.put(file.getName(), file);
     }
 
@@ -186,6 +282,9 @@ public class ZipFileSystem extends AbstractFileSystem {
      */
     @Override
     protected FileObject getFileFromCache(final FileName name) {
+        if (lazyIndex) {
+            return super.getFileFromCache(name);
+        }
         return cache.get(name);
     }
 
@@ -194,6 +293,10 @@ public class ZipFileSystem extends AbstractFileSystem {
      */
     @Override
     protected void removeFileFromCache(final FileName name) {
+        if (lazyIndex) {
+            super.removeFileFromCache(name);
+            return;
+        }
         cache.remove(name);
     }
 
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.zip;
+
+import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.FileSystemConfigBuilder;
+import org.apache.commons.vfs2.FileSystemOptions;
+
+/**
+ * The config builder for the options of zip and jar file systems.
+ *
+ * @since 2.3
+ */
+public final class ZipFileSystemConfigBuilder extends FileSystemConfigBuilder {
+    private static final String CONCURRENT_READS = "concurrentReads";
+
+    private static final String LAZY_INDEX = "lazyIndex";
+
+    private static final ZipFileSystemConfigBuilder BUILDER = new ZipFileSystemConfigBuilder();
+
+    private ZipFileSystemConfigBuilder() {
+        super("zip.");
+    }
+
+    /**
+     * Gets the singleton builder.
+     *
+     * @return the singleton builder.
+     */
+    public static ZipFileSystemConfigBuilder getInstance() {
+        return BUILDER;
+    }
+
+    /**
+     * Returns whether the entries are read through a channel, concurrently. Defaults to false.
+     *
+     * @param opts The FileSystem options.
+     * @return true if the entries are read through a channel.
+     * @see #setConcurrentReads(FileSystemOptions, boolean)
+     */
+    public boolean getConcurrentReads(final FileSystemOptions opts) {
+        return getBoolean(opts, CONCURRENT_READS, false);
+    }
+
+    /**
+     * Returns whether the file objects of the entries are created on demand. Defaults to false.
+     *
+     * @param opts The FileSystem options.
+     * @return true if the file objects of the entries are created on demand.
+     * @see #setLazyIndex(FileSystemOptions, boolean)
+     */
+    public boolean getLazyIndex(final FileSystemOptions opts) {
+        return getBoolean(opts, LAZY_INDEX, false);
+    }
+
+    /**
+     * Sets whether the entries are read through a channel, concurrently.
+     * <p>
+     * By default the entries are read through one {@link java.util.zip.ZipFile}. With concurrent reads, the entries are
+     * read through the {@code ZipFile} of Commons Compress over a {@link java.nio.channels.FileChannel}. The reads are
+     * positioned reads on the channel, so reads of different entries do not wait for each other. The files also support
+     * random access; seeking is cheap in stored entries, while compressed entries are uncompressed again from their
+     * start. Requires Commons Compress.
+     *
+     * @param opts The FileSystem options.
+     * @param concurrentReads true to read the entries through a channel.
+     */
+    public void setConcurrentReads(final FileSystemOptions opts, final boolean concurrentReads) {
+        setParam(opts, CONCURRENT_READS, concurrentReads ? Boolean.TRUE : Boolean.FALSE);
+    }
+
+    /**
+     * Sets whether the file objects of the entries are created on demand.
+     * <p>
+     * By default a file object is created for each entry and each folder of the zip file when the file system is
+     * created. With a lazy index only the sorted names of the entries are kept, packed into one array, and the file
+     * objects are created when a file is resolved or a folder listed. This makes opening large zip files fast and
+     * cheap in memory.
+     *
+     * @param opts The FileSystem options.
+     * @param lazyIndex true to create the file objects of the entries on demand.
+     */
+    public void setLazyIndex(final FileSystemOptions opts, final boolean lazyIndex) {
+        setParam(opts, LAZY_INDEX, lazyIndex ? Boolean.TRUE : Boolean.FALSE);
+    }
+
+    @Override
+    protected Class<? extends FileSystem> getConfigClass() {
+        return ZipFileSystem.class;
+    }
+}
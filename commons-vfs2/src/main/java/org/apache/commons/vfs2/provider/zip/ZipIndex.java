@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.zip;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The sorted names of the entries of a zip file, packed into one array.
+ * <p>
+ * The names are stored as UTF-8 without leading and trailing slashes, in the order of their bytes. All the descendants
+ * of a folder are then stored next to each other, after the folder, so the children of a folder are found with binary
+ * searches, and folders without an entry of their own are known from the names of their descendants.
+ */
+final class ZipIndex {
+    private static final byte SEPARATOR = '/';
+
+    private static final Comparator<byte[]> BYTE_ORDER = new Comparator<byte[]>() {
+        @Override
+        public int compare(final byte[] a, final byte[] b) {
+            final int length = Math.min(a.length, b.length);
+            for (int i = 0; i < length; i++) {
+                final int diff = (a[i] & 0xff) - (b[i] & 0xff);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return a.length - b.length;
+        }
+    };
+
+    /** The names one after the other. */
+    private final byte[] names;
+
+    /** The start of each name in {@link #names}, followed by the end of the last one. */
+    private final int[] offsets;
+
+    private ZipIndex(final byte[] names, final int[] offsets) {
+        this.names = names;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Indexes the entries of a zip file.
+     */
+    static ZipIndex build(final ZipFile zipFile) {
+        final List<byte[]> list = new ArrayList<>(zipFile.size());
+        final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            final String path = toPath(entries.nextElement().getName());
+            if (!path.isEmpty()) {
+                list.add(path.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        final byte[][] sorted = list.toArray(new byte[list.size()][]);
+        Arrays.sort(sorted, BYTE_ORDER);
+        int size = 0;
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || BYTE_ORDER.compare(sorted[i - 1], sorted[i]) != 0) {
+                sorted[count++] = sorted[i];
+                size += sorted[i].length;
+            }
+        }
+
+        final byte[] names = new byte[size];
+        final int[] offsets = new int[count + 1];
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            offsets[i] = offset;
+            System.arraycopy(sorted[i], 0, names, offset, sorted[i].length);
+            offset += sorted[i].length;
+        }
+        offsets[count] = offset;
+        return new ZipIndex(names, offsets);
+    }
+
+    /**
+     * Returns the path of an entry in the index.
+     *
+     * @param name The name of the entry, or the decoded path of a file.
+     * @return The path without leading and trailing slashes.
+     */
+    static String toPath(final String name) {
+        int start = 0;
+        int end = name.length();
+        while (start < end && name.charAt(start) == SEPARATOR) {
+            start++;
+        }
+        while (end > start && name.charAt(end - 1) == SEPARATOR) {
+            end--;
+        }
+        return name.substring(start, end);
+    }
+
+    /**
+     * Returns the number of names.
+     */
+    int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Determines if an entry has this path.
+     */
+    boolean containsEntry(final String path) {
+        final byte[] key = path.getBytes(StandardCharsets.UTF_8);
+        final int index = lowerBound(key);
+        return index < size() && compare(index, key) == 0;
+    }
+
+    /**
+     * Determines if the path is a folder, that is if there are entries below it.
+     */
+    boolean isFolder(final String path) {
+        if (path.isEmpty()) {
+            return true;
+        }
+        final byte[] prefix = toPrefix(path);
+        final int index = lowerBound(prefix);
+        return index < size() && startsWith(index, prefix);
+    }
+
+    /**
+     * Lists the base names of the children of a folder.
+     *
+     * @param path The path of the folder.
+     * @return The base names of the children.
+     */
+    String[] listChildren(final String path) {
+        final byte[] prefix = path.isEmpty() ? new byte[0] : toPrefix(path);
+        final Set<String> children = new LinkedHashSet<>();
+        int index = lowerBound(prefix);
+        while (index < size() && startsWith(index, prefix)) {
+            final int start = offsets[index] + prefix.length;
+            final int end = offsets[index + 1];
+            int slash = start;
+            while (slash < end && names[slash] != SEPARATOR) {
+                slash++;
+            }
+            children.add(new String(names, start, slash - start, StandardCharsets.UTF_8));
+            if (slash == end) {
+                index++;
+            } else {
+                // skips the descendants of the child, they sort before the name followed by the next byte
+                final byte[] next = Arrays.copyOfRange(names, offsets[index], slash + 1);
+                next[next.length - 1] = SEPARATOR + 1;
+                index = lowerBound(next);
+            }
+        }
+        return children.toArray(new String[children.size()]);
+    }
+
+    private static byte[] toPrefix(final String path) {
+        final byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+        final byte[] prefix = Arrays.copyOf(bytes, bytes.length + 1);
+        prefix[bytes.length] = SEPARATOR;
+        return prefix;
+    }
+
+    /**
+     * Returns the index of the first name not less than the key.
+     */
+    private int lowerBound(final byte[] key) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (compare(mid, key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compare(final int index, final byte[] key) {
+        final int start = offsets[index];
+        final int length = offsets[index + 1] - start;
+        final int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            final int diff = (names[start + i] & 0xff) - (key[i] & 0xff);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length - key.length;
+    }
+
+    private boolean startsWith(final int index, final byte[] prefix) {
+        final int start = offsets[index];
+        if (offsets[index + 1] - start < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (names[start + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.zip;
+
+import java.io.DataInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.provider.AbstractRandomAccessStreamContent;
+import org.apache.commons.vfs2.util.PositionedInputStream;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+
+/**
+ * Read-only random access to an entry of a zip file.
+ * <p>
+ * A stored entry is read with buffered positioned reads on the channel of the zip file. A compressed entry is
+ * uncompressed from its start, and again after each seek.
+ */
+class ZipRandomAccessContent extends AbstractRandomAccessStreamContent {
+    private final ZipChannelReader reader;
+
+    private final ZipArchiveEntry entry;
+
+    private long filePointer;
+
+    /** The stream of a stored entry, which keeps the file pointer while it is open. */
+    private StoredEntryInputStream stored;
+
+    private DataInputStream dis;
+
+    ZipRandomAccessContent(final ZipChannelReader reader, final ZipArchiveEntry entry, final RandomAccessMode mode) {
+        super(mode);
+        this.reader = reader;
+        this.entry = entry;
+    }
+
+    @Override
+    public long getFilePointer() throws IOException {
+        return stored != null ? stored.getPosition() : filePointer;
+    }
+
+    @Override
+    public void seek(final long pos) throws IOException {
+        if (pos == getFilePointer()) {
+            // no change
+            return;
+        }
+
+        if (pos < 0) {
+            throw new FileSystemException("vfs.provider/random-access-invalid-position.error", Long.valueOf(pos));
+        }
+        if (dis != null && !isStored()) {
+            close();
+        }
+
+        filePointer = pos;
+        if (stored != null) {
+            stored.setPosition(pos);
+        }
+    }
+
+    @Override
+    protected DataInputStream getDataInputStream() throws IOException {
+        if (dis != null) {
+            return dis;
+        }
+
+        if (isStored()) {
+            stored = new StoredEntryInputStream();
+            stored.setPosition(filePointer);
+            dis = new DataInputStream(stored);
+            return dis;
+        }
+
+        final InputStream in = reader.getInputStream(entry);
+        long skipped = 0;
+        while (skipped < filePointer) {
+            final long n = in.skip(filePointer - skipped);
+            if (n <= 0) {
+                break;
+            }
+            skipped += n;
+        }
+        dis = new DataInputStream(new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                final int ret = super.read();
+                if (ret > -1) {
+                    filePointer++;
+                }
+                return ret;
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                final int ret = super.read(b, off, len);
+                if (ret > -1) {
+                    filePointer += ret;
+                }
+                return ret;
+            }
+        });
+        return dis;
+    }
+
+    private boolean isStored() {
+        return entry.getMethod() == ZipEntry.STORED && entry.getDataOffset() >= 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (stored != null) {
+            filePointer = stored.getPosition();
+            stored = null;
+        }
+        if (dis != null) {
+            dis.close();
+            dis = null;
+        }
+    }
+
+    @Override
+    public long length() throws IOException {
+        return entry.getSize();
+    }
+
+    /**
+     * Reads a stored entry at its offset in the zip file.
+     */
+    private final class StoredEntryInputStream extends PositionedInputStream {
+        StoredEntryInputStream() {
+            super(entry.getDataOffset(), entry.getSize());
+        }
+
+        @Override
+        protected FileChannel getChannel() {
+            return reader.getChannel();
+        }
+    }
+}
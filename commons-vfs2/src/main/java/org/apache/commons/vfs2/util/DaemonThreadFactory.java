@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the daemon threads of the pools that VFS runs in the background, named after the pool so that they can be
+ * told apart in a thread dump.
+ * <p>
+ * The threads are named {@code <prefix>-<pool>-<thread>}, where the pool number counts the factories created.
+ *
+ * @since 2.3
+ */
+public final class DaemonThreadFactory implements ThreadFactory {
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    private final String prefix;
+
+    private final int priority;
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * Creates a factory of threads with the normal priority.
+     *
+     * @param prefix The prefix of the thread names, for instance {@code "VFS-Copy"}.
+     */
+    public DaemonThreadFactory(final String prefix) {
+        this(prefix, Thread.NORM_PRIORITY);
+    }
+
+    /**
+     * Creates a factory of threads with a priority.
+     *
+     * @param prefix The prefix of the thread names, for instance {@code "VFS-Copy"}.
+     * @param priority The priority of the threads.
+     */
+    public DaemonThreadFactory(final String prefix, final int priority) {
+        this.prefix = prefix + "-" + POOL_NUMBER.incrementAndGet() + "-";
+        this.priority = priority;
+    }
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+        final Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+        thread.setDaemon(true);
+        thread.setPriority(priority);
+        return thread;
+    }
+}
@@ -32,6 +32,17 @@ public class MonitorRandomAccessContent implements RandomAccessContent {
         this.content = content;
     }
 
+    /**
+     * Returns the content this content monitors, for instance to reach the methods a provider adds to its own
+     * RandomAccessContent. The returned content must be closed through this one.
+     *
+     * @return The monitored content.
+     * @since 2.3
+     */
+    public RandomAccessContent getMonitoredContent() {
+        return content;
+    }
+
     /**
      * Called after this stream is closed.
      *
@@ -0,0 +1,361 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSelectInfo;
+import org.apache.commons.vfs2.FileSelector;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.FileUtil;
+import org.apache.commons.vfs2.NameScope;
+import org.apache.commons.vfs2.provider.DefaultFileSelectorInfo;
+
+/**
+ * Copies a tree of files with several threads.
+ * <p>
+ * The source tree is walked on the calling thread while the content of the selected files is copied by a pool of
+ * workers, so listing folders and transferring files overlap. Folders are created by the walking thread before any of
+ * their children is copied. The bytes being copied at the same time are bounded, a file larger than the bound is copied
+ * alone.
+ * <p>
+ * With one thread everything is copied on the calling thread, and the copy stops at the first error. Otherwise the
+ * copy carries on after a failed file, and all failures are reported together once the other files are copied.
+ *
+ * @since 2.3
+ */
+public class ParallelFileCopier {
+    /**
+     * Receives the progress of a copy, called from the worker threads.
+     */
+    public interface CopyListener {
+        /**
+         * Called after a file or folder was copied.
+         *
+         * @param srcFile The source file.
+         * @param destFile The destination file.
+         * @param bytes The number of bytes copied, 0 for folders.
+         */
+        void fileCopied(FileObject srcFile, FileObject destFile, long bytes);
+    }
+
+    /** The default bound of the bytes being copied at the same time: 64 MB. */
+    public static final long DEFAULT_MAX_BYTES_IN_FLIGHT = 64L * 1024 * 1024;
+
+    private final int threads;
+
+    private long maxBytesInFlight = DEFAULT_MAX_BYTES_IN_FLIGHT;
+
+    private CopyListener listener;
+
+    /**
+     * Creates a copier.
+     *
+     * @param threads The number of threads copying file content.
+     */
+    public ParallelFileCopier(final int threads) {
+        this.threads = Math.max(threads, 1);
+    }
+
+    /**
+     * Sets the bound of the bytes being copied at the same time.
+     *
+     * @param maxBytesInFlight The maximum number of bytes in flight.
+     */
+    public void setMaxBytesInFlight(final long maxBytesInFlight) {
+        this.maxBytesInFlight = Math.max(maxBytesInFlight, 1);
+    }
+
+    /**
+     * Sets the listener notified of each copied file.
+     *
+     * @param listener The listener, or null.
+     */
+    public void setListener(final CopyListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Copies the files selected below {@code srcFile} to the same relative names below {@code destFile}.
+     *
+     * @param srcFile The source file.
+     * @param selector Selects the files to copy.
+     * @param destFile The destination file.
+     * @throws FileSystemException if a file cannot be copied.
+     */
+    public void copy(final FileObject srcFile, final FileSelector selector, final FileObject destFile)
+            throws FileSystemException {
+        if (!srcFile.exists()) {
+            throw new FileSystemException("vfs.provider/copy-missing-file.error", srcFile);
+        }
+
+        final Copy copy = new Copy(srcFile, destFile);
+        try {
+            final DefaultFileSelectorInfo info = new DefaultFileSelectorInfo();
+            info.setBaseFolder(srcFile);
+            info.setFile(srcFile);
+            info.setDepth(0);
+            copy.walk(info, selector, null);
+        } catch (final FileSystemException e) {
+            copy.fail(e);
+        } finally {
+            copy.finish();
+        }
+        copy.rethrow();
+    }
+
+    /**
+     * The state of one copy.
+     */
+    private final class Copy {
+        private final FileObject srcBase;
+
+        private final FileObject destBase;
+
+        private final ExecutorService executor;
+
+        private final List<FileSystemException> failures = new ArrayList<>();
+
+        /** Guarded by this */
+        private long bytesInFlight;
+
+        /** Guarded by this */
+        private int filesInFlight;
+
+        private Copy(final FileObject srcBase, final FileObject destBase) {
+            this.srcBase = srcBase;
+            this.destBase = destBase;
+            this.executor = threads > 1 ? Executors.newFixedThreadPool(threads, new DaemonThreadFactory("VFS-Copy"))
+                    : null;
+        }
+
+        /**
+         * Walks the tree in the order of {@link FileObject#findFiles(FileSelector)}: the descendants of a folder are
+         * selected before the folder itself. The destination folders are created before their first child is copied.
+         */
+        private void walk(final DefaultFileSelectorInfo info, final FileSelector selector, final Folder parent)
+                throws FileSystemException {
+            final FileObject file = info.getFile();
+            final FileType type = file.getType();
+            if (type.hasContent()) {
+                if (include(selector, info)) {
+                    if (parent != null) {
+                        parent.create();
+                    }
+                    submit(file);
+                }
+                return;
+            }
+
+            if (type.hasChildren()) {
+                final Folder folder = new Folder(file, parent);
+                if (traverse(selector, info)) {
+                    final int depth = info.getDepth();
+                    info.setDepth(depth + 1);
+                    for (final FileObject child : file.getChildren()) {
+                        if (child.getName().equals(destBase.getName())) {
+                            // copying into a descendant of the source, do not copy the copy
+                            continue;
+                        }
+                        info.setFile(child);
+                        walk(info, selector, folder);
+                    }
+                    info.setFile(file);
+                    info.setDepth(depth);
+                }
+                if (include(selector, info)) {
+                    folder.create();
+                    copied(file, folder.dest, 0);
+                }
+            }
+        }
+
+        private void submit(final FileObject file) throws FileSystemException {
+            final long size = file.getContent().getSize();
+            if (executor == null) {
+                copyContent(file, size);
+                return;
+            }
+
+            final long reserved = Math.min(size, maxBytesInFlight);
+            acquire(reserved);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        copyContent(file, size);
+                    } catch (final FileSystemException e) {
+                        fail(e);
+                    } catch (final RuntimeException e) {
+                        fail(new FileSystemException("vfs.provider/copy-file.error", e, file, destBase));
+                    } finally {
+                        release(reserved);
+                    }
+                }
+            });
+        }
+
+        private void copyContent(final FileObject file, final long size) throws FileSystemException {
+            final FileObject dest = prepare(file);
+            try {
+                FileUtil.copyContent(file, dest);
+            } catch (final IOException e) {
+                throw new FileSystemException("vfs.provider/copy-file.error", e, file, dest);
+            }
+            copied(file, dest, size);
+        }
+
+        /**
+         * Resolves the destination of a file, and deletes it if it is of another type.
+         */
+        private FileObject prepare(final FileObject file) throws FileSystemException {
+            final String relPath = srcBase.getName().getRelativeName(file.getName());
+            final FileObject dest = destBase.resolveFile(relPath, NameScope.DESCENDENT_OR_SELF);
+
+            // TODO - add a pluggable policy for deleting and overwriting existing files
+            if (dest.exists() && dest.getType() != file.getType()) {
+                dest.deleteAll();
+            }
+            return dest;
+        }
+
+        private void copied(final FileObject file, final FileObject dest, final long bytes) {
+            if (listener != null) {
+                listener.fileCopied(file, dest, bytes);
+            }
+        }
+
+        /**
+         * A source folder of the walk, and its destination once created.
+         */
+        private final class Folder {
+            private final FileObject file;
+
+            private final Folder parent;
+
+            private FileObject dest;
+
+            private Folder(final FileObject file, final Folder parent) {
+                this.file = file;
+                this.parent = parent;
+            }
+
+            /**
+             * Creates the destination folder and its missing ancestors.
+             */
+            private void create() throws FileSystemException {
+                if (dest == null) {
+                    if (parent != null) {
+                        parent.create();
+                    }
+                    final FileObject folder = prepare(file);
+                    folder.createFolder();
+                    dest = folder;
+                }
+            }
+        }
+
+        /**
+         * Waits until the file fits into the bytes in flight, and a worker can take it soon.
+         */
+        private synchronized void acquire(final long size) throws FileSystemException {
+            while (filesInFlight > 0 && (bytesInFlight + size > maxBytesInFlight || filesInFlight >= threads * 2)) {
+                try {
+                    wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new FileSystemException("vfs.provider/copy-file.error", e, srcBase, destBase);
+                }
+            }
+            bytesInFlight += size;
+            filesInFlight++;
+        }
+
+        private synchronized void release(final long size) {
+            bytesInFlight -= size;
+            filesInFlight--;
+            notifyAll();
+        }
+
+        private synchronized void fail(final FileSystemException e) {
+            failures.add(e);
+        }
+
+        /**
+         * Waits for the files in flight.
+         */
+        private void finish() {
+            if (executor != null) {
+                executor.shutdown();
+                synchronized (this) {
+                    while (filesInFlight > 0) {
+                        try {
+                            wait();
+                        } catch (final InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            executor.shutdownNow();
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+
+        private synchronized void rethrow() throws FileSystemException {
+            if (failures.isEmpty()) {
+                return;
+            }
+            if (failures.size() == 1) {
+                throw failures.get(0);
+            }
+            final FileSystemException e = new FileSystemException("vfs.provider/copy-files.error",
+                    Integer.valueOf(failures.size()), srcBase, destBase);
+            for (final FileSystemException failure : failures) {
+                e.addSuppressed(failure);
+            }
+            throw e;
+        }
+    }
+
+    private static boolean include(final FileSelector selector, final FileSelectInfo info)
+            throws FileSystemException {
+        try {
+            return selector.includeFile(info);
+        } catch (final FileSystemException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new FileSystemException("vfs.provider/find-files.error", e, info.getBaseFolder());
+        }
+    }
+
+    private static boolean traverse(final FileSelector selector, final FileSelectInfo info)
+            throws FileSystemException {
+        try {
+            return selector.traverseDescendents(info);
+        } catch (final FileSystemException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new FileSystemException("vfs.provider/find-files.error", e, info.getBaseFolder());
+        }
+    }
+}
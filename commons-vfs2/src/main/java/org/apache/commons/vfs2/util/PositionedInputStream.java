@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An InputStream that reads a range of a file with positioned reads on a FileChannel, so that any number of these
+ * streams can read the same channel at the same time.
+ * <p>
+ * Reads shorter than the buffer are served from a buffer, which is kept when the position is moved within it, so that
+ * reading a few bytes at a time, for instance through a {@link java.io.DataInputStream}, does not read the channel for
+ * each of them.
+ *
+ * @since 2.3
+ */
+public abstract class PositionedInputStream extends InputStream {
+    /** The default size of the buffer: 8 KB. */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final long offset;
+
+    private final long length;
+
+    private final int bufferSize;
+
+    private byte[] buffer;
+
+    /** The position in the range of the first byte of the buffer. */
+    private long bufferPosition;
+
+    private int bufferLength;
+
+    private long position;
+
+    private long mark;
+
+    /**
+     * Creates a stream with a buffer of {@link #DEFAULT_BUFFER_SIZE} bytes.
+     *
+     * @param offset The offset of the range in the file.
+     * @param length The length of the range.
+     */
+    protected PositionedInputStream(final long offset, final long length) {
+        this(offset, length, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a stream.
+     *
+     * @param offset The offset of the range in the file.
+     * @param length The length of the range.
+     * @param bufferSize The size of the buffer for short reads.
+     */
+    protected PositionedInputStream(final long offset, final long length, final int bufferSize) {
+        this.offset = offset;
+        this.length = length;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Returns the channel to read.
+     *
+     * @return The channel.
+     * @throws IOException if the channel cannot be opened.
+     */
+    protected abstract FileChannel getChannel() throws IOException;
+
+    @Override
+    public int read() throws IOException {
+        if (position >= length) {
+            return -1;
+        }
+        if (!isBuffered()) {
+            fill();
+        }
+        return buffer[(int) (position++ - bufferPosition)] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= length) {
+            return -1;
+        }
+
+        final int read;
+        if (isBuffered() || len < bufferSize) {
+            if (!isBuffered()) {
+                fill();
+            }
+            final int start = (int) (position - bufferPosition);
+            read = Math.min(len, bufferLength - start);
+            System.arraycopy(buffer, start, b, off, read);
+        } else {
+            read = readFully(position, b, off, (int) Math.min(len, length - position));
+        }
+        position += read;
+        return read;
+    }
+
+    private boolean isBuffered() {
+        return buffer != null && position >= bufferPosition && position < bufferPosition + bufferLength;
+    }
+
+    private void fill() throws IOException {
+        if (buffer == null) {
+            buffer = new byte[bufferSize];
+        }
+        bufferLength = 0;
+        bufferLength = readFully(position, buffer, 0, (int) Math.min(bufferSize, length - position));
+        bufferPosition = position;
+    }
+
+    /**
+     * Reads len bytes of the range at the given position, which are all in the range.
+     */
+    private int readFully(final long pos, final byte[] b, final int off, final int len) throws IOException {
+        final ByteBuffer target = ByteBuffer.wrap(b, off, len);
+        final FileChannel channel = getChannel();
+        int read = 0;
+        while (target.hasRemaining()) {
+            final int n = channel.read(target, offset + pos + read);
+            if (n < 0) {
+                if (read == 0) {
+                    throw new EOFException();
+                }
+                break;
+            }
+            read += n;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        final long skipped = Math.max(Math.min(n, length - position), 0);
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.max(Math.min(length - position, Integer.MAX_VALUE), 0);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(final int readlimit) {
+        mark = position;
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        position = mark;
+    }
+
+    /**
+     * Returns the position in the range.
+     *
+     * @return The position.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Moves to a position in the range, keeping the buffer.
+     *
+     * @param position The new position.
+     */
+    public void setPosition(final long position) {
+        this.position = position;
+    }
+
+    /**
+     * Returns the length of the range.
+     *
+     * @return The length.
+     */
+    public long getLength() {
+        return length;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.cache;
+
+import org.apache.commons.vfs2.FileObject;
+
+/**
+ * Tests for {@link TinyLfuFilesCache} used by {@link TinyLfuFilesCacheTestCase}.
+ */
+public class TinyLfuFilesCacheTests extends AbstractFilesCacheTestsBase {
+    private static final int SCAN_SIZE = 100;
+
+    public void testFilesCache() throws Exception {
+        final FileObject scratchFolder = getWriteFolder();
+
+        // frequently used
+        final FileObject hot = scratchFolder.resolveFile("hot");
+        for (int i = 0; i < 10; i++) {
+            assertSame(hot, scratchFolder.resolveFile("hot"));
+        }
+
+        // avoid cache removal
+        final FileObject open = scratchFolder.resolveFile("open");
+        open.getContent();
+
+        // a scan of files used only once must not flush the cache
+        final FileObject[] scanned = new FileObject[SCAN_SIZE];
+        for (int i = 0; i < SCAN_SIZE; i++) {
+            scanned[i] = scratchFolder.resolveFile("scan" + i);
+        }
+
+        // check if the cache still holds the right instances
+        assertSame(hot, scratchFolder.resolveFile("hot"));
+        assertSame(open, scratchFolder.resolveFile("open"));
+
+        // but it is bounded
+        int evicted = 0;
+        for (int i = 0; i < SCAN_SIZE; i++) {
+            if (scanned[i] != scratchFolder.resolveFile("scan" + i)) {
+                evicted++;
+            }
+        }
+        assertTrue(evicted > 0);
+    }
+
+    public void testFrequencySketch() {
+        final FrequencySketch sketch = new FrequencySketch(64);
+        assertEquals(0, sketch.frequency(42));
+
+        for (int i = 0; i < 5; i++) {
+            sketch.increment(42);
+        }
+        assertEquals(5, sketch.frequency(42));
+
+        // counters saturate
+        for (int i = 0; i < 20; i++) {
+            sketch.increment(42);
+        }
+        assertEquals(15, sketch.frequency(42));
+    }
+
+    public void testClass() {
+        assertTrue(getManager().getFilesCache() instanceof TinyLfuFilesCache);
+    }
+}
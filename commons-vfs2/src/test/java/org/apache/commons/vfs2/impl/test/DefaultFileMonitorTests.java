@@ -18,14 +18,30 @@ package org.apache.commons.vfs2.impl.test;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.AbstractVfsTestCase;
+import org.apache.commons.vfs2.CacheStrategy;
 import org.apache.commons.vfs2.FileChangeEvent;
 import org.apache.commons.vfs2.FileListener;
+import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemManager;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.NameScope;
 import org.apache.commons.vfs2.VFS;
 import org.apache.commons.vfs2.impl.DefaultFileMonitor;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.AbstractFileName;
+import org.apache.commons.vfs2.provider.ram.RamFileObject;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.apache.commons.vfs2.provider.ram.RamFileSystem;
+import org.apache.commons.vfs2.util.FileObjectUtils;
 
 /**
  * Test to verify DefaultFileMonitor
@@ -169,12 +185,157 @@ public class DefaultFileMonitorTests extends AbstractVfsTestCase {
         }
     }
 
+    public void testChildFileRecreatedScheduled() throws Exception {
+        writeToFile(testFile);
+        final FileObject fileObj = fsManager.resolveFile(testDir.toURI().toURL().toString());
+        final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        final DefaultFileMonitor monitor = new DefaultFileMonitor(new TestFileListener());
+        monitor.setScheduler(scheduler);
+        monitor.setParallelism(2);
+        monitor.setDelay(100);
+        monitor.addFile(fileObj);
+        monitor.start();
+        try {
+            changeStatus = 0;
+            Thread.sleep(300);
+            testFile.delete();
+            Thread.sleep(500);
+            assertTrue("No event occurred", changeStatus != 0);
+            assertTrue("Incorrect event " + changeStatus, changeStatus == 2);
+            changeStatus = 0;
+            writeToFile(testFile);
+            Thread.sleep(500);
+            assertTrue("No event occurred", changeStatus != 0);
+            assertTrue("Incorrect event " + changeStatus, changeStatus == 3);
+        } finally {
+            monitor.stop();
+            scheduler.shutdown();
+        }
+    }
+
+    public void testFileModifiedScheduled() throws Exception {
+        writeToFile(testFile);
+        final FileObject fileObj = fsManager.resolveFile(testFile.toURI().toURL().toString());
+        final DefaultFileMonitor monitor = new DefaultFileMonitor(new TestFileListener());
+        monitor.setParallelism(4);
+        monitor.setDelay(100);
+        monitor.addFile(fileObj);
+        monitor.start();
+        try {
+            Thread.sleep(300);
+            final boolean rc = testFile.setLastModified(testFile.lastModified() - 10000);
+            assertTrue("setLastModified succeeded", rc);
+            Thread.sleep(500);
+            assertTrue("No event occurred", changeStatus != 0);
+            assertTrue("Incorrect event", changeStatus == 1);
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    public void testScheduledPollListsFolders() throws Exception {
+        final StatCountingRamFileProvider provider = new StatCountingRamFileProvider();
+        final DefaultFileSystemManager manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", provider);
+        // resolving the listed children does not refresh them
+        manager.setCacheStrategy(CacheStrategy.MANUAL);
+        manager.init();
+        try {
+            final FileObject folder = manager.resolveFile("ram:/watched");
+            for (int i = 0; i < 20; i++) {
+                folder.resolveFile("file" + i).createFile();
+            }
+            final DefaultFileMonitor monitor = new DefaultFileMonitor(new TestFileListener());
+            monitor.setParallelism(2);
+            monitor.setDelay(50);
+            monitor.addFile(folder);
+            monitor.start();
+            try {
+                Thread.sleep(300);
+                provider.stats.set(0);
+                provider.listings.set(0);
+                Thread.sleep(500);
+            } finally {
+                monitor.stop();
+            }
+
+            // the files take their state from the listing of their folder, only the folders are fetched one by one
+            final int stats = provider.stats.get();
+            final int listings = provider.listings.get();
+            assertTrue("No listing", listings > 0);
+            assertTrue(stats + " stats for " + listings + " listings", stats <= 2 * listings);
+            assertEquals(0, changeStatus);
+        } finally {
+            manager.close();
+        }
+    }
+
     private void writeToFile(final File file) throws Exception {
         final FileWriter out = new FileWriter(file);
         out.write("string=value1");
         out.close();
     }
 
+    /**
+     * A RAM file system that fetches the state of its files like a remote one: with a counted stat, unless the listing of
+     * the folder filled it in, and at once on refresh(), as SFTP does.
+     */
+    private static final class StatCountingRamFileProvider extends RamFileProvider {
+        private final AtomicInteger stats = new AtomicInteger();
+
+        private final AtomicInteger listings = new AtomicInteger();
+
+        @Override
+        protected FileSystem doCreateFileSystem(final FileName name, final FileSystemOptions fileSystemOptions)
+                throws FileSystemException {
+            return new RamFileSystem(name, fileSystemOptions) {
+                @Override
+                protected FileObject createFile(final AbstractFileName fileName) throws Exception {
+                    return new StatCountingFileObject(fileName, this);
+                }
+            };
+        }
+
+        private final class StatCountingFileObject extends RamFileObject {
+            private volatile boolean listed;
+
+            private StatCountingFileObject(final AbstractFileName name, final RamFileSystem fs) {
+                super(name, fs);
+            }
+
+            @Override
+            protected FileType doGetType() throws Exception {
+                if (!listed) {
+                    stats.incrementAndGet();
+                }
+                return super.doGetType();
+            }
+
+            @Override
+            protected FileObject[] doListChildrenResolved() throws Exception {
+                listings.incrementAndGet();
+                final String[] names = doListChildren();
+                final FileObject[] children = new FileObject[names.length];
+                for (int i = 0; i < names.length; i++) {
+                    children[i] = resolveFile(names[i], NameScope.CHILD);
+                    ((StatCountingFileObject) FileObjectUtils.getAbstractFileObject(children[i])).listed = true;
+                }
+                return children;
+            }
+
+            @Override
+            protected void doDetach() throws Exception {
+                listed = false;
+            }
+
+            @Override
+            public void refresh() throws FileSystemException {
+                super.refresh();
+                getType();
+            }
+        }
+    }
+
     public class TestFileListener implements FileListener {
         @Override
         public void fileChanged(final FileChangeEvent event) throws Exception {
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.impl.test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.AbstractVfsTestCase;
+import org.apache.commons.vfs2.FileChangeEvent;
+import org.apache.commons.vfs2.FileListener;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemManager;
+import org.apache.commons.vfs2.VFS;
+import org.apache.commons.vfs2.impl.WatchServiceFileMonitor;
+
+/**
+ * Test to verify WatchServiceFileMonitor
+ */
+public class WatchServiceFileMonitorTests extends AbstractVfsTestCase {
+    private static final long TIMEOUT = 10000;
+
+    private FileSystemManager fsManager;
+    private File testDir;
+    private File testFile;
+    private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        fsManager = VFS.getManager();
+        testDir = AbstractVfsTestCase.getTestDirectory("watch-monitor");
+        deleteChildren(testDir);
+        testFile = new File(testDir, "testReload.properties");
+        events.clear();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        deleteChildren(testDir);
+        testDir.delete();
+        super.tearDown();
+    }
+
+    public void testFileCreated() throws Exception {
+        final WatchServiceFileMonitor monitor = startMonitor(testFile, false);
+        try {
+            writeToFile(testFile);
+            assertEvent("created " + testFile.getName());
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    public void testFileDeleted() throws Exception {
+        writeToFile(testFile);
+        final WatchServiceFileMonitor monitor = startMonitor(testFile, false);
+        try {
+            testFile.delete();
+            assertEvent("deleted " + testFile.getName());
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    public void testFileModified() throws Exception {
+        writeToFile(testFile);
+        final WatchServiceFileMonitor monitor = startMonitor(testFile, false);
+        try {
+            // the new timestamp must differ from the current one, which may be truncated to the second
+            assertTrue("setLastModified succeeded", testFile.setLastModified(testFile.lastModified() - 10000));
+            assertEvent("changed " + testFile.getName());
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    public void testChildFileRecreated() throws Exception {
+        writeToFile(testFile);
+        final WatchServiceFileMonitor monitor = startMonitor(testDir, false);
+        try {
+            testFile.delete();
+            assertEvent("deleted " + testFile.getName());
+            writeToFile(testFile);
+            assertEvent("created " + testFile.getName());
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    public void testRecursiveCreated() throws Exception {
+        final File folder = new File(testDir, "folder");
+        final File subFolder = new File(folder, "sub");
+        final WatchServiceFileMonitor monitor = startMonitor(testDir, true);
+        try {
+            assertTrue(subFolder.mkdirs());
+            assertEvent("created folder");
+            assertEvent("created sub");
+
+            // the new folders are watched too
+            final File nested = new File(subFolder, "nested.txt");
+            writeToFile(nested);
+            assertEvent("created nested.txt");
+            assertTrue(nested.delete());
+            assertEvent("deleted nested.txt");
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    private WatchServiceFileMonitor startMonitor(final File file, final boolean recursive) throws Exception {
+        final FileObject fileObj = fsManager.resolveFile(file.toURI().toURL().toString());
+        final WatchServiceFileMonitor monitor = new WatchServiceFileMonitor(new TestFileListener());
+        monitor.setRecursive(recursive);
+        monitor.addFile(fileObj);
+        monitor.start();
+        return monitor;
+    }
+
+    private void assertEvent(final String event) throws Exception {
+        final long end = System.currentTimeMillis() + TIMEOUT;
+        while (!events.contains(event) && System.currentTimeMillis() < end) {
+            Thread.sleep(50);
+        }
+        assertTrue("No event \"" + event + "\" in " + events, events.contains(event));
+    }
+
+    private void writeToFile(final File file) throws Exception {
+        final FileWriter out = new FileWriter(file);
+        out.write("string=value1");
+        out.close();
+    }
+
+    private static void deleteChildren(final File folder) {
+        final File[] children = folder.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                deleteChildren(child);
+                child.delete();
+            }
+        }
+    }
+
+    public class TestFileListener implements FileListener {
+        @Override
+        public void fileChanged(final FileChangeEvent event) throws Exception {
+            events.add("changed " + event.getFile().getName().getBaseName());
+        }
+
+        @Override
+        public void fileDeleted(final FileChangeEvent event) throws Exception {
+            events.add("deleted " + event.getFile().getName().getBaseName());
+        }
+
+        @Override
+        public void fileCreated(final FileChangeEvent event) throws Exception {
+            events.add("created " + event.getFile().getName().getBaseName());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.perf;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.cache.DefaultFilesCache;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark for resolving files of one shared file system from many threads.
+ * <p>
+ * The JMH harness is generated with {@code mvn -Dbenchmark clean test-compile}. Then run {@link #main(String[])} to
+ * measure the throughput with 1 to 64 threads, or pass the usual JMH options (like {@code -t 16}) to the JMH runner.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResolveFileBenchmark {
+    private static final int[] THREADS = { 1, 2, 4, 8, 16, 32, 64 };
+
+    @Param({ "1000" })
+    private int fileCount;
+
+    private DefaultFileSystemManager manager;
+
+    private FileSystem fileSystem;
+
+    private FileName[] names;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.setFilesCache(new DefaultFilesCache());
+        manager.init();
+
+        final FileObject root = manager.resolveFile("ram:///bench");
+        root.createFolder();
+        fileSystem = root.getFileSystem();
+
+        names = new FileName[fileCount];
+        for (int i = 0; i < fileCount; i++) {
+            final FileObject file = root.resolveFile("file" + i + ".txt");
+            file.createFile();
+            names[i] = file.getName();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        manager.close();
+    }
+
+    /**
+     * Resolves a cached file, the common case for a long running application.
+     */
+    @Benchmark
+    public FileObject resolveCached() throws Exception {
+        return fileSystem.resolveFile(names[ThreadLocalRandom.current().nextInt(names.length)]);
+    }
+
+    /**
+     * Resolves a cached file and queries its (cached) type.
+     */
+    @Benchmark
+    public FileType resolveCachedAndGetType() throws Exception {
+        return fileSystem.resolveFile(names[ThreadLocalRandom.current().nextInt(names.length)]).getType();
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        for (final int threads : THREADS) {
+            final Options options = new OptionsBuilder().include(ResolveFileBenchmark.class.getSimpleName())
+                    .threads(threads).build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSelectInfo;
+import org.apache.commons.vfs2.FileSelector;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileVisitor;
+import org.apache.commons.vfs2.Selectors;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the lazy and parallel traversals of {@link AbstractFileObject}.
+ */
+public class FileTreeTraversalTest {
+
+    private static final int FOLDERS = 4;
+
+    private static final int FILES = 10;
+
+    /** Does not traverse the folders named "skip". */
+    private static final FileSelector SKIP_SELECTOR = new FileSelector() {
+        @Override
+        public boolean includeFile(final FileSelectInfo fileInfo) {
+            return true;
+        }
+
+        @Override
+        public boolean traverseDescendents(final FileSelectInfo fileInfo) {
+            return !fileInfo.getFile().getName().getBaseName().equals("skip");
+        }
+    };
+
+    private DefaultFileSystemManager manager;
+
+    private AbstractFileObject<?> base;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.init();
+
+        base = (AbstractFileObject<?>) manager.resolveFile("ram:///base");
+        for (int i = 0; i < FOLDERS; i++) {
+            for (int j = 0; j < FILES; j++) {
+                base.resolveFile("dir" + i + "/sub/file" + j + ".txt").createFile();
+            }
+        }
+        base.resolveFile("skip/hidden.txt").createFile();
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    public void testIterateFiles() throws Exception {
+        final List<FileObject> expected = base.listFiles(SKIP_SELECTOR);
+        final List<FileObject> actual = new ArrayList<>();
+        final Iterator<FileObject> iterator = base.iterateFiles(SKIP_SELECTOR);
+        while (iterator.hasNext()) {
+            actual.add(iterator.next());
+        }
+        Assert.assertEquals(expected, actual);
+        // the files, dir*, dir*/sub, skip and the base folder
+        Assert.assertEquals(FOLDERS * FILES + FOLDERS * 2 + 2, actual.size());
+        Assert.assertFalse(actual.contains(base.resolveFile("skip/hidden.txt")));
+
+        Assert.assertFalse(manager.resolveFile("ram:///missing").iterator().hasNext());
+    }
+
+    @Test
+    public void testFindFilesParentsFirst() throws Exception {
+        final List<FileObject> depthwise = new ArrayList<>();
+        base.findFiles(Selectors.SELECT_ALL, true, depthwise);
+        final List<FileObject> parentsFirst = new ArrayList<>();
+        base.findFiles(Selectors.SELECT_ALL, false, parentsFirst);
+
+        Assert.assertEquals(new HashSet<>(depthwise), new HashSet<>(parentsFirst));
+        Assert.assertEquals(base, parentsFirst.get(0));
+        for (int i = 1; i < parentsFirst.size(); i++) {
+            final FileObject parent = parentsFirst.get(i).getParent();
+            Assert.assertTrue(parentsFirst.indexOf(parent) < i);
+        }
+    }
+
+    @Test
+    public void testVisitFilesParallel() throws Exception {
+        final List<FileObject> visited = Collections.synchronizedList(new ArrayList<FileObject>());
+        base.visitFiles(SKIP_SELECTOR, new FileVisitor() {
+            @Override
+            public void visitFile(final FileObject file) {
+                visited.add(file);
+            }
+        }, 4);
+
+        final List<FileObject> expected = base.listFiles(SKIP_SELECTOR);
+        Assert.assertEquals(expected.size(), visited.size());
+        Assert.assertEquals(new HashSet<>(expected), new HashSet<>(visited));
+        // depthwise along each path
+        for (int i = 0; i < visited.size(); i++) {
+            final FileObject parent = visited.get(i).getParent();
+            if (visited.contains(parent)) {
+                Assert.assertTrue(visited.indexOf(parent) > i);
+            }
+        }
+    }
+
+    @Test
+    public void testVisitFilesFailure() throws Exception {
+        final FileSystemException failure = new FileSystemException("test");
+        try {
+            base.visitFiles(Selectors.SELECT_FILES, new FileVisitor() {
+                @Override
+                public void visitFile(final FileObject file) throws Exception {
+                    throw failure;
+                }
+            }, 4);
+            Assert.fail("Expected the visitor failure");
+        } catch (final FileSystemException e) {
+            Assert.assertSame(failure, e);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.ftp.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.UserAuthenticationData;
+import org.apache.commons.vfs2.provider.GenericFileName;
+import org.apache.commons.vfs2.provider.ftp.FTPClientWrapper;
+import org.apache.commons.vfs2.provider.ftp.FtpClient;
+import org.apache.commons.vfs2.provider.ftp.FtpFileNameParser;
+import org.apache.commons.vfs2.provider.ftp.FtpFileSystem;
+import org.apache.commons.vfs2.provider.ftp.FtpFileSystemConfigBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the client pool of {@link FtpFileSystem}, with clients which do not talk to a server.
+ */
+public class FtpClientPoolTest {
+
+    private final List<FakeFtpClient> created = new ArrayList<>();
+
+    private final FtpFileSystemConfigBuilder builder = FtpFileSystemConfigBuilder.getInstance();
+
+    private FileSystemOptions opts;
+
+    @Before
+    public void setUp() {
+        opts = new FileSystemOptions();
+    }
+
+    @Test
+    public void testMaxIdle() throws Exception {
+        builder.setClientPoolMaxIdle(opts, Integer.valueOf(2));
+        final FtpFileSystem fs = createFileSystem();
+
+        final FtpClient client1 = fs.getClient();
+        final FtpClient client2 = fs.getClient();
+        final FtpClient client3 = fs.getClient();
+        Assert.assertEquals(3, created.size());
+        fs.putClient(client1);
+        fs.putClient(client2);
+        fs.putClient(client3);
+
+        // the pool was full when the last client came back
+        Assert.assertTrue(created.get(0).isConnected());
+        Assert.assertTrue(created.get(1).isConnected());
+        Assert.assertFalse(created.get(2).isConnected());
+
+        // the most recently returned first
+        Assert.assertSame(client2, fs.getClient());
+        Assert.assertSame(client1, fs.getClient());
+        Assert.assertEquals(3, created.size());
+    }
+
+    @Test
+    public void testIdleTimeout() throws Exception {
+        builder.setClientPoolIdleTimeout(opts, Integer.valueOf(50));
+        final FtpFileSystem fs = createFileSystem();
+
+        final FtpClient client = fs.getClient();
+        fs.putClient(client);
+        Assert.assertSame(client, fs.getClient());
+        fs.putClient(client);
+
+        Thread.sleep(150);
+        Assert.assertNotSame(client, fs.getClient());
+        Assert.assertFalse(created.get(0).isConnected());
+        Assert.assertEquals(2, created.size());
+    }
+
+    @Test
+    public void testFailedNoopEvicts() throws Exception {
+        builder.setClientPoolValidateOnBorrow(opts, true);
+        final FtpFileSystem fs = createFileSystem();
+
+        final FtpClient client = fs.getClient();
+        fs.putClient(client);
+        Assert.assertSame(client, fs.getClient());
+        Assert.assertEquals(1, created.get(0).noops);
+        fs.putClient(client);
+
+        created.get(0).noop = false;
+        final FtpClient other = fs.getClient();
+        Assert.assertNotSame(client, other);
+        Assert.assertEquals(2, created.get(0).noops);
+        Assert.assertFalse(created.get(0).isConnected());
+        Assert.assertEquals(2, created.size());
+    }
+
+    @Test
+    public void testMaxTotal() throws Exception {
+        builder.setClientPoolMaxTotal(opts, Integer.valueOf(2));
+        builder.setClientPoolMaxWait(opts, Integer.valueOf(0));
+        final FtpFileSystem fs = createFileSystem();
+
+        final FtpClient client1 = fs.getClient();
+        fs.getClient();
+        try {
+            fs.getClient();
+            Assert.fail("Expected the client pool to be exhausted");
+        } catch (final FileSystemException e) {
+            // expected
+        }
+
+        fs.putClient(client1);
+        Assert.assertSame(client1, fs.getClient());
+        Assert.assertEquals(2, created.size());
+    }
+
+    private FtpFileSystem createFileSystem() throws FileSystemException {
+        final GenericFileName rootName = (GenericFileName) FtpFileNameParser.getInstance().parseUri(null, null,
+                "ftp://localhost/");
+        return new FtpFileSystem(rootName, null, opts) {
+            @Override
+            protected FTPClientWrapper createWrapper() throws FileSystemException {
+                return new FakeWrapper(rootName, opts);
+            }
+        };
+    }
+
+    /**
+     * A wrapper of a {@link FakeFtpClient}.
+     */
+    private final class FakeWrapper extends FTPClientWrapper {
+        private FakeWrapper(final GenericFileName root, final FileSystemOptions fileSystemOptions)
+                throws FileSystemException {
+            super(root, fileSystemOptions);
+        }
+
+        @Override
+        protected FTPClient createClient(final GenericFileName rootName, final UserAuthenticationData authData) {
+            final FakeFtpClient client = new FakeFtpClient();
+            created.add(client);
+            return client;
+        }
+    }
+
+    /**
+     * A connected client answering NOOP without a server.
+     */
+    private static final class FakeFtpClient extends FTPClient {
+        private boolean connected = true;
+
+        private boolean noop = true;
+
+        private int noops;
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        @Override
+        public boolean sendNoOp() {
+            noops++;
+            return noop;
+        }
+
+        @Override
+        public boolean logout() {
+            return true;
+        }
+
+        @Override
+        public int quit() {
+            return 221;
+        }
+
+        @Override
+        public void disconnect() {
+            connected = false;
+        }
+    }
+}
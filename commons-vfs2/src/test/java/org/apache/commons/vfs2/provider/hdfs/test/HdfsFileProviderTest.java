@@ -20,21 +20,35 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
 import org.apache.commons.vfs2.provider.hdfs.HdfsFileAttributes;
 import org.apache.commons.vfs2.provider.hdfs.HdfsFileProvider;
+import org.apache.commons.vfs2.provider.hdfs.HdfsRandomAccessContent;
+import org.apache.commons.vfs2.util.MonitorRandomAccessContent;
 import org.apache.commons.vfs2.util.Os;
 import org.apache.commons.vfs2.util.RandomAccessMode;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hdfs.DFSConfigKeys;
+import org.apache.hadoop.hdfs.DistributedFileSystem;
 import org.apache.hadoop.hdfs.MiniDFSCluster;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
@@ -159,6 +173,129 @@ public class HdfsFileProviderTest {
         return f;
     }
 
+    private FileObject createPatternFile(final int length) throws Exception {
+        hdfs.mkdirs(DIR1_PATH);
+        final FSDataOutputStream out = hdfs.create(FILE1_PATH);
+        for (int i = 0; i < length; i++) {
+            out.write(pattern(i));
+        }
+        out.close();
+        return manager.resolveFile(TEST_FILE1);
+    }
+
+    private static HdfsRandomAccessContent getHdfsContent(final RandomAccessContent content) {
+        return (HdfsRandomAccessContent) ((MonitorRandomAccessContent) content).getMonitoredContent();
+    }
+
+    private static byte pattern(final long position) {
+        return (byte) (position % 251);
+    }
+
+    private static void assertPattern(final long position, final ByteBuffer buf) {
+        for (int i = 0; buf.hasRemaining(); i++) {
+            Assert.assertEquals(pattern(position + i), buf.get());
+        }
+    }
+
+    @Test
+    public void testByteBufferRead() throws Exception {
+        final FileObject file = createPatternFile(10000);
+        final RandomAccessContent content = file.getContent().getRandomAccessContent(RandomAccessMode.READ);
+        final HdfsRandomAccessContent rac = getHdfsContent(content);
+        try {
+            rac.seek(100);
+            final ByteBuffer direct = ByteBuffer.allocateDirect(500);
+            while (direct.hasRemaining()) {
+                Assert.assertTrue(rac.read(direct) > 0);
+            }
+            direct.flip();
+            assertPattern(100, direct);
+            Assert.assertEquals(600, rac.getFilePointer());
+
+            final ByteBuffer heap = ByteBuffer.allocate(1000);
+            heap.position(10);
+            rac.readFully(9000, heap);
+            heap.position(10);
+            assertPattern(9000, heap);
+
+            Assert.assertEquals(-1, rac.read(10000, ByteBuffer.allocate(10)));
+        } finally {
+            content.close();
+        }
+    }
+
+    @Test
+    public void testConcurrentPositionedRead() throws Exception {
+        final int length = 3 * 1024 * 1024;
+        final FileObject file = createPatternFile(length);
+        final RandomAccessContent content = file.getContent().getRandomAccessContent(RandomAccessMode.READ);
+        final HdfsRandomAccessContent rac = getHdfsContent(content);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            rac.seek(1234);
+            final List<Future<Void>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final Random random = new Random(t);
+                results.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        final byte[] b = new byte[4096];
+                        for (int i = 0; i < 100; i++) {
+                            final long position = random.nextInt(length - b.length);
+                            rac.readFully(position, b, 0, b.length);
+                            assertPattern(position, ByteBuffer.wrap(b));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (final Future<Void> result : results) {
+                result.get();
+            }
+
+            // positioned reads leave the file pointer alone
+            Assert.assertEquals(1234, rac.getFilePointer());
+            Assert.assertEquals(pattern(1234), rac.readByte());
+        } finally {
+            executor.shutdown();
+            content.close();
+        }
+    }
+
+    @Test
+    public void testVectoredRead() throws Exception {
+        final int length = 2 * 1024 * 1024;
+        final FileObject file = createPatternFile(length);
+        final RandomAccessContent content = file.getContent().getRandomAccessContent(RandomAccessMode.READ);
+        final HdfsRandomAccessContent rac = getHdfsContent(content);
+        try {
+            // small scattered ranges, some close enough to be merged, some overlapping, out of order
+            final Random random = new Random(0);
+            final long[] positions = new long[200];
+            final ByteBuffer[] buffers = new ByteBuffer[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                final int size = 1 + random.nextInt(300);
+                positions[i] = random.nextInt(length - size);
+                buffers[i] = i % 2 == 0 ? ByteBuffer.allocate(size) : ByteBuffer.allocateDirect(size);
+            }
+            positions[1] = positions[0] + 10;
+            positions[2] = length - buffers[2].remaining();
+
+            rac.readVectored(positions, buffers);
+
+            for (int i = 0; i < positions.length; i++) {
+                Assert.assertFalse(buffers[i].hasRemaining());
+                buffers[i].flip();
+                assertPattern(positions[i], buffers[i]);
+            }
+            Assert.assertEquals(0, rac.getFilePointer());
+            Assert.assertTrue(file.getContent().isOpen());
+        } finally {
+            content.close();
+        }
+        Assert.assertFalse(file.getContent().isOpen());
+    }
+
     @Test(expected = UnsupportedOperationException.class)
     public void testCanRenameTo() throws Exception {
         final FileObject fo = createTestFile(hdfs);
@@ -183,6 +320,70 @@ public class HdfsFileProviderTest {
 
     }
 
+    @Test
+    public void testListedChildrenStatus() throws Exception {
+        final Path listed = new Path(DIR1_PATH, "listed");
+        hdfs.mkdirs(new Path(listed, "sub"));
+        for (int i = 0; i < 10; i++) {
+            final FSDataOutputStream out = hdfs.create(new Path(listed, "file" + i));
+            out.write(new byte[i * 100]);
+            out.close();
+        }
+
+        final FileObject dir = manager.resolveFile(TEST_DIR1 + "/listed");
+        final FileObject[] children = dir.getChildren();
+        Assert.assertEquals(11, children.length);
+
+        // the children take their status from the listing, without asking the NameNode again
+        final FileSystem.Statistics statistics = FileSystem.getStatistics("hdfs", DistributedFileSystem.class);
+        final long readOps = statistics.getReadOps();
+        for (final FileObject child : children) {
+            final FileStatus status = hdfs.getFileStatus(new Path(listed, child.getName().getBaseName()));
+            final long ownReadOps = statistics.getReadOps();
+
+            Assert.assertTrue(child.exists());
+            if (status.isDirectory()) {
+                Assert.assertEquals(FileType.FOLDER, child.getType());
+            } else {
+                Assert.assertEquals(FileType.FILE, child.getType());
+                Assert.assertEquals(status.getLen(), child.getContent().getSize());
+            }
+            Assert.assertEquals(status.getModificationTime(), child.getContent().getLastModifiedTime());
+            final Map<String, Object> attributes = child.getContent().getAttributes();
+            Assert.assertEquals(status.getLen(), attributes.get(HdfsFileAttributes.LENGTH.toString()));
+            Assert.assertEquals(status.getBlockSize(), attributes.get(HdfsFileAttributes.BLOCK_SIZE.toString()));
+            Assert.assertEquals(status.getReplication(), attributes.get(HdfsFileAttributes.REPLICATION.toString()));
+            Assert.assertEquals(status.getPermission().toString(),
+                    attributes.get(HdfsFileAttributes.PERMISSIONS.toString()));
+
+            Assert.assertEquals(ownReadOps, statistics.getReadOps());
+        }
+        Assert.assertEquals(readOps + children.length, statistics.getReadOps());
+    }
+
+    @Test
+    public void testRefreshAfterListing() throws Exception {
+        final Path listed = new Path(DIR1_PATH, "refreshed");
+        final Path path = new Path(listed, "file");
+        FSDataOutputStream out = hdfs.create(path);
+        out.write(new byte[100]);
+        out.close();
+
+        // attached before its parent is listed
+        final FileObject file = manager.resolveFile(TEST_DIR1 + "/refreshed/file");
+        Assert.assertEquals(100, file.getContent().getSize());
+        final FileObject dir = manager.resolveFile(TEST_DIR1 + "/refreshed");
+        Assert.assertEquals(1, dir.getChildren().length);
+
+        out = hdfs.create(path, true);
+        out.write(new byte[300]);
+        out.close();
+
+        // the refresh fetches the status again instead of reusing the listed one
+        file.refresh();
+        Assert.assertEquals(300, file.getContent().getSize());
+    }
+
     @Test
     public void testEquals() throws Exception {
         // Create test file (and check parent was created)
@@ -219,6 +420,7 @@ public class HdfsFileProviderTest {
         Assert.assertTrue(attributes.containsKey(HdfsFileAttributes.MODIFICATION_TIME.toString()));
         Assert.assertTrue(attributes.containsKey(HdfsFileAttributes.OWNER.toString()));
         Assert.assertTrue(attributes.containsKey(HdfsFileAttributes.PERMISSIONS.toString()));
+        Assert.assertTrue(attributes.containsKey(HdfsFileAttributes.REPLICATION.toString()));
     }
 
     @Test
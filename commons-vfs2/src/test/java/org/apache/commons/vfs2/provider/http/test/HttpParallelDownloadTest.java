@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.http.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.FileUtil;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.http.HttpFileProvider;
+import org.apache.commons.vfs2.provider.http.HttpFileSystemConfigBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests downloading a file with concurrent range requests.
+ */
+public class HttpParallelDownloadTest {
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+
+    private static final int PART_SIZE = 64 * 1024;
+
+    private static final byte[] CONTENT = new byte[PART_SIZE * 10 + 123];
+
+    static {
+        for (int i = 0; i < CONTENT.length; i++) {
+            CONTENT[i] = (byte) (i * 31);
+        }
+    }
+
+    private final AtomicInteger gets = new AtomicInteger();
+
+    private final AtomicInteger rangeGets = new AtomicInteger();
+
+    private final AtomicInteger ifRangeGets = new AtomicInteger();
+
+    /** The ETag of the served content, changed by the first range GET when {@link #changeOnRange} is set. */
+    private volatile String etag = "\"v1\"";
+
+    private volatile boolean changeOnRange;
+
+    private volatile boolean shiftContentRange;
+
+    private HttpServer server;
+
+    private DefaultFileSystemManager manager;
+
+    private FileSystemOptions opts;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new ContentHandler());
+        server.start();
+
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("http", new HttpFileProvider());
+        manager.init();
+
+        opts = new FileSystemOptions();
+        final HttpFileSystemConfigBuilder builder = HttpFileSystemConfigBuilder.getInstance();
+        builder.setDownloadConnections(opts, 4);
+        builder.setDownloadPartSize(opts, PART_SIZE);
+        builder.setMaxConnectionsPerHost(opts, 4);
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testParallelDownload() throws Exception {
+        final FileObject file = resolve("/ranges/file.bin");
+        assertArrayEquals(CONTENT, FileUtil.getContent(file));
+        assertEquals(11, rangeGets.get());
+        assertEquals(11, ifRangeGets.get());
+        assertEquals(11, gets.get());
+    }
+
+    @Test
+    public void testChangedDuringDownload() throws Exception {
+        changeOnRange = true;
+        final FileObject file = resolve("/ranges/file.bin");
+        try {
+            FileUtil.getContent(file);
+            fail("Expected a FileSystemException");
+        } catch (final FileSystemException e) {
+            assertEquals("vfs.provider.http/range-changed.error", findCode(e));
+        }
+    }
+
+    @Test
+    public void testUnexpectedContentRange() throws Exception {
+        shiftContentRange = true;
+        final FileObject file = resolve("/ranges/file.bin");
+        try {
+            FileUtil.getContent(file);
+            fail("Expected a FileSystemException");
+        } catch (final FileSystemException e) {
+            assertEquals("vfs.provider.http/content-range.error", findCode(e));
+        }
+    }
+
+    @Test
+    public void testSingleRequestWithoutRanges() throws Exception {
+        final FileObject file = resolve("/noranges/file.bin");
+        assertArrayEquals(CONTENT, FileUtil.getContent(file));
+        assertEquals(0, rangeGets.get());
+        assertEquals(1, gets.get());
+    }
+
+    @Test
+    public void testSingleRequestForSmallFiles() throws Exception {
+        HttpFileSystemConfigBuilder.getInstance().setDownloadPartSize(opts, CONTENT.length);
+        final FileObject file = resolve("/ranges/file.bin");
+        assertArrayEquals(CONTENT, FileUtil.getContent(file));
+        assertEquals(0, rangeGets.get());
+    }
+
+    private static String findCode(final Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FileSystemException
+                    && ((FileSystemException) cause).getCode().startsWith("vfs.provider.http/")) {
+                return ((FileSystemException) cause).getCode();
+            }
+        }
+        fail("No HTTP provider error in " + e);
+        return null;
+    }
+
+    private FileObject resolve(final String path) throws Exception {
+        return manager.resolveFile("http://localhost:" + server.getAddress().getPort() + path, opts);
+    }
+
+    /**
+     * Serves {@link #CONTENT}, with byte ranges below /ranges only, honouring {@code If-Range} against {@link #etag}.
+     */
+    private final class ContentHandler implements HttpHandler {
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException {
+            final boolean ranges = exchange.getRequestURI().getPath().startsWith("/ranges/");
+            if (ranges) {
+                exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+            }
+            exchange.getResponseHeaders().set("ETag", etag);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Content-Length", Integer.toString(CONTENT.length));
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+                return;
+            }
+
+            gets.incrementAndGet();
+            int from = 0;
+            int to = CONTENT.length - 1;
+            int status = 200;
+            final String range = exchange.getRequestHeaders().getFirst("Range");
+            if (ranges && range != null) {
+                final Matcher matcher = RANGE.matcher(range);
+                final String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+                if (ifRange != null) {
+                    ifRangeGets.incrementAndGet();
+                }
+                if (changeOnRange) {
+                    etag = "\"v2\"";
+                    exchange.getResponseHeaders().set("ETag", etag);
+                }
+                if (matcher.matches() && (ifRange == null || ifRange.equals(etag))) {
+                    rangeGets.incrementAndGet();
+                    from = Integer.parseInt(matcher.group(1));
+                    to = Math.min(Integer.parseInt(matcher.group(2)), to);
+                    status = 206;
+                    exchange.getResponseHeaders().set("Content-Range",
+                            "bytes " + (shiftContentRange ? from + 1 : from) + "-" + to + "/" + CONTENT.length);
+                }
+            }
+            exchange.sendResponseHeaders(status, to - from + 1);
+            try (final OutputStream out = exchange.getResponseBody()) {
+                out.write(CONTENT, from, to - from + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.http.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.FileUtil;
+import org.apache.commons.vfs2.impl.DefaultFileReplicator;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.http.HttpFileProvider;
+import org.apache.commons.vfs2.provider.http.HttpFileSystemConfigBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the response cache of the HTTP file system.
+ */
+public class HttpResponseCacheTest {
+    private static final String FILE_NAME = "config.txt";
+
+    private final AtomicInteger heads = new AtomicInteger();
+
+    private final AtomicInteger gets = new AtomicInteger();
+
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    private volatile String content = "version 1";
+
+    private volatile int version = 1;
+
+    private volatile String cacheControl;
+
+    private volatile String lastConditional;
+
+    private HttpServer server;
+
+    private DefaultFileSystemManager manager;
+
+    private FileSystemOptions opts;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new ContentHandler());
+        server.start();
+
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("http", new HttpFileProvider());
+        manager.setTemporaryFileStore(new DefaultFileReplicator());
+        manager.init();
+
+        opts = new FileSystemOptions();
+        HttpFileSystemConfigBuilder.getInstance().setResponseCache(opts, true);
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testRevalidateMetadata() throws Exception {
+        final FileObject file = resolve();
+        assertEquals(content.length(), file.getContent().getSize());
+        assertNull(lastConditional);
+
+        file.refresh();
+        assertEquals(content.length(), file.getContent().getSize());
+        assertEquals("\"1\"", lastConditional);
+        assertEquals(2, heads.get());
+        assertEquals(1, notModified.get());
+
+        update("version 2 is longer");
+        file.refresh();
+        assertEquals(content.length(), file.getContent().getSize());
+        assertEquals(3, heads.get());
+        assertEquals(1, notModified.get());
+    }
+
+    @Test
+    public void testFreshMetadata() throws Exception {
+        HttpFileSystemConfigBuilder.getInstance().setResponseCacheMaxAge(opts, 60000);
+        final FileObject file = resolve();
+        assertEquals(content.length(), file.getContent().getSize());
+        file.refresh();
+        assertEquals(content.length(), file.getContent().getSize());
+        assertEquals(1, heads.get());
+    }
+
+    @Test
+    public void testMaxAgeOfServer() throws Exception {
+        HttpFileSystemConfigBuilder.getInstance().setResponseCacheMaxAge(opts, 60000);
+        cacheControl = "max-age=0";
+        final FileObject file = resolve();
+        file.getContent().getSize();
+        file.refresh();
+        file.getContent().getSize();
+        assertEquals(2, heads.get());
+        assertEquals(1, notModified.get());
+    }
+
+    @Test
+    public void testNoStore() throws Exception {
+        cacheControl = "no-store";
+        final FileObject file = resolve();
+        file.getContent().getSize();
+        file.refresh();
+        file.getContent().getSize();
+        assertEquals(2, heads.get());
+        assertEquals(0, notModified.get());
+        assertNull(lastConditional);
+
+        // no-store wins over max-age, whatever their order
+        cacheControl = "max-age=60, no-store";
+        file.refresh();
+        file.getContent().getSize();
+        file.refresh();
+        file.getContent().getSize();
+        assertEquals(4, heads.get());
+        assertEquals(0, notModified.get());
+        assertNull(lastConditional);
+    }
+
+    @Test
+    public void testNoCacheWithMaxAge() throws Exception {
+        cacheControl = "max-age=3600, no-cache";
+        final FileObject file = resolve();
+        file.getContent().getSize();
+        file.refresh();
+        file.getContent().getSize();
+        // stored, but revalidated before it is used again
+        assertEquals(2, heads.get());
+        assertEquals(1, notModified.get());
+    }
+
+    @Test
+    public void testCachedContent() throws Exception {
+        HttpFileSystemConfigBuilder.getInstance().setResponseCacheMaxContentSize(opts, 1024);
+        final FileObject file = resolve();
+        assertEquals("version 1", read(file));
+        file.refresh();
+        assertEquals("version 1", read(file));
+        assertEquals(2, gets.get());
+        // the HEAD and the GET after the refresh
+        assertEquals(2, notModified.get());
+
+        update("version 2");
+        file.refresh();
+        assertEquals("version 2", read(file));
+        assertEquals(3, gets.get());
+    }
+
+    @Test
+    public void testContentNotCached() throws Exception {
+        final FileObject file = resolve();
+        assertEquals("version 1", read(file));
+        file.refresh();
+        assertEquals("version 1", read(file));
+        assertEquals(2, gets.get());
+        // only the HEAD is conditional
+        assertEquals(1, notModified.get());
+    }
+
+    private FileObject resolve() throws Exception {
+        return manager.resolveFile("http://localhost:" + server.getAddress().getPort() + "/" + FILE_NAME, opts);
+    }
+
+    private void update(final String newContent) {
+        content = newContent;
+        version++;
+    }
+
+    private static String read(final FileObject file) throws Exception {
+        return new String(FileUtil.getContent(file), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Serves {@link #content} at {@link #FILE_NAME} with an entity tag, and answers 304 to a matching If-None-Match.
+     */
+    private final class ContentHandler implements HttpHandler {
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException {
+            final boolean head = "HEAD".equals(exchange.getRequestMethod());
+            if (!exchange.getRequestURI().getPath().endsWith(FILE_NAME)) {
+                // the root of the file system
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+                return;
+            }
+            if (head) {
+                heads.incrementAndGet();
+            } else {
+                gets.incrementAndGet();
+            }
+            final String etag = "\"" + version + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (cacheControl != null) {
+                exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+            }
+            lastConditional = exchange.getRequestHeaders().getFirst("If-None-Match");
+            if (etag.equals(lastConditional)) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+
+            final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            if (head) {
+                exchange.getResponseHeaders().set("Content-Length", Integer.toString(bytes.length));
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+                return;
+            }
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (final OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
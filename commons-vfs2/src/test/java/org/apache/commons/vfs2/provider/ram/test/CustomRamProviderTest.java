@@ -27,14 +27,26 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.vfs2.FileContent;
+import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystem;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.AbstractFileName;
+import org.apache.commons.vfs2.provider.ram.RamFileObject;
 import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.apache.commons.vfs2.provider.ram.RamFileSystem;
 import org.apache.commons.vfs2.provider.ram.RamFileSystemConfigBuilder;
 import org.junit.After;
 import org.junit.Before;
@@ -247,4 +259,120 @@ public class CustomRamProviderTest {
         }
 
     }
+
+    @Test
+    public void testConcurrentCreateInOneFolder() throws Exception {
+        final int threads = 8;
+        final int filesPerThread = 200;
+        final FileObject folder = manager.resolveFile("ram:/concurrent");
+        folder.createFolder();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int i = 0; i < filesPerThread; i++) {
+                            final FileObject file = folder.resolveFile("file-" + thread + "-" + i);
+                            file.createFile();
+                            // lists while the other threads add children
+                            if (i % 50 == 0) {
+                                folder.getChildren();
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (final Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // the cached children follow the concurrent changes
+        final Set<String> names = new HashSet<>();
+        for (final FileObject child : folder.getChildren()) {
+            names.add(child.getName().getBaseName());
+        }
+        assertEquals(threads * filesPerThread, names.size());
+
+        folder.resolveFile("file-0-0").delete();
+        assertEquals(threads * filesPerThread - 1, folder.getChildren().length);
+    }
+
+    /**
+     * A child created while the folder is listed without the lock is not lost by the listing.
+     */
+    @Test
+    public void testCreateDuringUnlockedListing() throws Exception {
+        final CountDownLatch listed = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final DefaultFileSystemManager blockingManager = new DefaultFileSystemManager();
+        blockingManager.addProvider("ram", new BlockingRamFileProvider(listed, proceed));
+        blockingManager.init();
+        try {
+            final FileObject folder = blockingManager.resolveFile("ram:/listed");
+            folder.resolveFile("a").createFile();
+
+            final ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                final Future<FileObject[]> listing = executor.submit(new Callable<FileObject[]>() {
+                    @Override
+                    public FileObject[] call() throws Exception {
+                        return folder.getChildren();
+                    }
+                });
+                listed.await();
+                folder.resolveFile("b").createFile();
+                proceed.countDown();
+                assertEquals(1, listing.get().length);
+            } finally {
+                executor.shutdown();
+            }
+
+            assertEquals(2, folder.getChildren().length);
+        } finally {
+            blockingManager.close();
+        }
+    }
+
+    /**
+     * Pauses the first listing of a folder once the children are read.
+     */
+    private static final class BlockingRamFileProvider extends RamFileProvider {
+        private final CountDownLatch listed;
+
+        private final CountDownLatch proceed;
+
+        private BlockingRamFileProvider(final CountDownLatch listed, final CountDownLatch proceed) {
+            this.listed = listed;
+            this.proceed = proceed;
+        }
+
+        @Override
+        protected FileSystem doCreateFileSystem(final FileName name, final FileSystemOptions fileSystemOptions)
+                throws FileSystemException {
+            return new RamFileSystem(name, fileSystemOptions) {
+                @Override
+                protected FileObject createFile(final AbstractFileName fileName) throws Exception {
+                    return new RamFileObject(fileName, this) {
+                        @Override
+                        protected String[] doListChildren() throws Exception {
+                            final String[] children = super.doListChildren();
+                            if (listed.getCount() > 0) {
+                                listed.countDown();
+                                proceed.await();
+                            }
+                            return children;
+                        }
+                    };
+                }
+            };
+        }
+    }
 }
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.ram.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.FileUtil;
+import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.apache.commons.vfs2.provider.ram.RamFileSystemConfigBuilder;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the chunked content of the RAM files.
+ */
+public class RamChunkedContentTest {
+    private static final int CHUNK_SIZE = 4;
+
+    private DefaultFileSystemManager manager;
+
+    private FileSystemOptions opts;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.init();
+
+        opts = new FileSystemOptions();
+        RamFileSystemConfigBuilder.getInstance().setChunkSize(opts, CHUNK_SIZE);
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    public void testWriteAcrossChunks() throws Exception {
+        assertWriteAcrossChunks(manager.resolveFile("ram:///heap/file", opts));
+    }
+
+    @Test
+    public void testWriteAcrossDirectChunks() throws Exception {
+        RamFileSystemConfigBuilder.getInstance().setDirectBuffers(opts, true);
+        assertWriteAcrossChunks(manager.resolveFile("ram:///direct/file", opts));
+    }
+
+    private void assertWriteAcrossChunks(final FileObject file) throws Exception {
+        final byte[] content = bytes(CHUNK_SIZE * 3 + 1);
+        try (final OutputStream out = file.getContent().getOutputStream()) {
+            out.write(content, 0, 3);
+            out.write(content, 3, content.length - 3);
+        }
+        assertArrayEquals(content, FileUtil.getContent(file));
+
+        try (final OutputStream out = file.getContent().getOutputStream(true)) {
+            out.write(content);
+        }
+        assertEquals(content.length * 2, file.getContent().getSize());
+
+        final RandomAccessContent rac = file.getContent().getRandomAccessContent(RandomAccessMode.READ);
+        try {
+            rac.seek(content.length + CHUNK_SIZE - 1);
+            final byte[] read = new byte[CHUNK_SIZE + 2];
+            rac.readFully(read);
+            for (int i = 0; i < read.length; i++) {
+                assertEquals(content[CHUNK_SIZE - 1 + i], read[i]);
+            }
+        } finally {
+            rac.close();
+        }
+
+        // truncated by a new output stream
+        try (final OutputStream out = file.getContent().getOutputStream()) {
+            out.write(1);
+        }
+        assertArrayEquals(new byte[] { 1 }, FileUtil.getContent(file));
+    }
+
+    @Test
+    public void testSparseSetLength() throws Exception {
+        final FileObject file = manager.resolveFile("ram:///sparse", opts);
+        file.createFile();
+        final RandomAccessContent rac = file.getContent().getRandomAccessContent(RandomAccessMode.READWRITE);
+        try {
+            rac.write(bytes(CHUNK_SIZE + 2));
+            rac.setLength(CHUNK_SIZE * 10);
+            assertEquals(CHUNK_SIZE * 10, rac.length());
+
+            // shrinking zeroes the bytes past the end, growing again reads them as zeros
+            rac.setLength(CHUNK_SIZE + 1);
+            rac.setLength(CHUNK_SIZE * 2);
+            rac.seek(CHUNK_SIZE);
+            assertEquals(CHUNK_SIZE, rac.readByte());
+            for (int i = CHUNK_SIZE + 1; i < CHUNK_SIZE * 2; i++) {
+                assertEquals(0, rac.readByte());
+            }
+
+            rac.seek(CHUNK_SIZE * 5);
+            rac.write(7);
+            assertEquals(CHUNK_SIZE * 5 + 1, rac.length());
+        } finally {
+            rac.close();
+        }
+        final byte[] content = FileUtil.getContent(file);
+        assertEquals(7, content[CHUNK_SIZE * 5]);
+        assertEquals(0, content[CHUNK_SIZE * 3]);
+    }
+
+    @Test
+    public void testRenameKeepsSize() throws Exception {
+        RamFileSystemConfigBuilder.getInstance().setMaxSize(opts, (long) CHUNK_SIZE * 3);
+        final FileObject from = manager.resolveFile("ram:///from", opts);
+        final FileObject to = from.resolveFile("/to");
+        write(from, bytes(CHUNK_SIZE * 2));
+
+        from.moveTo(to);
+        assertEquals(CHUNK_SIZE * 2, to.getContent().getSize());
+
+        // the moved content is counted once
+        write(from, bytes(CHUNK_SIZE));
+        try {
+            write(manager.resolveFile("ram:///more", opts), bytes(1));
+            fail("Expected the capacity to be exceeded");
+        } catch (final IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testConcurrentWritesStayBelowMaxSize() throws Exception {
+        final int files = 8;
+        final int fileSize = CHUNK_SIZE * 4;
+        RamFileSystemConfigBuilder.getInstance().setMaxSize(opts, (long) fileSize * files / 2);
+        final FileObject root = manager.resolveFile("ram:///concurrent", opts);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(files);
+        try {
+            final List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < files; i++) {
+                final FileObject file = root.resolveFile("file" + i);
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        try {
+                            write(file, bytes(fileSize));
+                            return Boolean.TRUE;
+                        } catch (final IOException e) {
+                            return Boolean.FALSE;
+                        }
+                    }
+                }));
+            }
+            int written = 0;
+            for (final Future<Boolean> future : futures) {
+                try {
+                    if (future.get().booleanValue()) {
+                        written++;
+                    }
+                } catch (final ExecutionException e) {
+                    throw new AssertionError(e.getCause());
+                }
+            }
+            assertTrue(written <= files / 2);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void write(final FileObject file, final byte[] content) throws IOException {
+        try (final OutputStream out = file.getContent().getOutputStream()) {
+            out.write(content);
+        }
+    }
+
+    private static byte[] bytes(final int length) {
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) i;
+        }
+        return bytes;
+    }
+}
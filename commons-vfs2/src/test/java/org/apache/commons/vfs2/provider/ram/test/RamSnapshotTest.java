@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.ram.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.FileUtil;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.apache.commons.vfs2.provider.ram.RamFileSystem;
+import org.apache.commons.vfs2.provider.ram.RamFileSystemConfigBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the snapshots of {@link RamFileSystem}.
+ */
+public class RamSnapshotTest {
+    private DefaultFileSystemManager manager;
+
+    private FileObject src;
+
+    private RamFileSystem fileSystem;
+
+    private File snapshotFile;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.init();
+
+        src = manager.resolveFile("ram:///src");
+        write(src.resolveFile("a.txt"), "a");
+        write(src.resolveFile("dir/b.txt"), "b");
+        write(src.resolveFile("dir/sub/c.txt"), "c");
+        src.resolveFile("dir/sub/empty.txt").createFile();
+        src.resolveFile("empty").createFolder();
+        final byte[] large = new byte[200 * 1024 + 3];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) i;
+        }
+        try (final OutputStream out = src.resolveFile("dir/large.bin").getContent().getOutputStream()) {
+            out.write(large);
+        }
+        fileSystem = (RamFileSystem) src.getFileSystem();
+        snapshotFile = File.createTempFile("vfs-ram", ".snapshot");
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+        snapshotFile.delete();
+    }
+
+    @Test
+    public void testStream() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        fileSystem.exportSnapshot(src, out, false);
+
+        final FileObject dest = manager.resolveFile("ram:///dest");
+        fileSystem.importSnapshot(dest, new ByteArrayInputStream(out.toByteArray()));
+        assertSameTree(dest);
+    }
+
+    @Test
+    public void testCompressedStream() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        fileSystem.exportSnapshot(src, out, true);
+
+        final FileObject dest = manager.resolveFile("ram:///dest");
+        fileSystem.importSnapshot(dest, new ByteArrayInputStream(out.toByteArray()));
+        assertSameTree(dest);
+    }
+
+    @Test
+    public void testMappedFile() throws Exception {
+        exportToFile(false);
+        final FileObject dest = manager.resolveFile("ram:///dest");
+        fileSystem.importSnapshot(dest, snapshotFile);
+        assertSameTree(dest);
+    }
+
+    @Test
+    public void testCompressedMappedFile() throws Exception {
+        exportToFile(true);
+        final FileObject dest = manager.resolveFile("ram:///dest");
+        fileSystem.importSnapshot(dest, snapshotFile);
+        assertSameTree(dest);
+    }
+
+    @Test
+    public void testReplaceExistingFiles() throws Exception {
+        exportToFile(false);
+        final FileObject dest = manager.resolveFile("ram:///dest");
+        write(dest.resolveFile("a.txt"), "replaced");
+        write(dest.resolveFile("other.txt"), "kept");
+        // resolved before the import, refreshed by it
+        final FileObject c = dest.resolveFile("dir/sub/c.txt");
+        assertFalse(c.exists());
+
+        fileSystem.importSnapshot(dest, snapshotFile);
+        assertSameTree(dest);
+        assertTrue(c.exists());
+        assertEquals("kept", read(dest.resolveFile("other.txt")));
+    }
+
+    @Test
+    public void testCapacity() throws Exception {
+        exportToFile(false);
+        final FileSystemOptions opts = new FileSystemOptions();
+        RamFileSystemConfigBuilder.getInstance().setMaxSize(opts, 1024L);
+        final FileObject small = manager.resolveFile("ram:///", opts);
+        try {
+            ((RamFileSystem) small.getFileSystem()).importSnapshot(small, snapshotFile);
+            fail("Expected the capacity to be exceeded");
+        } catch (final IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testTruncatedSnapshotReleasesCapacity() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        fileSystem.exportSnapshot(src, out, false);
+        // cut in the middle of the content of the large file
+        final byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() / 2);
+
+        final FileSystemOptions opts = new FileSystemOptions();
+        RamFileSystemConfigBuilder.getInstance().setMaxSize(opts, 300 * 1024L);
+        final FileObject small = manager.resolveFile("ram:///", opts);
+        try {
+            ((RamFileSystem) small.getFileSystem()).importSnapshot(small, new ByteArrayInputStream(truncated));
+            fail("Expected a truncated snapshot");
+        } catch (final EOFException e) {
+            // expected
+        }
+        assertEquals(0, small.resolveFile("dir/large.bin").getContent().getSize());
+        // fits only if the capacity reserved for the truncated file was given back
+        try (final OutputStream os = small.resolveFile("other.bin").getContent().getOutputStream()) {
+            os.write(new byte[250 * 1024]);
+        }
+    }
+
+    @Test
+    public void testNotASnapshot() throws Exception {
+        try {
+            fileSystem.importSnapshot(manager.resolveFile("ram:///dest"),
+                    new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6 }));
+            fail("Expected an invalid snapshot");
+        } catch (final FileSystemException e) {
+            assertEquals("vfs.provider.ram/not-a-snapshot.error", e.getCode());
+        }
+    }
+
+    private void exportToFile(final boolean compress) throws IOException {
+        try (final OutputStream out = new FileOutputStream(snapshotFile)) {
+            fileSystem.exportSnapshot(src, out, compress);
+        }
+    }
+
+    private void assertSameTree(final FileObject dest) throws Exception {
+        assertEquals("a", read(dest.resolveFile("a.txt")));
+        assertEquals("b", read(dest.resolveFile("dir/b.txt")));
+        assertEquals("c", read(dest.resolveFile("dir/sub/c.txt")));
+        assertEquals("", read(dest.resolveFile("dir/sub/empty.txt")));
+        assertTrue(dest.resolveFile("empty").isFolder());
+        assertEquals(0, dest.resolveFile("empty").getChildren().length);
+        assertArrayEquals(FileUtil.getContent(src.resolveFile("dir/large.bin")),
+                FileUtil.getContent(dest.resolveFile("dir/large.bin")));
+        assertEquals(src.resolveFile("dir/b.txt").getContent().getLastModifiedTime(),
+                dest.resolveFile("dir/b.txt").getContent().getLastModifiedTime());
+    }
+
+    private static void write(final FileObject file, final String content) throws IOException {
+        try (final OutputStream out = file.getContent().getOutputStream()) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String read(final FileObject file) throws IOException {
+        return new String(FileUtil.getContent(file), StandardCharsets.UTF_8);
+    }
+}
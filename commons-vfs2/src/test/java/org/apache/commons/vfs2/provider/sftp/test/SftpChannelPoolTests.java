@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.sftp.test;
+
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.provider.sftp.SftpFileSystemConfigBuilder;
+import org.apache.commons.vfs2.test.AbstractProviderTestCase;
+import org.apache.commons.vfs2.util.FileObjectUtils;
+
+/**
+ * Tests the channel pool of the SFTP file system.
+ */
+public class SftpChannelPoolTests extends AbstractProviderTestCase {
+    private static final int MAX_CHANNELS_PER_SESSION = 2;
+
+    private static final int MAX_SESSIONS = 2;
+
+    /**
+     * Streams hold their channel until closed, so the limits of the pool bound the number of open streams.
+     */
+    public void testBoundedPool() throws Exception {
+        final FileObject readFolder = getReadFolder();
+        final FileSystemOptions opts = (FileSystemOptions) readFolder.getFileSystem().getFileSystemOptions().clone();
+        final SftpFileSystemConfigBuilder builder = SftpFileSystemConfigBuilder.getInstance();
+        builder.setMaxChannelsPerSession(opts, MAX_CHANNELS_PER_SESSION);
+        builder.setMaxSessions(opts, MAX_SESSIONS);
+        builder.setChannelPoolMaxWaitMillis(opts, 0);
+        builder.setChannelHealthCheck(opts, true);
+
+        final FileObject file = getManager().resolveFile(readFolder.getName().getURI(), opts).resolveFile("file1.txt");
+        assertNotSame(readFolder.getFileSystem(), file.getFileSystem());
+        try {
+            assertTrue(file.exists());
+
+            final InputStream[] streams = new InputStream[MAX_CHANNELS_PER_SESSION * MAX_SESSIONS];
+            for (int i = 0; i < streams.length; i++) {
+                streams[i] = file.getContent().getInputStream();
+            }
+
+            try {
+                file.getContent().getInputStream();
+                fail("Expected the channel pool to be exhausted");
+            } catch (final FileSystemException e) {
+                // expected
+            }
+
+            // a returned channel is reused
+            streams[0].close();
+            streams[0] = file.getContent().getInputStream();
+            assertEquals(FILE1_CONTENT, readToString(streams[0]));
+
+            for (final InputStream stream : streams) {
+                stream.close();
+            }
+
+            // once returned, the channels are kept for reuse
+            assertTrue(file.getContent().getSize() > 0);
+            assertSameContent(FILE1_CONTENT, file);
+        } finally {
+            getManager().closeFileSystem(file.getFileSystem());
+        }
+    }
+
+    /**
+     * A stream waiting for a channel does not hold the file system lock, which would stall every other operation.
+     */
+    public void testWaitWithoutFileSystemLock() throws Exception {
+        final FileObject readFolder = getReadFolder();
+        final FileSystemOptions opts = (FileSystemOptions) readFolder.getFileSystem().getFileSystemOptions().clone();
+        final SftpFileSystemConfigBuilder builder = SftpFileSystemConfigBuilder.getInstance();
+        builder.setMaxChannelsPerSession(opts, 1);
+        builder.setMaxSessions(opts, 1);
+        builder.setChannelPoolMaxWaitMillis(opts, 10000);
+
+        final FileObject file = getManager().resolveFile(readFolder.getName().getURI(), opts).resolveFile("file1.txt");
+        try {
+            assertTrue(file.exists());
+            final InputStream first = file.getContent().getInputStream();
+            final ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                final Future<String> waiting = executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        try (final InputStream in = file.getContent().getInputStream()) {
+                            return readToString(in);
+                        }
+                    }
+                });
+                Thread.sleep(500);
+                assertFalse(waiting.isDone());
+
+                final Object fileSystem = FileObjectUtils.getAbstractFileObject(file).getFileSystem();
+                final Future<?> locked = executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        synchronized (fileSystem) {
+                            // the lock is free
+                        }
+                    }
+                });
+                locked.get(2, TimeUnit.SECONDS);
+
+                first.close();
+                assertEquals(FILE1_CONTENT, waiting.get(10, TimeUnit.SECONDS));
+            } finally {
+                first.close();
+                executor.shutdown();
+            }
+        } finally {
+            getManager().closeFileSystem(file.getFileSystem());
+        }
+    }
+
+    private static String readToString(final InputStream in) throws Exception {
+        final StringBuilder builder = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1) {
+            builder.append((char) b);
+        }
+        return builder.toString();
+    }
+}
@@ -305,6 +305,9 @@ public class SftpProviderTestCase extends AbstractProviderTestConfig {
         // VFS-405: set/get permissions
         sftpSuite.addTests(PermissionsTests.class);
 
+        // bounded channel pool
+        sftpSuite.addTests(SftpChannelPoolTests.class);
+
         suite.addTest(sftpSuite);
 
         // --- VFS-440: stream proxy test suite
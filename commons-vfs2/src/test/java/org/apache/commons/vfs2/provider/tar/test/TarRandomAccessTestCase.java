@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.tar.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.vfs2.Capability;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.FileUtil;
+import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.impl.DefaultFileReplicator;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.apache.commons.vfs2.provider.tar.TarFileProvider;
+import org.apache.commons.vfs2.provider.tar.TarFileSystemConfigBuilder;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests reading the entries of an uncompressed tar file, or of the uncompressed copy of a compressed tar file, at
+ * their offset.
+ */
+public class TarRandomAccessTestCase {
+    private static final int ENTRIES = 200;
+
+    private DefaultFileSystemManager manager;
+
+    private File tarFile;
+
+    private File tgzFile;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.addProvider(new String[] { "tar", "tgz" }, new TarFileProvider());
+        manager.setTemporaryFileStore(new DefaultFileReplicator());
+        manager.init();
+
+        tarFile = File.createTempFile("vfs-random-access", ".tar");
+        writeTarFile(new FileOutputStream(tarFile));
+        tgzFile = File.createTempFile("vfs-random-access", ".tgz");
+        writeTarFile(new GZIPOutputStream(new FileOutputStream(tgzFile)));
+    }
+
+    private static void writeTarFile(final OutputStream os) throws Exception {
+        try (final TarArchiveOutputStream out = new TarArchiveOutputStream(os)) {
+            out.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            for (int i = 0; i < ENTRIES; i++) {
+                final byte[] content = content(i);
+                final TarArchiveEntry entry = new TarArchiveEntry(name(i));
+                entry.setSize(content.length);
+                out.putArchiveEntry(entry);
+                out.write(content);
+                out.closeArchiveEntry();
+            }
+        }
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+        tarFile.delete();
+        tgzFile.delete();
+    }
+
+    @Test
+    public void testReadEntries() throws Exception {
+        final FileObject root = resolveRoot();
+        assertTrue(root.getFileSystem().hasCapability(Capability.RANDOM_ACCESS_READ));
+        // backwards, each entry is read without skipping through the others
+        for (int i = ENTRIES - 1; i >= 0; i--) {
+            assertEquals(new String(content(i), StandardCharsets.UTF_8), readEntry(root, i));
+        }
+    }
+
+    @Test
+    public void testReadEntriesConcurrently() throws Exception {
+        final FileObject root = resolveRoot();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < ENTRIES; i++) {
+                final int index = i;
+                futures.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        return readEntry(root, index);
+                    }
+                }));
+            }
+            for (int i = 0; i < ENTRIES; i++) {
+                assertEquals(new String(content(i), StandardCharsets.UTF_8), futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testUncompressTarFile() throws Exception {
+        final FileSystemOptions opts = new FileSystemOptions();
+        TarFileSystemConfigBuilder.getInstance().setUncompressTarFile(opts, true);
+        final FileObject root = manager.resolveFile("tgz:" + tgzFile.toURI() + "!/", opts);
+        assertTrue(root.getFileSystem().hasCapability(Capability.RANDOM_ACCESS_READ));
+        for (int i = ENTRIES - 1; i >= 0; i--) {
+            assertEquals(new String(content(i), StandardCharsets.UTF_8), readEntry(root, i));
+        }
+
+        // without the option, the entries are uncompressed from the start of the tar file
+        final FileObject compressedRoot = manager.resolveFile("tgz:" + tgzFile.toURI() + "!/");
+        assertFalse(compressedRoot.getFileSystem().hasCapability(Capability.RANDOM_ACCESS_READ));
+        assertEquals(new String(content(ENTRIES - 1), StandardCharsets.UTF_8), readEntry(compressedRoot, ENTRIES - 1));
+    }
+
+    @Test
+    public void testRandomAccessContent() throws Exception {
+        final int index = ENTRIES / 2;
+        final byte[] content = content(index);
+        final FileObject file = resolveRoot().resolveFile(name(index));
+        final RandomAccessContent rac = file.getContent().getRandomAccessContent(RandomAccessMode.READ);
+        try {
+            assertEquals(content.length, rac.length());
+            rac.seek(5);
+            assertEquals(content[5], rac.readByte());
+            assertEquals(6, rac.getFilePointer());
+
+            rac.seek(content.length - 1);
+            assertEquals(content[content.length - 1], rac.readByte());
+            assertEquals(-1, rac.getInputStream().read());
+
+            rac.seek(0);
+            final byte[] read = new byte[content.length];
+            rac.readFully(read);
+            assertEquals(new String(content, StandardCharsets.UTF_8), new String(read, StandardCharsets.UTF_8));
+        } finally {
+            rac.close();
+        }
+    }
+
+    private FileObject resolveRoot() throws Exception {
+        return manager.resolveFile("tar:" + tarFile.toURI() + "!/");
+    }
+
+    private static String readEntry(final FileObject root, final int index) throws Exception {
+        return new String(FileUtil.getContent(root.resolveFile(name(index))), StandardCharsets.UTF_8);
+    }
+
+    private static String name(final int index) {
+        // every tenth entry has a long name stored in an extended header
+        final StringBuilder name = new StringBuilder("dir" + index % 7 + "/entry" + index);
+        if (index % 10 == 0) {
+            while (name.length() < 120) {
+                name.append("-long");
+            }
+        }
+        return name.append(".txt").toString();
+    }
+
+    private static byte[] content(final int index) {
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i <= index % 50; i++) {
+            content.append("line ").append(i).append(" of entry ").append(index).append('\n');
+        }
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.vfs2.provider.AbstractBlockRandomAccessContent;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+import org.junit.Test;
+
+/**
+ * Tests {@link AbstractBlockRandomAccessContent}.
+ */
+public class BlockRandomAccessContentTest {
+    private static final int BLOCK_SIZE = 16;
+
+    private static final byte[] CONTENT = new byte[BLOCK_SIZE * 10 + 5];
+
+    static {
+        for (int i = 0; i < CONTENT.length; i++) {
+            CONTENT[i] = (byte) i;
+        }
+    }
+
+    /**
+     * Serves the ranges from memory and records them.
+     */
+    private static final class MemoryContent extends AbstractBlockRandomAccessContent {
+        private final List<String> ranges = new ArrayList<>();
+
+        private MemoryContent(final int maxBlocks, final boolean readAhead) {
+            super(RandomAccessMode.READ, BLOCK_SIZE, maxBlocks, readAhead);
+        }
+
+        @Override
+        protected void readRange(final long offset, final byte[] b) throws IOException {
+            ranges.add(offset + "-" + (offset + b.length - 1));
+            System.arraycopy(CONTENT, (int) offset, b, 0, b.length);
+        }
+
+        @Override
+        protected long getContentLength() throws IOException {
+            return CONTENT.length;
+        }
+    }
+
+    @Test
+    public void testReadAcrossBlocks() throws Exception {
+        final MemoryContent rac = new MemoryContent(4, false);
+        rac.seek(BLOCK_SIZE - 2);
+        assertEquals(((BLOCK_SIZE - 2) << 24) | ((BLOCK_SIZE - 1) << 16) | (BLOCK_SIZE << 8) | (BLOCK_SIZE + 1),
+                rac.readInt());
+        assertEquals(BLOCK_SIZE + 2, rac.getFilePointer());
+
+        // served from the cache
+        rac.seek(0);
+        final byte[] b = new byte[BLOCK_SIZE * 2];
+        rac.readFully(b);
+        for (int i = 0; i < b.length; i++) {
+            assertEquals(CONTENT[i], b[i]);
+        }
+        assertEquals(2, rac.ranges.size());
+        rac.close();
+    }
+
+    @Test
+    public void testReadAheadWhenSequential() throws Exception {
+        final MemoryContent rac = new MemoryContent(4, true);
+        final InputStream in = rac.getInputStream();
+        final byte[] read = new byte[CONTENT.length];
+        int done = 0;
+        int n;
+        while ((n = in.read(read, done, read.length - done)) > 0) {
+            done += n;
+        }
+        assertArrayEquals(CONTENT, read);
+        assertEquals(-1, in.read());
+        // the first block alone, then two blocks per request, the last one short
+        assertEquals("[0-15, 16-47, 48-79, 80-111, 112-143, 144-164]", rac.ranges.toString());
+        rac.close();
+    }
+
+    @Test
+    public void testNoReadAheadWhenSeeking() throws Exception {
+        final MemoryContent rac = new MemoryContent(4, true);
+        rac.seek(BLOCK_SIZE * 5);
+        rac.readByte();
+        rac.seek(BLOCK_SIZE * 2);
+        rac.readByte();
+        assertEquals("[80-95, 32-47]", rac.ranges.toString());
+        rac.close();
+    }
+
+    @Test
+    public void testLeastRecentlyUsedBlocksAreEvicted() throws Exception {
+        final MemoryContent rac = new MemoryContent(2, false);
+        for (final int block : new int[] { 0, 1, 0, 2, 0, 1 }) {
+            rac.seek(block * BLOCK_SIZE);
+            assertEquals(CONTENT[block * BLOCK_SIZE], rac.readByte());
+        }
+        // block 1 was evicted by block 2
+        assertEquals("[0-15, 16-31, 32-47, 16-31]", rac.ranges.toString());
+        rac.close();
+    }
+
+    @Test
+    public void testEndOfContent() throws Exception {
+        final MemoryContent rac = new MemoryContent(2, true);
+        assertEquals(CONTENT.length, rac.length());
+        rac.seek(CONTENT.length - 1);
+        assertEquals(CONTENT[CONTENT.length - 1], rac.readByte());
+        try {
+            rac.readByte();
+            fail("Expected the end of the content");
+        } catch (final EOFException e) {
+            // expected
+        }
+        rac.close();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystem;
+import org.apache.commons.vfs2.cache.DefaultFilesCache;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests resolving files of one file system from several threads at once.
+ */
+public class ConcurrentResolveFileTestCase {
+
+    private static final int THREADS = 16;
+
+    private static final int FILES = 200;
+
+    private DefaultFileSystemManager manager;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.setFilesCache(new DefaultFilesCache());
+        manager.init();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        manager.close();
+    }
+
+    /**
+     * Threads racing to resolve the same uncached names must all get the same instance.
+     */
+    @Test
+    public void testConcurrentResolveReturnsSameInstance() throws Exception {
+        final FileSystem fs = manager.resolveFile("ram:///").getFileSystem();
+        final CountDownLatch start = new CountDownLatch(1);
+
+        final List<Future<FileObject[]>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(new Callable<FileObject[]>() {
+                @Override
+                public FileObject[] call() throws Exception {
+                    start.await();
+                    final FileObject[] files = new FileObject[FILES];
+                    for (int i = 0; i < FILES; i++) {
+                        files[i] = fs.resolveFile("/dir/file" + i);
+                    }
+                    return files;
+                }
+            }));
+        }
+        start.countDown();
+
+        final FileObject[] expected = futures.get(0).get();
+        for (final Future<FileObject[]> future : futures) {
+            final FileObject[] actual = future.get();
+            for (int i = 0; i < FILES; i++) {
+                Assert.assertSame(expected[i], actual[i]);
+            }
+        }
+    }
+
+    /**
+     * Cached metadata is read without the file system lock, make sure concurrent readers still see consistent state.
+     */
+    @Test
+    public void testConcurrentGetChildren() throws Exception {
+        final FileObject dir = manager.resolveFile("ram:///dir");
+        for (int i = 0; i < FILES; i++) {
+            dir.resolveFile("file" + i).createFile();
+        }
+        final CountDownLatch start = new CountDownLatch(1);
+
+        final List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    start.await();
+                    int count = 0;
+                    for (int i = 0; i < 10; i++) {
+                        for (final FileObject child : dir.getChildren()) {
+                            Assert.assertTrue(child.isFile());
+                            count++;
+                        }
+                    }
+                    return Integer.valueOf(count);
+                }
+            }));
+        }
+        start.countDown();
+
+        for (final Future<Integer> future : futures) {
+            Assert.assertEquals(10 * FILES, future.get().intValue());
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.webdav.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.vfs2.FileDepthSelector;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSelector;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.Selectors;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.webdav.WebdavFileProvider;
+import org.apache.commons.vfs2.provider.webdav.WebdavFileSystemConfigBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests listing a WebDAV tree ahead of {@code findFiles}.
+ */
+public class WebdavFindFilesTest {
+    /** The tree on the server, collections end with a slash. */
+    private static final List<String> TREE = Arrays.asList("/", "/a/", "/a/x.txt", "/a/b/", "/a/b/y.txt", "/c/",
+            "/c/z.txt", "/empty/");
+
+    private static final Set<String> FILES = new TreeSet<>(Arrays.asList("/a/x.txt", "/a/b/y.txt", "/c/z.txt"));
+
+    private final AtomicInteger depthOne = new AtomicInteger();
+
+    private final AtomicInteger depthInfinity = new AtomicInteger();
+
+    private volatile boolean refuseInfinity;
+
+    private HttpServer server;
+
+    private DefaultFileSystemManager manager;
+
+    private FileSystemOptions opts;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new DavHandler());
+        server.start();
+
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("webdav", new WebdavFileProvider());
+        manager.init();
+
+        opts = new FileSystemOptions();
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testFolderByFolder() throws Exception {
+        assertEquals(FILES, find(Selectors.SELECT_FILES));
+        assertEquals(0, depthInfinity.get());
+        // one request per folder, sent when the walk reaches it
+        assertEquals(5, depthOne.get());
+    }
+
+    @Test
+    public void testDepthInfinity() throws Exception {
+        WebdavFileSystemConfigBuilder.getInstance().setListingDepthInfinity(opts, true);
+        assertEquals(FILES, find(Selectors.SELECT_FILES));
+        assertEquals(1, depthInfinity.get());
+        assertEquals(0, depthOne.get());
+    }
+
+    @Test
+    public void testConcurrentListing() throws Exception {
+        final WebdavFileSystemConfigBuilder builder = WebdavFileSystemConfigBuilder.getInstance();
+        builder.setListingDepthInfinity(opts, true);
+        builder.setListingThreads(opts, 4);
+        refuseInfinity = true;
+        assertEquals(FILES, find(Selectors.SELECT_FILES));
+        assertEquals(1, depthInfinity.get());
+        // one request per folder
+        assertEquals(5, depthOne.get());
+    }
+
+    @Test
+    public void testConcurrentListingFollowsSelector() throws Exception {
+        WebdavFileSystemConfigBuilder.getInstance().setListingThreads(opts, 4);
+        final Set<String> found = find(new FileDepthSelector(1, 1));
+        assertEquals(new TreeSet<>(Arrays.asList("/a", "/c", "/empty")), found);
+        // only the base folder
+        assertEquals(1, depthOne.get());
+    }
+
+    private Set<String> find(final FileSelector selector) throws Exception {
+        final FileObject folder = manager.resolveFile("webdav://localhost:" + server.getAddress().getPort() + "/",
+                opts);
+        folder.getType();
+        depthOne.set(0);
+        depthInfinity.set(0);
+
+        final Set<String> found = new TreeSet<>();
+        for (final FileObject file : folder.findFiles(selector)) {
+            found.add(file.getName().getPath());
+        }
+        return found;
+    }
+
+    private static byte[] multistatus(final List<String> paths) {
+        final StringBuilder builder = new StringBuilder(
+                "<?xml version=\"1.0\" encoding=\"utf-8\"?><D:multistatus xmlns:D=\"DAV:\">");
+        for (final String path : paths) {
+            builder.append("<D:response><D:href>").append(path).append("</D:href><D:propstat><D:prop>");
+            if (path.endsWith("/")) {
+                builder.append("<D:resourcetype><D:collection/></D:resourcetype>");
+            } else {
+                builder.append("<D:resourcetype/><D:getcontenttype>text/plain</D:getcontenttype>");
+                builder.append("<D:getcontentlength>1</D:getcontentlength>");
+            }
+            builder.append("</D:prop><D:status>HTTP/1.1 200 OK</D:status></D:propstat></D:response>");
+        }
+        return builder.append("</D:multistatus>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Serves {@link #TREE}, and counts the PROPFIND requests by depth.
+     */
+    private final class DavHandler implements HttpHandler {
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException {
+            try (final InputStream in = exchange.getRequestBody()) {
+                while (in.read() != -1) {
+                    // skip the request body
+                }
+            }
+            if (!"PROPFIND".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+                return;
+            }
+
+            final String depth = exchange.getRequestHeaders().getFirst("Depth");
+            final boolean infinity = "infinity".equals(depth);
+            if (infinity) {
+                depthInfinity.incrementAndGet();
+                if (refuseInfinity) {
+                    exchange.sendResponseHeaders(403, -1);
+                    exchange.close();
+                    return;
+                }
+            } else if ("1".equals(depth)) {
+                depthOne.incrementAndGet();
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            if (!TREE.contains(path) && TREE.contains(path + "/")) {
+                path = path + "/";
+            }
+            if (!TREE.contains(path)) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+
+            final List<String> paths = new ArrayList<>();
+            paths.add(path);
+            if (path.endsWith("/") && !"0".equals(depth)) {
+                for (final String other : TREE) {
+                    if (other.startsWith(path) && !other.equals(path)) {
+                        final String rest = other.substring(path.length());
+                        final int slash = rest.indexOf('/');
+                        if (infinity || slash < 0 || slash == rest.length() - 1) {
+                            paths.add(other);
+                        }
+                    }
+                }
+            }
+            final byte[] body = multistatus(paths);
+            exchange.getResponseHeaders().set("Content-Type", "application/xml; charset=utf-8");
+            exchange.sendResponseHeaders(207, body.length);
+            try (final OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.webdav.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.webdav.WebdavFileProvider;
+import org.apache.http.client.utils.DateUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests that listing a WebDAV folder fills in the properties of its children.
+ */
+public class WebdavListChildrenTest {
+    private static final long MODIFIED = 1500000000000L;
+
+    private static final String FOLDER = response("/", null, -1);
+
+    private static final String FILE_A = response("/a.txt", "text/plain", 10);
+
+    private static final String FILE_B = response("/b.bin", "application/octet-stream", 2000);
+
+    private static final String SUB_FOLDER = response("/sub/", null, -1);
+
+    private final AtomicInteger propfinds = new AtomicInteger();
+
+    private HttpServer server;
+
+    private DefaultFileSystemManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new DavHandler());
+        server.start();
+
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("webdav", new WebdavFileProvider());
+        manager.init();
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testListedProperties() throws Exception {
+        final FileObject folder = manager.resolveFile("webdav://localhost:" + server.getAddress().getPort() + "/");
+        final FileObject[] children = folder.getChildren();
+        assertEquals(3, children.length);
+
+        final int requests = propfinds.get();
+        for (final FileObject child : children) {
+            final String name = child.getName().getBaseName();
+            if ("sub".equals(name)) {
+                assertEquals(FileType.FOLDER, child.getType());
+            } else {
+                assertEquals(FileType.FILE, child.getType());
+                assertEquals("a.txt".equals(name) ? 10 : 2000, child.getContent().getSize());
+                assertEquals(MODIFIED, child.getContent().getLastModifiedTime());
+            }
+        }
+        assertEquals(requests, propfinds.get());
+
+        // a refresh fetches the properties again
+        final FileObject file = folder.resolveFile("a.txt");
+        file.refresh();
+        assertEquals(10, file.getContent().getSize());
+        assertTrue(propfinds.get() > requests);
+    }
+
+    private static String response(final String href, final String contentType, final long length) {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("<D:response><D:href>").append(href).append("</D:href><D:propstat><D:prop>");
+        if (contentType == null) {
+            builder.append("<D:resourcetype><D:collection/></D:resourcetype>");
+        } else {
+            builder.append("<D:resourcetype/>");
+            builder.append("<D:getcontenttype>").append(contentType).append("</D:getcontenttype>");
+            builder.append("<D:getcontentlength>").append(length).append("</D:getcontentlength>");
+            builder.append("<D:getetag>\"").append(length).append("\"</D:getetag>");
+        }
+        builder.append("<D:getlastmodified>").append(DateUtils.formatDate(new Date(MODIFIED)))
+                .append("</D:getlastmodified>");
+        builder.append("</D:prop><D:status>HTTP/1.1 200 OK</D:status></D:propstat></D:response>");
+        return builder.toString();
+    }
+
+    private static byte[] multistatus(final String... responses) {
+        final StringBuilder builder = new StringBuilder(
+                "<?xml version=\"1.0\" encoding=\"utf-8\"?><D:multistatus xmlns:D=\"DAV:\">");
+        for (final String response : responses) {
+            builder.append(response);
+        }
+        return builder.append("</D:multistatus>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Serves a folder with two files and a sub folder, and counts the PROPFIND requests.
+     */
+    private final class DavHandler implements HttpHandler {
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException {
+            try (final InputStream in = exchange.getRequestBody()) {
+                while (in.read() != -1) {
+                    // skip the request body
+                }
+            }
+            if (!"PROPFIND".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+                return;
+            }
+
+            propfinds.incrementAndGet();
+            final String path = exchange.getRequestURI().getPath();
+            final byte[] body;
+            if ("/".equals(path)) {
+                body = multistatus(FOLDER, FILE_A, FILE_B, SUB_FOLDER);
+            } else if ("/a.txt".equals(path)) {
+                body = multistatus(FILE_A);
+            } else if ("/b.bin".equals(path)) {
+                body = multistatus(FILE_B);
+            } else if ("/sub/".equals(path) || "/sub".equals(path)) {
+                body = multistatus(SUB_FOLDER);
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/xml; charset=utf-8");
+            exchange.sendResponseHeaders(207, body.length);
+            try (final OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
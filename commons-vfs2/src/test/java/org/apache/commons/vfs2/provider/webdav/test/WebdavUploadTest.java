@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.webdav.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.impl.DefaultFileReplicator;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.webdav.WebdavFileProvider;
+import org.apache.commons.vfs2.provider.webdav.WebdavFileSystemConfigBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the chunked and spooled uploads of the WebDAV file system against a minimal server.
+ */
+public class WebdavUploadTest {
+    private static final String COLLECTION = "<?xml version=\"1.0\" encoding=\"utf-8\"?>"
+            + "<D:multistatus xmlns:D=\"DAV:\"><D:response><D:href>/</D:href><D:propstat><D:prop>"
+            + "<D:resourcetype><D:collection/></D:resourcetype></D:prop>"
+            + "<D:status>HTTP/1.1 200 OK</D:status></D:propstat></D:response></D:multistatus>";
+
+    private static final byte[] CONTENT = new byte[1024 * 1024];
+
+    static {
+        for (int i = 0; i < CONTENT.length; i++) {
+            CONTENT[i] = (byte) (i * 17);
+        }
+    }
+
+    private volatile int putStatus = 201;
+
+    private volatile long received;
+
+    private volatile byte[] uploaded;
+
+    private volatile String contentLength;
+
+    private volatile String transferEncoding;
+
+    private HttpServer server;
+
+    private DefaultFileSystemManager manager;
+
+    private FileSystemOptions opts;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new DavHandler());
+        server.start();
+
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("webdav", new WebdavFileProvider());
+        manager.setTemporaryFileStore(new DefaultFileReplicator());
+        manager.init();
+
+        opts = new FileSystemOptions();
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testChunkedUpload() throws Exception {
+        WebdavFileSystemConfigBuilder.getInstance().setChunkedUpload(opts, true);
+        final FileObject file = resolve();
+        try (final OutputStream out = file.getContent().getOutputStream()) {
+            out.write(CONTENT, 0, CONTENT.length / 2);
+            // the server receives the content before the stream is closed
+            final long deadline = System.currentTimeMillis() + 10000;
+            while (received == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(received > 0);
+            out.write(CONTENT, CONTENT.length / 2, CONTENT.length - CONTENT.length / 2);
+        }
+        assertArrayEquals(CONTENT, uploaded);
+        assertEquals("chunked", transferEncoding);
+        assertNull(contentLength);
+    }
+
+    @Test
+    public void testSpooledUpload() throws Exception {
+        // spooled uploads are the default, servers that refuse chunked requests keep working
+        final FileObject file = resolve();
+        try (final OutputStream out = file.getContent().getOutputStream()) {
+            out.write(CONTENT);
+            assertEquals(0, received);
+        }
+        assertArrayEquals(CONTENT, uploaded);
+        assertEquals(Integer.toString(CONTENT.length), contentLength);
+        assertNull(transferEncoding);
+    }
+
+    @Test
+    public void testFailedUpload() throws Exception {
+        putStatus = 403;
+        final FileObject file = resolve();
+        try (final OutputStream out = file.getContent().getOutputStream()) {
+            out.write("denied".getBytes(StandardCharsets.UTF_8));
+        } catch (final IOException e) {
+            return;
+        }
+        fail("Expected the upload to fail");
+    }
+
+    private FileObject resolve() throws Exception {
+        return manager.resolveFile("webdav://localhost:" + server.getAddress().getPort() + "/file.bin", opts);
+    }
+
+    /**
+     * Serves an empty root collection and accepts uploads.
+     */
+    private final class DavHandler implements HttpHandler {
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException {
+            final String method = exchange.getRequestMethod();
+            final boolean root = "/".equals(exchange.getRequestURI().getPath());
+            if ("PUT".equals(method)) {
+                put(exchange);
+                return;
+            }
+            drain(exchange);
+            if ("PROPFIND".equals(method) && root) {
+                final byte[] body = COLLECTION.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/xml; charset=utf-8");
+                exchange.sendResponseHeaders(207, body.length);
+                try (final OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+                return;
+            }
+            exchange.sendResponseHeaders("PROPFIND".equals(method) ? 404 : 200, -1);
+            exchange.close();
+        }
+
+        private void put(final HttpExchange exchange) throws IOException {
+            contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+            transferEncoding = exchange.getRequestHeaders().getFirst("Transfer-Encoding");
+            final ByteArrayOutputStream content = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            try (final InputStream in = exchange.getRequestBody()) {
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    content.write(buffer, 0, n);
+                    received += n;
+                }
+            }
+            if (putStatus == 201) {
+                uploaded = content.toByteArray();
+            }
+            exchange.sendResponseHeaders(putStatus, -1);
+            exchange.close();
+        }
+
+        private void drain(final HttpExchange exchange) throws IOException {
+            try (final InputStream in = exchange.getRequestBody()) {
+                while (in.read() != -1) {
+                    // skip the request body
+                }
+            }
+        }
+    }
+}
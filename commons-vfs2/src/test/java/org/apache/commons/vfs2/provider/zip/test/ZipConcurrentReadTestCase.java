@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.provider.zip.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.vfs2.Capability;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.FileUtil;
+import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.local.DefaultLocalFileProvider;
+import org.apache.commons.vfs2.provider.zip.ZipFileProvider;
+import org.apache.commons.vfs2.provider.zip.ZipFileSystemConfigBuilder;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests reading the entries of a zip file concurrently, with stored and compressed entries.
+ */
+public class ZipConcurrentReadTestCase {
+    private static final int ENTRIES = 100;
+
+    private DefaultFileSystemManager manager;
+
+    private File zipFile;
+
+    private FileObject root;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("file", new DefaultLocalFileProvider());
+        manager.addProvider("zip", new ZipFileProvider());
+        manager.init();
+
+        zipFile = File.createTempFile("vfs-concurrent", ".zip");
+        try (final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            for (int i = 0; i < ENTRIES; i++) {
+                final byte[] content = content(i);
+                final ZipEntry entry = new ZipEntry(name(i));
+                if (i % 2 == 0) {
+                    final CRC32 crc = new CRC32();
+                    crc.update(content);
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(content.length);
+                    entry.setCrc(crc.getValue());
+                }
+                out.putNextEntry(entry);
+                out.write(content);
+                out.closeEntry();
+            }
+        }
+
+        final FileSystemOptions opts = new FileSystemOptions();
+        ZipFileSystemConfigBuilder.getInstance().setConcurrentReads(opts, true);
+        root = manager.resolveFile("zip:" + zipFile.toURI() + "!/", opts);
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+        zipFile.delete();
+    }
+
+    @Test
+    public void testReadEntriesConcurrently() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < ENTRIES; i++) {
+                final int index = i;
+                futures.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        return new String(FileUtil.getContent(root.resolveFile(name(index))), StandardCharsets.UTF_8);
+                    }
+                }));
+            }
+            for (int i = 0; i < ENTRIES; i++) {
+                assertEquals(new String(content(i), StandardCharsets.UTF_8), futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRandomAccessContent() throws Exception {
+        assertTrue(root.getFileSystem().hasCapability(Capability.RANDOM_ACCESS_READ));
+        // a stored and a compressed entry
+        assertRandomAccess(ENTRIES - 2);
+        assertRandomAccess(ENTRIES - 1);
+    }
+
+    private void assertRandomAccess(final int index) throws Exception {
+        final byte[] content = content(index);
+        final RandomAccessContent rac = root.resolveFile(name(index)).getContent()
+                .getRandomAccessContent(RandomAccessMode.READ);
+        try {
+            assertEquals(content.length, rac.length());
+            rac.seek(content.length - 1);
+            assertEquals(content[content.length - 1], rac.readByte());
+            assertEquals(-1, rac.getInputStream().read());
+
+            rac.seek(7);
+            assertEquals(content[7], rac.readByte());
+            assertEquals(8, rac.getFilePointer());
+
+            // multi-byte reads, and a seek back into what was just read
+            final ByteBuffer expected = ByteBuffer.wrap(content);
+            assertEquals(expected.getInt(8), rac.readInt());
+            assertEquals(expected.getLong(12), rac.readLong());
+            assertEquals(20, rac.getFilePointer());
+            rac.seek(2);
+            assertEquals(expected.getShort(2), rac.readShort());
+            assertEquals(4, rac.getFilePointer());
+
+            rac.seek(0);
+            final byte[] read = new byte[content.length];
+            rac.readFully(read);
+            assertEquals(new String(content, StandardCharsets.UTF_8), new String(read, StandardCharsets.UTF_8));
+        } finally {
+            rac.close();
+        }
+    }
+
+    private static String name(final int index) {
+        return "dir" + index % 5 + "/entry" + index + ".txt";
+    }
+
+    private static byte[] content(final int index) {
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i <= index; i++) {
+            content.append("line ").append(i).append(" of entry ").append(index).append('\n');
+        }
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
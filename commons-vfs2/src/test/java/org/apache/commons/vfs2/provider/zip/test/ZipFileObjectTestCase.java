@@ -26,7 +26,11 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemManager;
+import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.VFS;
+import org.apache.commons.vfs2.cache.NullFilesCache;
+import org.apache.commons.vfs2.impl.StandardFileSystemManager;
+import org.apache.commons.vfs2.provider.zip.ZipFileSystemConfigBuilder;
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -179,4 +183,30 @@ public class ZipFileObjectTestCase {
         }
         assertDelete(newZipFile);
     }
+
+    /**
+     * With the lazy index the file objects are only cached by the manager, so they are not all kept once resolved.
+     */
+    @Test
+    public void testLazyIndexUsesManagerCache() throws IOException {
+        final File newZipFile = createTempFile();
+        final String uri = "zip:file:" + newZipFile.getAbsolutePath() + "!" + NESTED_FILE_1;
+        final StandardFileSystemManager manager = new StandardFileSystemManager();
+        manager.setFilesCache(new NullFilesCache());
+        manager.init();
+        try {
+            final FileSystemOptions lazy = new FileSystemOptions();
+            ZipFileSystemConfigBuilder.getInstance().setLazyIndex(lazy, true);
+            final FileObject lazyFile = manager.resolveFile(uri, lazy);
+            Assert.assertNotSame(lazyFile, manager.resolveFile(uri, lazy));
+            getInputStreamAndAssert(lazyFile, "1");
+
+            // the file objects of an eager index are all held by the file system
+            final FileObject eagerFile = manager.resolveFile(uri);
+            Assert.assertSame(eagerFile, manager.resolveFile(uri));
+        } finally {
+            manager.close();
+        }
+        assertDelete(newZipFile);
+    }
 }
@@ -19,7 +19,9 @@ package org.apache.commons.vfs2.test;
 import org.apache.commons.vfs2.CacheStrategy;
 import org.apache.commons.vfs2.Capability;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemConfigBuilder;
 import org.apache.commons.vfs2.Selectors;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
 import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
 import org.apache.commons.vfs2.impl.VirtualFileSystem;
 import org.apache.commons.vfs2.provider.ram.RamFileObject;
@@ -132,6 +134,48 @@ public class ProviderCacheStrategyTests extends AbstractProviderTestCase {
         assertContains(fos, "file1.txt");
     }
 
+    /**
+     * Test the on_expiry strategy
+     */
+    public void testOnExpiryCache() throws Exception {
+        final FileObject scratchFolder = getWriteFolder();
+        if (FileObjectUtils.isInstanceOf(getBaseFolder(), RamFileObject.class)
+                || scratchFolder.getFileSystem() instanceof VirtualFileSystem) {
+            // cant check ram filesystem as every manager holds its own ram filesystem data
+            return;
+        }
+
+        scratchFolder.delete(Selectors.EXCLUDE_SELF);
+
+        final DefaultFileSystemManager fs = createManager();
+        fs.setCacheStrategy(CacheStrategy.ON_EXPIRY);
+        fs.init();
+        final FileObject foBase2 = getBaseTestFolder(fs);
+        FileSystemConfigBuilder builder = fs.getFileSystemConfigBuilder(foBase2.getName().getScheme());
+        if (builder == null) {
+            builder = DefaultFileSystemConfigBuilder.getInstance();
+        }
+        final long timeToLive = builder.getCacheTimeToLive(foBase2.getFileSystem().getFileSystemOptions());
+
+        final FileObject cachedFolder = foBase2.resolveFile(scratchFolder.getName().getPath());
+
+        final long listed = System.currentTimeMillis();
+        FileObject[] fos = cachedFolder.getChildren();
+        assertContainsNot(fos, "file1.txt");
+
+        scratchFolder.resolveFile("file1.txt").createFile();
+
+        fos = cachedFolder.getChildren();
+        if (System.currentTimeMillis() - listed < timeToLive) {
+            assertContainsNot(fos, "file1.txt");
+        }
+
+        Thread.sleep(timeToLive + 100);
+
+        fos = cachedFolder.getChildren();
+        assertContains(fos, "file1.txt");
+    }
+
     public void assertContainsNot(final FileObject[] fos, final String string) {
         for (final FileObject fo : fos) {
             if (string.equals(fo.getName().getBaseName())) {
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.util;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSelectInfo;
+import org.apache.commons.vfs2.FileSelector;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
+import org.apache.commons.vfs2.FileUtil;
+import org.apache.commons.vfs2.Selectors;
+import org.apache.commons.vfs2.impl.DefaultFileSystemConfigBuilder;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
+import org.apache.commons.vfs2.provider.ram.RamFileProvider;
+import org.apache.commons.vfs2.provider.ram.RamFileSystemConfigBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link ParallelFileCopier}.
+ */
+public class ParallelFileCopierTest {
+
+    private static final int FOLDERS = 5;
+
+    private static final int FILES = 40;
+
+    private DefaultFileSystemManager manager;
+
+    private FileObject src;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = new DefaultFileSystemManager();
+        manager.addProvider("ram", new RamFileProvider());
+        manager.init();
+
+        src = manager.resolveFile("ram:///src");
+        for (int i = 0; i < FOLDERS; i++) {
+            for (int j = 0; j < FILES; j++) {
+                write(src.resolveFile("dir" + i + "/sub/file" + j + ".txt"), "content " + i + "/" + j);
+            }
+        }
+        src.resolveFile("empty").createFolder();
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    public void testCopy() throws Exception {
+        final AtomicInteger files = new AtomicInteger();
+        final AtomicLong bytes = new AtomicLong();
+        final ParallelFileCopier copier = new ParallelFileCopier(4);
+        // forces the files to be copied a few at a time
+        copier.setMaxBytesInFlight(32);
+        copier.setListener(new ParallelFileCopier.CopyListener() {
+            @Override
+            public void fileCopied(final FileObject srcFile, final FileObject destFile, final long size) {
+                files.incrementAndGet();
+                bytes.addAndGet(size);
+            }
+        });
+
+        final FileObject dest = manager.resolveFile("ram:///dest");
+        copier.copy(src, Selectors.SELECT_ALL, dest);
+
+        assertCopied(dest);
+        // all files, the folders dir*, dir*/sub, empty and the base folder
+        Assert.assertEquals(FOLDERS * FILES + FOLDERS * 2 + 2, files.get());
+        Assert.assertTrue(bytes.get() > 0);
+    }
+
+    @Test
+    public void testCopyFromWithThreads() throws Exception {
+        final FileSystemOptions opts = new FileSystemOptions();
+        DefaultFileSystemConfigBuilder.getInstance().setCopyThreads(opts, 4);
+        final FileObject dest = manager.resolveFile("ram:///dest", opts);
+
+        dest.copyFrom(src, Selectors.SELECT_ALL);
+        assertCopied(dest);
+    }
+
+    @Test
+    public void testCopyIntoDescendant() throws Exception {
+        final FileObject dest = src.resolveFile("copy");
+        FileUtil.copyFiles(src, Selectors.SELECT_ALL, dest, 4);
+
+        assertCopied(dest);
+        Assert.assertFalse(dest.resolveFile("copy").exists());
+    }
+
+    @Test
+    public void testSelectorOrder() throws Exception {
+        final RecordingSelector expected = new RecordingSelector(src);
+        src.findFiles(expected);
+
+        for (final int threads : new int[] {1, 4}) {
+            final RecordingSelector actual = new RecordingSelector(src);
+            new ParallelFileCopier(threads).copy(src, actual, manager.resolveFile("ram:///dest" + threads));
+            Assert.assertEquals(expected.calls, actual.calls);
+        }
+    }
+
+    @Test
+    public void testFailures() throws Exception {
+        // too small for any of the files
+        final FileSystemOptions opts = new FileSystemOptions();
+        RamFileSystemConfigBuilder.getInstance().setMaxSize(opts, 5L);
+        final FileObject dest = manager.resolveFile("ram:///dest", opts);
+
+        try {
+            new ParallelFileCopier(4).copy(src, Selectors.SELECT_ALL, dest);
+            Assert.fail("Expected the copy to fail");
+        } catch (final FileSystemException e) {
+            Assert.assertEquals("vfs.provider/copy-files.error", e.getCode());
+            Assert.assertEquals(FOLDERS * FILES, e.getSuppressed().length);
+            for (final Throwable failure : e.getSuppressed()) {
+                Assert.assertEquals("vfs.provider/copy-file.error", ((FileSystemException) failure).getCode());
+            }
+        }
+
+        // the copy carried on after the failed files
+        Assert.assertTrue(dest.resolveFile("empty").isFolder());
+        for (int i = 0; i < FOLDERS; i++) {
+            Assert.assertTrue(dest.resolveFile("dir" + i + "/sub").isFolder());
+        }
+    }
+
+    private void assertCopied(final FileObject dest) throws Exception {
+        Assert.assertTrue(dest.resolveFile("empty").isFolder());
+        for (int i = 0; i < FOLDERS; i++) {
+            for (int j = 0; j < FILES; j++) {
+                final FileObject file = dest.resolveFile("dir" + i + "/sub/file" + j + ".txt");
+                Assert.assertEquals("content " + i + "/" + j,
+                        new String(FileUtil.getContent(file), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * Records the calls of the walk, in order.
+     */
+    private static final class RecordingSelector implements FileSelector {
+        private final FileObject base;
+
+        private final List<String> calls = new ArrayList<>();
+
+        private RecordingSelector(final FileObject base) {
+            this.base = base;
+        }
+
+        @Override
+        public boolean includeFile(final FileSelectInfo fileInfo) throws Exception {
+            calls.add("include " + base.getName().getRelativeName(fileInfo.getFile().getName()) + " "
+                    + fileInfo.getDepth());
+            return true;
+        }
+
+        @Override
+        public boolean traverseDescendents(final FileSelectInfo fileInfo) throws Exception {
+            calls.add("traverse " + base.getName().getRelativeName(fileInfo.getFile().getName()) + " "
+                    + fileInfo.getDepth());
+            return true;
+        }
+    }
+
+    private static void write(final FileObject file, final String content) throws Exception {
+        try (final OutputStream out = file.getContent().getOutputStream()) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.vfs2.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the buffering of {@link PositionedInputStream}.
+ */
+public class PositionedInputStreamTest {
+    private static final int OFFSET = 100;
+
+    private static final int LENGTH = 64 * 1024;
+
+    private File file;
+
+    private FileChannel channel;
+
+    private int channelReads;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("vfs-positioned", ".bin");
+        try (final OutputStream out = new FileOutputStream(file)) {
+            for (int i = 0; i < OFFSET + LENGTH + 10; i++) {
+                out.write(i * 7);
+            }
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        channel.close();
+        file.delete();
+    }
+
+    @Test
+    public void testSmallReadsAreBuffered() throws IOException {
+        final PositionedInputStream in = new CountingStream();
+        final DataInputStream dis = new DataInputStream(in);
+        for (int i = 0; i < LENGTH; i += 4) {
+            assertEquals(expectedInt(i), dis.readInt());
+        }
+        assertEquals(-1, dis.read());
+        assertEquals(LENGTH / PositionedInputStream.DEFAULT_BUFFER_SIZE, channelReads);
+    }
+
+    @Test
+    public void testSeekWithinBuffer() throws IOException {
+        final PositionedInputStream in = new CountingStream();
+        in.setPosition(10);
+        assertEquals(expected(10), in.read());
+        in.setPosition(5000);
+        assertEquals(expected(5000), in.read());
+        in.setPosition(1000);
+        assertEquals(expected(1000), in.read());
+        // moving around within the buffer does not read the channel again
+        in.setPosition(5000);
+        assertEquals(expected(5000), in.read());
+        assertEquals(1, channelReads);
+
+        in.setPosition(LENGTH - 1);
+        assertEquals(expected(LENGTH - 1), in.read());
+        assertEquals(-1, in.read());
+        assertEquals(2, channelReads);
+    }
+
+    @Test
+    public void testLargeReadsAreDirect() throws IOException {
+        final PositionedInputStream in = new CountingStream();
+        in.setPosition(3);
+        final byte[] b = new byte[LENGTH];
+        final int read = in.read(b, 0, b.length);
+        assertEquals(LENGTH - 3, read);
+        final byte[] expected = new byte[LENGTH];
+        for (int i = 0; i < read; i++) {
+            expected[i] = (byte) expected(3 + i);
+        }
+        assertArrayEquals(expected, b);
+        assertEquals(1, channelReads);
+        assertEquals(-1, in.read(b, 0, b.length));
+    }
+
+    private static int expected(final int position) {
+        return (OFFSET + position) * 7 & 0xff;
+    }
+
+    private static int expectedInt(final int position) {
+        return expected(position) << 24 | expected(position + 1) << 16 | expected(position + 2) << 8
+                | expected(position + 3);
+    }
+
+    /**
+     * Reads the range of the test file, counting the reads of the channel.
+     */
+    private final class CountingStream extends PositionedInputStream {
+        private CountingStream() {
+            super(OFFSET, LENGTH);
+        }
+
+        @Override
+        protected FileChannel getChannel() {
+            channelReads++;
+            return channel;
+        }
+    }
+}